@@ -0,0 +1,369 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writes log lines to one file from a background thread.
+ *
+ * DESIGN DECISIONS:
+ * - Callers only put the message (a String or a Throwable) and a millisecond timestamp into a
+ *   bounded ring buffer. No file access, no date formatting, no lock on the caller's thread
+ * - The ring buffer is a lock-free bounded queue (per-slot sequence numbers, Vyukov style):
+ *   any thread may add, and dropping the oldest entry is just another take
+ * - A daemon flusher thread drains the buffer in batches through a single writer that stays
+ *   open for the whole session, and flushes after each batch
+ * - When the buffer is full, the DropPolicy decides: drop the new message, drop the oldest
+ *   queued one, or wait briefly for the flusher (then drop). Dropped messages are counted and
+ *   reported in the log once there is room again
+ * - If the file can't be written, the lines lost with the writer's buffer count as dropped, the
+ *   failure goes to stderr once, and the file is reopened after a backoff (1s, doubling up to
+ *   30s). Meanwhile messages stay queued; once the buffer is half full the oldest are dropped,
+ *   so loggers never wait on a broken file
+ * - A shutdown hook stops the flusher after it has written everything still queued
+ *
+ * WHY: ModLog used to open, write and close the log file for every message, on whatever thread
+ * logged - usually the game thread, dozens of times per evaluation.
+ */
+public class AsyncLogWriter {
+
+    /**
+     * What to do with a message when the buffer is full.
+     */
+    public enum DropPolicy {
+        /** Discard the message being logged (cheapest; keeps the older context) */
+        DROP_NEWEST,
+        /** Discard the oldest queued message to make room (keeps the most recent context) */
+        DROP_OLDEST,
+        /** Wait up to BLOCK_TIMEOUT_NANOS for the flusher, then discard the message */
+        BLOCK;
+
+        /**
+         * Parse a config value such as "drop_oldest" (case-insensitive). Null if unknown.
+         */
+        public static DropPolicy parse(String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(java.util.Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final int CAPACITY = 8192; // power of two
+    private static final long FLUSH_INTERVAL_NANOS = 100_000_000L; // idle flusher wakes every 100ms
+    private static final long BLOCK_TIMEOUT_NANOS = 10_000_000L;   // BLOCK waits at most 10ms
+    private static final int BATCH_SIZE = 256;
+    private static final long RETRY_MIN_NANOS = 1_000_000_000L;  // first reopen after a write failure
+    private static final long RETRY_MAX_NANOS = 30_000_000_000L; // backoff cap
+
+    // Ring buffer
+    private final int mask = CAPACITY - 1;
+    private final Object[] messages = new Object[CAPACITY];
+    private final long[] timestamps = new long[CAPACITY];
+    private final AtomicLongArray sequences = new AtomicLongArray(CAPACITY);
+    private final AtomicLong tail = new AtomicLong(); // next position to add
+    private final AtomicLong head = new AtomicLong(); // next position to take
+
+    private final File file;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private volatile DropPolicy dropPolicy = DropPolicy.DROP_NEWEST;
+    private volatile boolean running = true;
+    private final Thread flusher;
+
+    // Flusher thread only
+    private Writer out = null;
+    private long droppedReported = 0;
+    private final long[] takenTimestamp = new long[1];
+    private int unflushed = 0;          // Messages handed to `out` since its last successful flush
+    private boolean reportedFailure = false;
+    private long retryAtNanos = 0;      // While non-zero, don't touch the file before this time
+    private long retryDelayNanos = 0;
+
+    public AsyncLogWriter(File file) {
+        this.file = file;
+        for (int i = 0; i < CAPACITY; i++) {
+            sequences.set(i, i);
+        }
+        flusher = new Thread(this::runFlusher, "AutoBuyer-LogWriter");
+        flusher.setDaemon(true);
+        flusher.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "AutoBuyer-LogShutdown"));
+    }
+
+    public void setDropPolicy(DropPolicy dropPolicy) {
+        if (dropPolicy != null) {
+            this.dropPolicy = dropPolicy;
+        }
+    }
+
+    public DropPolicy getDropPolicy() {
+        return dropPolicy;
+    }
+
+    /**
+     * Messages discarded because the buffer was full or the file couldn't be written.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Messages written to the file.
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * Queue a message (a String, or a Throwable whose stack trace is written). Any thread.
+     */
+    public void write(Object message) {
+        long now = System.currentTimeMillis();
+        if (!running) {
+            return;
+        }
+        if (offer(message, now)) {
+            wakeFlusherIfBusy();
+            return;
+        }
+        switch (dropPolicy) {
+            case DROP_OLDEST:
+                while (!offer(message, now)) {
+                    if (take(null) != null) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                break;
+            case BLOCK:
+                LockSupport.unpark(flusher);
+                long deadline = System.nanoTime() + BLOCK_TIMEOUT_NANOS;
+                while (!offer(message, now)) {
+                    if (System.nanoTime() >= deadline || Thread.currentThread() == flusher) {
+                        dropped.incrementAndGet();
+                        return;
+                    }
+                    LockSupport.parkNanos(50_000L);
+                }
+                break;
+            default:
+                dropped.incrementAndGet();
+                break;
+        }
+        wakeFlusherIfBusy();
+    }
+
+    /**
+     * Stop accepting messages, write out what is queued and close the file.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void wakeFlusherIfBusy() {
+        // Half full: don't wait for the flusher's next timed wake-up
+        if (tail.get() - head.get() >= CAPACITY / 2) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    private boolean offer(Object message, long timestamp) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    messages[index] = message;
+                    timestamps[index] = timestamp;
+                    sequences.lazySet(index, pos + 1); // publish
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // Full
+            } else {
+                pos = tail.get(); // Another producer took this slot
+            }
+        }
+    }
+
+    /**
+     * Take the oldest message, or null if empty.
+     * @param timestampOut Receives the message's timestamp (may be null)
+     */
+    private Object take(long[] timestampOut) {
+        long pos = head.get();
+        while (true) {
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - (pos + 1);
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    Object message = messages[index];
+                    if (timestampOut != null) {
+                        timestampOut[0] = timestamps[index];
+                    }
+                    messages[index] = null;
+                    sequences.lazySet(index, pos + CAPACITY); // free for the next lap
+                    return message;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null; // Empty
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    private void runFlusher() {
+        while (true) {
+            boolean stopping = !running;
+            int count = drainBatch();
+            flushQuietly();
+            if (count == 0) {
+                if (stopping) {
+                    break;
+                }
+                LockSupport.parkNanos(FLUSH_INTERVAL_NANOS);
+            }
+        }
+        closeQuietly();
+    }
+
+    /**
+     * Write up to BATCH_SIZE queued messages. Returns how many were written.
+     */
+    private int drainBatch() {
+        if (retryAtNanos != 0) {
+            if (running && System.nanoTime() - retryAtNanos < 0) {
+                discardWhileFailing();
+                return 0;
+            }
+            retryAtNanos = 0; // Try the file again (also one last time when stopping)
+        }
+        int count = 0;
+        try {
+            long droppedNow = dropped.get();
+            if (droppedNow != droppedReported) {
+                writeLine(System.currentTimeMillis(), "ModLog: Dropped " + (droppedNow - droppedReported) +
+                          " message(s) - log buffer full or file not writable (policy " + dropPolicy + ")");
+                droppedReported = droppedNow;
+            }
+            Object message;
+            while (count < BATCH_SIZE && (message = take(takenTimestamp)) != null) {
+                unflushed++; // Counted before writing: a message that fails halfway is lost too
+                if (message instanceof Throwable) {
+                    writeLine(takenTimestamp[0], "EXCEPTION:");
+                    java.io.PrintWriter printer = new java.io.PrintWriter(out);
+                    ((Throwable) message).printStackTrace(printer);
+                    printer.flush();
+                } else {
+                    writeLine(takenTimestamp[0], String.valueOf(message));
+                }
+                count++;
+            }
+        } catch (IOException e) {
+            writeFailed(e);
+        }
+        return count;
+    }
+
+    /**
+     * The file couldn't be written: count what the writer still held as dropped, report the
+     * failure once, close the file and back off before reopening it.
+     * WHY: Logging must never crash the game, and retrying every batch would just fail again
+     * (and print to stderr) dozens of times per second.
+     */
+    private void writeFailed(IOException e) {
+        dropped.addAndGet(unflushed);
+        unflushed = 0;
+        closeQuietly();
+        if (!reportedFailure) {
+            System.err.println("[AutoBuyerMod] Failed to write to log file: " + file.getAbsolutePath());
+            System.err.println("[AutoBuyerMod] Error: " + e.getMessage());
+            reportedFailure = true;
+        }
+        retryDelayNanos = retryDelayNanos == 0 ? RETRY_MIN_NANOS : Math.min(retryDelayNanos * 2, RETRY_MAX_NANOS);
+        retryAtNanos = System.nanoTime() + retryDelayNanos;
+    }
+
+    /**
+     * While backing off: keep the buffer at most half full by dropping the oldest messages, so
+     * DROP_NEWEST and BLOCK loggers don't fill it and then wait on a file that can't be written.
+     */
+    private void discardWhileFailing() {
+        while (tail.get() - head.get() >= CAPACITY / 2) {
+            if (take(null) == null) {
+                break;
+            }
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void writeLine(long timestamp, String text) throws IOException {
+        if (out == null) {
+            File parentDir = file.getParentFile();
+            if (parentDir != null && !parentDir.exists()) {
+                parentDir.mkdirs();
+            }
+            out = java.nio.file.Files.newBufferedWriter(file.toPath(), java.nio.charset.StandardCharsets.UTF_8,
+                java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.APPEND);
+        }
+        java.time.LocalDateTime time = java.time.LocalDateTime.ofInstant(
+            java.time.Instant.ofEpochMilli(timestamp), java.time.ZoneId.systemDefault());
+        out.write(time.toString());
+        out.write("  ");
+        out.write(text);
+        out.write(System.lineSeparator());
+    }
+
+    private void flushQuietly() {
+        if (out != null) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                writeFailed(e);
+                return;
+            }
+            if (unflushed > 0) {
+                written.addAndGet(unflushed);
+                unflushed = 0;
+                // The file works (again): a later failure is reported and backed off from scratch
+                reportedFailure = false;
+                retryDelayNanos = 0;
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) { }
+            out = null;
+        }
+    }
+}
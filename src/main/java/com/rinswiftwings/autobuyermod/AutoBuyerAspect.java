@@ -8,7 +8,6 @@
  */
 package com.rinswiftwings.autobuyermod;
 
-import com.badlogic.gdx.utils.Array;
 import fi.bugbyte.spacehaven.ai.Trading;
 import fi.bugbyte.spacehaven.world.Ship;
 import fi.bugbyte.spacehaven.world.World;
@@ -92,7 +91,7 @@ public class AutoBuyerAspect {
         // Log initialization attempt (will only write if logging is enabled after config loads)
         // This helps verify the log file path is correct
         ModLog.updateDiagnostic("AutoBuyerAspect: Static initialization block executed");
-        ModLog.log("AutoBuyerAspect: Static initialization block executed");
+        ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Static initialization block executed");
         
         // Load config from info.xml directly (modloader doesn't call loadFromConfig)
         loadConfigFromInfoXml();
@@ -118,6 +117,21 @@ public class AutoBuyerAspect {
      */
     private static final AutoBuyerCore core = new AutoBuyerCore(config);
     
+    /**
+     * Merges evaluation requests from the hooks into at most one attemptBestTrade per tick.
+     * WHY: Several hooks often fire in the same frame (crew unloading, trade bursts); each used
+     * to run the full evaluation against the same world state.
+     */
+    private static final EvaluationScheduler scheduler = core.getEvaluationScheduler();
+    
+    /**
+     * Expose live statistics and tunables over JMX (jconsole, JDK Mission Control).
+     * WHY HERE: Needs both config and core, which exist once the fields above are initialized.
+     */
+    static {
+        AutoBuyerManagement.register(core, config);
+    }
+    
     /**
      * Load configuration using hybrid approach:
      * 1. Try to get user input from modloader (config file or API)
@@ -155,12 +169,12 @@ public class AutoBuyerAspect {
             
             // Log what we found from modloader
             if (userInputValues != null && !userInputValues.isEmpty()) {
-                ModLog.log("AutoBuyerAspect: Found " + userInputValues.size() + " user input values from modloader:");
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Found {} user input values from modloader:", userInputValues.size());
                 for (java.util.Map.Entry<String, String> entry : userInputValues.entrySet()) {
-                    ModLog.log("AutoBuyerAspect:   " + entry.getKey() + " = " + entry.getValue());
+                    ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect:   {} = {}", entry.getKey(), entry.getValue());
                 }
             } else {
-                ModLog.log("AutoBuyerAspect: No user input values found from modloader");
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: No user input values found from modloader");
             }
             
             // Step 2: Load defaults from info.xml
@@ -197,10 +211,10 @@ public class AutoBuyerAspect {
             java.util.Map<String, String> mergedValues = new java.util.HashMap<>(defaultValues);
             if (userInputValues != null && !userInputValues.isEmpty()) {
                 mergedValues.putAll(userInputValues); // User input overrides defaults
-                ModLog.log("AutoBuyerAspect: Merged config: " + mergedValues.size() + " total values (info.xml defaults + user input overrides)");
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Merged config: {} total values (info.xml defaults + user input overrides)", mergedValues.size());
                 ModLog.updateDiagnostic("Merged config: " + mergedValues.size() + " total values (info.xml defaults + user input overrides)");
             } else {
-                ModLog.log("AutoBuyerAspect: No user input found, using info.xml defaults only");
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: No user input found, using info.xml defaults only");
                 ModLog.updateDiagnostic("No user input found, using info.xml defaults only");
             }
             
@@ -208,26 +222,26 @@ public class AutoBuyerAspect {
             String presetName = mergedValues.get("{config_preset}");
             // Use diagnostic() for early diagnostic (writes to both System.err and diagnostic file)
             ModLog.diagnostic("Initial preset check - {config_preset} value: '" + (presetName != null ? presetName : "null") + "'");
-            ModLog.log("AutoBuyerAspect: Checking for preset - {config_preset} value: '" + (presetName != null ? presetName : "null") + "'");
+            ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Checking for preset - {config_preset} value: '{}'", presetName);
             if (presetName != null && !presetName.trim().isEmpty()) {
                 presetName = presetName.trim();
                 ModLog.diagnostic("Preset specified: " + presetName);
-                ModLog.log("AutoBuyerAspect: Preset specified: " + presetName);
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Preset specified: {}", presetName);
                 ModLog.updateDiagnostic("Preset specified: " + presetName);
                 java.util.Map<String, String> presetValues = loadPreset(presetName);
                 if (presetValues != null && !presetValues.isEmpty()) {
                     ModLog.diagnostic("Loaded " + presetValues.size() + " values from preset: " + presetName);
-                    ModLog.log("AutoBuyerAspect: Loaded " + presetValues.size() + " values from preset: " + presetName);
+                    ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Loaded {} values from preset: {}", presetValues.size(), presetName);
                     ModLog.updateDiagnostic("Loaded " + presetValues.size() + " values from preset: " + presetName);
                     // Preset values override merged values (user input + defaults)
                     mergedValues.putAll(presetValues);
-                    ModLog.log("AutoBuyerAspect: Final merged config: " + mergedValues.size() + " total values (defaults + user input + preset overrides)");
+                    ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Final merged config: {} total values (defaults + user input + preset overrides)", mergedValues.size());
                     ModLog.updateDiagnostic("Final merged config: " + mergedValues.size() + " total values (defaults + user input + preset overrides)");
                     presetLoadedInitially = true; // Mark that preset was loaded
                     ModLog.diagnostic("Preset loaded successfully, flag set to TRUE");
                 } else {
                     ModLog.diagnostic("WARNING: Preset file not found or empty: " + presetName);
-                    ModLog.log("AutoBuyerAspect: WARNING: Preset file not found or empty: " + presetName + ", using merged values (defaults + user input)");
+                    ModLog.log(ModLog.Category.CONFIG, ModLog.Level.WARN, "AutoBuyerAspect: WARNING: Preset file not found or empty: {}, using merged values (defaults + user input)", presetName);
                     ModLog.updateDiagnostic("WARNING: Preset file not found or empty, using merged values (defaults + user input)");
                     presetLoadedInitially = false; // Preset was specified but not loaded
                     ModLog.diagnostic("Preset NOT loaded, flag set to FALSE");
@@ -235,7 +249,7 @@ public class AutoBuyerAspect {
             } else {
                 // No preset found initially - will check again after delay
                 ModLog.diagnostic("No preset specified initially (value is empty or null)");
-                ModLog.log("AutoBuyerAspect: No preset specified initially (value is empty or null)");
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: No preset specified initially (value is empty or null)");
                 ModLog.updateDiagnostic("No preset specified initially - will check again after delay");
                 presetLoadedInitially = false;
                 ModLog.diagnostic("No preset found, flag set to FALSE");
@@ -246,8 +260,7 @@ public class AutoBuyerAspect {
             
         } catch (Exception e) {
             ModLog.updateDiagnostic("ERROR loading config: " + e.getMessage());
-            ModLog.log("AutoBuyerAspect: Exception in loadConfigFromInfoXml: " + e.getMessage());
-            ModLog.log(e);
+            ModLog.log(ModLog.Category.CONFIG, ModLog.Level.ERROR, "AutoBuyerAspect: Exception in loadConfigFromInfoXml", e);
         }
     }
     
@@ -280,7 +293,7 @@ public class AutoBuyerAspect {
                  */
                 Thread.sleep(2000);
                 
-                ModLog.log("AutoBuyerAspect: Delayed config recheck - checking if preset was set by modloader");
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Delayed config recheck - checking if preset was set by modloader");
                 ModLog.updateDiagnostic("Delayed config recheck - checking if preset was set by modloader");
                 
                 recheckConfigForPreset();
@@ -289,8 +302,7 @@ public class AutoBuyerAspect {
                 ModLog.updateDiagnostic("Delayed config recheck thread interrupted");
             } catch (Exception e) {
                 ModLog.updateDiagnostic("ERROR in delayed config recheck: " + e.getMessage());
-                ModLog.log("AutoBuyerAspect: Exception in delayed config recheck: " + e.getMessage());
-                ModLog.log(e);
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.ERROR, "AutoBuyerAspect: Exception in delayed config recheck", e);
             }
         }, "AutoBuyerMod-DelayedConfigRecheck").start();
     }
@@ -315,7 +327,7 @@ public class AutoBuyerAspect {
                 return;
             }
             
-            ModLog.log("AutoBuyerAspect: Re-reading info.xml for delayed preset check");
+            ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Re-reading info.xml for delayed preset check");
             ModLog.updateDiagnostic("Re-reading info.xml for delayed preset check");
             
             java.util.Map<String, String> currentValues = parseInfoXml(infoXmlFile);
@@ -328,20 +340,20 @@ public class AutoBuyerAspect {
             String presetName = currentValues.get("{config_preset}");
             ModLog.diagnostic("[DELAYED] Found {config_preset} value: '" + (presetName != null ? presetName : "null") + "'");
             ModLog.diagnostic("[DELAYED] presetLoadedInitially flag: " + presetLoadedInitially);
-            ModLog.log("AutoBuyerAspect: [DELAYED] Found {config_preset} value: '" + (presetName != null ? presetName : "null") + "'");
-            ModLog.log("AutoBuyerAspect: [DELAYED] presetLoadedInitially flag: " + presetLoadedInitially);
+            ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: [DELAYED] Found {config_preset} value: '{}'", presetName);
+            ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: [DELAYED] presetLoadedInitially flag: {}", presetLoadedInitially);
             if (presetName != null && !presetName.trim().isEmpty()) {
                 presetName = presetName.trim();
                 
                 // Only load preset if it wasn't loaded initially
                 if (!presetLoadedInitially) {
-                    ModLog.log("AutoBuyerAspect: [DELAYED] Preset found in info.xml: " + presetName + " (was not loaded initially)");
+                    ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: [DELAYED] Preset found in info.xml: {} (was not loaded initially)", presetName);
                     ModLog.updateDiagnostic("[DELAYED] Preset found: " + presetName + " - loading now");
                     
                     // Load the preset
                     java.util.Map<String, String> presetValues = loadPreset(presetName);
                     if (presetValues != null && !presetValues.isEmpty()) {
-                        ModLog.log("AutoBuyerAspect: [DELAYED] Loaded " + presetValues.size() + " values from preset: " + presetName);
+                        ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: [DELAYED] Loaded {} values from preset: {}", presetValues.size(), presetName);
                         ModLog.updateDiagnostic("[DELAYED] Loaded " + presetValues.size() + " values from preset: " + presetName);
                         
                         // Merge current config with preset values
@@ -351,7 +363,7 @@ public class AutoBuyerAspect {
                         // Preset values override everything
                         mergedValues.putAll(presetValues);
                         
-                        ModLog.log("AutoBuyerAspect: [DELAYED] Applying preset values to config");
+                        ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: [DELAYED] Applying preset values to config");
                         ModLog.updateDiagnostic("[DELAYED] Applying preset values to config");
                         
                         // Reload config with preset values
@@ -360,28 +372,27 @@ public class AutoBuyerAspect {
                         // Mark preset as loaded
                         presetLoadedInitially = true;
                         
-                        ModLog.log("AutoBuyerAspect: [DELAYED] Preset successfully loaded and applied: " + presetName);
+                        ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: [DELAYED] Preset successfully loaded and applied: {}", presetName);
                         ModLog.updateDiagnostic("[DELAYED] Preset successfully loaded: " + presetName);
                         
                         // Log final configuration to show preset was applied
                         config.logFinalConfiguration();
                     } else {
-                        ModLog.log("AutoBuyerAspect: [DELAYED] WARNING: Preset file not found or empty: " + presetName);
+                        ModLog.log(ModLog.Category.CONFIG, ModLog.Level.WARN, "AutoBuyerAspect: [DELAYED] WARNING: Preset file not found or empty: {}", presetName);
                         ModLog.updateDiagnostic("[DELAYED] WARNING: Preset file not found: " + presetName);
                     }
                 } else {
-                    ModLog.log("AutoBuyerAspect: [DELAYED] Preset already loaded initially, skipping");
+                    ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: [DELAYED] Preset already loaded initially, skipping");
                     ModLog.updateDiagnostic("[DELAYED] Preset already loaded initially");
                 }
             } else {
-                ModLog.log("AutoBuyerAspect: [DELAYED] No preset found in info.xml (value is empty or null)");
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: [DELAYED] No preset found in info.xml (value is empty or null)");
                 ModLog.updateDiagnostic("[DELAYED] No preset found in info.xml");
             }
             
         } catch (Exception e) {
             ModLog.updateDiagnostic("ERROR in delayed preset recheck: " + e.getMessage());
-            ModLog.log("AutoBuyerAspect: Exception in delayed preset recheck: " + e.getMessage());
-            ModLog.log(e);
+            ModLog.log(ModLog.Category.CONFIG, ModLog.Level.ERROR, "AutoBuyerAspect: Exception in delayed preset recheck", e);
         }
     }
     
@@ -415,7 +426,7 @@ public class AutoBuyerAspect {
                 }
             }
             if (!userValues.isEmpty()) {
-                ModLog.log("AutoBuyerAspect: Found " + userValues.size() + " config values from System properties");
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Found {} config values from System properties", userValues.size());
                 ModLog.updateDiagnostic("Found " + userValues.size() + " config values from System properties");
                 return userValues;
             }
@@ -438,7 +449,7 @@ public class AutoBuyerAspect {
                 }
             }
             if (!userValues.isEmpty()) {
-                ModLog.log("AutoBuyerAspect: Found " + userValues.size() + " config values from Environment variables");
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Found {} config values from Environment variables", userValues.size());
                 ModLog.updateDiagnostic("Found " + userValues.size() + " config values from Environment variables");
                 return userValues;
             }
@@ -459,12 +470,12 @@ public class AutoBuyerAspect {
             java.io.File configFile = new java.io.File(modFolder, configFileName);
             if (configFile.exists() && configFile.isFile()) {
                 try {
-                    ModLog.log("AutoBuyerAspect: Found modloader config file: " + configFile.getAbsolutePath());
+                    ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Found modloader config file: {}", configFile.getAbsolutePath());
                     ModLog.updateDiagnostic("Found modloader config file: " + configFile.getAbsolutePath());
                     java.util.Map<String, String> fileValues = parseModloaderConfigJson(configFile);
                     if (fileValues != null && !fileValues.isEmpty()) {
                         userValues.putAll(fileValues);
-                        ModLog.log("AutoBuyerAspect: Loaded " + fileValues.size() + " user input values from: " + configFileName);
+                        ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Loaded {} user input values from: {}", fileValues.size(), configFileName);
                         ModLog.updateDiagnostic("Loaded " + fileValues.size() + " user input values from: " + configFileName);
                     }
                 } catch (Exception e) {
@@ -493,12 +504,12 @@ public class AutoBuyerAspect {
         }
         
         if (!userValues.isEmpty()) {
-            ModLog.log("AutoBuyerAspect: Total user input values found: " + userValues.size());
+            ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Total user input values found: {}", userValues.size());
             ModLog.updateDiagnostic("Total user input values found: " + userValues.size());
             return userValues;
         }
         
-        ModLog.log("AutoBuyerAspect: No modloader user input found - using info.xml defaults only");
+        ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: No modloader user input found - using info.xml defaults only");
         ModLog.updateDiagnostic("No modloader user input found - using info.xml defaults only");
         return null;
     }
@@ -618,7 +629,7 @@ public class AutoBuyerAspect {
         try {
             java.io.File presetsDir = AutoBuyerConfig.getPresetsDirectory();
             if (presetsDir == null) {
-                ModLog.log("AutoBuyerAspect: ERROR: Could not determine presets directory");
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.ERROR, "AutoBuyerAspect: ERROR: Could not determine presets directory");
                 ModLog.updateDiagnostic("ERROR: Could not determine presets directory");
                 return null;
             }
@@ -629,7 +640,7 @@ public class AutoBuyerAspect {
             // If not found, try case-insensitive search
             if (!presetFile.exists()) {
                 ModLog.diagnostic("Preset file not found with exact case: " + presetName + ".json, trying case-insensitive search");
-                ModLog.log("AutoBuyerAspect: Preset file not found with exact case: " + presetName + ".json, trying case-insensitive search");
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Preset file not found with exact case: {}.json, trying case-insensitive search", presetName);
                 String targetName = presetName.toLowerCase() + ".json";
                 java.io.File[] files = presetsDir.listFiles();
                 if (files != null) {
@@ -638,7 +649,7 @@ public class AutoBuyerAspect {
                         if (file.isFile() && file.getName().toLowerCase().equals(targetName)) {
                             presetFile = file;
                             ModLog.diagnostic("Found preset file with different case: " + file.getName() + " (requested: " + presetName + ".json)");
-                            ModLog.log("AutoBuyerAspect: Found preset file with different case: " + file.getName() + " (requested: " + presetName + ".json)");
+                            ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Found preset file with different case: {} (requested: {}.json)", file.getName(), presetName);
                             break;
                         }
                     }
@@ -650,12 +661,12 @@ public class AutoBuyerAspect {
             }
             
             if (!presetFile.exists()) {
-                ModLog.log("AutoBuyerAspect: Preset file not found: " + presetName + ".json in " + presetsDir.getAbsolutePath());
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Preset file not found: {}.json in {}", presetName, presetsDir.getAbsolutePath());
                 ModLog.updateDiagnostic("Preset file not found: " + presetFile.getAbsolutePath());
                 return null;
             }
             
-            ModLog.log("AutoBuyerAspect: Loading preset from: " + presetFile.getAbsolutePath());
+            ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Loading preset from: {}", presetFile.getAbsolutePath());
             ModLog.updateDiagnostic("Loading preset from: " + presetFile.getAbsolutePath());
             
             // Simple JSON parsing - look for "config" section
@@ -718,18 +729,17 @@ public class AutoBuyerAspect {
                 }
             }
             
-            ModLog.log("AutoBuyerAspect: Successfully loaded " + presetValues.size() + " config values from preset: " + presetName);
+            ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Successfully loaded {} config values from preset: {}", presetValues.size(), presetName);
             return presetValues;
         } catch (Exception e) {
-            ModLog.log("AutoBuyerAspect: ERROR loading preset: " + presetName + " - " + e.getMessage());
+            ModLog.log(ModLog.Category.CONFIG, ModLog.Level.ERROR, "AutoBuyerAspect: ERROR loading preset: " + presetName, e);
             ModLog.updateDiagnostic("ERROR loading preset: " + e.getMessage());
-            ModLog.log(e);
             return null;
         }
     }
     
     static {
-        ModLog.log("AutoBuyerAspect: Loaded and initialized");
+        ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Loaded and initialized");
     }
     
     /**
@@ -758,7 +768,10 @@ public class AutoBuyerAspect {
                 return;
             }
             
-            ModLog.log("AutoBuyerAspect: Trade " + tradeAgreement.id + " completed");
+            ModLog.log(ModLog.Category.HOOKS, ModLog.Level.INFO, "AutoBuyerAspect: Trade {} completed", tradeAgreement.id);
+            
+            // Keep the inbound index in sync for every player trade, not just ones with valid NPCs
+            core.onTradeClosed(tradeAgreement);
             
             if (world == null) {
                 return;
@@ -776,6 +789,7 @@ public class AutoBuyerAspect {
             } else if (ship2 != null && ship2.isPlayerShip() && ship2.isStation()) {
                 npcShip = ship1;
             }
+            core.getTradeJournal().tradeDone(tradeAgreement, npcShip != null ? npcShip.getShipId() : -1);
             
             if (npcShip != null && !npcShip.isPlayerShip() && !npcShip.isDerelict() && !npcShip.isClaimable()) {
                 // Remove trade ID from tracking to prevent memory leak
@@ -783,13 +797,12 @@ public class AutoBuyerAspect {
                 // Reset flags - a slot freed up, so we should check again
                 core.resetShipFlags(npcShip.getShipId(), npcShip);
                 // A trade slot freed up - check all eligible ships and pick the best one
-                ModLog.log("AutoBuyerAspect: Trade completed, checking all eligible ships for best trade opportunity");
-                core.attemptBestTrade(world);
+                ModLog.log(ModLog.Category.HOOKS, ModLog.Level.DEBUG, "AutoBuyerAspect: Trade completed, checking all eligible ships for best trade opportunity");
+                scheduler.request(world, EvaluationScheduler.REASON_TRADE_DONE);
             }
             
         } catch (Exception e) {
-            ModLog.log("AutoBuyerAspect: Exception in onTradeDone: " + e.getMessage());
-            ModLog.log(e);
+            ModLog.log(ModLog.Category.HOOKS, ModLog.Level.ERROR, "AutoBuyerAspect: Exception in onTradeDone", e);
         }
     }
     
@@ -804,9 +817,9 @@ public class AutoBuyerAspect {
                 return;
             }
             
-            // Enhanced cancellation logging
-            String shipName = "Unknown";
-            int npcShipId = 0;
+            // Keep the inbound index in sync, including when the player jumped away
+            core.onTradeClosed(tradeAgreement);
+            
             Ship npcShip = null;
             Ship ship2 = world != null ? world.getShip(tradeAgreement.shipId2) : null;
             Ship ship1 = world != null ? world.getShip(tradeAgreement.shipId1) : null;
@@ -817,63 +830,16 @@ public class AutoBuyerAspect {
                 npcShip = ship1;
             }
             
-            if (npcShip != null) {
-                shipName = AspectHelper.getShipName(npcShip);
-                npcShipId = npcShip.getShipId();
-            }
-            
-            // Build detailed cancellation log
-            StringBuilder cancelLog = new StringBuilder("AutoBuyerAspect: [TRADE CANCELLED] Trade " + tradeAgreement.id + 
-                " with ship " + shipName + " (ID: " + npcShipId + ")");
-            cancelLog.append(" - playerJumped: " + playerJumped);
-            cancelLog.append(", Credits: " + tradeAgreement.creditsToShip2);
-            cancelLog.append(", Items: " + tradeAgreement.toShip1.size + " types");
-            
-            // Log item details
-            if (tradeAgreement.toShip1 != null && tradeAgreement.toShip1.size > 0) {
-                cancelLog.append(" (");
-                for (int i = 0; i < tradeAgreement.toShip1.size; i++) {
-                    Trading.TradeItem item = tradeAgreement.toShip1.get(i);
-                    if (i > 0) cancelLog.append(", ");
-                    cancelLog.append("ID: ").append(item.elementaryId).append(" x").append(item.howMuch);
-                }
-                cancelLog.append(")");
-            }
+            core.getTradeJournal().tradeCancelled(tradeAgreement, npcShip != null ? npcShip.getShipId() : -1, playerJumped);
             
-            // Check ship state if available
-            if (npcShip != null && !npcShip.isPlayerShip()) {
-                try {
-                    boolean isDerelict = npcShip.isDerelict();
-                    boolean isClaimable = npcShip.isClaimable();
-                    cancelLog.append(", Ship State: derelict=").append(isDerelict).append(", claimable=").append(isClaimable);
-                    
-                    // Check if ship is still in sector
-                    fi.bugbyte.spacehaven.ai.EncounterAI.AiShipInfo aiInfo = npcShip.getAiShipInfo(false);
-                    if (aiInfo != null) {
-                        Ship playerStation = null;
-                        Array<Ship> ships = world.getShips();
-                        for (int i = 0; i < ships.size; i++) {
-                            Ship s = ships.get(i);
-                            if (s.isPlayerShip() && s.isStation()) {
-                                playerStation = s;
-                                break;
-                            }
-                        }
-                        if (playerStation != null) {
-                            boolean canTrade = aiInfo.canTradeWith(playerStation.getShipId());
-                            cancelLog.append(", CanTrade: ").append(canTrade);
-                        }
-                    }
-                } catch (Exception e) {
-                    cancelLog.append(", Ship State Check Failed: ").append(e.getMessage());
-                }
+            // Enhanced cancellation logging (only built when it will be written)
+            if (ModLog.isEnabled(ModLog.Category.HOOKS, ModLog.Level.INFO)) {
+                logTradeCancelled(tradeAgreement, playerJumped, npcShip, world);
             }
             
-            ModLog.log(cancelLog.toString());
-            
             // Don't attempt if player jumped (ship is gone)
             if (playerJumped) {
-                ModLog.log("AutoBuyerAspect: [TRADE CANCELLED] Skipping retry - player jumped (ship left sector)");
+                ModLog.log(ModLog.Category.HOOKS, ModLog.Level.DEBUG, "AutoBuyerAspect: [TRADE CANCELLED] Skipping retry - player jumped (ship left sector)");
                 return;
             }
             
@@ -887,16 +853,69 @@ public class AutoBuyerAspect {
                 // Reset flags - a slot freed up, so we should check again
                 core.resetShipFlags(npcShip.getShipId(), npcShip);
                 // A trade slot freed up - check all eligible ships and pick the best one
-                ModLog.log("AutoBuyerAspect: [TRADE CANCELLED] Trade slot freed, checking all eligible ships for best trade opportunity");
-                core.attemptBestTrade(world);
+                ModLog.log(ModLog.Category.HOOKS, ModLog.Level.DEBUG, "AutoBuyerAspect: [TRADE CANCELLED] Trade slot freed, checking all eligible ships for best trade opportunity");
+                scheduler.request(world, EvaluationScheduler.REASON_TRADE_CANCELLED);
             } else {
-                ModLog.log("AutoBuyerAspect: [TRADE CANCELLED] Skipping retry - ship invalid (derelict/claimable/player ship)");
+                ModLog.log(ModLog.Category.HOOKS, ModLog.Level.DEBUG, "AutoBuyerAspect: [TRADE CANCELLED] Skipping retry - ship invalid (derelict/claimable/player ship)");
             }
             
         } catch (Exception e) {
-            ModLog.log("AutoBuyerAspect: Exception in onTradeCancelled: " + e.getMessage());
-            ModLog.log(e);
+            ModLog.log(ModLog.Category.HOOKS, ModLog.Level.ERROR, "AutoBuyerAspect: Exception in onTradeCancelled", e);
+        }
+    }
+    
+    /**
+     * Write the [TRADE CANCELLED] line: trade, items, and what the NPC ship's state looks like now.
+     * Only called when HOOKS/INFO logging is on.
+     */
+    private void logTradeCancelled(Trading.TradeAgreement tradeAgreement, boolean playerJumped, Ship npcShip, World world) {
+        String shipName = "Unknown";
+        int npcShipId = 0;
+        if (npcShip != null) {
+            shipName = AspectHelper.getShipName(npcShip);
+            npcShipId = npcShip.getShipId();
+        }
+        
+        // Build detailed cancellation log
+        StringBuilder cancelLog = new StringBuilder("AutoBuyerAspect: [TRADE CANCELLED] Trade " + tradeAgreement.id + 
+            " with ship " + shipName + " (ID: " + npcShipId + ")");
+        cancelLog.append(" - playerJumped: " + playerJumped);
+        cancelLog.append(", Credits: " + tradeAgreement.creditsToShip2);
+        cancelLog.append(", Items: " + tradeAgreement.toShip1.size + " types");
+        
+        // Log item details
+        if (tradeAgreement.toShip1 != null && tradeAgreement.toShip1.size > 0) {
+            cancelLog.append(" (");
+            for (int i = 0; i < tradeAgreement.toShip1.size; i++) {
+                Trading.TradeItem item = tradeAgreement.toShip1.get(i);
+                if (i > 0) cancelLog.append(", ");
+                cancelLog.append("ID: ").append(item.elementaryId).append(" x").append(item.howMuch);
+            }
+            cancelLog.append(")");
+        }
+        
+        // Check ship state if available
+        if (npcShip != null && !npcShip.isPlayerShip()) {
+            try {
+                boolean isDerelict = npcShip.isDerelict();
+                boolean isClaimable = npcShip.isClaimable();
+                cancelLog.append(", Ship State: derelict=").append(isDerelict).append(", claimable=").append(isClaimable);
+                
+                // Check if ship is still in sector
+                fi.bugbyte.spacehaven.ai.EncounterAI.AiShipInfo aiInfo = npcShip.getAiShipInfo(false);
+                if (aiInfo != null) {
+                    Ship playerStation = core.findPlayerStation(world);
+                    if (playerStation != null) {
+                        boolean canTrade = aiInfo.canTradeWith(playerStation.getShipId());
+                        cancelLog.append(", CanTrade: ").append(canTrade);
+                    }
+                }
+            } catch (Exception e) {
+                cancelLog.append(", Ship State Check Failed: ").append(e.getMessage());
+            }
         }
+        
+        ModLog.log(ModLog.Category.HOOKS, ModLog.Level.INFO, cancelLog.toString());
     }
     
     /**
@@ -910,15 +929,21 @@ public class AutoBuyerAspect {
                 return;
             }
             
-            String shipName = AspectHelper.getShipName(ship);
-            ModLog.log("AutoBuyerAspect: Ship " + shipName + " (ID: " + ship.getShipId() + ") jumped/left sector");
+            if (ModLog.isEnabled(ModLog.Category.HOOKS, ModLog.Level.INFO)) {
+                ModLog.log(ModLog.Category.HOOKS, ModLog.Level.INFO, "AutoBuyerAspect: Ship {} (ID: {}) jumped/left sector",
+                           AspectHelper.getShipName(ship), ship.getShipId());
+            }
+            
+            // If the station itself jumped, the cached station handle is no longer valid
+            if (ship.getShipId() == core.getCachedPlayerStationId()) {
+                core.invalidatePlayerStation();
+            }
             
             // Flush state for this ship
             core.flushShipState(ship.getShipId(), ship);
             
         } catch (Exception e) {
-            ModLog.log("AutoBuyerAspect: Exception in onShipJumped: " + e.getMessage());
-            ModLog.log(e);
+            ModLog.log(ModLog.Category.HOOKS, ModLog.Level.ERROR, "AutoBuyerAspect: Exception in onShipJumped", e);
         }
     }
     
@@ -933,28 +958,34 @@ public class AutoBuyerAspect {
                 return;
             }
             
+            // A new player ship may be (or replace) the station - rescan on next lookup
+            if (ship.isPlayerShip()) {
+                core.invalidatePlayerStation();
+            }
+            
             // Only process NPC ships
             if (ship.isPlayerShip() || ship.isDerelict() || ship.isClaimable()) {
                 return;
             }
             
-            String shipName = AspectHelper.getShipName(ship);
-            ModLog.log("AutoBuyerAspect: NPC ship " + shipName + " (ID: " + ship.getShipId() + ") added to sector");
+            if (ModLog.isEnabled(ModLog.Category.HOOKS, ModLog.Level.INFO)) {
+                ModLog.log(ModLog.Category.HOOKS, ModLog.Level.INFO, "AutoBuyerAspect: NPC ship {} (ID: {}) added to sector",
+                           AspectHelper.getShipName(ship), ship.getShipId());
+            }
             
             // Mark ship as new and trigger initial trade attempt
-            // Use attemptBestTrade to check all eligible ships (including retries for ships with no offers)
+            // Request an evaluation of all eligible ships (including retries for ships with no offers)
             if (world != null) {
                 // Mark ship as new (allows retries before marking as "nothing to purchase")
                 // This also starts the 10-second initialization delay timer
                 core.markShipAsNew(ship.getShipId());
                 // Check all eligible ships and pick the best one (this will also retry any ships that need it)
-                // Note: New ships will be skipped until 10 seconds have passed
-                core.attemptBestTrade(world);
+                // Note: New ships are skipped until their delay timer fires, which requests another evaluation
+                scheduler.request(world, EvaluationScheduler.REASON_SHIP_ADDED);
             }
             
         } catch (Exception e) {
-            ModLog.log("AutoBuyerAspect: Exception in onShipAdded: " + e.getMessage());
-            ModLog.log(e);
+            ModLog.log(ModLog.Category.HOOKS, ModLog.Level.ERROR, "AutoBuyerAspect: Exception in onShipAdded", e);
         }
     }
     
@@ -1002,15 +1033,16 @@ public class AutoBuyerAspect {
             // Get world from the ship
             fi.bugbyte.spacehaven.world.World world = ship.getWorld();
             if (world != null) {
-                // Trigger recheck for new ships that may have passed their delay
-                // This helps with the single-ship scenario where a new ship arrives and there are no active trades
-                ModLog.log("AutoBuyerAspect: [entityBoarded hook] NPC character/robot from NPC shuttle boarded player station - triggering trade recheck");
-                core.attemptBestTrade(world);
+                // Trigger a recheck now that the NPC's crew is aboard
+                // (new ships passing their delay wake the evaluation through the timing wheel)
+                ModLog.log(ModLog.Category.HOOKS, ModLog.Level.DEBUG, "AutoBuyerAspect: [entityBoarded hook] NPC character/robot from NPC shuttle boarded player station - triggering trade recheck");
+                scheduler.request(world, EvaluationScheduler.REASON_ENTITY_BOARDED);
             }
             
         } catch (Exception e) {
             // Log but don't fail - this hook may not work if method signature is different
-            ModLog.log("AutoBuyerAspect: Exception in onEntityBoarded (hook may need method signature adjustment): " + e.getMessage());
+            ModLog.log(ModLog.Category.HOOKS, ModLog.Level.WARN, "AutoBuyerAspect: Exception in onEntityBoarded (hook may need method signature adjustment): {}",
+                       e.getMessage());
         }
     }
     
@@ -1065,13 +1097,13 @@ public class AutoBuyerAspect {
         String presetName = currentValues.get("{config_preset}");
         if (presetName != null && !presetName.trim().isEmpty()) {
             presetName = presetName.trim();
-            ModLog.log("AutoBuyerAspect: Preset specified via modloader API: " + presetName);
+            ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Preset specified via modloader API: {}", presetName);
             java.util.Map<String, String> presetValues = loadPreset(presetName);
             if (presetValues != null && !presetValues.isEmpty()) {
-                ModLog.log("AutoBuyerAspect: Loaded " + presetValues.size() + " values from preset via modloader API: " + presetName);
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerAspect: Loaded {} values from preset via modloader API: {}", presetValues.size(), presetName);
                 currentValues.putAll(presetValues); // Preset overrides everything
             } else {
-                ModLog.log("AutoBuyerAspect: WARNING: Preset file not found or empty via modloader API: " + presetName);
+                ModLog.log(ModLog.Category.CONFIG, ModLog.Level.WARN, "AutoBuyerAspect: WARNING: Preset file not found or empty via modloader API: {}", presetName);
             }
         }
         
@@ -1133,8 +1165,7 @@ public class AutoBuyerAspect {
                 }
             }
         } catch (Exception e) {
-            ModLog.log("AutoBuyerAspect: Exception in onLogisticsSwamped: " + e.getMessage());
-            ModLog.log(e);
+            ModLog.log(ModLog.Category.HOOKS, ModLog.Level.ERROR, "AutoBuyerAspect: Exception in onLogisticsSwamped", e);
         }
     }
     
@@ -1144,5 +1175,12 @@ public class AutoBuyerAspect {
     public static AutoBuyerCore getCore() {
         return core;
     }
+    
+    /**
+     * Get the evaluation scheduler (evaluation/coalescing counters).
+     */
+    public static EvaluationScheduler getScheduler() {
+        return scheduler;
+    }
 }
 
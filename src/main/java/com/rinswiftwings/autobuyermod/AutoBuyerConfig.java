@@ -29,8 +29,31 @@ public class AutoBuyerConfig {
      * WHY: Using a Map allows O(1) lookup by item ID. We only store items that have
      * target levels configured, so the map is sparse (only configured items, not all items).
      * This is more memory-efficient than an array indexed by item ID.
+     * 
+     * This is the mutable source of truth. Readers never touch it - they use targetTable.
+     * Only modified inside synchronized methods (loadFromConfig, setTargetStock, clearAllTargets).
+     */
+    private final IntIntMap targetStocks = new IntIntMap();
+    
+    /**
+     * Compiled, immutable snapshot of targetStocks that all readers use.
+     * WHY VOLATILE: Config can be reloaded from the UI/preset thread while trade evaluation
+     * reads targets. Swapping in a whole new table means a reader sees either the old targets
+     * or the new ones, never a half-updated map, and reads never allocate or copy.
      */
-    private final Map<Integer, Integer> targetStocks = new HashMap<>();
+    private volatile TargetStockTable targetTable = TargetStockTable.EMPTY;
+    
+    /**
+     * Set when targetStocks changed since the last published table.
+     * WHY: loadFromConfig() visits every item; we only rebuild the table if something moved.
+     */
+    private boolean targetsDirty = false;
+    
+    /**
+     * Bumped whenever a setting that feeds ship scoring changes (targets, buy thresholds).
+     * WHY: AutoBuyerCore caches ship scores and needs to know when config made them stale.
+     */
+    private volatile int scoringGeneration = 0;
     
     /**
      * DEPRECATED: Minimum buy mode allowed (skip Markup items).
@@ -47,68 +70,68 @@ public class AutoBuyerConfig {
     private boolean allowMarkup = true;
     
     /**
-     * Maximum markup thresholds for buying (percentage of target stock).
-     * Only buy items at each markup level if stock is below this percentage of target stock.
-     * 
-     * WHY THRESHOLD SYSTEM: Provides fine-grained control over buying behavior:
-     * - Discounted (100%): Always buy if under target (good price, no reason to wait)
-     * - Normal (70%): Buy if stock < 70% of target (normal price, buy when getting low)
-     * - Markup (40%): Only buy if stock < 40% of target (expensive, only when desperate)
-     * - Premium (20%): Only buy if stock < 20% of target (very expensive, last resort)
-     * 
-     * This allows users to be more selective about expensive items while still buying
-     * discounted items aggressively.
-     * 
-     * Example: discountBuyThreshold = 100 means always buy Discounted items if under target
-     *          markupBuyThreshold = 40 means only buy Markup items if stock < 40% of target
+     * Buy thresholds, credit limits and cooldown (see TradeTunables for what each one does).
+     * WHY ONE IMMUTABLE OBJECT: A config load, a preset or a JMX client changes several of
+     * these together. Publishing a new instance swaps them all at once, and readers
+     * (capturePlanningSnapshot, attemptAutoBuy) take one reference and use it throughout.
      */
-    private int discountBuyThreshold = 100;  // Always buy Discounted (100% of target)
-    private int normalBuyThreshold = 70;     // Buy Normal if stock < 70% of target
-    private int markupBuyThreshold = 40;     // Buy Markup if stock < 40% of target
-    private int premiumBuyThreshold = 20;     // Buy Premium if stock < 20% of target
+    private volatile TradeTunables tunables = TradeTunables.DEFAULTS;
     
     /**
-     * Optional: Maximum credits per trade.
-     * WHY: Prevents single trades from consuming too many credits. Useful for:
-     * - Early game: Keep trades small to preserve credits
-     * - Budget control: Limit spending per trade
-     * - Risk management: Don't put all credits in one trade
+     * Optional: Maximum age of cached NPC offers (in ticks of 1/60 second, real time; 0 = no age limit).
+     * WHY: Offers from NPC ships don't change instantly. Refreshing too frequently
+     * is wasteful, but an NPC's stock also changes through trades we don't see.
+     * Cached offers are refetched once they are this old.
      * 
-     * Set to Integer.MAX_VALUE (or 0 in config) for unlimited.
+     * Note: Offers are also invalidated by every trade with that ship (see AutoBuyerCore).
      */
-    private int maxCreditsPerTrade = 2000;
+    private volatile int refreshCooldownTicks = 0;
     
     /**
-     * Optional: Cooldown between attempts per ship (in game ticks, 0 = disabled).
-     * WHY: Prevents too-frequent trade attempts with the same ship. This:
-     * - Reduces API calls (better performance)
-     * - Prevents spam if ship has no items we need
-     * - Gives game time to process previous trades
-     * 
-     * 120 ticks ≈ 2 seconds (game runs at ~60 ticks/second)
+     * Optional: Sample one in N offer refreshes for full-inventory discovery (0 = disabled).
+     * WHY: Discovery reads an NPC's entire inventory (not just our targets) to build the item
+     * catalog (item_catalog.csv). That is expensive, so it is off by default and sampled.
      */
-    private int cooldownTicks = 0;
+    private volatile int discoverySampleRate = 0;
     
     /**
-     * Optional: Minimum refresh cooldown (in game ticks).
-     * WHY: Offers from NPC ships don't change instantly. Refreshing too frequently
-     * is wasteful. This cooldown prevents excessive offer queries.
-     * 
-     * Note: Offers are also cached and invalidated after trades (see AutoBuyerCore).
+     * Optional: Record trade events in logs/trade_journal.jsonl (default: false).
+     * WHY: One JSON object per line (trades built/committed/done/cancelled, skipped ships,
+     * logistics thresholds) for analysing long saves with scripts. See TradeJournal.
+     */
+    private volatile boolean tradeJournalEnabled = false;
+    
+    /**
+     * Optional: Size in MB at which the trade journal is rotated into a gzipped segment (minimum 1).
+     */
+    private volatile int journalMaxFileMb = 10;
+    
+    /**
+     * Optional: Number of rotated journal segments to keep (minimum 1). Older ones are deleted.
+     */
+    private volatile int journalMaxFiles = 10;
+    
+    /**
+     * Optional: Seconds between rows in logs/metrics.csv (0 = disabled, the default).
+     * WHY: Shows how often the hot paths run and how long they take, to tell whether the mod
+     * is eating into the frame budget. See MetricsRegistry.
      */
-    private int refreshCooldownTicks = 0;
+    private volatile int metricsIntervalSeconds = 0;
     
     /**
-     * Optional: Minimum credit balance required to initiate trades.
-     * WHY: Maintains a credit reserve for emergencies. This prevents the mod from
-     * spending all credits, leaving the player with no buffer for:
-     * - Manual trades
-     * - Emergency purchases
-     * - Other mods or game features
+     * Optional: Trade attempts slower than this (in microseconds) are logged phase by phase
+     * (0 = never). See TradeTrace.
+     */
+    private volatile int slowTradeThresholdMicros = 2000;
+    
+    /**
+     * Optional: Minimum interval between evaluations (in ticks of 1/60 second, real time; minimum 1).
+     * WHY: Trade/ship hooks often fire several times in the same frame. Requests are merged
+     * (see EvaluationScheduler) and the full evaluation runs at most once per interval.
      * 
-     * Trades are skipped if credits are at or below this amount.
+     * 1 tick ≈ 16.67ms (game runs at ~60 ticks/second)
      */
-    private int minCreditBalance = 10000;
+    private volatile int evaluationIntervalTicks = 1;
     
     /**
      * Optional: Enable/disable logging (default: false for better performance).
@@ -121,10 +144,29 @@ public class AutoBuyerConfig {
      */
     private boolean enableLogging = false;
     
+    /**
+     * Optional: Which messages are written when logging is enabled (default: debug = everything).
+     * Format: a level (error, warn, info, debug), optionally followed by per-category overrides,
+     * e.g. "info,offers=debug" (see ModLog.Category).
+     * WHY: Lets users keep the log short, or turn detail on for just the area being debugged.
+     */
+    private volatile String logLevelSpec = "debug";
+    private volatile ModLog.Level[] logLevels = ModLog.parseLevels("debug");
+    
+    /**
+     * Optional: What the log writer does when its buffer is full (drop_newest, drop_oldest, block).
+     * WHY: Log lines are queued and written by a background thread (see AsyncLogWriter). If the
+     * mod logs faster than the disk keeps up, something has to give; the default drops the new
+     * lines so the game thread never waits.
+     */
+    private volatile AsyncLogWriter.DropPolicy logDropPolicy = AsyncLogWriter.DropPolicy.DROP_NEWEST;
+    
     public AutoBuyerConfig() {
         // Initialize with some common items as examples
         // User can modify these via config file or in-game UI later
         initializeDefaultTargets();
+        targetsDirty = true;
+        publishTargetTable();
     }
     
     /**
@@ -150,7 +192,7 @@ public class AutoBuyerConfig {
      * The modloader should provide a way to access config values from info.xml.
      * Once we know the API, this method can be called during mod initialization.
      */
-    public void loadFromConfig(Map<String, String> configValues) {
+    public synchronized void loadFromConfig(Map<String, String> configValues) {
         ModLog.updateDiagnostic("loadFromConfig() called with " + 
             (configValues != null ? configValues.size() : "null") + " config values");
         
@@ -167,6 +209,7 @@ public class AutoBuyerConfig {
             if (enableLoggingStr != null) {
                 boolean wasEnabled = enableLogging;
                 enableLogging = Boolean.parseBoolean(enableLoggingStr);
+                ModLog.refreshLevels();
                 ModLog.updateDiagnostic("Logging was " + (wasEnabled ? "enabled" : "disabled") + 
                     ", now " + (enableLogging ? "enabled" : "disabled"));
                 // If logging was just enabled, write a test log entry to verify file creation
@@ -180,6 +223,22 @@ public class AutoBuyerConfig {
             } else {
                 ModLog.updateDiagnostic("WARNING: {enable_logging} not found in config values!");
             }
+            
+            // log_level is part of the logging state too - apply it before anything else logs
+            String logLevelStr = configValues.get("{log_level}");
+            if (logLevelStr != null && !logLevelStr.trim().isEmpty()) {
+                ModLog.Level[] levels = ModLog.parseLevels(logLevelStr);
+                if (levels != null) {
+                    logLevelSpec = logLevelStr.trim();
+                    logLevels = levels;
+                }
+                ModLog.refreshLevels();
+                if (levels == null) {
+                    ModLog.log("AutoBuyerConfig: Invalid log_level value (e.g. info or info,offers=debug): " + logLevelStr);
+                }
+            } else {
+                ModLog.refreshLevels();
+            }
         } else {
             ModLog.updateDiagnostic("WARNING: configValues is null!");
         }
@@ -254,6 +313,7 @@ public class AutoBuyerConfig {
         loadConfigValue(configValues, "{block_super}", 1920);
         loadConfigValue(configValues, "{block_soft}", 1921);
         loadConfigValue(configValues, "{block_steel_plates}", 1922);
+        publishTargetTable();
         
         /**
          * DEPRECATED: Load allow_markup for backward compatibility (ignored in favor of thresholds).
@@ -270,6 +330,16 @@ public class AutoBuyerConfig {
             ModLog.log("AutoBuyerConfig: WARNING - {allow_markup} is deprecated and ignored. Use buy threshold variables instead.");
         }
         
+        // Tunables are parsed into locals and published as one TradeTunables further down
+        TradeTunables previousTunables = tunables;
+        int discountBuyThreshold = previousTunables.getDiscountBuyThreshold();
+        int normalBuyThreshold = previousTunables.getNormalBuyThreshold();
+        int markupBuyThreshold = previousTunables.getMarkupBuyThreshold();
+        int premiumBuyThreshold = previousTunables.getPremiumBuyThreshold();
+        int maxCreditsPerTrade = previousTunables.getMaxCreditsPerTrade();
+        int cooldownTicks = previousTunables.getCooldownTicks();
+        int minCreditBalance = previousTunables.getMinCreditBalance();
+        
         /**
          * Load buy markup thresholds (percentage of target stock).
          * WHY THIS PATTERN: Each threshold is loaded with the same pattern:
@@ -362,13 +432,124 @@ public class AutoBuyerConfig {
         String cooldownStr = configValues.get("{cooldown_ticks}");
         if (cooldownStr != null) {
             try {
-                cooldownTicks = Integer.parseInt(cooldownStr);
+                cooldownTicks = Math.max(0, Integer.parseInt(cooldownStr));
                 ModLog.log("AutoBuyerConfig: CooldownTicks from config: " + cooldownTicks);
             } catch (NumberFormatException e) {
                 ModLog.log("AutoBuyerConfig: Invalid cooldown_ticks value: " + cooldownStr);
             }
         }
         
+        String refreshCooldownStr = configValues.get("{refresh_cooldown_ticks}");
+        if (refreshCooldownStr != null) {
+            try {
+                int refreshCooldown = Integer.parseInt(refreshCooldownStr);
+                if (refreshCooldown >= 0) {
+                    refreshCooldownTicks = refreshCooldown;
+                    ModLog.log("AutoBuyerConfig: RefreshCooldownTicks from config: " + refreshCooldownTicks);
+                } else {
+                    ModLog.log("AutoBuyerConfig: Invalid refresh_cooldown_ticks value (must be >= 0): " + refreshCooldownStr);
+                }
+            } catch (NumberFormatException e) {
+                ModLog.log("AutoBuyerConfig: Invalid refresh_cooldown_ticks value: " + refreshCooldownStr);
+            }
+        }
+        
+        String discoveryStr = configValues.get("{discovery_sample_rate}");
+        if (discoveryStr != null) {
+            try {
+                int rate = Integer.parseInt(discoveryStr);
+                if (rate >= 0) {
+                    discoverySampleRate = rate;
+                    ModLog.log("AutoBuyerConfig: DiscoverySampleRate from config: " + discoverySampleRate);
+                } else {
+                    ModLog.log("AutoBuyerConfig: Invalid discovery_sample_rate value (must be >= 0): " + discoveryStr);
+                }
+            } catch (NumberFormatException e) {
+                ModLog.log("AutoBuyerConfig: Invalid discovery_sample_rate value: " + discoveryStr);
+            }
+        }
+        
+        String journalStr = configValues.get("{trade_journal}");
+        if (journalStr != null) {
+            tradeJournalEnabled = Boolean.parseBoolean(journalStr.trim());
+            ModLog.log("AutoBuyerConfig: TradeJournal from config: " + tradeJournalEnabled);
+        }
+        
+        String journalMbStr = configValues.get("{journal_max_file_mb}");
+        if (journalMbStr != null) {
+            try {
+                int mb = Integer.parseInt(journalMbStr);
+                if (mb >= 1) {
+                    journalMaxFileMb = mb;
+                    ModLog.log("AutoBuyerConfig: JournalMaxFileMb from config: " + journalMaxFileMb);
+                } else {
+                    ModLog.log("AutoBuyerConfig: Invalid journal_max_file_mb value (must be >= 1): " + journalMbStr);
+                }
+            } catch (NumberFormatException e) {
+                ModLog.log("AutoBuyerConfig: Invalid journal_max_file_mb value: " + journalMbStr);
+            }
+        }
+        
+        String journalFilesStr = configValues.get("{journal_max_files}");
+        if (journalFilesStr != null) {
+            try {
+                int files = Integer.parseInt(journalFilesStr);
+                if (files >= 1) {
+                    journalMaxFiles = files;
+                    ModLog.log("AutoBuyerConfig: JournalMaxFiles from config: " + journalMaxFiles);
+                } else {
+                    ModLog.log("AutoBuyerConfig: Invalid journal_max_files value (must be >= 1): " + journalFilesStr);
+                }
+            } catch (NumberFormatException e) {
+                ModLog.log("AutoBuyerConfig: Invalid journal_max_files value: " + journalFilesStr);
+            }
+        }
+        
+        String metricsStr = configValues.get("{metrics_interval_seconds}");
+        if (metricsStr != null) {
+            try {
+                int seconds = Integer.parseInt(metricsStr);
+                if (seconds >= 0) {
+                    metricsIntervalSeconds = seconds;
+                    ModLog.log("AutoBuyerConfig: MetricsIntervalSeconds from config: " + metricsIntervalSeconds);
+                } else {
+                    ModLog.log("AutoBuyerConfig: Invalid metrics_interval_seconds value (must be >= 0): " + metricsStr);
+                }
+            } catch (NumberFormatException e) {
+                ModLog.log("AutoBuyerConfig: Invalid metrics_interval_seconds value: " + metricsStr);
+            }
+        }
+        
+        String slowTradeStr = configValues.get("{slow_trade_threshold_us}");
+        if (slowTradeStr != null) {
+            try {
+                int micros = Integer.parseInt(slowTradeStr);
+                if (micros >= 0) {
+                    slowTradeThresholdMicros = micros;
+                    ModLog.log("AutoBuyerConfig: SlowTradeThresholdMicros from config: " + slowTradeThresholdMicros);
+                } else {
+                    ModLog.log("AutoBuyerConfig: Invalid slow_trade_threshold_us value (must be >= 0): " + slowTradeStr);
+                }
+            } catch (NumberFormatException e) {
+                ModLog.log("AutoBuyerConfig: Invalid slow_trade_threshold_us value: " + slowTradeStr);
+            }
+        }
+        
+        String intervalStr = configValues.get("{evaluation_interval_ticks}");
+        if (intervalStr != null) {
+            try {
+                int interval = Integer.parseInt(intervalStr);
+                if (interval >= 1) {
+                    evaluationIntervalTicks = interval;
+                    ModLog.log("AutoBuyerConfig: EvaluationIntervalTicks from config: " + evaluationIntervalTicks);
+                } else {
+                    ModLog.log("AutoBuyerConfig: Invalid evaluation_interval_ticks value (must be >= 1): " + intervalStr);
+                }
+            } catch (NumberFormatException e) {
+                ModLog.log("AutoBuyerConfig: Invalid evaluation_interval_ticks value: " + intervalStr);
+            }
+        }
+        
         String minCreditStr = configValues.get("{min_credit_balance}");
         if (minCreditStr != null) {
             try {
@@ -384,9 +565,26 @@ public class AutoBuyerConfig {
             }
         }
         
+        String dropPolicyStr = configValues.get("{log_drop_policy}");
+        if (dropPolicyStr != null) {
+            AsyncLogWriter.DropPolicy policy = AsyncLogWriter.DropPolicy.parse(dropPolicyStr);
+            if (policy != null) {
+                logDropPolicy = policy;
+                ModLog.refreshDropPolicy();
+                ModLog.log("AutoBuyerConfig: LogDropPolicy from config: " + logDropPolicy);
+            } else {
+                ModLog.log("AutoBuyerConfig: Invalid log_drop_policy value (drop_newest, drop_oldest or block): " + dropPolicyStr);
+            }
+        }
+        
+        // Publish all tunables at once (each value was range-checked above)
+        tunables = new TradeTunables(discountBuyThreshold, normalBuyThreshold, markupBuyThreshold, premiumBuyThreshold,
+                                     maxCreditsPerTrade, cooldownTicks, minCreditBalance);
+        
         // enable_logging was already loaded at the start of this method
         
         ModLog.log("AutoBuyerConfig: Configuration loaded from info.xml");
+        scoringGeneration++;
         
         // Log final configuration summary
         logFinalConfiguration();
@@ -402,12 +600,22 @@ public class AutoBuyerConfig {
         ModLog.log("FINAL CONFIGURATION SUMMARY");
         ModLog.log("========================================");
         ModLog.log("Mod Settings:");
-        ModLog.log("  Buy Markup Thresholds: Discount=" + discountBuyThreshold + "%, Normal=" + normalBuyThreshold + 
-                  "%, Markup=" + markupBuyThreshold + "%, Premium=" + premiumBuyThreshold + "%");
-        ModLog.log("  Max Credits Per Trade: " + maxCreditsPerTrade);
-        ModLog.log("  Min Credit Balance: " + minCreditBalance);
-        ModLog.log("  Cooldown Ticks: " + cooldownTicks);
+        TradeTunables current = tunables;
+        ModLog.log("  Buy Markup Thresholds: Discount=" + current.getDiscountBuyThreshold() + "%, Normal=" + current.getNormalBuyThreshold() + 
+                  "%, Markup=" + current.getMarkupBuyThreshold() + "%, Premium=" + current.getPremiumBuyThreshold() + "%");
+        ModLog.log("  Max Credits Per Trade: " + current.getMaxCreditsPerTrade());
+        ModLog.log("  Min Credit Balance: " + current.getMinCreditBalance());
+        ModLog.log("  Cooldown Ticks: " + current.getCooldownTicks());
+        ModLog.log("  Offer Refresh Cooldown Ticks: " + refreshCooldownTicks);
+        ModLog.log("  Evaluation Interval Ticks: " + evaluationIntervalTicks);
+        ModLog.log("  Discovery Sample Rate: " + (discoverySampleRate > 0 ? "1 in " + discoverySampleRate + " offer refreshes" : "disabled"));
+        ModLog.log("  Trade Journal: " + (tradeJournalEnabled ? "enabled (rotate at " + journalMaxFileMb + " MB, keep " + 
+                  journalMaxFiles + " segments)" : "disabled"));
+        ModLog.log("  Slow Trade Threshold: " + (slowTradeThresholdMicros > 0 ? slowTradeThresholdMicros + "us" : "disabled"));
+        ModLog.log("  Metrics: " + (metricsIntervalSeconds > 0 ? "every " + metricsIntervalSeconds + "s to logs/metrics.csv" : "disabled"));
         ModLog.log("  Logging Enabled: " + enableLogging);
+        ModLog.log("  Log Level: " + logLevelSpec);
+        ModLog.log("  Log Drop Policy: " + logDropPolicy);
         ModLog.log("");
         ModLog.log("Target Stock Levels:");
         
@@ -465,12 +673,13 @@ public class AutoBuyerConfig {
         itemNames.put(1922, "{block_steel_plates}");
         
         // Sort by category for better readability
-        java.util.List<Integer> sortedIds = new java.util.ArrayList<>(targetStocks.keySet());
-        java.util.Collections.sort(sortedIds);
+        // Table is already sorted by item ID
+        TargetStockTable table = targetTable;
         
         String currentCategory = "";
-        for (Integer itemId : sortedIds) {
-            Integer target = targetStocks.get(itemId);
+        for (int i = 0; i < table.size(); i++) {
+            int itemId = table.elementaryIdAt(i);
+            int target = table.targetAt(i);
             String itemName = itemNames.getOrDefault(itemId, "{item_" + itemId + "}");
             
             // Group by category
@@ -499,7 +708,7 @@ public class AutoBuyerConfig {
         }
         
         ModLog.log("========================================");
-        ModLog.log("Total items configured: " + targetStocks.size());
+        ModLog.log("Total items configured: " + table.size());
         ModLog.log("========================================");
         ModLog.log("");
     }
@@ -513,10 +722,15 @@ public class AutoBuyerConfig {
             try {
                 int value = Integer.parseInt(valueStr);
                 if (value >= 0) {
-                    targetStocks.put(elementaryId, value);
+                    if (targetStocks.get(elementaryId, -1) != value) {
+                        targetStocks.put(elementaryId, value);
+                        targetsDirty = true;
+                    }
                     ModLog.log("AutoBuyerConfig: Loaded " + configKey + " = " + value + " for item " + elementaryId);
                 } else {
-                    targetStocks.remove(elementaryId);
+                    if (targetStocks.remove(elementaryId)) {
+                        targetsDirty = true;
+                    }
                     ModLog.log("AutoBuyerConfig: Removed target for item " + elementaryId + " (negative value)");
                 }
             } catch (NumberFormatException e) {
@@ -610,7 +824,7 @@ public class AutoBuyerConfig {
     /**
      * Set target stock level for an item.
      */
-    public void setTargetStock(int elementaryId, int targetLevel) {
+    public synchronized void setTargetStock(int elementaryId, int targetLevel) {
         if (targetLevel < 0) {
             targetStocks.remove(elementaryId);
             ModLog.log("AutoBuyerConfig: Removed target for item " + elementaryId);
@@ -618,6 +832,8 @@ public class AutoBuyerConfig {
             targetStocks.put(elementaryId, targetLevel);
             ModLog.log("AutoBuyerConfig: Set target for item " + elementaryId + " to " + targetLevel);
         }
+        targetsDirty = true;
+        publishTargetTable();
     }
     
     /**
@@ -625,31 +841,69 @@ public class AutoBuyerConfig {
      * Returns 0 if not configured.
      */
     public int getTargetStock(int elementaryId) {
-        return targetStocks.getOrDefault(elementaryId, 0);
+        return targetTable.getTarget(elementaryId);
     }
     
     /**
      * Check if an item has a target stock configured.
      */
     public boolean hasTargetStock(int elementaryId) {
-        return targetStocks.containsKey(elementaryId);
+        return targetTable.contains(elementaryId);
+    }
+    
+    /**
+     * Get the compiled target stock table.
+     * WHY: This is what the trade evaluation loops should use. It is immutable and shared,
+     * so callers can hold on to it for a whole evaluation cycle without copying. Grab it once
+     * per cycle so every step of the cycle sees the same targets.
+     */
+    public TargetStockTable getTargetStockTable() {
+        return targetTable;
+    }
+    
+    /**
+     * Get the scoring generation (changes whenever targets or buy thresholds change).
+     */
+    public int getScoringGeneration() {
+        return scoringGeneration;
     }
     
     /**
-     * Get all configured target stocks.
+     * Get all configured target stocks as a new map.
+     * NOTE: Allocates a copy on every call. Hot paths should use getTargetStockTable().
      */
     public Map<Integer, Integer> getAllTargetStocks() {
-        return new HashMap<>(targetStocks);
+        TargetStockTable table = targetTable;
+        Map<Integer, Integer> copy = new HashMap<>();
+        for (int i = 0; i < table.size(); i++) {
+            copy.put(table.elementaryIdAt(i), table.targetAt(i));
+        }
+        return copy;
     }
     
     /**
      * Clear all target stocks.
      */
-    public void clearAllTargets() {
+    public synchronized void clearAllTargets() {
         targetStocks.clear();
+        targetsDirty = true;
+        publishTargetTable();
         ModLog.log("AutoBuyerConfig: Cleared all targets");
     }
     
+    /**
+     * Compile targetStocks into a new immutable table and publish it, if anything changed.
+     * Callers must hold the config lock (or be the constructor).
+     */
+    private void publishTargetTable() {
+        if (!targetsDirty) {
+            return;
+        }
+        targetTable = TargetStockTable.from(targetStocks);
+        targetsDirty = false;
+        scoringGeneration++;
+    }
+    
     /**
      * @deprecated This method is deprecated. Use getBuyThreshold() instead.
      */
@@ -667,60 +921,76 @@ public class AutoBuyerConfig {
         ModLog.log("AutoBuyerConfig: WARNING - setAllowMarkup() is deprecated and ignored. Use buy threshold variables instead.");
     }
     
+    /**
+     * Current trade tunables. Take the reference once and read every value from it, so a
+     * concurrent change can't mix old and new values.
+     */
+    public TradeTunables getTunables() {
+        return tunables;
+    }
+    
+    /**
+     * Replace all trade tunables at once (JMX, or code changing several values together).
+     * @throws IllegalArgumentException if a value is out of range (nothing is changed)
+     */
+    public synchronized void applyTunables(TradeTunables next) {
+        String problem = next.validate();
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
+        }
+        TradeTunables previous = tunables;
+        tunables = next;
+        scoringGeneration++; // Thresholds feed into ship scores
+        ModLog.log(ModLog.Category.CONFIG, ModLog.Level.INFO, "AutoBuyerConfig: Tunables changed from [{}] to [{}]", previous, next);
+    }
+    
+    /**
+     * Change one or more tunables, based on the current ones.
+     * WHY synchronized: two callers each changing a different value must not overwrite each other.
+     */
+    public synchronized void updateTunables(java.util.function.UnaryOperator<TradeTunables> change) {
+        applyTunables(change.apply(tunables));
+    }
+    
     /**
      * Get the buy threshold for a specific trade mode.
      * @param mode The trade mode
      * @return The threshold percentage (0-100)
      */
     public int getBuyThreshold(fi.bugbyte.spacehaven.ai.TradingHelper.TradeItemMode mode) {
-        if (mode == null) {
-            return normalBuyThreshold; // Default to Normal
-        }
-        switch (mode) {
-            case Discounted:
-                return discountBuyThreshold;
-            case Neutral:
-                return normalBuyThreshold;
-            case Markup:
-                return markupBuyThreshold;
-            case Premium:
-                return premiumBuyThreshold;
-            default:
-                return normalBuyThreshold;
-        }
+        return tunables.getBuyThreshold(mode);
     }
     
     public int getDiscountBuyThreshold() {
-        return discountBuyThreshold;
+        return tunables.getDiscountBuyThreshold();
     }
     
     public int getNormalBuyThreshold() {
-        return normalBuyThreshold;
+        return tunables.getNormalBuyThreshold();
     }
     
     public int getMarkupBuyThreshold() {
-        return markupBuyThreshold;
+        return tunables.getMarkupBuyThreshold();
     }
     
     public int getPremiumBuyThreshold() {
-        return premiumBuyThreshold;
+        return tunables.getPremiumBuyThreshold();
     }
     
     public int getMaxCreditsPerTrade() {
-        return maxCreditsPerTrade;
+        return tunables.getMaxCreditsPerTrade();
     }
     
     public void setMaxCreditsPerTrade(int maxCreditsPerTrade) {
-        this.maxCreditsPerTrade = maxCreditsPerTrade;
-        ModLog.log("AutoBuyerConfig: MaxCreditsPerTrade set to " + maxCreditsPerTrade);
+        updateTunables(t -> t.withMaxCreditsPerTrade(maxCreditsPerTrade));
     }
     
     public int getCooldownTicks() {
-        return cooldownTicks;
+        return tunables.getCooldownTicks();
     }
     
     public void setCooldownTicks(int cooldownTicks) {
-        this.cooldownTicks = cooldownTicks;
+        updateTunables(t -> t.withCooldownTicks(Math.max(0, cooldownTicks)));
     }
     
     public int getRefreshCooldownTicks() {
@@ -732,7 +1002,7 @@ public class AutoBuyerConfig {
      * If player credits are at or below this amount, no trades will be initiated.
      */
     public int getMinCreditBalance() {
-        return minCreditBalance;
+        return tunables.getMinCreditBalance();
     }
     
     /**
@@ -746,6 +1016,90 @@ public class AutoBuyerConfig {
         this.refreshCooldownTicks = refreshCooldownTicks;
     }
     
+    /**
+     * Log level per ModLog.Category (indexed by ordinal). Never null.
+     */
+    public ModLog.Level[] getLogLevels() {
+        return logLevels;
+    }
+    
+    public String getLogLevelSpec() {
+        return logLevelSpec;
+    }
+    
+    /**
+     * Change the log levels at runtime (same format as log_level). Returns false if invalid.
+     */
+    public boolean setLogLevelSpec(String spec) {
+        ModLog.Level[] levels = ModLog.parseLevels(spec);
+        if (levels == null) {
+            return false;
+        }
+        logLevelSpec = spec.trim();
+        logLevels = levels;
+        ModLog.refreshLevels();
+        return true;
+    }
+    
+    public AsyncLogWriter.DropPolicy getLogDropPolicy() {
+        return logDropPolicy;
+    }
+    
+    public void setLogDropPolicy(AsyncLogWriter.DropPolicy logDropPolicy) {
+        if (logDropPolicy != null) {
+            this.logDropPolicy = logDropPolicy;
+            ModLog.refreshDropPolicy();
+        }
+    }
+    
+    public int getDiscoverySampleRate() {
+        return discoverySampleRate;
+    }
+    
+    public void setDiscoverySampleRate(int discoverySampleRate) {
+        this.discoverySampleRate = Math.max(0, discoverySampleRate);
+    }
+    
+    public boolean isTradeJournalEnabled() {
+        return tradeJournalEnabled;
+    }
+    
+    public void setTradeJournalEnabled(boolean tradeJournalEnabled) {
+        this.tradeJournalEnabled = tradeJournalEnabled;
+    }
+    
+    public int getJournalMaxFileMb() {
+        return journalMaxFileMb;
+    }
+    
+    public int getJournalMaxFiles() {
+        return journalMaxFiles;
+    }
+    
+    public int getMetricsIntervalSeconds() {
+        return metricsIntervalSeconds;
+    }
+    
+    public void setMetricsIntervalSeconds(int metricsIntervalSeconds) {
+        this.metricsIntervalSeconds = Math.max(0, metricsIntervalSeconds);
+    }
+    
+    public int getSlowTradeThresholdMicros() {
+        return slowTradeThresholdMicros;
+    }
+    
+    public void setSlowTradeThresholdMicros(int slowTradeThresholdMicros) {
+        this.slowTradeThresholdMicros = Math.max(0, slowTradeThresholdMicros);
+    }
+    
+    public int getEvaluationIntervalTicks() {
+        return evaluationIntervalTicks;
+    }
+    
+    public void setEvaluationIntervalTicks(int evaluationIntervalTicks) {
+        this.evaluationIntervalTicks = Math.max(1, evaluationIntervalTicks);
+    }
+    
     /**
      * Get the mod directory (where the JAR file and info.xml are located).
      * This is a helper method that can be used by other classes.
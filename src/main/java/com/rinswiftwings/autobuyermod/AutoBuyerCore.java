@@ -20,6 +20,8 @@
  */
 package com.rinswiftwings.autobuyermod;
 
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.utils.Array;
 import fi.bugbyte.spacehaven.ai.Trading;
 import fi.bugbyte.spacehaven.ai.TradingHelper;
@@ -27,8 +29,6 @@ import fi.bugbyte.spacehaven.stuff.FactionUtils;
 import fi.bugbyte.spacehaven.world.Ship;
 import fi.bugbyte.spacehaven.world.World;
 
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * Core auto-buyer logic.
@@ -37,7 +37,8 @@ import java.util.Map;
  * DESIGN DECISIONS:
  * - This class is separated from AutoBuyerAspect to keep business logic separate from AspectJ hooks
  * - State is managed per-ship to track individual ship behavior (offers, retries, trade limits)
- * - Synchronization is used to prevent race conditions when multiple hooks try to create trades simultaneously
+ * - Trade creation is locked per NPC ship (striped locks) so hooks for different ships never contend;
+ *   the shared credits are guarded by a lock-free CreditLedger
  * - Logistics awareness prevents overwhelming the game's item logistics system
  */
 public class AutoBuyerCore {
@@ -48,23 +49,153 @@ public class AutoBuyerCore {
      * Per-ship state tracking.
      * WHY: Each NPC ship needs independent state (offers cache, retry count, trade limits).
      * Using a Map allows O(1) lookup by ship ID, and automatic cleanup when ships leave.
+     * ConcurrentIntObjectMap: hooks on different threads add and release ships while the
+     * evaluation reads them; lookups stay lock-free and unboxed.
      */
-    private final Map<Integer, ShipState> shipStates = new HashMap<>();
+    private final ConcurrentIntObjectMap<ShipState> shipStates = new ConcurrentIntObjectMap<>();
     
     /**
-     * Track created trade IDs to prevent duplicates.
-     * WHY: Multiple hooks/threads could try to create the same trade. This Set allows fast
-     * duplicate detection before creating trades. Must be checked inside synchronized block.
+     * Index of open player trades with the station: units queued inbound per item and
+     * open trade count per NPC ship.
+     * WHY: Need calculations ask "how much is already on its way" for every target item of
+     * every ship, and the 4-concurrent-trade check runs several times per ship. Scanning
+     * world.getTrades() for each of those lookups was the dominant cost of a busy evaluation;
+     * the index answers in O(1) and is reconciled once per evaluation.
      */
-    private final java.util.Set<Integer> createdTradeIds = new java.util.HashSet<>();
+    private final TradeIndex tradeIndex = new TradeIndex();
     
     /**
-     * Synchronization lock for trade creation to prevent race conditions.
-     * WHY: AspectJ hooks can fire from multiple threads. Without synchronization, two hooks
-     * could both check "no active trades" and both create trades, exceeding the 4-trade limit.
-     * This lock ensures only one trade creation happens at a time.
+     * Cached player station handle (station + the world it was found in).
+     * WHY: findPlayerStation() is called on every evaluation and every trade attempt. On large
+     * saves world.getShips() holds many derelicts and claimables, so scanning it each time adds
+     * up. The handle is invalidated by the addShip/shipJumped hooks and whenever the world changes.
+     * 
+     * Station and world are stored together in one immutable holder behind a single volatile
+     * reference, so a reader never sees a station paired with the wrong world.
+     */
+    private volatile StationHandle stationHandle = null;
+    
+    /**
+     * Station need generation: bumped whenever anything a ship's score depends on (apart from
+     * the ship's own offers and trade count) may have changed.
+     * WHY: Ship scores are cached per ship and reused while their inputs are unchanged (see
+     * TradePlanner, which receives it in the PlanningSnapshot). Bumped by: trade created, trade
+     * done/cancelled, and a new station stock snapshot that differs from the last one (crew
+     * consumption, manual hauling, config changes - none of which have a hook we can listen to).
+     */
+    private final java.util.concurrent.atomic.AtomicInteger needGeneration = new java.util.concurrent.atomic.AtomicInteger();
+    
+    /**
+     * Stock snapshot of the previous evaluation cycle (after its own trades were applied) and
+     * the config scoring generation it was taken under. Used to detect need changes that no
+     * hook reports.
+     */
+    private volatile StationStockSnapshot lastStationStock = null;
+    private volatile int lastScoringGeneration = -1;
+    
+    /**
+     * Commit step of trade creation: credit claim, per-ship lock stripes, created trade IDs and
+     * the global lock around bank.reserve() / world.addNewTradeAgreement() (see TradeCommitter).
+     * WHY: AspectJ hooks can fire from multiple threads. Without it, two hooks could both check
+     * "3 active trades" and both create trades, exceeding the 4-trade limit, or create the same
+     * trade twice.
+     */
+    private final TradeCommitter tradeCommitter = new TradeCommitter();
+    
+    /**
+     * Counters and hot-path latencies, written to logs/metrics.csv when metrics_interval_seconds
+     * is set (see MetricsRegistry). Gauges are registered in the constructor.
+     * Declared before the planner, which records into ship_priority.
+     */
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final MetricsRegistry.Counter tradesCreated = metrics.counter("trades_created");
+    private final MetricsRegistry.Counter reservationsFailed = metrics.counter("reservations_failed");
+    private final MetricsRegistry.Counter reservationsPartial = metrics.counter("reservations_partial");
+    private final MetricsRegistry.Histogram evaluationLatency = metrics.histogram("attempt_best_trade");
+    private final MetricsRegistry.Histogram planLatency = metrics.histogram("plan");
+    private final MetricsRegistry.Histogram commitLatency = metrics.histogram("commit");
+    private final MetricsRegistry.Histogram priorityLatency = metrics.histogram("ship_priority");
+    private final MetricsRegistry.Histogram refreshLatency = metrics.histogram("refresh_offers");
+    private final MetricsRegistry.Histogram buildLatency = metrics.histogram("build_trade");
+    
+    /**
+     * Off-game-thread planning.
+     * WHY: Scoring every ship and sizing trades used to run inline in the game hooks, so its
+     * cost landed directly on frame time. Now the game thread only captures a PlanningSnapshot,
+     * the planner runs on a single daemon worker, and the commit step (reservations and
+     * world.addNewTradeAgreement) is posted back to the game thread with Gdx.app.postRunnable().
+     * 
+     * At most one plan is in flight. Evaluations requested meanwhile set replanRequested and run
+     * as a follow-up once the commit is done.
+     */
+    private final TradePlanner planner = new TradePlanner(MAX_UNITS_PER_TRADE, priorityLatency);
+    private final java.util.concurrent.ExecutorService planExecutor =
+        java.util.concurrent.Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AutoBuyer-Planner");
+            thread.setDaemon(true);
+            return thread;
+        });
+    private final java.util.concurrent.atomic.AtomicBoolean planInFlight = new java.util.concurrent.atomic.AtomicBoolean();
+    private volatile boolean replanRequested = false;
+    /**
+     * True while the planner thread may be reading OfferViews of the current snapshot.
+     * Offer refreshes during that window give the ship a new view instead of overwriting it.
+     */
+    private volatile boolean plannerReadingOffers = false;
+    
+    /**
+     * Reusable mustOffer list for createOffersList, one item per target (game thread only).
+     * Rebuilt only when the target table changes (config reload).
+     */
+    private Array<Trading.TradeItem> mustOfferTemplate = new Array<>();
+    private TargetStockTable mustOfferTable = null;
+    
+    /**
+     * Catalog built by sampled full-inventory discovery. Created on first use (game thread),
+     * so nothing is loaded or started while discovery is off.
+     */
+    private ItemCatalog itemCatalog = null;
+    private int discoveryRefreshCounter = 0;
+    
+    /**
+     * JSONL record of trade events (see TradeJournal). Writes nothing unless trade_journal is on.
+     */
+    private final TradeJournal tradeJournal;
+    
+    /**
+     * Per-phase timing of trade attempts, dumping any slower than slow_trade_threshold_us.
      */
-    private final Object tradeCreationLock = new Object();
+    private final TradeTrace tradeTrace;
+    
+    /**
+     * Merges evaluation requests from the hooks (and the planner's follow-ups) into at most one
+     * evaluation per tick.
+     */
+    private final EvaluationScheduler scheduler;
+    
+    /**
+     * Per-ship cooldown and new-ship delay timers, plus the scheduler's evaluation interval timer.
+     * WHY: Waiting ships are skipped by a flag check instead of a clock comparison, and the
+     * timer that clears the flag also requests an evaluation, so a ship is picked up as soon as
+     * it is due even if no other hook fires.
+     */
+    private final TimingWheel timers;
+    
+    /**
+     * Offer cache hit/miss and refresh-latency counters.
+     */
+    private final OfferCacheMetrics offerCacheMetrics = new OfferCacheMetrics();
+    
+    // Timer kinds
+    private static final int TIMER_COOLDOWN = 1;
+    private static final int TIMER_NEW_SHIP_DELAY = 2;
+    // EvaluationScheduler's wait for evaluation_interval_ticks; keyed by ship ID -1 (no ship)
+    static final int TIMER_EVALUATION_INTERVAL = 3;
+    
+    /**
+     * New-ship initialization delay: 10 seconds at ~60 ticks per second.
+     */
+    private static final int NEW_SHIP_DELAY_TICKS = 600;
     
     /**
      * Track logistics load (number of free items waiting for logistics).
@@ -105,9 +236,110 @@ public class AutoBuyerCore {
      */
     private static final int MAX_NEW_SHIP_RETRIES = 3;
     
+    /**
+     * Maximum total units in a single trade (hard cap).
+     * WHY: Keeps each trade small enough for the station's logistics to haul without backing up.
+     * Also bounds how many units a price curve ever needs to price.
+     */
+    private static final int MAX_UNITS_PER_TRADE = 10;
+    
     public AutoBuyerCore(AutoBuyerConfig config) {
         this.config = config;
-        ModLog.log("AutoBuyerCore: Initialized");
+        this.timers = new TimingWheel(this::onTimersExpired);
+        this.scheduler = new EvaluationScheduler(this, config, timers);
+        java.io.File modFolder = AutoBuyerConfig.getModDirectory();
+        java.io.File logsFolder = modFolder != null ? new java.io.File(modFolder, "logs") : null;
+        this.tradeJournal = new TradeJournal(config, logsFolder);
+        this.tradeTrace = new TradeTrace(config);
+        registerGauges();
+        metrics.startReporting(logsFolder, config::getMetricsIntervalSeconds);
+        if (config.getDiscoverySampleRate() > 0) {
+            getItemCatalog(); // Load the catalog at startup when discovery is on
+        }
+        ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.INFO, "AutoBuyerCore: Initialized");
+    }
+    
+    /**
+     * Gauges over values other classes already keep. Counters and histograms are fields.
+     */
+    private void registerGauges() {
+        metrics.gauge("evaluations", scheduler::getEvaluationCount);
+        metrics.gauge("evaluation_requests", scheduler::getRequestCount);
+        metrics.gauge("evaluations_coalesced", scheduler::getCoalescedCount);
+        metrics.gauge("offer_cache_hits", offerCacheMetrics::getHits);
+        metrics.gauge("offer_cache_misses", offerCacheMetrics::getMisses);
+        metrics.gauge("offer_cache_hit_pct", () -> Math.round(offerCacheMetrics.getHitRatio() * 100));
+        metrics.gauge("logistics_items", () -> logisticsItemCount);
+        metrics.gauge("tracked_ships", shipStates::size);
+        metrics.gauge("log_dropped", ModLog::getDroppedCount);
+        metrics.gauge("journal_dropped", tradeJournal::getDroppedCount);
+        metrics.gauge("slow_trade_attempts", tradeTrace::getSlowCount);
+    }
+    
+    /**
+     * Get the scheduler hooks should use to request evaluations.
+     */
+    public EvaluationScheduler getEvaluationScheduler() {
+        return scheduler;
+    }
+    
+    /**
+     * Trade event journal, for hooks that report trades completing or being cancelled.
+     */
+    public TradeJournal getTradeJournal() {
+        return tradeJournal;
+    }
+    
+    /**
+     * Offer cache counters (hits, misses by reason, refresh latency).
+     */
+    public OfferCacheMetrics getOfferCacheMetrics() {
+        return offerCacheMetrics;
+    }
+    
+    /**
+     * Per-phase timing of recent trade attempts.
+     */
+    public TradeTrace getTradeTrace() {
+        return tradeTrace;
+    }
+    
+    /**
+     * Counters, gauges and hot-path latency histograms.
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Trades created this session.
+     */
+    public long getTradesCreatedCount() {
+        return tradesCreated.get();
+    }
+    
+    /**
+     * Game-thread time of each evaluation (attemptBestTrade).
+     */
+    public MetricsRegistry.Histogram getEvaluationLatency() {
+        return evaluationLatency;
+    }
+    
+    /**
+     * Number of NPC ships with tracked state.
+     */
+    public int getTrackedShipCount() {
+        return shipStates.size();
+    }
+    
+    /**
+     * Copy of every tracked ship's state, ordered by ship ID. Safe from any thread.
+     */
+    public java.util.List<ShipStateView> snapshotShipStates() {
+        java.util.List<ShipStateView> views = new java.util.ArrayList<>(shipStates.size());
+        shipStates.forEach((shipId, state) -> views.add(state.toView(shipId)));
+        views.sort(java.util.Comparator.comparingInt(ShipStateView::getShipId));
+        return views;
     }
     
     /**
@@ -128,13 +360,50 @@ public class AutoBuyerCore {
      * @return true if trade was successfully created, false otherwise
      */
     public boolean attemptAutoBuy(World world, Ship npcShip) {
+        return attemptAutoBuy(world, npcShip, null, null);
+    }
+    
+    /**
+     * Attempt a trade using the station stock snapshot of the current evaluation cycle.
+     * 
+     * When a plan is given, every check below doubles as its revalidation: the plan is only
+     * committed if the ship is still eligible, and its lines are only used if the ship's offers
+     * are still the snapshot it was planned against (otherwise the trade is built from the
+     * current offers, as without a plan).
+     * 
+     * @param stock Snapshot shared by the whole cycle (updated in place when a trade is created),
+     *              or null to take a fresh one for this single attempt
+     * @param plan  Trade proposed by the planner, or null to select the items here
+     */
+    private boolean attemptAutoBuy(World world, Ship npcShip, StationStockSnapshot stock, TradePlan plan) {
+        TradeTrace.Span span = tradeTrace.begin(npcShip.getShipId());
+        boolean created = false;
+        try {
+            created = attemptAutoBuy(world, npcShip, stock, plan, span);
+            return created;
+        } finally {
+            tradeTrace.end(span, created);
+        }
+    }
+    
+    /**
+     * The attempt itself. Moves the span to each phase as it goes (see TradeTrace).
+     */
+    private boolean attemptAutoBuy(World world, Ship npcShip, StationStockSnapshot stock, TradePlan plan,
+                                   TradeTrace.Span span) {
         try {
             Ship playerStation = findPlayerStation(world);
             if (playerStation == null) {
-                ModLog.log("AutoBuyerCore: No player station found");
+                ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG, "AutoBuyerCore: No player station found");
                 return false;
             }
             
+            // Catch trades the hooks didn't report (e.g. created by hand) before using the index
+            tradeIndex.reconcile(world, playerStation.getShipId());
+            if (stock == null) {
+                stock = StationStockSnapshot.capture(playerStation, config.getTargetStockTable(), tradeIndex);
+            }
+            
             /**
              * Check minimum credit balance guardrail.
              * WHY: We want to maintain a minimum credit reserve for emergencies. This prevents
@@ -144,22 +413,28 @@ public class AutoBuyerCore {
             TradingHelper.Bank creditCheckBank = world.getPlayerBank();
             int availableCredits = creditCheckBank.getCreditsAvailable();
             if (availableCredits <= config.getMinCreditBalance()) {
-                ModLog.log("AutoBuyerCore: Player credits (" + availableCredits + ") at or below minimum (" + 
-                          config.getMinCreditBalance() + ") - skipping trade attempts");
+                if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                    ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                               "AutoBuyerCore: Player credits (" + availableCredits + ") at or below minimum (" + 
+                               config.getMinCreditBalance() + ") - skipping trade attempts");
+                }
                 return false;
             }
             
             // Get or create ship state
             ShipState state = getShipState(npcShip.getShipId());
             
-            String shipName = getShipName(npcShip);
-            
             if (!shouldAttempt(npcShip, playerStation, world)) {
-                ModLog.log("AutoBuyerCore: [FAILED] Ship " + shipName + " (ID: " + npcShip.getShipId() + 
-                          ") failed shouldAttempt check - not eligible for trading");
+                if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                    ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                               "AutoBuyerCore: [FAILED] Ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + 
+                               ") failed shouldAttempt check - not eligible for trading");
+                }
                 return false;
             }
             
+            span.enter(TradeTrace.PHASE_LIMITS);
+            
             /**
              * Check total trades limit per ship (8 trades max per ship per time in system).
              * WHY: The game has a limit on how many trades can be made with a single ship per visit.
@@ -170,14 +445,11 @@ public class AutoBuyerCore {
             if (state.getTotalTradesCreated() >= 8) {
                 // Mark as nothing to purchase so it gets released by releaseInactiveShips()
                 state.setNothingToPurchase(true);
-                ModLog.log("AutoBuyerCore: Ship " + shipName + " (ID: " + npcShip.getShipId() + 
-                          ") has reached maximum trades (8) for this visit - marking as nothing to purchase and skipping");
-                return false;
-            }
-            
-            // Check cooldown
-            if (state.isInCooldown(world, config.getCooldownTicks())) {
-                ModLog.log("AutoBuyerCore: Ship " + shipName + " (ID: " + npcShip.getShipId() + ") in cooldown");
+                if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                    ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                               "AutoBuyerCore: Ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + 
+                               ") has reached maximum trades (8) for this visit - marking as nothing to purchase and skipping");
+                }
                 return false;
             }
             
@@ -185,18 +457,21 @@ public class AutoBuyerCore {
              * Check active trade count FIRST - this is the real check.
              * WHY: The game limits concurrent trades to 4 per ship pair. We must check this
              * BEFORE attempting to create a trade, otherwise we'll waste time building trades
-             * that can't be created. We check by counting active trades in world.getTrades(),
-             * not by relying on cached state (which may be stale).
+             * that can't be created. The count comes from the trade index, which was reconciled
+             * against world.getTrades() above, not from the per-ship flag (which may be stale).
              * 
              * The flag update (maxTradesReached) is for optimization - allows quick skip
              * on subsequent attempts without re-counting, but we still verify with actual count.
              */
-            int activeTrades = countActiveTradesWithNpc(world, npcShip.getShipId(), playerStation.getShipId());
+            int activeTrades = countActiveTradesWithNpc(npcShip.getShipId());
             if (activeTrades >= 4) {
                 // Update flag to reflect current state
                 state.setMaxTradesReached(true);
-                ModLog.log("AutoBuyerCore: Ship " + shipName + " (ID: " + npcShip.getShipId() + 
-                          ") has max concurrent trades (4) - cannot create more trades with this ship");
+                if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                    ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                               "AutoBuyerCore: Ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + 
+                               ") has max concurrent trades (4) - cannot create more trades with this ship");
+                }
                 return false;
             }
             
@@ -215,202 +490,234 @@ public class AutoBuyerCore {
              * have offers ready yet, so we allow retries before giving up.
              */
             if (state.isNothingToPurchase() && !state.isNewShip()) {
-                ModLog.log("AutoBuyerCore: Ship " + shipName + " (ID: " + npcShip.getShipId() + ") had nothing to purchase last check - skipping");
+                if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                    ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG, "AutoBuyerCore: Ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + ") had nothing to purchase last check - skipping");
+                }
+                return false;
+            }
+            
+            // Check cooldown (after the limit checks, so each trace phase is entered once)
+            span.enter(TradeTrace.PHASE_COOLDOWN);
+            if (state.isInCooldown()) {
+                if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                    ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG, "AutoBuyerCore: Ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + ") in cooldown");
+                }
                 return false;
             }
             
             // Refresh offers if needed (only if we don't have cached offers)
-            Map<Integer, Trading.TradeItem> offers = refreshOffersIfNeeded(world, npcShip, playerStation, state);
+            span.enter(TradeTrace.PHASE_OFFERS);
+            PlanningSnapshot.OfferView offers = refreshOffersIfNeeded(world, npcShip, playerStation, state);
+            span.setOfferCount(offers != null ? offers.getOfferedCount() : 0);
             if (offers == null || offers.isEmpty()) {
                 // For new ships, allow retries before marking as nothing to purchase
                 if (state.isNewShip()) {
-                    state.incrementNewShipRetryCount();
-                    if (state.hasExceededNewShipRetries(MAX_NEW_SHIP_RETRIES)) {
-                        state.setNothingToPurchase(true);
-                        state.setNewShip(false); // No longer new after max retries
-                        ModLog.log("AutoBuyerCore: New ship " + shipName + " (ID: " + npcShip.getShipId() + 
-                                  ") had no offers after " + MAX_NEW_SHIP_RETRIES + " retries - marking as nothing to purchase");
+                    // One atomic step: count the retry and, once exhausted, stop treating the ship as new
+                    if (state.recordNewShipRetry(MAX_NEW_SHIP_RETRIES)) {
+                        if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                            ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                                       "AutoBuyerCore: New ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + 
+                                       ") had no offers after " + MAX_NEW_SHIP_RETRIES + " retries - marking as nothing to purchase");
+                        }
                     } else {
-                        ModLog.log("AutoBuyerCore: New ship " + shipName + " (ID: " + npcShip.getShipId() + 
-                                  ") had no offers (retry " + state.getNewShipRetryCount() + "/" + MAX_NEW_SHIP_RETRIES + ") - will retry");
+                        if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                            ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                                       "AutoBuyerCore: New ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + 
+                                       ") had no offers (retry " + state.getNewShipRetryCount() + "/" + MAX_NEW_SHIP_RETRIES + ") - will retry");
+                        }
                     }
                 } else {
                     state.setNothingToPurchase(true);
-                    ModLog.log("AutoBuyerCore: No offers available from ship " + shipName + " (ID: " + npcShip.getShipId() + ")");
+                    if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                        ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG, "AutoBuyerCore: No offers available from ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + ")");
+                    }
                 }
                 return false;
             }
             
-            // Build trade agreement
-            Trading.TradeAgreement trade = buildTradeAgreement(
-                world, npcShip, playerStation, offers
-            );
+            // Build trade agreement (reservations are tracked per item so failures can undo them exactly)
+            span.enter(TradeTrace.PHASE_BUILD);
+            long buildStart = System.nanoTime();
+            ReservationBatch reservations = new ReservationBatch(npcShip.getJobManager(), world.getNextElementId());
+            Trading.TradeAgreement trade;
+            if (plan != null && !plan.isProbe() && plan.getOffersGeneration() == state.getOffersGeneration()) {
+                trade = reserveTrade(world, npcShip, playerStation, state, plan, reservations);
+            } else {
+                if (plan != null && !plan.isProbe()) {
+                    if (ModLog.isEnabled(ModLog.Category.TRADES, ModLog.Level.DEBUG)) {
+                        ModLog.log(ModLog.Category.TRADES, ModLog.Level.DEBUG,
+                                   "AutoBuyerCore: Offers for ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + 
+                                   ") changed since planning - rebuilding trade from current offers");
+                    }
+                }
+                trade = buildTradeAgreement(world, npcShip, playerStation, state, stock, reservations);
+            }
+            buildLatency.record(System.nanoTime() - buildStart);
+            span.setReservations(reservations.getLinesAttempted(), reservations.getGameCalls());
+            if (trade != null) {
+                span.setTrade(trade.toShip1.size, trade.creditsToShip2);
+            }
             
             if (trade == null) {
                 // Could not build trade - for new ships, allow retries
                 if (state.isNewShip()) {
-                    state.incrementNewShipRetryCount();
-                    if (state.hasExceededNewShipRetries(MAX_NEW_SHIP_RETRIES)) {
-                        state.setNothingToPurchase(true);
-                        state.setNewShip(false);
-                        ModLog.log("AutoBuyerCore: New ship " + shipName + " (ID: " + npcShip.getShipId() + 
-                                  ") could not build trade after " + MAX_NEW_SHIP_RETRIES + " retries - marking as nothing to purchase");
+                    // One atomic step: count the retry and, once exhausted, stop treating the ship as new
+                    if (state.recordNewShipRetry(MAX_NEW_SHIP_RETRIES)) {
+                        if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                            ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                                       "AutoBuyerCore: New ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + 
+                                       ") could not build trade after " + MAX_NEW_SHIP_RETRIES + " retries - marking as nothing to purchase");
+                        }
                     } else {
-                        ModLog.log("AutoBuyerCore: New ship " + shipName + " (ID: " + npcShip.getShipId() + 
-                                  ") could not build trade (retry " + state.getNewShipRetryCount() + "/" + MAX_NEW_SHIP_RETRIES + ") - will retry");
+                        if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                            ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                                       "AutoBuyerCore: New ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + 
+                                       ") could not build trade (retry " + state.getNewShipRetryCount() + "/" + MAX_NEW_SHIP_RETRIES + ") - will retry");
+                        }
                     }
                 } else {
                     state.setNothingToPurchase(true);
                     // Log why trade couldn't be built - check offers to see what was available
-                    int eligibleItems = 0;
-                    int itemsWithNeed = 0;
-                    for (Map.Entry<Integer, Trading.TradeItem> offerEntry : offers.entrySet()) {
-                        Trading.TradeItem offer = offerEntry.getValue();
-                        if (offer != null && offer.howMuch > 0 && 
-                            offer.getTradeItemMode() != TradingHelper.TradeItemMode.Premium) {
-                            eligibleItems++;
-                            int target = config.getTargetStock(offerEntry.getKey());
-                            if (target > 0) {
-                                int need = calculateNeed(world, playerStation, offerEntry.getKey(), target);
-                                if (need > 0) {
-                                    itemsWithNeed++;
-                                }
-                            }
-                        }
+                    if (ModLog.isEnabled(ModLog.Category.TRADES, ModLog.Level.DEBUG)) {
+                        logBuildFailure(npcShip, offers, stock);
                     }
-                    ModLog.log("AutoBuyerCore: [FAILED] Could not build valid trade for ship " + shipName + 
-                              " (ID: " + npcShip.getShipId() + ") - " + eligibleItems + " eligible items in offers, " + 
-                              itemsWithNeed + " items with need > 0");
                 }
-                state.setLastAttemptTime(world);
+                state.setLastAttemptTime();
+                startCooldown(npcShip.getShipId(), state);
                 return false;
             }
             
-            // Reserve credits and commit
-            TradingHelper.Bank playerBank = world.getPlayerBank();
-            if (playerBank.getCreditsAvailable() < trade.creditsToShip2) {
-                ModLog.log("AutoBuyerCore: Insufficient credits. Need: " + trade.creditsToShip2 + 
-                          ", Have: " + playerBank.getCreditsAvailable());
-                // Free item reservations since we can't complete the trade
-                npcShip.getJobManager().cancelAllReservationsForTrade(trade.id);
+            /**
+             * Commit the trade (see TradeCommitter for the locking).
+             * WHY: Multiple AspectJ hooks can fire simultaneously (e.g., trade completion
+             * and entity boarding hooks both triggering attemptBestTrade). The committer claims
+             * the credits, then re-checks the trade ID and the per-ship limits under the ship's
+             * lock, because state may have changed since the checks above.
+             */
+            span.enter(TradeTrace.PHASE_COMMIT);
+            GameTradeAttempt attempt = new GameTradeAttempt(world, npcShip, state, trade, stock);
+            int result;
+            try {
+                result = tradeCommitter.commit(npcShip.getShipId(), trade.id, trade.creditsToShip2, attempt);
+            } catch (Exception e) {
+                // If trade creation fails, free item reservations (the committer released the trade ID)
+                ModLog.log(ModLog.Category.TRADES, ModLog.Level.ERROR, "AutoBuyerCore: Failed to create trade, freeing item reservations: {}", e.getMessage());
+                reservations.rollback();
+                throw e; // Re-throw to be caught by outer try-catch
+            }
+            
+            if (result != TradeCommitter.CREATED) {
+                // Free item reservations since we're not creating the trade
+                reservations.rollback();
+                if (result == TradeCommitter.INSUFFICIENT_CREDITS) {
+                    if (ModLog.isEnabled(ModLog.Category.TRADES, ModLog.Level.DEBUG)) {
+                        ModLog.log(ModLog.Category.TRADES, ModLog.Level.DEBUG,
+                                   "AutoBuyerCore: Insufficient credits. Need: " + trade.creditsToShip2 + 
+                                   ", Have: " + world.getPlayerBank().getCreditsAvailable() + " (" +
+                                   tradeCommitter.getPendingCredits() + " claimed by trades in progress)");
+                    }
+                } else if (result == TradeCommitter.DUPLICATE_TRADE_ID) {
+                    ModLog.log(ModLog.Category.TRADES, ModLog.Level.WARN,
+                               "AutoBuyerCore: Trade {} already exists - preventing duplicate creation", trade.id);
+                } else if (ModLog.isEnabled(ModLog.Category.TRADES, ModLog.Level.DEBUG)) {
+                    ModLog.log(ModLog.Category.TRADES, ModLog.Level.DEBUG,
+                               "AutoBuyerCore: Ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + 
+                               ") now has " + countActiveTradesWithNpc(npcShip.getShipId()) +
+                               " concurrent trades (" + state.getTotalTradesCreated() +
+                               "/8 this visit) - preventing duplicate trade creation");
+                }
                 return false;
             }
             
             /**
-             * Synchronize trade creation to prevent race conditions and duplicate trades.
-             * WHY: Multiple AspectJ hooks can fire simultaneously (e.g., trade completion
-             * and entity boarding hooks both triggering attemptBestTrade). Without synchronization,
-             * both could check "3 active trades" and both create trades, exceeding the 4-trade limit.
+             * Add notification to main notifications UI (without causing UI duplication).
+             * This is separate from the trade icon UI which is handled by addNewTradeAgreement().
              * 
-             * The synchronized block ensures only one thread creates a trade at a time.
-             * We also double-check conditions inside the synchronized block because state
-             * may have changed between the initial check and entering the synchronized block.
+             * WHY: The game's addNewTradeAgreement() creates a trade icon, but doesn't
+             * always create a notification in the main notifications panel. We add it
+             * manually so players see when auto-trades are created. We wrap in try-catch
+             * because GUI may not be initialized yet, and we don't want GUI failures to
+             * prevent trade creation (trade is more important than notification).
              */
-            synchronized (tradeCreationLock) {
-                /**
-                 * Double-check: verify trade ID hasn't been created already.
-                 * WHY: Another thread may have created a trade with this ID between when we
-                 * generated it and when we enter the synchronized block. This prevents duplicate
-                 * trades with the same ID (which would cause errors).
-                 */
-                if (createdTradeIds.contains(trade.id)) {
-                    ModLog.log("AutoBuyerCore: Trade " + trade.id + " already exists - preventing duplicate creation");
-                    // Free item reservations since we're not creating the trade
-                    npcShip.getJobManager().cancelAllReservationsForTrade(trade.id);
-                    return false;
-                }
-                
-                /**
-                 * Double-check active trades again (may have changed during concurrent execution).
-                 * WHY: Between the initial check and entering synchronized block, another thread
-                 * may have created a trade with this ship. We must verify the limit again inside
-                 * the synchronized block to ensure accuracy.
-                 */
-                int activeTradesCheck = countActiveTradesWithNpc(world, npcShip.getShipId(), playerStation.getShipId());
-                if (activeTradesCheck >= 4) {
-                    ModLog.log("AutoBuyerCore: Ship " + shipName + " (ID: " + npcShip.getShipId() + 
-                              ") now has " + activeTradesCheck + " concurrent trades - preventing duplicate trade creation");
-                    // Free item reservations since we're not creating the trade
-                    npcShip.getJobManager().cancelAllReservationsForTrade(trade.id);
-                    return false;
+            try {
+                fi.bugbyte.spacehaven.gui.GUI gui = fi.bugbyte.spacehaven.gui.GUI.instance;
+                if (gui != null && gui.getGuiNotes() != null) {
+                    gui.getGuiNotes().addNewTrade(trade);
                 }
-                
-                try {
-                    playerBank.reserve(trade.creditsToShip2);
-                    world.addNewTradeAgreement(trade);
-                    // Mark this trade ID as created to prevent duplicates
-                    createdTradeIds.add(trade.id);
-                    
-                    /**
-                     * Add notification to main notifications UI (without causing UI duplication).
-                     * This is separate from the trade icon UI which is handled by addNewTradeAgreement().
-                     * 
-                     * WHY: The game's addNewTradeAgreement() creates a trade icon, but doesn't
-                     * always create a notification in the main notifications panel. We add it
-                     * manually so players see when auto-trades are created. We wrap in try-catch
-                     * because GUI may not be initialized yet, and we don't want GUI failures to
-                     * prevent trade creation (trade is more important than notification).
-                     */
-                    try {
-                        fi.bugbyte.spacehaven.gui.GUI gui = fi.bugbyte.spacehaven.gui.GUI.instance;
-                        if (gui != null && gui.getGuiNotes() != null) {
-                            gui.getGuiNotes().addNewTrade(trade);
-                        }
-                    } catch (Exception guiException) {
-                        // Log but don't fail the trade if GUI notification fails
-                        ModLog.log("AutoBuyerCore: Failed to add trade notification (trade still created): " + guiException.getMessage());
-                    }
-                    
-                    // Increment total trades counter for this ship
-                    state.incrementTotalTradesCreated();
-                    
-                    ModLog.log("AutoBuyerCore: Created trade " + trade.id + " with ship " + shipName + " (ID: " + npcShip.getShipId() + 
-                              ") for " + trade.creditsToShip2 + " credits, " + trade.toShip1.size + " item types " +
-                              "(Total trades with this ship: " + state.getTotalTradesCreated() + "/8)");
-                    
-                    /**
-                     * Update state: successful trade means we should check again when slot frees.
-                     * 
-                     * WHY each update:
-                     * - setLastAttemptTime: Tracks when we last tried (for cooldown calculation)
-                     * - setLastOffersRefreshTime: Tracks when offers were refreshed (for cache invalidation)
-                     * - setNothingToPurchase(false): Clear flag - we found something to buy, so ship
-                     *   is still viable for future trades
-                     * - clearOffersSnapshot(): CRITICAL - NPC stock has changed after this trade,
-                     *   so cached offers are stale. We must refresh on next attempt to get accurate
-                     *   availability. Without this, we might try to buy items that are no longer available.
-                     */
-                    state.setLastAttemptTime(world);
-                    state.setLastOffersRefreshTime(world);
-                    state.setNothingToPurchase(false); // Clear flag - we found something to buy
-                    // CRITICAL: Invalidate offers cache so we can check for more items to buy
-                    // NPC stock has changed, so we need fresh availability data for next trade
-                    state.clearOffersSnapshot();
-                    if (state.isNewShip()) {
-                        state.setNewShip(false); // Ship is no longer new after first successful trade
-                        ModLog.log("AutoBuyerCore: Ship " + shipName + " (ID: " + npcShip.getShipId() + ") successfully traded - no longer marked as new");
-                    }
-                    // Note: Don't set maxTradesReached here - we'll check that on next attempt
-                    // We want to continue checking for more trades until we hit 4 concurrent
-                    
-                    return true; // Successfully created trade
-                    
-                } catch (Exception e) {
-                    // If trade creation fails, free item reservations and remove from tracking
-                    ModLog.log("AutoBuyerCore: Failed to create trade, freeing item reservations: " + e.getMessage());
-                    npcShip.getJobManager().cancelAllReservationsForTrade(trade.id);
-                    createdTradeIds.remove(trade.id); // Remove in case it was added before exception
-                    throw e; // Re-throw to be caught by outer try-catch
+            } catch (Exception guiException) {
+                // Log but don't fail the trade if GUI notification fails
+                ModLog.log(ModLog.Category.TRADES, ModLog.Level.WARN,
+                           "AutoBuyerCore: Failed to add trade notification (trade still created): {}",
+                           guiException.getMessage());
+            }
+            
+            if (ModLog.isEnabled(ModLog.Category.TRADES, ModLog.Level.INFO)) {
+                ModLog.log(ModLog.Category.TRADES, ModLog.Level.INFO,
+                           "AutoBuyerCore: Created trade " + trade.id + " with ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + 
+                           ") for " + trade.creditsToShip2 + " credits, " + trade.toShip1.size + " item types " +
+                           "(Total trades with this ship: " + state.getTotalTradesCreated() + "/8)");
+            }
+            if (tradeJournal.isEnabled()) {
+                tradeJournal.tradeCommitted(trade, npcShip.getShipId(), getShipName(npcShip),
+                                            state.getTotalTradesCreated());
+            }
+            
+            /**
+             * Update state: successful trade means we should check again when slot frees.
+             * 
+             * WHY each update:
+             * - setLastAttemptTime: Tracks when we last tried (for cooldown calculation)
+             * - recordTradeCreated() (in GameTradeAttempt.created): cleared nothing-to-purchase -
+             *   we found something to buy, so ship is still viable for future trades
+             * - invalidateOffers(): CRITICAL - NPC stock has changed after this trade,
+             *   so cached offers are stale. We must refresh on next attempt to get accurate
+             *   availability. Without this, we might try to buy items that are no longer available.
+             */
+            state.setLastAttemptTime();
+            startCooldown(npcShip.getShipId(), state);
+            // CRITICAL: Invalidate offers cache so we can check for more items to buy
+            // NPC stock has changed, so we need fresh availability data for next trade
+            state.invalidateOffers();
+            if (attempt.wasNewShip) {
+                // Ship is no longer new after first successful trade
+                if (ModLog.isEnabled(ModLog.Category.TRADES, ModLog.Level.DEBUG)) {
+                    ModLog.log(ModLog.Category.TRADES, ModLog.Level.DEBUG, "AutoBuyerCore: Ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + ") successfully traded - no longer marked as new");
                 }
-            } // End synchronized block
+            }
+            // Note: Don't set maxTradesReached here - we'll check that on next attempt
+            // We want to continue checking for more trades until we hit 4 concurrent
+            
+            // The trade now owns its item reservations
+            reservations.commit();
+            return true; // Successfully created trade
             
         } catch (Exception e) {
-            ModLog.log("AutoBuyerCore: Exception in attemptAutoBuy: " + e.getMessage());
-            ModLog.log(e);
+            ModLog.log(ModLog.Category.TRADES, ModLog.Level.ERROR, "AutoBuyerCore: Exception in attemptAutoBuy", e);
             return false;
         }
     }
     
+    /**
+     * Log why no trade could be built from a ship's offers (only called when TRADES/DEBUG is on).
+     */
+    private void logBuildFailure(Ship npcShip, PlanningSnapshot.OfferView offers, StationStockSnapshot stock) {
+        int eligibleItems = 0;
+        int itemsWithNeed = 0;
+        for (int ti = 0; ti < offers.getTable().size(); ti++) {
+            if (offers.isOffered(ti) && 
+                offers.getMode(ti) != TradingHelper.TradeItemMode.Premium) {
+                eligibleItems++;
+                if (stock.getNeedFor(offers.getTable().elementaryIdAt(ti)) > 0) {
+                    itemsWithNeed++;
+                }
+            }
+        }
+        ModLog.log(ModLog.Category.TRADES, ModLog.Level.DEBUG,
+                   "AutoBuyerCore: [FAILED] Could not build valid trade for ship " + getShipName(npcShip) + 
+                   " (ID: " + npcShip.getShipId() + ") - " + eligibleItems + " eligible items in offers, " +
+                   itemsWithNeed + " items with need > 0");
+    }
+    
     /**
      * Check if we should attempt to trade with this NPC ship.
      */
@@ -446,8 +753,9 @@ public class AutoBuyerCore {
         // Trade eligibility check
         fi.bugbyte.spacehaven.ai.EncounterAI.AiShipInfo aiInfo = npcShip.getAiShipInfo(false);
         if (aiInfo != null && !aiInfo.canTradeWith(playerStation.getShipId())) {
-            String shipName = getShipName(npcShip);
-            ModLog.log("AutoBuyerCore: Ship " + shipName + " (ID: " + npcShip.getShipId() + ") cannot trade (already traded this sector)");
+            if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG, "AutoBuyerCore: Ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + ") cannot trade (already traded this sector)");
+            }
             return false;
         }
         
@@ -456,81 +764,136 @@ public class AutoBuyerCore {
     
     /**
      * Find the player station in the world.
+     * Returns the cached station when it belongs to this world and is still a player station;
+     * otherwise scans world.getShips() once and caches the result.
      */
-    private Ship findPlayerStation(World world) {
+    public Ship findPlayerStation(World world) {
+        if (world == null) {
+            return null;
+        }
+        StationHandle handle = stationHandle;
+        if (handle != null && handle.world == world &&
+            handle.station.isPlayerShip() && handle.station.isStation()) {
+            return handle.station;
+        }
+        
         Array<Ship> ships = world.getShips();
         for (int i = 0; i < ships.size; i++) {
             Ship s = ships.get(i);
             if (s.isPlayerShip() && s.isStation()) {
+                stationHandle = new StationHandle(world, s);
                 return s;
             }
         }
+        stationHandle = null;
         return null;
     }
     
+    /**
+     * Get the cached player station ship ID, or -1 if no station is cached.
+     */
+    public int getCachedPlayerStationId() {
+        StationHandle handle = stationHandle;
+        return handle != null ? handle.stationId : -1;
+    }
+    
+    /**
+     * Drop the cached player station so the next lookup rescans the world.
+     * Called from the addShip/shipJumped hooks.
+     */
+    public void invalidatePlayerStation() {
+        stationHandle = null;
+    }
+    
     /**
      * Count active trades between player station and NPC ship.
+     * Reads the per-ship counter in the trade index (O(1)). The counter is maintained by
+     * trade creation and the setTradeDone/cancelTrade hooks, and reconciled against
+     * world.getTrades() at the start of each evaluation.
      */
-    private int countActiveTradesWithNpc(World world, int npcShipId, int playerStationId) {
-        int count = 0;
-        Array<Trading.TradeAgreement> trades = world.getTrades();
-        for (int i = 0; i < trades.size; i++) {
-            Trading.TradeAgreement t = trades.get(i);
-            if (t.isPlayerTrade() && 
-                ((t.shipId1 == playerStationId && t.shipId2 == npcShipId) ||
-                 (t.shipId1 == npcShipId && t.shipId2 == playerStationId))) {
-                count++;
-            }
-        }
-        return count;
+    private int countActiveTradesWithNpc(int npcShipId) {
+        return tradeIndex.getActiveTradeCount(npcShipId);
     }
     
     /**
-     * Refresh offers from NPC ship if needed (respects cooldown).
+     * Refresh offers from NPC ship if needed.
+     * 
+     * Cached offers are reused until one of these happens (see ShipState.checkOffers):
+     * - a trade with this ship is created, completes or is cancelled (NPC stock changed)
+     * - they are older than refresh_cooldown_ticks (0 = no age limit)
+     * - the ship offered nothing last time (empty results are never cached, so new ships retry)
      */
-    private Map<Integer, Trading.TradeItem> refreshOffersIfNeeded(
+    private PlanningSnapshot.OfferView refreshOffersIfNeeded(
         World world, Ship npcShip, Ship playerStation, ShipState state
     ) {
-        // Refresh if we don't have cached offers or if cache was invalidated
-        // NOTE: We invalidate cache after each trade completes since NPC stock changes when we buy
-        if (state.getOffersSnapshot().isEmpty() || state.shouldRefreshOffers(world, config.getRefreshCooldownTicks())) {
-            // Build mustOffer list from target stocks
-            Array<Trading.TradeItem> mustOffer = new Array<>(false, config.getAllTargetStocks().size());
-            for (Integer eid : config.getAllTargetStocks().keySet()) {
-                Trading.TradeItem item = new Trading.TradeItem();
-                item.elementaryId = eid;
-                mustOffer.add(item);
-            }
-            
-            // Get offers
+        TargetStockTable targets = config.getTargetStockTable();
+        long nowTick = timers.currentWallClockTick();
+        int outcome = state.checkOffers(nowTick, config.getRefreshCooldownTicks(), targets);
+        offerCacheMetrics.recordLookup(outcome);
+        if (outcome != OfferCacheMetrics.HIT) {
+            long refreshStart = System.nanoTime();
+            Object flightEvent = FlightEvents.beginOfferRefresh();
+            // Read before fetching: an invalidation that lands during the fetch must still count
+            int invalidation = state.getOffersInvalidation();
+            
+            // Get offers (mustOffer lists every target item)
             TradingHelper.Bank bank = npcShip.getShipCreditBank();
-            Array<Trading.TradeItem> offers = bank.createOffersList(npcShip, mustOffer, false, null);
+            Array<Trading.TradeItem> offers = bank.createOffersList(npcShip, mustOfferFor(targets), false, null);
             
             // Runtime discovery: Log all item IDs found in offers
             logDiscoveredItemIds(offers, npcShip.getShipId(), npcShip);
             
-            // Also discover ALL items this ship has (not just our targets)
-            discoverAllAvailableItems(world, npcShip);
+            // Occasionally queue a full-inventory sample for the item catalog (off by default)
+            sampleDiscovery(world, npcShip.getShipId());
             
-            // Convert to map
-            Map<Integer, Trading.TradeItem> offerMap = new HashMap<>();
-            for (int i = 0; i < offers.size; i++) {
-                Trading.TradeItem offer = offers.get(i);
-                offerMap.put(offer.elementaryId, offer);
-            }
-            
-            state.setOffersSnapshot(offerMap);
-            state.setLastOffersRefreshTime(world);
+            // Copy into the ship's flat offer arrays (in place unless the planner may be reading them)
+            PlanningSnapshot.OfferView view = state.refillOffers(offers, targets, nowTick, invalidation,
+                                                                 !plannerReadingOffers);
+            long refreshNanos = System.nanoTime() - refreshStart;
+            offerCacheMetrics.recordRefresh(refreshNanos);
+            refreshLatency.record(refreshNanos);
+            FlightEvents.commitOfferRefresh(flightEvent, npcShip.getShipId(), view.getOfferedCount());
             
-            String shipName = getShipName(npcShip);
-            ModLog.log("AutoBuyerCore: Refreshed offers for ship " + shipName + " (ID: " + npcShip.getShipId() + 
-                      "), found " + offerMap.size() + " items");
+            if (ModLog.isEnabled(ModLog.Category.OFFERS, ModLog.Level.DEBUG)) {
+                ModLog.log(ModLog.Category.OFFERS, ModLog.Level.DEBUG,
+                           "AutoBuyerCore: Refreshed offers for ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + 
+                           "), found " + view.getOfferedCount() + " items in " + (refreshNanos / 1000) + "us");
+            }
+            if (offerCacheMetrics.getRefreshCount() % 50 == 0) {
+                ModLog.log(ModLog.Category.OFFERS, ModLog.Level.INFO, "AutoBuyerCore: [CACHE] Offer cache: {}", offerCacheMetrics.describe());
+            }
             
-            return offerMap;
+            return view;
         }
         
         // Return cached offers
-        return state.getOffersSnapshot();
+        return state.getOfferView();
+    }
+    
+    /**
+     * The mustOffer list for createOffersList: one item per target, built once per target table.
+     * Each use restores the items' fields in case the game changed them during the last call.
+     */
+    private Array<Trading.TradeItem> mustOfferFor(TargetStockTable targets) {
+        if (mustOfferTable != targets) {
+            Array<Trading.TradeItem> template = new Array<>(false, targets.size());
+            for (int i = 0; i < targets.size(); i++) {
+                template.add(new Trading.TradeItem());
+            }
+            mustOfferTemplate = template;
+            mustOfferTable = targets;
+        }
+        // The game may also have reordered or shrunk the list
+        if (mustOfferTemplate.size != targets.size()) {
+            mustOfferTable = null;
+            return mustOfferFor(targets);
+        }
+        for (int i = 0; i < targets.size(); i++) {
+            Trading.TradeItem item = mustOfferTemplate.get(i);
+            item.elementaryId = targets.elementaryIdAt(i);
+            item.howMuch = 0;
+        }
+        return mustOfferTemplate;
     }
     
     /**
@@ -553,353 +916,268 @@ public class AutoBuyerCore {
      * This helps discover new item IDs and verify existing ones.
      */
     private void logDiscoveredItemIds(Array<Trading.TradeItem> offers, int shipId, Ship npcShip) {
-        if (offers == null || offers.size == 0) {
+        if (offers == null || offers.size == 0 || !ModLog.isEnabled(ModLog.Category.OFFERS, ModLog.Level.DEBUG)) {
             return;
         }
         
         String shipName = getShipName(npcShip);
-        ModLog.log("AutoBuyerCore: [DISCOVERY] Ship " + shipName + " (ID: " + shipId + ") offers " + offers.size + " items:");
+        ModLog.log(ModLog.Category.OFFERS, ModLog.Level.DEBUG, "AutoBuyerCore: [DISCOVERY] Ship " + shipName + " (ID: " + shipId + ") offers " + offers.size + " items:");
         for (int i = 0; i < offers.size; i++) {
             Trading.TradeItem offer = offers.get(i);
             String modeStr = offer.getTradeItemMode() != null ? offer.getTradeItemMode().toString() : "null";
-            ModLog.log("AutoBuyerCore: [DISCOVERY]   ID: " + offer.elementaryId + 
-                      ", Qty: " + offer.howMuch + 
-                      ", Mode: " + modeStr);
+            ModLog.log(ModLog.Category.OFFERS, ModLog.Level.DEBUG,
+                       "AutoBuyerCore: [DISCOVERY]   ID: " + offer.elementaryId + 
+                       ", Qty: " + offer.howMuch +
+                       ", Mode: " + modeStr);
         }
     }
     
     /**
-     * Discover ALL items available from an NPC ship (not just our targets).
-     * This is called periodically to help build a complete item ID database.
-     * Uses a static counter to avoid spamming logs.
+     * Sampled discovery: every discovery_sample_rate-th offer refresh, queue a full-inventory
+     * read of that ship for the item catalog. 0 (default) turns discovery off.
+     * WHY: The full offers list is untargeted and expensive; it never runs inside the refresh.
+     * It is posted to the start of the next frame instead.
      */
-    private static int discoveryCallCount = 0;
-    private void discoverAllAvailableItems(World world, Ship npcShip) {
-        // Only run discovery every 10th call to avoid log spam
-        discoveryCallCount++;
-        if (discoveryCallCount % 10 != 0) {
+    private void sampleDiscovery(World world, int shipId) {
+        int rate = config.getDiscoverySampleRate();
+        if (rate <= 0) {
             return;
         }
-        
+        discoveryRefreshCounter++;
+        if (discoveryRefreshCounter % rate != 0) {
+            return;
+        }
+        Application app = Gdx.app;
+        if (app == null) {
+            discoverAllAvailableItems(world, shipId);
+            return;
+        }
+        app.postRunnable(() -> discoverAllAvailableItems(world, shipId));
+    }
+    
+    /**
+     * Discover ALL items available from an NPC ship (not just our targets) and add them to the
+     * item catalog. Game thread.
+     */
+    private void discoverAllAvailableItems(World world, int shipId) {
         try {
+            Ship npcShip = world.getShip(shipId);
+            if (npcShip == null) {
+                return; // Left before the sample ran
+            }
             TradingHelper.Bank bank = npcShip.getShipCreditBank();
             // Get ALL offers (pass null for mustOffer to get everything)
             Array<Trading.TradeItem> allOffers = bank.createOffersList(npcShip, null, true, null);
             
             if (allOffers != null && allOffers.size > 0) {
                 String shipName = getShipName(npcShip);
-                ModLog.log("AutoBuyerCore: [FULL DISCOVERY] Ship " + shipName + " (ID: " + npcShip.getShipId() + 
-                          ") has " + allOffers.size + " total items available:");
-                
-                // Group by category for easier reading
-                java.util.Set<Integer> discoveredIds = new java.util.HashSet<>();
-                for (int i = 0; i < allOffers.size; i++) {
-                    Trading.TradeItem offer = allOffers.get(i);
-                    discoveredIds.add(offer.elementaryId);
-                    
-                    String modeStr = offer.getTradeItemMode() != null ? 
-                        offer.getTradeItemMode().toString() : "null";
-                    ModLog.log("AutoBuyerCore: [FULL DISCOVERY]   ID: " + offer.elementaryId + 
-                              ", Qty: " + offer.howMuch + 
-                              ", Mode: " + modeStr);
-                }
-                
-                ModLog.log("AutoBuyerCore: [FULL DISCOVERY] Total unique item IDs discovered: " + discoveredIds.size());
+                ModLog.log(ModLog.Category.OFFERS, ModLog.Level.INFO,
+                           "AutoBuyerCore: [FULL DISCOVERY] Ship {} (ID: {}) has {} total items available - adding to item catalog",
+                           shipName, shipId, allOffers.size);
+                getItemCatalog().record(allOffers, shipName + " (ID: " + shipId + ")");
             }
         } catch (Exception e) {
-            ModLog.log("AutoBuyerCore: Exception in discoverAllAvailableItems: " + e.getMessage());
-            ModLog.log(e);
+            ModLog.log(ModLog.Category.OFFERS, ModLog.Level.ERROR, "AutoBuyerCore: Exception in discoverAllAvailableItems", e);
+        }
+    }
+    
+    /**
+     * Get the item catalog, creating and loading it on first use.
+     */
+    private ItemCatalog getItemCatalog() {
+        if (itemCatalog == null) {
+            java.io.File modFolder = AutoBuyerConfig.getModDirectory();
+            itemCatalog = new ItemCatalog(modFolder != null ? new java.io.File(modFolder, "item_catalog.csv") : null);
+            itemCatalog.load();
         }
+        return itemCatalog;
     }
     
     /**
-     * Build a trade agreement (respects 10-unit cap).
-     * CRITICAL: This method reserves items on the NPC ship before building the trade.
-     * If reservation fails, all previous reservations are freed and null is returned.
+     * Build a trade agreement (respects 10-unit cap) without a plan.
+     * Selects the items from the ship's current offers the same way the planner does
+     * (TradePlanner.selectLines), then reserves them via reserveTrade().
+     * Need and stock percentages come from the cycle's station stock snapshot.
+     * 
+     * @param reservations Batch for the new trade (its trade ID is used for the trade). The caller
+     *                     commits it once the trade is created, or rolls it back on failure.
      */
     private Trading.TradeAgreement buildTradeAgreement(
-        World world, Ship npcShip, Ship playerStation, Map<Integer, Trading.TradeItem> offers
+        World world, Ship npcShip, Ship playerStation, ShipState state,
+        StationStockSnapshot stock, ReservationBatch reservations
     ) {
-        // Get trade ID FIRST - needed for reservations
-        int tradeId = world.getNextElementId();
-        
+        PlanningSnapshot.OfferView offers = state.getOfferView();
+        if (offers == null || offers.getTable() != stock.getTable()) {
+            return null; // Targets changed since the stock snapshot was taken
+        }
+        offers.priceNeededItems(npcShip.getShipCreditBank(), stock, MAX_UNITS_PER_TRADE);
+        
+        TradePlan plan = new TradePlan(npcShip.getShipId(), getShipName(npcShip), state.getOffersGeneration(), 0);
+        TradeTunables tunables = config.getTunables();
+        TradePlanner.selectLines(plan, offers, stock, world.getPlayerBank().getCreditsAvailable(),
+                                 tunables.getMaxCreditsPerTrade(), PlanningSnapshot.captureBuyThresholds(tunables),
+                                 MAX_UNITS_PER_TRADE);
+        if (plan.isProbe()) {
+            reservations.rollback();
+            return null; // No valid trade
+        }
+        return reserveTrade(world, npcShip, playerStation, state, plan, reservations);
+    }
+    
+    /**
+     * Turn a plan into a trade agreement, reserving its items on the NPC ship.
+     * CRITICAL: Items must be reserved on the NPC ship before they go into the trade.
+     * A line that can't be reserved at all is skipped; a partly reserved line is trimmed to what
+     * was reserved and re-costed from the price curve (fewer units never cost more, so the trade
+     * still fits the budget it was planned for). If no line survives, the whole batch is rolled
+     * back and null is returned.
+     * 
+     * @param plan Lines planned against the ship's current offers snapshot
+     */
+    private Trading.TradeAgreement reserveTrade(
+        World world, Ship npcShip, Ship playerStation, ShipState state,
+        TradePlan plan, ReservationBatch reservations
+    ) {
+        // Trade ID was allocated with the reservation batch - needed for reservations
         Trading.TradeAgreement t = new Trading.TradeAgreement();
-        t.id = tradeId;
+        t.id = reservations.getTradeId();
         t.setPlayerTrade(true);
         t.shipId1 = playerStation.getShipId();
         t.shipId2 = npcShip.getShipId();
         
         TradingHelper.Bank bank = npcShip.getShipCreditBank();
-        TradingHelper.Bank playerBank = world.getPlayerBank();
-        fi.bugbyte.spacehaven.ai.JobManager npcJobManager = npcShip.getJobManager();
-        
-        int remainingCapacity = 10; // Hard cap
+        PlanningSnapshot.OfferView offers = state.getOfferView();
         int totalCost = 0;
         int totalUnits = 0;
-        
-        // Track reserved items so we can free them if trade building fails
-        java.util.List<Integer> reservedItemIds = new java.util.ArrayList<>();
-        
-        // Build list of eligible items with their priority, then sort by priority
-        java.util.List<ItemOffer> eligibleItems = new java.util.ArrayList<>();
-        for (Map.Entry<Integer, Integer> entry : config.getAllTargetStocks().entrySet()) {
-            int eid = entry.getKey();
-            int target = entry.getValue();
-            
-            Trading.TradeItem offer = offers.get(eid);
-            if (offer == null) continue;
-            
-            // Premium items can be purchased if stock is below Premium threshold (threshold system handles this)
-            // No need to skip Premium items - let threshold check determine eligibility
-            
-            // Calculate need and current stock percentage
-            int current = playerStation.getItemsOf(eid, true);
-            int queued = getAlreadyQueuedInbound(world, playerStation, eid);
-            int need = Math.max(0, target - current - queued);
-            if (need <= 0) continue;
-            
-            // Check markup threshold for buying
-            // Calculate current stock as percentage of target stock
-            double stockPercent = target > 0 ? ((double)(current + queued) / target) * 100.0 : 0.0;
-            int threshold = config.getBuyThreshold(offer.getTradeItemMode());
-            
-            // Only buy if current stock percentage is below the threshold for this trade mode
-            // Example: Discounted threshold = 100% means always buy if under target
-            //          Markup threshold = 40% means only buy if stock < 40% of target
-            if (stockPercent >= threshold) {
-                // Stock is too high for this markup level - skip
+        for (int line = 0; line < plan.getLineCount(); line++) {
+            int eid = plan.getElementaryId(line);
+            int plannedQty = plan.getQuantity(line);
+            int ti = offers.getTable().indexOf(eid);
+            PriceCurve curve = ti >= 0 ? offers.ensureCurve(bank, ti, MAX_UNITS_PER_TRADE) : null;
+            if (curve == null) {
+                if (ModLog.isEnabled(ModLog.Category.TRADES, ModLog.Level.DEBUG)) {
+                    ModLog.log(ModLog.Category.TRADES, ModLog.Level.DEBUG, "AutoBuyerCore: Item ID: " + eid + " is no longer offered - skipping line");
+                }
                 continue;
             }
             
-            // Get available quantity from offer
-            int avail = offer.howMuch;
-            if (avail <= 0) continue;
-            
-            // Add to eligible items list with priority
-            eligibleItems.add(new ItemOffer(eid, target, offer, need, avail));
-        }
-        
-        // Sort by priority: Discounted (0) > Neutral (1) > Markup (2) > Premium (3)
-        eligibleItems.sort((a, b) -> {
-            int priorityA = getTradeModePriority(a.offer.getTradeItemMode());
-            int priorityB = getTradeModePriority(b.offer.getTradeItemMode());
-            return Integer.compare(priorityA, priorityB);
-        });
-        
-        // Now iterate in priority order
-        for (ItemOffer itemOffer : eligibleItems) {
-            int eid = itemOffer.elementaryId;
-            int target = itemOffer.target;
-            Trading.TradeItem offer = itemOffer.offer;
-            int need = itemOffer.need;
-            int avail = itemOffer.avail;
-            if (avail <= 0) continue;
-            
-            // Calculate desired quantity to buy (respect capacity)
-            int desiredQty = Math.min(Math.min(need, avail), remainingCapacity);
-            if (desiredQty <= 0) continue;
-            
             // CRITICAL: Reserve items on NPC ship BEFORE adding to trade
             // The game requires this or trades will fail with "An item seems to be missing"
-            // Try to reserve items one at a time, adapting to actual availability
-            int actualReservedQty = 0;
-            
-            for (int i = 0; i < desiredQty; i++) {
-                if (!npcJobManager.reserveItemForTrade(eid, tradeId)) {
-                    // Reservation failed - this unit isn't available
-                    // This can happen if items were reserved by other trades
-                    if (actualReservedQty == 0) {
-                        // Couldn't reserve even one - skip this item entirely
-                        ModLog.log("AutoBuyerCore: Could not reserve any item ID: " + eid + 
-                                  " - item may be unavailable or already reserved");
-                        break;
-                    } else {
-                        // Reserved some but not all - use what we got
-                        ModLog.log("AutoBuyerCore: Reserved " + actualReservedQty + " of " + desiredQty + 
-                                  " units of item ID: " + eid);
-                        break;
-                    }
-                }
-                actualReservedQty++;
-            }
+            // The batch reserves as many units as are actually available (up to plannedQty)
+            int qty = reservations.reserve(eid, plannedQty);
             
             // If we couldn't reserve any, skip this item and continue
-            if (actualReservedQty == 0) {
-                continue;
-            }
-            
-            // Use the actual reserved quantity (may be less than desired)
-            int qty = actualReservedQty;
-            
-            // Track this item as reserved
-            reservedItemIds.add(eid);
-            
-            // Calculate cost for this item (per-unit calculation)
-            int itemCost = 0;
-            int added = 0;
-            for (int i = 0; i < qty; i++) {
-                int unitPrice = bank.getSellPriceToPlayer(eid, avail - added, offer.getTradeItemMode());
-                itemCost += unitPrice;
-                added++;
-            }
-            
-            // Check if we can afford it
-            if (playerBank.getCreditsAvailable() < totalCost + itemCost) {
-                // Try to reduce quantity to what we can afford
-                int affordableQty = qty;
-                int affordableCost = itemCost;
-                while (affordableQty > 0 && playerBank.getCreditsAvailable() < totalCost + affordableCost) {
-                    // Free one reservation
-                    npcJobManager.freeItemReservationForTrade(eid, tradeId);
-                    affordableQty--;
-                    affordableCost = 0;
-                    added = 0;
-                    for (int i = 0; i < affordableQty; i++) {
-                        affordableCost += bank.getSellPriceToPlayer(eid, avail - added, offer.getTradeItemMode());
-                        added++;
-                    }
+            // This can happen if items were reserved by other trades
+            if (qty == 0) {
+                reservationsFailed.increment();
+                if (ModLog.isEnabled(ModLog.Category.TRADES, ModLog.Level.DEBUG)) {
+                    ModLog.log(ModLog.Category.TRADES, ModLog.Level.DEBUG,
+                               "AutoBuyerCore: Could not reserve any item ID: " + eid + 
+                               " - item may be unavailable or already reserved");
                 }
-                if (affordableQty <= 0) {
-                    // Free all reservations for this item and break
-                    npcJobManager.cancelAllReservationsForTrade(tradeId);
-                    break; // Can't afford any more
-                }
-                
-                // Update quantity to what we can afford
-                qty = affordableQty;
-                itemCost = affordableCost;
+                continue;
             }
-            
-            // Check max credits per trade limit
-            if (config.getMaxCreditsPerTrade() < Integer.MAX_VALUE) {
-                if (totalCost + itemCost > config.getMaxCreditsPerTrade()) {
-                    // Free reservations and break
-                    npcJobManager.cancelAllReservationsForTrade(tradeId);
-                    break; // Would exceed limit
+            if (qty < plannedQty) {
+                // Reserved some but not all - use what we got
+                reservationsPartial.increment();
+                if (ModLog.isEnabled(ModLog.Category.TRADES, ModLog.Level.DEBUG)) {
+                    ModLog.log(ModLog.Category.TRADES, ModLog.Level.DEBUG,
+                               "AutoBuyerCore: Reserved " + qty + " of " + plannedQty + 
+                               " units of item ID: " + eid);
                 }
             }
             
-            // Add item to trade
             t.toShip1.add(new Trading.TradeItem(eid, qty));
-            totalCost += itemCost;
+            totalCost += curve.costOf(qty);
             totalUnits += qty;
-            remainingCapacity -= qty;
-            
-            if (remainingCapacity <= 0) break;
         }
         
         if (t.toShip1.size == 0 || totalCost <= 0) {
             // Free all reservations before returning null
-            npcJobManager.cancelAllReservationsForTrade(tradeId);
+            reservations.rollback();
             return null; // No valid trade
         }
         
         t.creditsToShip2 = totalCost;
         
-        // Build item list string for logging (IDs only - no names to avoid "Placeholder name" clutter)
-        StringBuilder itemList = new StringBuilder();
-        for (int i = 0; i < t.toShip1.size; i++) {
-            Trading.TradeItem item = t.toShip1.get(i);
-            if (i > 0) itemList.append(", ");
-            itemList.append("ID: ").append(item.elementaryId).append(" x").append(item.howMuch);
-        }
+        tradeJournal.tradeBuilt(t, npcShip.getShipId());
         
-        ModLog.log("AutoBuyerCore: Built trade with " + t.toShip1.size + " item types, " + 
-                  totalUnits + " total units, " + totalCost + " credits: " + itemList.toString());
+        if (ModLog.isEnabled(ModLog.Category.TRADES, ModLog.Level.DEBUG)) {
+            // Build item list string for logging (IDs only - no names to avoid "Placeholder name" clutter)
+            StringBuilder itemList = new StringBuilder();
+            for (int i = 0; i < t.toShip1.size; i++) {
+                Trading.TradeItem item = t.toShip1.get(i);
+                if (i > 0) itemList.append(", ");
+                itemList.append("ID: ").append(item.elementaryId).append(" x").append(item.howMuch);
+            }
+            
+            ModLog.log(ModLog.Category.TRADES, ModLog.Level.DEBUG,
+                       "AutoBuyerCore: Built trade with " + t.toShip1.size + " item types, " + 
+                       totalUnits + " total units, " + totalCost + " credits: " + itemList.toString());
+        }
         
         return t;
     }
     
     /**
-     * Calculate how much of an item we need.
+     * Get or create ship state.
      */
-    private int calculateNeed(World world, Ship station, int elementaryId, int targetStock) {
-        int current = station.getItemsOf(elementaryId, true);
-        int queued = getAlreadyQueuedInbound(world, station, elementaryId);
-        int need = Math.max(0, targetStock - current - queued);
-        return need;
+    private ShipState getShipState(int shipId) {
+        return shipStates.computeIfAbsent(shipId, id -> new ShipState());
     }
     
     /**
-     * Get priority value for trade mode (lower = higher priority).
-     * Discounted (0) > Neutral (1) > Markup (2) > Premium (3)
+     * Mark a ship as new (allows retries before marking as "nothing to purchase").
+     * Records timestamp for 10-second initialization delay.
      */
-    private int getTradeModePriority(TradingHelper.TradeItemMode mode) {
-        if (mode == null) {
-            return 1; // Neutral as default
-        }
-        switch (mode) {
-            case Discounted:
-                return 0; // Highest priority
-            case Neutral:
-                return 1;
-            case Markup:
-                return 2;
-            case Premium:
-                return 3; // Lowest priority (shouldn't be bought anyway)
-            default:
-                return 1;
+    public void markShipAsNew(int shipId) {
+        ShipState state = getShipState(shipId);
+        // Only start the delay (and log) the first time the ship is marked as new
+        if (state.markNew()) {
+            timers.schedule(TIMER_NEW_SHIP_DELAY, shipId, NEW_SHIP_DELAY_TICKS);
+            ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG, "AutoBuyerCore: Marked ship ID: {} as new - 10-second initialization delay started", shipId);
         }
     }
     
     /**
-     * Helper class to hold item offer information for sorting.
+     * Put a ship into its query cooldown after an attempt (no-op when cooldown_ticks is 0).
      */
-    private static class ItemOffer {
-        final int elementaryId;
-        final int target;
-        final Trading.TradeItem offer;
-        final int need;
-        final int avail;
-        
-        ItemOffer(int eid, int target, Trading.TradeItem offer, int need, int avail) {
-            this.elementaryId = eid;
-            this.target = target;
-            this.offer = offer;
-            this.need = need;
-            this.avail = avail;
+    private void startCooldown(int shipId, ShipState state) {
+        int cooldownTicks = config.getCooldownTicks();
+        if (cooldownTicks <= 0) {
+            return;
         }
+        state.setInCooldown(true);
+        timers.schedule(TIMER_COOLDOWN, shipId, cooldownTicks);
     }
     
     /**
-     * Get quantity of items already queued inbound from active trades.
+     * Timing wheel callback (game thread): clear the flags of the ships whose cooldown or
+     * initialization delay just ran out, then request one evaluation for all of them.
      */
-    private int getAlreadyQueuedInbound(World world, Ship station, int elementaryId) {
-        int queued = 0;
-        Array<Trading.TradeAgreement> trades = world.getTrades();
-        for (int i = 0; i < trades.size; i++) {
-            Trading.TradeAgreement t = trades.get(i);
-            if (t.isPlayerTrade() && t.shipId1 == station.getShipId()) {
-                // This is an inbound trade to our station
-                for (int j = 0; j < t.toShip1.size; j++) {
-                    Trading.TradeItem item = t.toShip1.get(j);
-                    if (item.elementaryId == elementaryId) {
-                        queued += item.howMuch;
-                    }
+    private void onTimersExpired(int[] kinds, int[] shipIds, int count) {
+        int woken = 0;
+        for (int i = 0; i < count; i++) {
+            if (kinds[i] == TIMER_EVALUATION_INTERVAL) {
+                scheduler.onIntervalElapsed();
+                continue;
+            }
+            ShipState state = shipStates.get(shipIds[i]);
+            if (state == null) {
+                continue; // Released since the timer was scheduled
+            }
+            if (kinds[i] == TIMER_COOLDOWN) {
+                state.setInCooldown(false);
+            } else if (kinds[i] == TIMER_NEW_SHIP_DELAY) {
+                state.setNewShipDelayPending(false);
+                if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                    ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG, "AutoBuyerCore: [TIMER] New ship ID: " + shipIds[i] + " passed its 10-second initialization delay");
                 }
             }
+            woken++;
         }
-        return queued;
-    }
-    
-    /**
-     * Get or create ship state.
-     */
-    private ShipState getShipState(int shipId) {
-        return shipStates.computeIfAbsent(shipId, k -> new ShipState());
-    }
-    
-    /**
-     * Mark a ship as new (allows retries before marking as "nothing to purchase").
-     * Records timestamp for 10-second initialization delay.
-     */
-    public void markShipAsNew(int shipId) {
-        ShipState state = getShipState(shipId);
-        // Only log if this is the first time marking as new (timestamp was just set)
-        boolean wasAlreadyNew = state.isNewShip();
-        state.setNewShip(true);
-        if (!wasAlreadyNew) {
-            ModLog.log("AutoBuyerCore: Marked ship ID: " + shipId + " as new - 10-second initialization delay started");
+        if (woken > 0) {
+            scheduler.wake(EvaluationScheduler.REASON_TIMER_EXPIRED);
         }
     }
     
@@ -912,511 +1190,460 @@ public class AutoBuyerCore {
             return;
         }
         
-        java.util.List<Integer> shipsToRelease = new java.util.ArrayList<>();
+        IntObjectMap<ShipState> shipsToRelease = new IntObjectMap<>();
         
-        for (Map.Entry<Integer, ShipState> entry : shipStates.entrySet()) {
-            int shipId = entry.getKey();
-            ShipState state = entry.getValue();
-            
+        shipStates.forEach((shipId, state) -> {
             // Check if ship has any active trades
-            int activeTrades = countActiveTradesWithNpc(world, shipId, playerStation.getShipId());
+            int activeTrades = countActiveTradesWithNpc(shipId);
             
             // Release if: no active trades, marked as nothing to purchase, and not a new ship
             if (activeTrades == 0 && state.isNothingToPurchase() && !state.isNewShip()) {
-                shipsToRelease.add(shipId);
+                shipsToRelease.put(shipId, state);
             }
-        }
+        });
         
-        // Release the ships
-        for (Integer shipId : shipsToRelease) {
-            Ship ship = world.getShip(shipId);
-            String shipName = ship != null ? getShipName(ship) : "ID: " + shipId;
-            ModLog.log("AutoBuyerCore: Releasing inactive ship " + shipName + " (no active trades, nothing to purchase)");
-            shipStates.remove(shipId);
+        // Release the ships (only the state we inspected - a ship that was flushed and
+        // re-added in the meantime keeps its fresh state)
+        for (int shipId : shipsToRelease.keys()) {
+            if (!shipStates.remove(shipId, shipsToRelease.get(shipId))) {
+                continue;
+            }
+            timers.cancelAll(shipId);
+            if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                Ship ship = world.getShip(shipId);
+                String shipName = ship != null ? getShipName(ship) : "ID: " + shipId;
+                ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG, "AutoBuyerCore: Releasing inactive ship " + shipName + " (no active trades, nothing to purchase)");
+            }
         }
     }
     
     /**
-     * Get all eligible NPC ships in the sector and attempt trade with the best one.
-     * This is called when a trade slot frees up to ensure we're trading with the best available ship.
+     * Evaluate all eligible NPC ships in the sector and create the best trades.
+     * Called through the EvaluationScheduler when a trade slot frees up or a ship arrives.
+     * 
+     * Runs in three steps:
+     * 1. Capture (game thread, here): guardrails, station stock, eligible ships and their
+     *    offers, all copied into a PlanningSnapshot
+     * 2. Plan (planner thread): TradePlanner ranks the ships and proposes trades
+     * 3. Commit (game thread, posted back): each proposal goes through attemptAutoBuy, which
+     *    revalidates it, reserves items and credits, and adds the trade to the world
+     * 
+     * Without a libGDX application (Gdx.app == null) all three steps run inline.
+     * 
+     * @return false if a plan was still in flight: nothing ran, the cycle in flight will
+     *         evaluate again when it finishes
      */
-    public void attemptBestTrade(World world) {
-        // Don't synchronize here - only synchronize around actual trade creation
-        // Synchronizing here would block the game thread and cause UI issues
+    public boolean attemptBestTrade(World world) {
+        if (!planInFlight.compareAndSet(false, true)) {
+            // A plan is still being computed or committed - evaluate again once it is done
+            replanRequested = true;
+            return false;
+        }
+        boolean handedOff = false;
+        boolean createdAnyTrade = false;
+        long captureStart = System.nanoTime();
+        Object flightEvent = FlightEvents.beginEvaluation();
+        int candidates = 0;
+        long credits = 0;
         try {
-            // Check logistics load and adjust trading behavior
-            // Resume trading when logistics fall to 20 or below
-            if (logisticsItemCount < LOGISTICS_RESUME_THRESHOLD) {
-                // Logistics are manageable - proceed with normal trading
-            } else if (logisticsItemCount >= LOGISTICS_CANCEL_ALL_THRESHOLD) {
-                // Pause completely at 60+ items (trades already cancelled when threshold was crossed)
-                ModLog.log("AutoBuyerCore: [PAUSED] Logistics critical (" + logisticsItemCount + " free items >= " + LOGISTICS_CANCEL_ALL_THRESHOLD + ") - pausing auto-trading");
-                return;
-            } else if (logisticsItemCount >= LOGISTICS_PAUSE_THRESHOLD) {
-                // Pause trading at 30+ items (but don't cancel trades - manual trades may be needed)
-                ModLog.log("AutoBuyerCore: [PAUSED] Logistics overwhelmed (" + logisticsItemCount + " free items >= " + LOGISTICS_PAUSE_THRESHOLD + ") - pausing auto-trading");
-                return;
-            } else if (logisticsItemCount >= LOGISTICS_SLOWDOWN_THRESHOLD) {
-                // Slow down trading if logistics are getting busy (20-29 items)
-                // Skip 50% of trade attempts to reduce load
-                if (System.currentTimeMillis() % 2 == 0) {
-                    ModLog.log("AutoBuyerCore: [SLOWED] Logistics busy (" + logisticsItemCount + " free items >= " + LOGISTICS_SLOWDOWN_THRESHOLD + ") - skipping this trade attempt");
-                    return;
-                }
-            }
-            
-            Ship playerStation = findPlayerStation(world);
-            if (playerStation == null) {
-                return;
-            }
+            PlanningSnapshot snapshot = capturePlanningSnapshot(world);
+            long captureNanos = System.nanoTime() - captureStart;
+            if (snapshot == null) {
+                return true;
+            }
+            candidates = snapshot.getCandidates().size();
+            credits = snapshot.getCreditsAvailable();
+            
+            Application app = Gdx.app;
+            if (app == null) {
+                long planStart = System.nanoTime();
+                java.util.List<TradePlan> plans = planner.plan(snapshot);
+                planLatency.record(System.nanoTime() - planStart);
+                createdAnyTrade = commitPlans(snapshot, plans, captureNanos) > 0;
+                return true;
+            }
+            plannerReadingOffers = true;
+            planExecutor.execute(() -> planOffGameThread(app, snapshot, captureNanos));
+            handedOff = true;
+            return true;
             
-            // Check minimum credit balance guardrail
-            TradingHelper.Bank creditCheckBank = world.getPlayerBank();
-            int availableCredits = creditCheckBank.getCreditsAvailable();
-            if (availableCredits <= config.getMinCreditBalance()) {
-                return; // Silently skip if credits too low
-            }
-            
-            // Release inactive ships (no active trades, nothing to purchase)
-            releaseInactiveShips(world, playerStation);
-            
-            // Get all eligible ships and prioritize them
-            // This includes new ships with no offers (they get low priority but are still eligible for retries)
-            java.util.List<ShipPriority> eligibleShips = getAllEligibleShips(world, playerStation);
-            if (eligibleShips.isEmpty()) {
-                // Check if there are new ships that have now passed their delay
-                // This handles the case where a new ship arrives and is the only ship in system
-                java.util.List<Ship> newShipsReady = findNewShipsReadyForTrade(world, playerStation);
-                if (!newShipsReady.isEmpty()) {
-                    ModLog.log("AutoBuyerCore: [QUERY] Found " + newShipsReady.size() + " new ship(s) that have passed 10-second delay - retrying");
-                    // Retry with these ships now eligible (delay has passed, so getAllEligibleShips will include them)
-                    eligibleShips = getAllEligibleShips(world, playerStation);
-                    if (eligibleShips.isEmpty()) {
-                        return; // Still no eligible ships after retry
-                    }
-                } else {
-                    // Check if there are new ships still waiting on delay
-                    // Log this so we know why no trades are happening
-                    java.util.List<Ship> newShipsWaiting = findNewShipsWaitingOnDelay(world, playerStation);
-                    if (!newShipsWaiting.isEmpty()) {
-                        for (Ship ship : newShipsWaiting) {
-                            ShipState state = getShipState(ship.getShipId());
-                            long timeSinceFirstSeen = System.currentTimeMillis() - state.getNewShipFirstSeenTimeMillis();
-                            long remainingSeconds = (10000 - timeSinceFirstSeen) / 1000;
-                            String shipName = getShipName(ship);
-                            ModLog.log("AutoBuyerCore: [QUERY] New ship " + shipName + " (ID: " + ship.getShipId() + 
-                                      ") still waiting on delay (" + remainingSeconds + "s remaining) - will retry when delay passes");
-                        }
-                    }
-                    return; // No eligible ships and no new ships ready
-                }
-            }
-            
-            // Sort by priority (highest score first)
-            eligibleShips.sort((a, b) -> Integer.compare(b.score, a.score));
-            
-            // Log which ships are being considered (helpful for debugging)
-            if (eligibleShips.size() > 0) {
-                ModLog.log("AutoBuyerCore: [QUERY] Checking " + eligibleShips.size() + " eligible ships for trade opportunity");
-                // Log each ship being evaluated with its priority score
-                for (ShipPriority sp : eligibleShips) {
-                    String shipName = getShipName(sp.ship);
-                    ModLog.log("AutoBuyerCore: [QUERY] Evaluating ship " + shipName + " (ID: " + sp.ship.getShipId() + 
-                              ") - score: " + sp.score + ", discounted: " + sp.discountedItems + 
-                              ", need value: " + sp.totalNeedValue + ", active trades: " + sp.activeTrades);
-                }
-            } else {
-                ModLog.log("AutoBuyerCore: [QUERY] No eligible ships found - checking why ships were skipped");
-                // Log why ships were skipped
-                logSkippedShips(world, playerStation);
+        } catch (Exception e) {
+            ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.ERROR, "AutoBuyerCore: Exception in attemptBestTrade", e);
+            return true;
+        } finally {
+            if (!handedOff) {
+                plannerReadingOffers = false;
+                finishCycle(world, createdAnyTrade);
             }
-            
-            // Try to create as many trades as possible
-            // After each trade, re-evaluate ALL ships to find the best option
-            // If the same ship is still best, create another trade with it (up to 4 concurrent)
-            // If a different ship becomes best, switch to it
-            int maxIterations = 20; // Safety limit to prevent infinite loops
-            int iteration = 0;
+            evaluationLatency.record(System.nanoTime() - captureStart);
+            FlightEvents.commitEvaluation(flightEvent, candidates, credits, handedOff);
+        }
+    }
+    
+    /**
+     * Planner thread: compute the plans, then post the commit back to the game thread.
+     */
+    private void planOffGameThread(Application app, PlanningSnapshot snapshot, long captureNanos) {
+        java.util.List<TradePlan> plans;
+        long planStart = System.nanoTime();
+        try {
+            plans = planner.plan(snapshot);
+        } catch (Exception e) {
+            ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.ERROR, "AutoBuyerCore: Exception while planning trades", e);
+            plans = java.util.Collections.emptyList();
+        } finally {
+            plannerReadingOffers = false;
+        }
+        planLatency.record(System.nanoTime() - planStart);
+        final java.util.List<TradePlan> result = plans;
+        app.postRunnable(() -> {
             boolean createdAnyTrade = false;
-            
-            while (iteration < maxIterations) {
-                iteration++;
-                
-                // Re-evaluate ALL eligible ships (priorities may have changed after each trade)
-                // This ensures we always pick the best ship, which might be the same one or a different one
-                eligibleShips = getAllEligibleShips(world, playerStation);
-                if (eligibleShips.isEmpty()) {
-                    if (createdAnyTrade) {
-                        ModLog.log("AutoBuyerCore: [QUERY] No more eligible ships after creating trade(s)");
-                    }
-                    break; // No more eligible ships
-                }
-                
-                // Sort by priority (highest score first) - best ship is first
-                eligibleShips.sort((a, b) -> Integer.compare(b.score, a.score));
-                
-                // Try the best ship first
-                ShipPriority bestShipPriority = eligibleShips.get(0);
-                Ship npcShip = bestShipPriority.ship;
-                ShipState state = getShipState(npcShip.getShipId());
-                String shipName = getShipName(npcShip);
-                
-                // Check if this ship already has 4 concurrent trades
-                int activeTrades = countActiveTradesWithNpc(world, npcShip.getShipId(), playerStation.getShipId());
-                if (activeTrades >= 4) {
-                    // This ship is at max, try next best ship
-                    if (eligibleShips.size() > 1) {
-                        ModLog.log("AutoBuyerCore: [QUERY] Best ship " + shipName + " (ID: " + npcShip.getShipId() + 
-                                  ") has 4 concurrent trades, trying next best ship");
-                        bestShipPriority = eligibleShips.get(1);
-                        npcShip = bestShipPriority.ship;
-                        state = getShipState(npcShip.getShipId());
-                        shipName = getShipName(npcShip);
-                        activeTrades = countActiveTradesWithNpc(world, npcShip.getShipId(), playerStation.getShipId());
-                        if (activeTrades >= 4) {
-                            // Next ship also at max, no more trades possible
-                            if (createdAnyTrade) {
-                                ModLog.log("AutoBuyerCore: [QUERY] All best ships at max concurrent trades (4)");
-                            }
-                            break;
-                        }
-                    } else {
-                        // Only one eligible ship and it's at max
-                        if (createdAnyTrade) {
-                            ModLog.log("AutoBuyerCore: [QUERY] Only eligible ship " + shipName + " (ID: " + npcShip.getShipId() + 
-                                      ") has 4 concurrent trades");
-                        }
-                        break;
-                    }
-                }
-                
-                // Log query attempt
-                long timeSinceLastQuery = state.getLastAttemptTimeMillis() > 0 ? 
-                    (System.currentTimeMillis() - state.getLastAttemptTimeMillis()) / 1000 : -1;
-                if (timeSinceLastQuery >= 0) {
-                    ModLog.log("AutoBuyerCore: [QUERY] Best ship is " + shipName + " (ID: " + npcShip.getShipId() + 
-                              ") - score: " + bestShipPriority.score + ", last queried " + timeSinceLastQuery + 
-                              "s ago, active trades: " + activeTrades + "/4");
-                } else {
-                    ModLog.log("AutoBuyerCore: [QUERY] Best ship is " + shipName + " (ID: " + npcShip.getShipId() + 
-                              ") - score: " + bestShipPriority.score + ", first query, active trades: " + activeTrades + "/4");
-                }
-                
-                // Log retry attempts for new ships
-                if (state.isNewShip() && state.getNewShipRetryCount() > 0) {
-                    ModLog.log("AutoBuyerCore: [QUERY] Retrying new ship " + shipName + " (ID: " + npcShip.getShipId() + 
-                              ") - attempt " + (state.getNewShipRetryCount() + 1) + "/" + MAX_NEW_SHIP_RETRIES);
-                }
-                
-                boolean success = attemptAutoBuy(world, npcShip);
-                if (success) {
-                    createdAnyTrade = true;
-                    int newActiveTrades = countActiveTradesWithNpc(world, npcShip.getShipId(), playerStation.getShipId());
-                    ModLog.log("AutoBuyerCore: [QUERY] Created trade with best ship " + shipName + " (ID: " + npcShip.getShipId() + 
-                              ") - active trades now: " + newActiveTrades + "/4, re-evaluating all ships for next best option");
-                    // Continue loop to re-evaluate all ships and find next best option
-                } else {
-                    // Couldn't create trade with best ship - no more trades possible
-                    if (createdAnyTrade) {
-                        ModLog.log("AutoBuyerCore: [QUERY] Could not create trade with best ship " + shipName + 
-                                  " (ID: " + npcShip.getShipId() + ") - no more trades can be created");
-                    }
-                    break;
-                }
+            try {
+                createdAnyTrade = commitPlans(snapshot, result, captureNanos) > 0;
+            } catch (Exception e) {
+                ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.ERROR, "AutoBuyerCore: Exception committing planned trades", e);
+            } finally {
+                finishCycle(snapshot.getWorld(), createdAnyTrade);
             }
-            
-            if (createdAnyTrade) {
-                ModLog.log("AutoBuyerCore: [QUERY] Finished trade creation cycle - created trade(s) in " + iteration + " iteration(s)");
-            }
-            
-        } catch (Exception e) {
-            ModLog.log("AutoBuyerCore: Exception in attemptBestTrade: " + e.getMessage());
-            ModLog.log(e);
+        });
+    }
+    
+    /**
+     * End an evaluation cycle and ask for a follow-up if there may be more to do.
+     * WHY: The planner proposes at most one trade per ship, and evaluations requested while a
+     * plan was in flight were only noted. Either way, another cycle picks up where this one left.
+     */
+    private void finishCycle(World world, boolean createdAnyTrade) {
+        planInFlight.set(false);
+        boolean replan = replanRequested;
+        replanRequested = false;
+        if (createdAnyTrade || replan) {
+            scheduler.request(world, EvaluationScheduler.REASON_FOLLOW_UP);
         }
     }
     
     /**
-     * Find new ships that have passed their 10-second initialization delay.
-     * Used to retry ships when no eligible ships are found initially.
+     * Capture step (game thread): run the guardrails and copy everything the planner needs.
+     * 
+     * @return The snapshot, or null if there is nothing to plan this cycle
      */
-    private java.util.List<Ship> findNewShipsReadyForTrade(World world, Ship playerStation) {
-        java.util.List<Ship> readyShips = new java.util.ArrayList<>();
-        Array<Ship> ships = world.getShips();
-        
-        for (int i = 0; i < ships.size; i++) {
-            Ship ship = ships.get(i);
-            
-            // Basic eligibility check
-            if (!shouldAttempt(ship, playerStation, world)) {
-                continue;
+    private PlanningSnapshot capturePlanningSnapshot(World world) {
+        // Check logistics load and adjust trading behavior
+        // Resume trading when logistics fall to 20 or below
+        if (logisticsItemCount < LOGISTICS_RESUME_THRESHOLD) {
+            // Logistics are manageable - proceed with normal trading
+        } else if (logisticsItemCount >= LOGISTICS_CANCEL_ALL_THRESHOLD) {
+            // Pause completely at 60+ items (trades already cancelled when threshold was crossed)
+            if (ModLog.isEnabled(ModLog.Category.LOGISTICS, ModLog.Level.DEBUG)) {
+                ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.DEBUG, "AutoBuyerCore: [PAUSED] Logistics critical (" + logisticsItemCount + " free items >= " + LOGISTICS_CANCEL_ALL_THRESHOLD + ") - pausing auto-trading");
             }
-            
-            // Check if this is a new ship that has passed its delay
-            ShipState state = getShipState(ship.getShipId());
-            if (state.isNewShip() && state.hasNewShipDelayPassed()) {
-                // Check if ship hasn't exceeded retries and isn't at max trades
-                if (!state.hasExceededNewShipRetries(MAX_NEW_SHIP_RETRIES)) {
-                    int activeTrades = countActiveTradesWithNpc(world, ship.getShipId(), playerStation.getShipId());
-                    if (activeTrades < 4 && state.getTotalTradesCreated() < 8) {
-                        readyShips.add(ship);
-                    }
+            return null;
+        } else if (logisticsItemCount >= LOGISTICS_PAUSE_THRESHOLD) {
+            // Pause trading at 30+ items (but don't cancel trades - manual trades may be needed)
+            if (ModLog.isEnabled(ModLog.Category.LOGISTICS, ModLog.Level.DEBUG)) {
+                ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.DEBUG, "AutoBuyerCore: [PAUSED] Logistics overwhelmed (" + logisticsItemCount + " free items >= " + LOGISTICS_PAUSE_THRESHOLD + ") - pausing auto-trading");
+            }
+            return null;
+        } else if (logisticsItemCount >= LOGISTICS_SLOWDOWN_THRESHOLD) {
+            // Slow down trading if logistics are getting busy (20-29 items)
+            // Skip 50% of trade attempts to reduce load
+            if (System.currentTimeMillis() % 2 == 0) {
+                if (ModLog.isEnabled(ModLog.Category.LOGISTICS, ModLog.Level.DEBUG)) {
+                    ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.DEBUG, "AutoBuyerCore: [SLOWED] Logistics busy (" + logisticsItemCount + " free items >= " + LOGISTICS_SLOWDOWN_THRESHOLD + ") - skipping this trade attempt");
                 }
+                return null;
             }
         }
         
-        return readyShips;
+        Ship playerStation = findPlayerStation(world);
+        if (playerStation == null) {
+            return null;
+        }
+        
+        // Bring the inbound index up to date once for the whole evaluation
+        tradeIndex.reconcile(world, playerStation.getShipId());
+        
+        // One set of tunables for the whole evaluation, even if JMX changes them meanwhile
+        TradeTunables tunables = config.getTunables();
+        
+        // Check minimum credit balance guardrail
+        TradingHelper.Bank creditCheckBank = world.getPlayerBank();
+        int availableCredits = creditCheckBank.getCreditsAvailable();
+        if (availableCredits <= tunables.getMinCreditBalance()) {
+            return null; // Silently skip if credits too low
+        }
+        
+        // Release inactive ships (no active trades, nothing to purchase)
+        releaseInactiveShips(world, playerStation);
+        
+        // Fire any cooldown / delay timers that are due, so the flags read below are current
+        // (normally the wheel has already done this itself at the start of the frame)
+        timers.advance();
+        
+        // Read station stock once for the whole cycle; trades created by the commit step update it in place
+        StationStockSnapshot stock = captureStationStock(playerStation);
+        
+        // Get all eligible ships with their offers
+        // This includes new ships with no offers (they get low priority but are still eligible for retries)
+        java.util.List<PlanningSnapshot.Candidate> candidates = captureCandidates(world, playerStation, stock);
+        if (candidates.isEmpty()) {
+            // New ships still in their initialization delay will request an evaluation themselves
+            // when the delay runs out (see onTimersExpired) - just say why nothing happens now
+            int waiting = timers.pendingCount(TIMER_NEW_SHIP_DELAY);
+            if (waiting > 0 && ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                long remainingSeconds = timers.ticksUntilNext(TIMER_NEW_SHIP_DELAY) / 60;
+                ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                           "AutoBuyerCore: [QUERY] " + waiting + " new ship(s) still waiting on delay (next ready in " + 
+                           remainingSeconds + "s) - will evaluate again when the delay passes");
+            }
+            return null; // No eligible ships
+        }
+        
+        return new PlanningSnapshot(world, playerStation.getShipId(), availableCredits,
+                                    tunables.getMinCreditBalance(), tunables.getMaxCreditsPerTrade(),
+                                    PlanningSnapshot.captureBuyThresholds(tunables), needGeneration.get(),
+                                    stock, candidates);
     }
     
     /**
-     * Find new ships that are still waiting on their 10-second initialization delay.
-     * Used for logging when no eligible ships are found.
+     * Commit step (game thread): create the planned trades.
+     * Each plan goes through attemptAutoBuy, which re-runs every eligibility check against the
+     * current world (the ship may have left, hit its trade limit or changed its offers while the
+     * plan was computed) before reserving anything.
+     * 
+     * @return Number of trades created
      */
-    private java.util.List<Ship> findNewShipsWaitingOnDelay(World world, Ship playerStation) {
-        java.util.List<Ship> waitingShips = new java.util.ArrayList<>();
-        Array<Ship> ships = world.getShips();
-        
-        for (int i = 0; i < ships.size; i++) {
-            Ship ship = ships.get(i);
-            
-            // Basic eligibility check
-            if (!shouldAttempt(ship, playerStation, world)) {
+    private int commitPlans(PlanningSnapshot snapshot, java.util.List<TradePlan> plans, long captureNanos) {
+        long commitStart = System.nanoTime();
+        World world = snapshot.getWorld();
+        Ship playerStation = findPlayerStation(world);
+        if (playerStation == null || playerStation.getShipId() != snapshot.getStationId()) {
+            ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG, "AutoBuyerCore: [COMMIT] Player station changed while planning - dropping {} plan(s)", plans.size());
+            return 0;
+        }
+        
+        // Trades may have completed (or been made by hand) while the plan was computed
+        tradeIndex.reconcile(world, playerStation.getShipId());
+        StationStockSnapshot stock = snapshot.getStock();
+        
+        int created = 0;
+        for (TradePlan plan : plans) {
+            Ship npcShip = world.getShip(plan.getShipId());
+            if (npcShip == null) {
+                if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                    ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                               "AutoBuyerCore: [COMMIT] Ship " + plan.getShipName() + " (ID: " + plan.getShipId() + 
+                               ") left while planning - dropping its plan");
+                }
                 continue;
             }
+            ShipState state = getShipState(npcShip.getShipId());
             
-            // Check if this is a new ship that hasn't passed its delay yet
-            ShipState state = getShipState(ship.getShipId());
-            if (state.isNewShip() && !state.hasNewShipDelayPassed()) {
-                // Check if ship hasn't exceeded retries and isn't at max trades
-                if (!state.hasExceededNewShipRetries(MAX_NEW_SHIP_RETRIES)) {
-                    int activeTrades = countActiveTradesWithNpc(world, ship.getShipId(), playerStation.getShipId());
-                    if (activeTrades < 4 && state.getTotalTradesCreated() < 8) {
-                        waitingShips.add(ship);
-                    }
+            if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                // Log query attempt
+                int activeTrades = countActiveTradesWithNpc(npcShip.getShipId());
+                long timeSinceLastQuery = state.getLastAttemptTimeMillis() > 0 ? 
+                    (System.currentTimeMillis() - state.getLastAttemptTimeMillis()) / 1000 : -1;
+                ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                           "AutoBuyerCore: [QUERY] Trying ship " + plan.getShipName() + " (ID: " + plan.getShipId() + 
+                           ") - score: " + plan.getScore() + ", " +
+                           (timeSinceLastQuery >= 0 ? "last queried " + timeSinceLastQuery + "s ago" : "first query") +
+                           ", active trades: " + activeTrades + "/4");
+                
+                // Log retry attempts for new ships
+                if (state.isNewShip() && state.getNewShipRetryCount() > 0) {
+                    ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                               "AutoBuyerCore: [QUERY] Retrying new ship " + plan.getShipName() + " (ID: " + plan.getShipId() + 
+                               ") - attempt " + (state.getNewShipRetryCount() + 1) + "/" + MAX_NEW_SHIP_RETRIES);
+                }
+            }
+            
+            if (attemptAutoBuy(world, npcShip, stock, plan)) {
+                created++;
+            } else if (!plan.isProbe()) {
+                if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                    ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                               "AutoBuyerCore: [COMMIT] Plan for ship " + plan.getShipName() + " (ID: " + plan.getShipId() + 
+                               ") failed revalidation - not created");
                 }
             }
         }
         
-        return waitingShips;
+        long commitNanos = System.nanoTime() - commitStart;
+        commitLatency.record(commitNanos);
+        if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+            ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                       "AutoBuyerCore: [QUERY] Finished trade creation cycle - created " + created + " of " + plans.size() + 
+                       " planned trade(s) (game thread: capture " + (captureNanos / 1000) + "us, commit " + (commitNanos / 1000) + "us)");
+        }
+        return created;
     }
     
     /**
-     * Get all eligible NPC ships in the sector and calculate their priority scores.
+     * Get all eligible NPC ships in the sector as planning candidates.
      */
-    private java.util.List<ShipPriority> getAllEligibleShips(World world, Ship playerStation) {
-        java.util.List<ShipPriority> eligibleShips = new java.util.ArrayList<>();
+    private java.util.List<PlanningSnapshot.Candidate> captureCandidates(World world, Ship playerStation,
+                                                                         StationStockSnapshot stock) {
+        java.util.List<PlanningSnapshot.Candidate> candidates = new java.util.ArrayList<>();
         Array<Ship> ships = world.getShips();
-        java.util.List<String> skipReasons = new java.util.ArrayList<>();
+        // Skip reasons are only collected when they will be logged
+        java.util.List<String> skipReasons = ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG) ? new java.util.ArrayList<>() : null;
         
         for (int i = 0; i < ships.size; i++) {
-            Ship ship = ships.get(i);
-            String shipName = getShipName(ship);
-            String skipReason = null;
-            
-            // Basic eligibility check
-            if (!shouldAttempt(ship, playerStation, world)) {
-                skipReason = "failed basic eligibility check (player/derelict/claimable/enemy/cannot trade)";
-                skipReasons.add(shipName + " (ID: " + ship.getShipId() + "): " + skipReason);
-                continue;
-            }
-            
-            // Get ship state
-            ShipState state = getShipState(ship.getShipId());
-            
-            // Skip if already at max trades
-            if (state.getTotalTradesCreated() >= 8) {
-                // Mark as nothing to purchase so it gets released by releaseInactiveShips()
-                state.setNothingToPurchase(true);
-                skipReason = "reached max trades (8/8)";
-                skipReasons.add(shipName + " (ID: " + ship.getShipId() + "): " + skipReason);
-                continue;
-            }
-            
-            // Skip if in cooldown
-            if (state.isInCooldown(world, config.getCooldownTicks())) {
-                long timeSinceLastQuery = state.getLastAttemptTimeMillis() > 0 ? 
-                    (System.currentTimeMillis() - state.getLastAttemptTimeMillis()) / 1000 : 0;
-                skipReason = "in cooldown (last queried " + timeSinceLastQuery + "s ago)";
-                skipReasons.add(shipName + " (ID: " + ship.getShipId() + "): " + skipReason);
-                continue;
-            }
-            
-            // Skip new ships that haven't waited 10 seconds yet (allows time for offers to initialize)
-            if (state.isNewShip() && !state.hasNewShipDelayPassed()) {
-                long timeSinceFirstSeen = System.currentTimeMillis() - state.getNewShipFirstSeenTimeMillis();
-                long remainingSeconds = (10000 - timeSinceFirstSeen) / 1000;
-                skipReason = "still in 10-second initialization delay (" + remainingSeconds + "s remaining)";
-                skipReasons.add(shipName + " (ID: " + ship.getShipId() + "): " + skipReason);
-                ModLog.log("AutoBuyerCore: [SKIP] New ship " + shipName + " (ID: " + ship.getShipId() + 
-                          ") still in 10-second initialization delay (" + remainingSeconds + "s remaining)");
-                continue;
-            }
-            
-            // Skip if max concurrent trades reached
-            int activeTrades = countActiveTradesWithNpc(world, ship.getShipId(), playerStation.getShipId());
-            if (activeTrades >= 4) {
-                skipReason = "max concurrent trades reached (4 active)";
-                skipReasons.add(shipName + " (ID: " + ship.getShipId() + "): " + skipReason);
-                continue;
-            }
-            
-            // Skip if nothing to purchase (unless it's a new ship that hasn't exceeded retries)
-            if (state.isNothingToPurchase() && !state.isNewShip()) {
-                long timeSinceLastQuery = state.getLastAttemptTimeMillis() > 0 ? 
-                    (System.currentTimeMillis() - state.getLastAttemptTimeMillis()) / 1000 : 0;
-                skipReason = "marked as nothing to purchase (last checked " + timeSinceLastQuery + "s ago)";
-                skipReasons.add(shipName + " (ID: " + ship.getShipId() + "): " + skipReason);
-                continue;
-            }
-            
-            // Calculate priority score for this ship
-            ShipPriority priority = calculateShipPriority(world, ship, playerStation, state, activeTrades);
-            if (priority != null) {
-                eligibleShips.add(priority);
-            } else {
-                skipReason = "no eligible offers or priority calculation returned null";
-                skipReasons.add(shipName + " (ID: " + ship.getShipId() + "): " + skipReason);
+            PlanningSnapshot.Candidate candidate = captureCandidate(world, ships.get(i), playerStation, stock, skipReasons);
+            if (candidate != null) {
+                candidates.add(candidate);
             }
         }
         
         // Log skipped ships if any
-        if (!skipReasons.isEmpty() && eligibleShips.isEmpty()) {
-            ModLog.log("AutoBuyerCore: [SKIP] All ships skipped - reasons:");
+        if (skipReasons != null && !skipReasons.isEmpty() && candidates.isEmpty()) {
+            ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG, "AutoBuyerCore: [SKIP] All ships skipped - reasons:");
             for (String reason : skipReasons) {
-                ModLog.log("AutoBuyerCore: [SKIP]   " + reason);
+                ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG, "AutoBuyerCore: [SKIP]   {}", reason);
             }
         }
         
-        return eligibleShips;
+        return candidates;
     }
     
     /**
-     * Log why ships were skipped (called when no eligible ships found).
+     * Run the eligibility checks for one ship and, if it passes, capture its offers for planning.
+     * Offers are refreshed here if needed (game API, so it has to be the game thread), and the
+     * items the station needs are priced, so the planner never has to call into the game.
+     * 
+     * @param skipReasons Receives a human-readable reason if the ship is skipped (null when skip
+     *                    reasons aren't logged - the reasons are then not even built)
+     * @return The ship as a planning candidate, or null if it is not eligible right now
      */
-    private void logSkippedShips(World world, Ship playerStation) {
-        Array<Ship> ships = world.getShips();
-        int npcShipCount = 0;
-        int skippedCount = 0;
+    private PlanningSnapshot.Candidate captureCandidate(World world, Ship ship, Ship playerStation,
+                                                        StationStockSnapshot stock, java.util.List<String> skipReasons) {
+        // Basic eligibility check
+        if (!shouldAttempt(ship, playerStation, world)) {
+            addSkipReason(skipReasons, ship, "failed basic eligibility check (player/derelict/claimable/enemy/cannot trade)");
+            return null;
+        }
         
-        for (int i = 0; i < ships.size; i++) {
-            Ship ship = ships.get(i);
-            if (ship.isPlayerShip() || ship.isDerelict() || ship.isClaimable()) {
-                continue;
-            }
-            
-            npcShipCount++;
-            String shipName = getShipName(ship);
-            java.util.List<String> reasons = new java.util.ArrayList<>();
-            
-            // Check each skip condition
-            if (!shouldAttempt(ship, playerStation, world)) {
-                reasons.add("basic eligibility failed");
-            }
-            
-            ShipState state = getShipState(ship.getShipId());
-            if (state.getTotalTradesCreated() >= 8) {
-                reasons.add("max trades (8/8)");
-            }
-            if (state.isInCooldown(world, config.getCooldownTicks())) {
-                reasons.add("in cooldown");
-            }
-            if (state.isNewShip() && !state.hasNewShipDelayPassed()) {
-                reasons.add("10s delay active");
-            }
-            int activeTrades = countActiveTradesWithNpc(world, ship.getShipId(), playerStation.getShipId());
-            if (activeTrades >= 4) {
-                reasons.add("max concurrent trades (4)");
+        // Get ship state
+        ShipState state = getShipState(ship.getShipId());
+        
+        // Skip if already at max trades
+        if (state.getTotalTradesCreated() >= 8) {
+            // Mark as nothing to purchase so it gets released by releaseInactiveShips()
+            state.setNothingToPurchase(true);
+            journalSkip(ship.getShipId(), state, "max_trades");
+            addSkipReason(skipReasons, ship, "reached max trades (8/8)");
+            return null;
+        }
+        
+        // Skip if in cooldown
+        if (state.isInCooldown()) {
+            journalSkip(ship.getShipId(), state, "cooldown");
+            if (skipReasons != null) {
+                long timeSinceLastQuery = state.getLastAttemptTimeMillis() > 0 ? 
+                    (System.currentTimeMillis() - state.getLastAttemptTimeMillis()) / 1000 : 0;
+                addSkipReason(skipReasons, ship, "in cooldown (last queried " + timeSinceLastQuery + "s ago)");
             }
-            if (state.isNothingToPurchase() && !state.isNewShip()) {
-                reasons.add("nothing to purchase");
+            return null;
+        }
+        
+        // Skip new ships that haven't waited 10 seconds yet (allows time for offers to initialize)
+        if (state.isNewShip() && !state.hasNewShipDelayPassed()) {
+            journalSkip(ship.getShipId(), state, "new_ship_delay");
+            if (skipReasons != null) {
+                long timeSinceFirstSeen = System.currentTimeMillis() - state.getNewShipFirstSeenTimeMillis();
+                long remainingSeconds = (10000 - timeSinceFirstSeen) / 1000;
+                String skipReason = "still in 10-second initialization delay (" + remainingSeconds + "s remaining)";
+                addSkipReason(skipReasons, ship, skipReason);
+                ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                           "AutoBuyerCore: [SKIP] New ship " + getShipName(ship) + " (ID: " + ship.getShipId() + 
+                           ") " + skipReason);
             }
-            
-            if (!reasons.isEmpty()) {
-                skippedCount++;
-                ModLog.log("AutoBuyerCore: [SKIP] Ship " + shipName + " (ID: " + ship.getShipId() + 
-                          ") skipped: " + String.join(", ", reasons));
+            return null;
+        }
+        
+        // Skip if max concurrent trades reached
+        int activeTrades = countActiveTradesWithNpc(ship.getShipId());
+        if (activeTrades >= 4) {
+            journalSkip(ship.getShipId(), state, "max_concurrent_trades");
+            addSkipReason(skipReasons, ship, "max concurrent trades reached (4 active)");
+            return null;
+        }
+        
+        // Skip if nothing to purchase (unless it's a new ship that hasn't exceeded retries)
+        if (state.isNothingToPurchase() && !state.isNewShip()) {
+            journalSkip(ship.getShipId(), state, "nothing_to_purchase");
+            if (skipReasons != null) {
+                long timeSinceLastQuery = state.getLastAttemptTimeMillis() > 0 ? 
+                    (System.currentTimeMillis() - state.getLastAttemptTimeMillis()) / 1000 : 0;
+                addSkipReason(skipReasons, ship, "marked as nothing to purchase (last checked " + timeSinceLastQuery + "s ago)");
             }
+            return null;
         }
         
-        ModLog.log("AutoBuyerCore: [SKIP] Summary: " + npcShipCount + " NPC ships in sector, " + 
-                  skippedCount + " skipped, " + (npcShipCount - skippedCount) + " eligible");
-    }
-    
-    /**
-     * Calculate priority score for a ship based on its offers.
-     * Returns null if ship has no eligible offers (except new ships get a retry priority).
-     */
-    private ShipPriority calculateShipPriority(World world, Ship npcShip, Ship playerStation, ShipState state, int activeTrades) {
+        String shipName = getShipName(ship);
         try {
             // Get offers (use cached if available, otherwise refresh)
-            Map<Integer, Trading.TradeItem> offers = refreshOffersIfNeeded(world, npcShip, playerStation, state);
+            PlanningSnapshot.OfferView offers = refreshOffersIfNeeded(world, ship, playerStation, state);
             if (offers == null || offers.isEmpty()) {
-                // For new ships that haven't exceeded retries, give them a very low priority
+                // For new ships that haven't exceeded retries, hand them to the planner without offers
                 // This allows them to be retried when trade slots free up
                 if (state.isNewShip() && !state.hasExceededNewShipRetries(MAX_NEW_SHIP_RETRIES)) {
-                    // Give a very low priority score so they're retried but after ships with actual offers
-                    // Negative score ensures they're tried last, but still eligible
-                    ModLog.log("AutoBuyerCore: New ship " + getShipName(npcShip) + " (ID: " + npcShip.getShipId() + 
-                              ") has no offers but is eligible for retry " + (state.getNewShipRetryCount() + 1) + "/" + MAX_NEW_SHIP_RETRIES);
-                    return new ShipPriority(npcShip, -1000, 0, 0, activeTrades);
+                    if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                        ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                                   "AutoBuyerCore: New ship " + shipName + " (ID: " + ship.getShipId() + 
+                                   ") has no offers but is eligible for retry " + (state.getNewShipRetryCount() + 1) + "/" + MAX_NEW_SHIP_RETRIES);
+                    }
+                    state.clearSkipReason();
+                    return new PlanningSnapshot.Candidate(ship.getShipId(), shipName, activeTrades,
+                                                          state.getNewShipRetryCount(), state.getOffersGeneration(), null);
                 }
+                journalSkip(ship.getShipId(), state, "no_offers");
+                addSkipReason(skipReasons, ship, "no eligible offers");
                 return null;
             }
             
-            int discountedItems = 0;
-            int totalNeedValue = 0;
-            
-            // Analyze offers
-            for (Map.Entry<Integer, Integer> entry : config.getAllTargetStocks().entrySet()) {
-                int eid = entry.getKey();
-                int target = entry.getValue();
-                
-                Trading.TradeItem offer = offers.get(eid);
-                if (offer == null) continue;
-                
-                // Premium items can be purchased if stock is below Premium threshold (threshold system handles this)
-                // No need to skip Premium items - let threshold check determine eligibility
-                
-                // Calculate need and current stock percentage
-                int current = playerStation.getItemsOf(eid, true);
-                int queued = getAlreadyQueuedInbound(world, playerStation, eid);
-                int need = Math.max(0, target - current - queued);
-                if (need <= 0) continue;
-                
-                // Check markup threshold for buying
-                double stockPercent = target > 0 ? ((double)(current + queued) / target) * 100.0 : 0.0;
-                int threshold = config.getBuyThreshold(offer.getTradeItemMode());
-                
-                // Only count if current stock percentage is below the threshold for this trade mode
-                if (stockPercent >= threshold) {
-                    continue; // Stock too high for this markup level
-                }
-                
-                int avail = offer.howMuch;
-                if (avail <= 0) continue;
-                
-                // Count discounted items
-                if (offer.getTradeItemMode() == TradingHelper.TradeItemMode.Discounted) {
-                    discountedItems++;
-                }
-                
-                // Add to total need value (items we need × quantity available, weighted by priority)
-                int priority = getTradeModePriority(offer.getTradeItemMode());
-                int value = Math.min(need, avail) * (4 - priority); // Discounted=4, Neutral=3, Markup=2
-                totalNeedValue += value;
+            if (offers.getTable() != stock.getTable()) {
+                journalSkip(ship.getShipId(), state, "targets_changed");
+                addSkipReason(skipReasons, ship, "target items changed during evaluation");
+                return null;
             }
             
-            // Calculate priority score
-            // Higher score = better ship to trade with
-            int score = (discountedItems * 100) + (totalNeedValue / 10) - (activeTrades * 20);
-            
-            return new ShipPriority(npcShip, score, discountedItems, totalNeedValue, activeTrades);
+            // Price what the station needs (curves are kept until the offers are refreshed)
+            offers.priceNeededItems(ship.getShipCreditBank(), stock, MAX_UNITS_PER_TRADE);
+            state.clearSkipReason();
+            return new PlanningSnapshot.Candidate(ship.getShipId(), shipName, activeTrades,
+                                                  state.getNewShipRetryCount(), state.getOffersGeneration(), offers);
             
         } catch (Exception e) {
-            ModLog.log("AutoBuyerCore: Exception calculating priority for ship " + getShipName(npcShip) + ": " + e.getMessage());
+            ModLog.log(ModLog.Category.OFFERS, ModLog.Level.ERROR, "AutoBuyerCore: Exception capturing offers for ship {}: {}", shipName, e.getMessage());
+            journalSkip(ship.getShipId(), state, "exception");
+            addSkipReason(skipReasons, ship, "exception while capturing offers");
             return null;
         }
     }
     
+    /**
+     * Journal a ship being skipped, but only when its reason differs from the last one recorded
+     * (or it was eligible in between).
+     * WHY: Every trade, ship and timer hook runs an evaluation. A ship sitting in cooldown or at
+     * its trade limit would otherwise write the same ship_skipped line each time.
+     */
+    private void journalSkip(int shipId, ShipState state, String reason) {
+        if (state.recordSkipReason(reason)) {
+            tradeJournal.shipSkipped(shipId, reason);
+        }
+    }
+    
+    /**
+     * Add a skip reason, if reasons are being collected (skipReasons is null when they aren't logged).
+     */
+    private void addSkipReason(java.util.List<String> skipReasons, Ship ship, String skipReason) {
+        if (skipReasons != null) {
+            skipReasons.add(getShipName(ship) + " (ID: " + ship.getShipId() + "): " + skipReason);
+        }
+    }
+    
     /**
      * Flush state for a ship (called when ship leaves).
      */
@@ -1431,13 +1658,18 @@ public class AutoBuyerCore {
      */
     public void flushShipState(int shipId, Ship ship) {
         ShipState removedState = shipStates.remove(shipId);
+        timers.cancelAll(shipId);
+        if (!ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+            return;
+        }
         String shipName = ship != null ? getShipName(ship) : "ID: " + shipId;
         if (removedState != null) {
             int tradesCreated = removedState.getTotalTradesCreated();
-            ModLog.log("AutoBuyerCore: Flushed state for ship " + shipName + 
-                      " (had " + tradesCreated + " trades). If ship returns, will start fresh at trade 1/8");
+            ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                       "AutoBuyerCore: Flushed state for ship " + shipName + 
+                       " (had " + tradesCreated + " trades). If ship returns, will start fresh at trade 1/8");
         } else {
-            ModLog.log("AutoBuyerCore: Flushed state for ship " + shipName + " (no state found)");
+            ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG, "AutoBuyerCore: Flushed state for ship " + shipName + " (no state found)");
         }
     }
     
@@ -1446,9 +1678,91 @@ public class AutoBuyerCore {
      * This prevents the trade ID set from growing indefinitely.
      */
     public void removeTradeId(int tradeId) {
-        synchronized (tradeCreationLock) {
-            createdTradeIds.remove(tradeId);
+        tradeCommitter.removeTradeId(tradeId);
+    }
+    
+    /**
+     * The game side of one trade commit (see TradeCommitter.Attempt).
+     */
+    private final class GameTradeAttempt implements TradeCommitter.Attempt {
+        private final World world;
+        private final Ship npcShip;
+        private final ShipState state;
+        private final Trading.TradeAgreement trade;
+        private final StationStockSnapshot stock;
+        boolean wasNewShip = false;
+        
+        GameTradeAttempt(World world, Ship npcShip, ShipState state,
+                         Trading.TradeAgreement trade, StationStockSnapshot stock) {
+            this.world = world;
+            this.npcShip = npcShip;
+            this.state = state;
+            this.trade = trade;
+            this.stock = stock;
         }
+        
+        @Override
+        public int getCreditsAvailable() {
+            return world.getPlayerBank().getCreditsAvailable();
+        }
+        
+        @Override
+        public int getActiveTradeCount() {
+            return countActiveTradesWithNpc(npcShip.getShipId());
+        }
+        
+        @Override
+        public int getTradesCreatedThisVisit() {
+            return state.getTotalTradesCreated();
+        }
+        
+        @Override
+        public void apply() {
+            world.getPlayerBank().reserve(trade.creditsToShip2);
+            world.addNewTradeAgreement(trade);
+            // Count the new trade (and its items) in the index right away so the
+            // concurrent-trade check and need calculations see it immediately
+            tradeIndex.onTradeCreated(trade);
+            // Same for the rest of this evaluation cycle
+            stock.applyTrade(trade);
+            needGeneration.incrementAndGet();
+        }
+        
+        @Override
+        public void created() {
+            // Count the trade and clear nothing-to-purchase / new in one atomic step
+            wasNewShip = state.recordTradeCreated();
+            tradesCreated.increment();
+        }
+    }
+    
+    /**
+     * Record that a player trade completed or was cancelled (called from the trade hooks).
+     * Removes the trade's items from the inbound index so need calculations see the change.
+     */
+    public void onTradeClosed(Trading.TradeAgreement trade) {
+        tradeIndex.onTradeClosed(trade);
+        needGeneration.incrementAndGet();
+    }
+    
+    /**
+     * Take the station stock snapshot for an evaluation cycle, bumping the need generation if
+     * stock or scoring config changed since the previous cycle.
+     * WHY: Crew consume food, haulers move items, the player edits targets - none of that goes
+     * through a hook. Comparing one int per target item against the previous cycle is much
+     * cheaper than rescoring every ship.
+     */
+    private StationStockSnapshot captureStationStock(Ship playerStation) {
+        StationStockSnapshot stock = StationStockSnapshot.capture(
+            playerStation, config.getTargetStockTable(), tradeIndex);
+        int scoringGeneration = config.getScoringGeneration();
+        StationStockSnapshot previous = lastStationStock;
+        if (previous == null || scoringGeneration != lastScoringGeneration || !stock.sameStockAs(previous)) {
+            needGeneration.incrementAndGet();
+        }
+        lastStationStock = stock;
+        lastScoringGeneration = scoringGeneration;
+        return stock;
     }
     
     /**
@@ -1477,7 +1791,8 @@ public class AutoBuyerCore {
         
         // Check if we crossed the cancel-all threshold (60 items) - cancel all trades and release all ships
         if (previousCount < LOGISTICS_CANCEL_ALL_THRESHOLD && itemCount >= LOGISTICS_CANCEL_ALL_THRESHOLD) {
-            ModLog.log("AutoBuyerCore: Logistics cancel-all threshold reached (" + itemCount + " items >= " + LOGISTICS_CANCEL_ALL_THRESHOLD + ") - cancelling all trades and releasing all ships");
+            ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.INFO, "AutoBuyerCore: Logistics cancel-all threshold reached ({} items >= " + LOGISTICS_CANCEL_ALL_THRESHOLD + ") - cancelling all trades and releasing all ships", itemCount);
+            logisticsCrossed("cancel_all", itemCount, LOGISTICS_CANCEL_ALL_THRESHOLD, true);
             if (world != null) {
                 cancelAllTradesAndReleaseShips(world);
             }
@@ -1485,7 +1800,8 @@ public class AutoBuyerCore {
         
         // Check if we crossed the release-idle threshold (40 items) - release ships with no trades
         if (previousCount < LOGISTICS_RELEASE_IDLE_THRESHOLD && itemCount >= LOGISTICS_RELEASE_IDLE_THRESHOLD) {
-            ModLog.log("AutoBuyerCore: Logistics release-idle threshold reached (" + itemCount + " items >= " + LOGISTICS_RELEASE_IDLE_THRESHOLD + ") - releasing ships with no open/pending trades");
+            ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.INFO, "AutoBuyerCore: Logistics release-idle threshold reached ({} items >= " + LOGISTICS_RELEASE_IDLE_THRESHOLD + ") - releasing ships with no open/pending trades", itemCount);
+            logisticsCrossed("release_idle", itemCount, LOGISTICS_RELEASE_IDLE_THRESHOLD, true);
             if (world != null) {
                 releaseIdleShips(world);
             }
@@ -1493,25 +1809,29 @@ public class AutoBuyerCore {
         
         // Check if we crossed the pause threshold (40 items) - just pause, don't cancel trades
         if (previousCount < LOGISTICS_PAUSE_THRESHOLD && itemCount >= LOGISTICS_PAUSE_THRESHOLD) {
-            ModLog.log("AutoBuyerCore: Logistics pause threshold reached (" + itemCount + " items >= " + LOGISTICS_PAUSE_THRESHOLD + ") - pausing auto-trading (keeping manual trades)");
+            ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.INFO, "AutoBuyerCore: Logistics pause threshold reached ({} items >= " + LOGISTICS_PAUSE_THRESHOLD + ") - pausing auto-trading (keeping manual trades)", itemCount);
+            logisticsCrossed("pause", itemCount, LOGISTICS_PAUSE_THRESHOLD, true);
         }
         
         // Check if we crossed the slowdown threshold (20 items) - slow down trading
         if (previousCount < LOGISTICS_SLOWDOWN_THRESHOLD && itemCount >= LOGISTICS_SLOWDOWN_THRESHOLD && itemCount < LOGISTICS_PAUSE_THRESHOLD) {
-            ModLog.log("AutoBuyerCore: Logistics slowdown threshold reached (" + itemCount + " items >= " + LOGISTICS_SLOWDOWN_THRESHOLD + ") - slowing down auto-trading");
+            ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.INFO, "AutoBuyerCore: Logistics slowdown threshold reached ({} items >= " + LOGISTICS_SLOWDOWN_THRESHOLD + ") - slowing down auto-trading", itemCount);
+            logisticsCrossed("slowdown", itemCount, LOGISTICS_SLOWDOWN_THRESHOLD, true);
         }
         
         // Check if we fell back to resume threshold (20 items) - resume trading
         if (previousCount >= LOGISTICS_PAUSE_THRESHOLD && itemCount < LOGISTICS_RESUME_THRESHOLD) {
-            ModLog.log("AutoBuyerCore: Logistics improved (" + itemCount + " items < " + LOGISTICS_RESUME_THRESHOLD + ") - resuming trade requests");
+            ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.INFO, "AutoBuyerCore: Logistics improved ({} items < " + LOGISTICS_RESUME_THRESHOLD + ") - resuming trade requests", itemCount);
+            logisticsCrossed("resume", itemCount, LOGISTICS_RESUME_THRESHOLD, false);
             if (itemCount < LOGISTICS_SLOWDOWN_THRESHOLD) {
-                ModLog.log("AutoBuyerCore: Logistics cleared (" + itemCount + " items < " + LOGISTICS_SLOWDOWN_THRESHOLD + ") - resuming normal auto-trading");
+                ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.INFO, "AutoBuyerCore: Logistics cleared ({} items < " + LOGISTICS_SLOWDOWN_THRESHOLD + ") - resuming normal auto-trading", itemCount);
             } else {
-                ModLog.log("AutoBuyerCore: Logistics improved (" + itemCount + " items < " + LOGISTICS_PAUSE_THRESHOLD + ") - resuming slowed auto-trading");
+                ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.INFO, "AutoBuyerCore: Logistics improved ({} items < " + LOGISTICS_PAUSE_THRESHOLD + ") - resuming slowed auto-trading", itemCount);
             }
         } else if (previousCount >= LOGISTICS_SLOWDOWN_THRESHOLD && itemCount < LOGISTICS_SLOWDOWN_THRESHOLD) {
             // Logistics cleared below slowdown threshold
-            ModLog.log("AutoBuyerCore: Logistics cleared (" + itemCount + " items < " + LOGISTICS_SLOWDOWN_THRESHOLD + ") - resuming normal auto-trading");
+            ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.INFO, "AutoBuyerCore: Logistics cleared ({} items < " + LOGISTICS_SLOWDOWN_THRESHOLD + ") - resuming normal auto-trading", itemCount);
+            logisticsCrossed("slowdown", itemCount, LOGISTICS_SLOWDOWN_THRESHOLD, false);
         }
     }
     
@@ -1523,44 +1843,49 @@ public class AutoBuyerCore {
         try {
             Ship playerStation = findPlayerStation(world);
             if (playerStation == null) {
-                ModLog.log("AutoBuyerCore: Cannot release idle ships - no player station found");
+                ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.WARN, "AutoBuyerCore: Cannot release idle ships - no player station found");
                 return;
             }
             
-            java.util.List<Integer> shipsToRelease = new java.util.ArrayList<>();
+            tradeIndex.reconcile(world, playerStation.getShipId());
+            
+            IntObjectMap<ShipState> shipsToRelease = new IntObjectMap<>();
             
             // Find ships with no active trades
-            for (Map.Entry<Integer, ShipState> entry : shipStates.entrySet()) {
-                int shipId = entry.getKey();
+            shipStates.forEach((shipId, state) -> {
                 Ship ship = world.getShip(shipId);
                 if (ship == null) {
-                    shipsToRelease.add(shipId);
-                    continue;
+                    shipsToRelease.put(shipId, state);
+                    return;
                 }
                 
                 // Check if ship has any active trades
-                int activeTrades = countActiveTradesWithNpc(world, shipId, playerStation.getShipId());
+                int activeTrades = countActiveTradesWithNpc(shipId);
                 
                 // Release if no active trades
                 if (activeTrades == 0) {
-                    shipsToRelease.add(shipId);
+                    shipsToRelease.put(shipId, state);
                 }
-            }
+            });
             
             int releasedCount = 0;
-            for (Integer shipId : shipsToRelease) {
-                Ship ship = world.getShip(shipId);
-                String shipName = ship != null ? getShipName(ship) : "ID: " + shipId;
-                shipStates.remove(shipId);
+            for (int shipId : shipsToRelease.keys()) {
+                if (!shipStates.remove(shipId, shipsToRelease.get(shipId))) {
+                    continue; // Re-added since we looked - keep the fresh state
+                }
+                timers.cancelAll(shipId);
                 releasedCount++;
-                ModLog.log("AutoBuyerCore: Released idle ship " + shipName + " (no active trades)");
+                if (ModLog.isEnabled(ModLog.Category.LOGISTICS, ModLog.Level.DEBUG)) {
+                    Ship ship = world.getShip(shipId);
+                    String shipName = ship != null ? getShipName(ship) : "ID: " + shipId;
+                    ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.DEBUG, "AutoBuyerCore: Released idle ship " + shipName + " (no active trades)");
+                }
             }
             
-            ModLog.log("AutoBuyerCore: Released " + releasedCount + " idle ship(s) (ships with active trades kept)");
+            ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.INFO, "AutoBuyerCore: Released {} idle ship(s) (ships with active trades kept)", releasedCount);
             
         } catch (Exception e) {
-            ModLog.log("AutoBuyerCore: Exception releasing idle ships: " + e.getMessage());
-            ModLog.log(e);
+            ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.ERROR, "AutoBuyerCore: Exception releasing idle ships", e);
         }
     }
     
@@ -1572,7 +1897,7 @@ public class AutoBuyerCore {
         try {
             Ship playerStation = findPlayerStation(world);
             if (playerStation == null) {
-                ModLog.log("AutoBuyerCore: Cannot cancel trades - no player station found");
+                ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.WARN, "AutoBuyerCore: Cannot cancel trades - no player station found");
                 return;
             }
             
@@ -1593,36 +1918,45 @@ public class AutoBuyerCore {
                         world.cancelTrade(trade, false);
                         removeTradeId(trade.id);
                         cancelledCount++;
-                        ModLog.log("AutoBuyerCore: Cancelled trade " + trade.id + " due to logistics overload");
+                        ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.DEBUG, "AutoBuyerCore: Cancelled trade {} due to logistics overload", trade.id);
                     }
                 }
             }
             
-            ModLog.log("AutoBuyerCore: Cancelled " + cancelledCount + " trade(s) due to logistics overload");
+            ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.INFO, "AutoBuyerCore: Cancelled {} trade(s) due to logistics overload", cancelledCount);
             
             // Release all tracked ships
-            java.util.List<Integer> shipsToRelease = new java.util.ArrayList<>();
-            for (Map.Entry<Integer, ShipState> entry : shipStates.entrySet()) {
-                shipsToRelease.add(entry.getKey());
-            }
+            int[] shipsToRelease = shipStates.keys();
             
             int releasedCount = 0;
-            for (Integer shipId : shipsToRelease) {
-                Ship ship = world.getShip(shipId);
-                String shipName = ship != null ? getShipName(ship) : "ID: " + shipId;
-                shipStates.remove(shipId);
+            for (int shipId : shipsToRelease) {
+                if (shipStates.remove(shipId) == null) {
+                    continue; // Already flushed by another hook
+                }
+                timers.cancelAll(shipId);
                 releasedCount++;
-                ModLog.log("AutoBuyerCore: Released ship " + shipName + " due to logistics overload");
+                if (ModLog.isEnabled(ModLog.Category.LOGISTICS, ModLog.Level.DEBUG)) {
+                    Ship ship = world.getShip(shipId);
+                    String shipName = ship != null ? getShipName(ship) : "ID: " + shipId;
+                    ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.DEBUG, "AutoBuyerCore: Released ship " + shipName + " due to logistics overload");
+                }
             }
             
-            ModLog.log("AutoBuyerCore: Released " + releasedCount + " ship(s) due to logistics overload");
+            ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.INFO, "AutoBuyerCore: Released {} ship(s) due to logistics overload", releasedCount);
             
         } catch (Exception e) {
-            ModLog.log("AutoBuyerCore: Exception cancelling trades and releasing ships: " + e.getMessage());
-            ModLog.log(e);
+            ModLog.log(ModLog.Category.LOGISTICS, ModLog.Level.ERROR, "AutoBuyerCore: Exception cancelling trades and releasing ships", e);
         }
     }
     
+    /**
+     * Record a logistics threshold crossing in the trade journal and as a JFR event.
+     */
+    private void logisticsCrossed(String threshold, int itemCount, int limit, boolean rising) {
+        tradeJournal.logisticsThreshold(threshold, itemCount, limit, rising);
+        FlightEvents.logisticsThreshold(threshold, itemCount, limit, rising);
+    }
+    
     /**
      * Get current logistics item count.
      * @return number of free items waiting for logistics
@@ -1646,106 +1980,188 @@ public class AutoBuyerCore {
     public void resetShipFlags(int shipId, Ship ship) {
         ShipState state = shipStates.get(shipId);
         if (state != null) {
-            state.setMaxTradesReached(false);
-            state.setNothingToPurchase(false);
+            state.clearTradeLimitFlags();
             // CRITICAL: Invalidate cached offers since we just purchased items
             // NPC stock has changed, so we need fresh availability data
-            state.clearOffersSnapshot();
-            String shipName = ship != null ? getShipName(ship) : "ID: " + shipId;
-            ModLog.log("AutoBuyerCore: Reset flags and invalidated offers cache for ship " + shipName + " (trade slot may have freed)");
+            state.invalidateOffers();
+            if (ModLog.isEnabled(ModLog.Category.OFFERS, ModLog.Level.DEBUG)) {
+                String shipName = ship != null ? getShipName(ship) : "ID: " + shipId;
+                ModLog.log(ModLog.Category.OFFERS, ModLog.Level.DEBUG, "AutoBuyerCore: Reset flags and invalidated offers cache for ship " + shipName + " (trade slot may have freed)");
+            }
         }
     }
     
     /**
      * Per-ship state tracking.
+     *
+     * Flags and trade/retry counters live in one packed AtomicInteger (see STATE_* below) and
+     * change through compare-and-set, so a hook and the commit step updating the same ship at
+     * once can't lose an update or see e.g. "no longer new" without the retry that caused it.
+     * The offers snapshot is only touched on the game thread and stays a plain field.
      */
     private static class ShipState {
-        private Map<Integer, Trading.TradeItem> offersSnapshot = new HashMap<>();
-        private int lastOffersRefreshTime = 0;
-        private long lastAttemptTimeMillis = 0;
-        private static long attemptCounter = 0; // Global counter for fallback timing
+        // Packed state word layout
+        private static final int STATE_NEW_SHIP = 1;
+        private static final int STATE_NOTHING_TO_PURCHASE = 1 << 1;
+        private static final int STATE_MAX_TRADES_REACHED = 1 << 2;
+        private static final int STATE_IN_COOLDOWN = 1 << 3;        // cleared by the cooldown timer
+        private static final int STATE_NEW_SHIP_DELAY_PENDING = 1 << 4; // cleared by the delay timer
+        private static final int STATE_NEW_SHIP_SEEN = 1 << 5;       // set by the first markNew, never cleared
+        private static final int TRADES_SHIFT = 8;   // bits 8-15: totalTradesCreated
+        private static final int RETRIES_SHIFT = 16; // bits 16-23: newShipRetryCount
+        private static final int COUNTER_MAX = 0xFF; // counters saturate instead of spilling over
         
-        // Optimization flags: avoid unnecessary checks
-        private boolean maxTradesReached = false;  // True if we've hit 4 trades (don't check again)
-        private boolean nothingToPurchase = false; // True if last check found nothing (don't check again)
+
+        // Offers as flat target-aligned arrays with price curves; null until the first refresh
+        private PlanningSnapshot.OfferView offers = null;
+        // Bumped whenever the offers are refilled (score cache key, plan staleness check).
+        // Volatile for toView on the JMX thread; the game thread is the only writer, so ++ is safe
+        private volatile int offersGeneration = 0;
+        // Offer cache bookkeeping (see checkOffers)
+        private long offersFetchedTick = 0;
+        private int offersFetchedAtInvalidation = 0;
+        // Bumped by trade creation / completion / cancellation with this ship (any thread)
+        private final java.util.concurrent.atomic.AtomicInteger offersInvalidation =
+            new java.util.concurrent.atomic.AtomicInteger();
+        private volatile long lastAttemptTimeMillis = 0;
         
-        // Track total trades created with this ship (limit: 8 per ship per visit)
-        private int totalTradesCreated = 0;
+        /**
+         * Flags and counters, packed:
+         * - maxTradesReached: we've hit 4 trades (don't check again)
+         * - nothingToPurchase: last check found nothing (don't check again)
+         * - newShip: ship just arrived (prevents premature "nothing to purchase" marking)
+         * - inCooldown / newShipDelayPending: set when the timer starts, cleared when it fires
+         * - totalTradesCreated: trades with this ship (limit: 8 per ship per visit)
+         * - newShipRetryCount: retry attempts while the ship is new
+         */
+        private final java.util.concurrent.atomic.AtomicInteger stateWord =
+            new java.util.concurrent.atomic.AtomicInteger();
+        private volatile long newShipFirstSeenTimeMillis = 0; // Timestamp when ship was first marked as new (for 10-second delay)
+        // Journal reason of the last evaluation that skipped the ship; null while it is eligible (game thread)
+        private String lastSkipReason = null;
         
-        // New ship handling: prevent premature "nothing to purchase" marking
-        private boolean isNewShip = false; // True when ship first arrives
-        private int newShipRetryCount = 0; // Number of retry attempts for new ships
-        private long newShipFirstSeenTimeMillis = 0; // Timestamp when ship was first marked as new (for 10-second delay)
+        private static int counter(int word, int shift) {
+            return (word >>> shift) & COUNTER_MAX;
+        }
         
-        public int getTotalTradesCreated() {
-            return totalTradesCreated;
+        private static int withCounter(int word, int shift, int value) {
+            return (word & ~(COUNTER_MAX << shift)) | (Math.min(value, COUNTER_MAX) << shift);
         }
         
-        public void incrementTotalTradesCreated() {
-            totalTradesCreated++;
+        private boolean hasFlag(int flag) {
+            return (stateWord.get() & flag) != 0;
         }
         
-        public Map<Integer, Trading.TradeItem> getOffersSnapshot() {
-            return offersSnapshot;
+        private void setFlag(int flag, boolean value) {
+            while (true) {
+                int current = stateWord.get();
+                int next = value ? (current | flag) : (current & ~flag);
+                if (current == next || stateWord.compareAndSet(current, next)) {
+                    return;
+                }
+            }
         }
         
-        public void setOffersSnapshot(Map<Integer, Trading.TradeItem> offers) {
-            this.offersSnapshot = new HashMap<>(offers);
+        public int getTotalTradesCreated() {
+            return counter(stateWord.get(), TRADES_SHIFT);
         }
         
-        public void clearOffersSnapshot() {
-            this.offersSnapshot.clear();
+        /**
+         * Record a created trade: count it, clear nothing-to-purchase (we found something to buy)
+         * and clear the new-ship flag, all in one step.
+         * @return true if the ship was still marked as new
+         */
+        public boolean recordTradeCreated() {
+            while (true) {
+                int current = stateWord.get();
+                int next = withCounter(current, TRADES_SHIFT, counter(current, TRADES_SHIFT) + 1)
+                           & ~(STATE_NOTHING_TO_PURCHASE | STATE_NEW_SHIP);
+                if (stateWord.compareAndSet(current, next)) {
+                    return (current & STATE_NEW_SHIP) != 0;
+                }
+            }
         }
         
-        public boolean shouldRefreshOffers(World world, int cooldownTicks) {
-            if (cooldownTicks <= 0) {
-                return offersSnapshot.isEmpty();
+        /**
+         * Current offers, or null if they were never fetched.
+         */
+        public PlanningSnapshot.OfferView getOfferView() {
+            return offers;
+        }
+        
+        /**
+         * Store a freshly fetched offers list.
+         * 
+         * @param inPlace      Overwrite the existing view (steady state, no allocation). False
+         *                     while the planner may still read the old view: a new one is made
+         * @param fetchedTick  Tick the offers were fetched at (TTL start)
+         * @param invalidation getOffersInvalidation() as read before the fetch started
+         * @return The view now holding the offers
+         */
+        public PlanningSnapshot.OfferView refillOffers(Array<Trading.TradeItem> fetched, TargetStockTable table,
+                                                       long fetchedTick, int invalidation, boolean inPlace) {
+            if (offers == null || offers.getTable() != table || !inPlace) {
+                offers = new PlanningSnapshot.OfferView(table);
             }
-            // Simple time-based check (world doesn't expose tick time directly, so use a simple approach)
-            // For now, refresh if empty or if enough time has passed
-            return offersSnapshot.isEmpty() || 
-                   (world.getTrades().size == 0); // Simple heuristic: refresh when no trades
+            offers.refill(fetched);
+            this.offersGeneration++;
+            this.offersFetchedTick = fetchedTick;
+            this.offersFetchedAtInvalidation = invalidation;
+            return offers;
         }
         
-        public void setLastOffersRefreshTime(World world) {
-            // Store current time somehow - for now just mark as refreshed
-            this.lastOffersRefreshTime = world.getTrades().size; // Simple heuristic
+        /**
+         * Mark the cached offers stale (NPC stock changed). Cheap and safe from any hook; the
+         * offers are refetched on the next lookup.
+         */
+        public void invalidateOffers() {
+            offersInvalidation.incrementAndGet();
+        }
+        
+        public int getOffersInvalidation() {
+            return offersInvalidation.get();
         }
         
         /**
-         * Check if this ship is still in cooldown period.
-         * Uses millisecond-based timing for accuracy.
+         * Decide whether the cached offers can be reused.
          * 
-         * @param world World instance (for potential future tick-based timing)
-         * @param cooldownTicks Cooldown period in ticks (converted to milliseconds)
-         * @return true if still in cooldown, false if cooldown expired or disabled
+         * @param nowTick  Current tick
+         * @param ttlTicks Maximum age in ticks (refresh_cooldown_ticks, 0 = no age limit)
+         * @param table    Current target table
+         * @return OfferCacheMetrics.HIT, or the MISS_* reason
          */
-        public boolean isInCooldown(World world, int cooldownTicks) {
-            if (cooldownTicks <= 0) {
-                return false; // Cooldown disabled
+        public int checkOffers(long nowTick, int ttlTicks, TargetStockTable table) {
+            if (offers == null || offers.isEmpty()) {
+                return OfferCacheMetrics.MISS_EMPTY;
             }
-            
-            if (lastAttemptTimeMillis == 0) {
-                return false; // Never attempted, no cooldown
+            // New target table (config reload): the offers were fetched for other items
+            if (offersFetchedAtInvalidation != offersInvalidation.get() || offers.getTable() != table) {
+                return OfferCacheMetrics.MISS_INVALIDATED;
             }
-            
-            // Convert ticks to milliseconds
-            // Assuming ~60 ticks per second (common game tick rate)
-            // 1 tick ≈ 16.67ms, so cooldownTicks * 16.67 ≈ milliseconds
-            long cooldownMillis = (long)(cooldownTicks * 16.67);
-            long currentTime = System.currentTimeMillis();
-            long timeSinceLastAttempt = currentTime - lastAttemptTimeMillis;
-            
-            if (timeSinceLastAttempt < cooldownMillis) {
-                return true; // Still in cooldown
+            if (ttlTicks > 0 && nowTick - offersFetchedTick >= ttlTicks) {
+                return OfferCacheMetrics.MISS_EXPIRED;
             }
-            
-            return false; // Cooldown expired
+            return OfferCacheMetrics.HIT;
+        }
+        
+        public int getOffersGeneration() {
+            return offersGeneration;
         }
         
-        public void setLastAttemptTime(World world) {
+        /**
+         * Check if this ship is still in cooldown period.
+         * Set when an attempt starts the cooldown timer, cleared when the timer fires.
+         */
+        public boolean isInCooldown() {
+            return hasFlag(STATE_IN_COOLDOWN);
+        }
+        
+        public void setInCooldown(boolean inCooldown) {
+            setFlag(STATE_IN_COOLDOWN, inCooldown);
+        }
+        
+        public void setLastAttemptTime() {
             this.lastAttemptTimeMillis = System.currentTimeMillis();
-            attemptCounter++;
         }
         
         public long getLastAttemptTimeMillis() {
@@ -1753,47 +2169,82 @@ public class AutoBuyerCore {
         }
         
         public boolean isMaxTradesReached() {
-            return maxTradesReached;
+            return hasFlag(STATE_MAX_TRADES_REACHED);
         }
         
         public void setMaxTradesReached(boolean maxTradesReached) {
-            this.maxTradesReached = maxTradesReached;
+            setFlag(STATE_MAX_TRADES_REACHED, maxTradesReached);
         }
         
         public boolean isNothingToPurchase() {
-            return nothingToPurchase;
+            return hasFlag(STATE_NOTHING_TO_PURCHASE);
         }
         
         public void setNothingToPurchase(boolean nothingToPurchase) {
-            this.nothingToPurchase = nothingToPurchase;
+            setFlag(STATE_NOTHING_TO_PURCHASE, nothingToPurchase);
+        }
+        
+        /**
+         * Clear max-trades-reached and nothing-to-purchase together (a trade slot freed up).
+         */
+        public void clearTradeLimitFlags() {
+            setFlag(STATE_MAX_TRADES_REACHED | STATE_NOTHING_TO_PURCHASE, false);
         }
         
         public boolean isNewShip() {
-            return isNewShip;
+            return hasFlag(STATE_NEW_SHIP);
+        }
+        
+        /**
+         * Remember why the ship was skipped (game thread).
+         * @return true if the reason differs from the last one, i.e. it is worth journaling
+         */
+        public boolean recordSkipReason(String reason) {
+            boolean changed = !reason.equals(lastSkipReason);
+            lastSkipReason = reason;
+            return changed;
         }
         
-        public void setNewShip(boolean isNewShip) {
-            this.isNewShip = isNewShip;
-            if (isNewShip) {
-                this.newShipRetryCount = 0; // Reset retry count when marking as new
-                // Record timestamp when ship is first marked as new (for 10-second delay)
-                if (this.newShipFirstSeenTimeMillis == 0) {
-                    this.newShipFirstSeenTimeMillis = System.currentTimeMillis();
+        /**
+         * The ship passed the checks: its next skip is journaled again, whatever the reason.
+         */
+        public void clearSkipReason() {
+            lastSkipReason = null;
+        }
+        
+        /**
+         * Mark the ship as new and reset its retry count (one step). The first time, this also
+         * records the timestamp and sets the delay-pending flag.
+         * @return true if this call started the 10-second delay (caller schedules its timer)
+         */
+        public boolean markNew() {
+            // "First time" is decided by the same CAS as the flags: with a separate read of the
+            // timestamp, two hooks could both see 0 and both start the delay
+            int previous = stateWord.getAndUpdate(word -> {
+                int next = withCounter(word | STATE_NEW_SHIP, RETRIES_SHIFT, 0);
+                if ((word & STATE_NEW_SHIP_SEEN) == 0) {
+                    next |= STATE_NEW_SHIP_SEEN | STATE_NEW_SHIP_DELAY_PENDING;
                 }
+                return next;
+            });
+            boolean first = (previous & STATE_NEW_SHIP_SEEN) == 0;
+            if (first) {
+                // Only the call that set the seen bit records the timestamp (for logging the delay)
+                this.newShipFirstSeenTimeMillis = System.currentTimeMillis();
             }
+            return first;
+        }
+        
+        public void setNewShipDelayPending(boolean pending) {
+            setFlag(STATE_NEW_SHIP_DELAY_PENDING, pending);
         }
         
         /**
          * Check if the 10-second delay has passed since this ship was first marked as new.
-         * @return true if 10 seconds have passed (or ship is not new), false if still waiting
+         * @return true if the delay timer has fired (or ship is not new), false if still waiting
          */
         public boolean hasNewShipDelayPassed() {
-            if (!isNewShip || newShipFirstSeenTimeMillis == 0) {
-                return true; // Not a new ship or no timestamp recorded, allow query
-            }
-            long currentTime = System.currentTimeMillis();
-            long timeSinceFirstSeen = currentTime - newShipFirstSeenTimeMillis;
-            return timeSinceFirstSeen >= 10000; // 10 seconds = 10000 milliseconds
+            return !isNewShip() || !hasFlag(STATE_NEW_SHIP_DELAY_PENDING);
         }
         
         /**
@@ -1805,35 +2256,129 @@ public class AutoBuyerCore {
         }
         
         public int getNewShipRetryCount() {
-            return newShipRetryCount;
+            return counter(stateWord.get(), RETRIES_SHIFT);
         }
         
-        public void incrementNewShipRetryCount() {
-            this.newShipRetryCount++;
+        /**
+         * Record a failed attempt while the ship is new. Once maxRetries is reached the ship is
+         * marked nothing-to-purchase and no longer new, in the same step as the count.
+         * @return true if the retries are now exhausted
+         */
+        public boolean recordNewShipRetry(int maxRetries) {
+            while (true) {
+                int current = stateWord.get();
+                int retries = Math.min(counter(current, RETRIES_SHIFT) + 1, COUNTER_MAX);
+                int next = withCounter(current, RETRIES_SHIFT, retries);
+                boolean exhausted = retries >= maxRetries;
+                if (exhausted) {
+                    next = (next | STATE_NOTHING_TO_PURCHASE) & ~STATE_NEW_SHIP;
+                }
+                if (stateWord.compareAndSet(current, next)) {
+                    return exhausted;
+                }
+            }
         }
         
         public boolean hasExceededNewShipRetries(int maxRetries) {
-            return newShipRetryCount >= maxRetries;
+            return getNewShipRetryCount() >= maxRetries;
+        }
+        
+        /**
+         * Read-only copy. Flags and counters come from a single read of the state word, so
+         * they are consistent with each other; offersGeneration and lastAttemptTimeMillis are
+         * volatile reads of their own.
+         */
+        ShipStateView toView(int shipId) {
+            int word = stateWord.get();
+            return new ShipStateView(shipId, counter(word, TRADES_SHIFT), (word & STATE_IN_COOLDOWN) != 0,
+                                     (word & STATE_MAX_TRADES_REACHED) != 0, (word & STATE_NOTHING_TO_PURCHASE) != 0,
+                                     (word & STATE_NEW_SHIP) != 0, counter(word, RETRIES_SHIFT),
+                                     offersGeneration, lastAttemptTimeMillis);
+        }
+    }
+    
+    /**
+     * Read-only copy of one ship's state, for monitoring (see AutoBuyerMXBean).
+     * WHY A COPY: ShipState is mutated by hooks and the evaluation; handing it out would let
+     * callers on other threads change it or read it halfway through an update.
+     */
+    public static final class ShipStateView {
+        private final int shipId;
+        private final int totalTradesCreated;
+        private final boolean inCooldown;
+        private final boolean maxTradesReached;
+        private final boolean nothingToPurchase;
+        private final boolean newShip;
+        private final int newShipRetryCount;
+        private final int offersGeneration;
+        private final long lastAttemptTimeMillis;
+        
+        @java.beans.ConstructorProperties({ "shipId", "totalTradesCreated", "inCooldown", "maxTradesReached",
+                                            "nothingToPurchase", "newShip", "newShipRetryCount",
+                                            "offersGeneration", "lastAttemptTimeMillis" })
+        public ShipStateView(int shipId, int totalTradesCreated, boolean inCooldown, boolean maxTradesReached,
+                             boolean nothingToPurchase, boolean newShip, int newShipRetryCount,
+                             int offersGeneration, long lastAttemptTimeMillis) {
+            this.shipId = shipId;
+            this.totalTradesCreated = totalTradesCreated;
+            this.inCooldown = inCooldown;
+            this.maxTradesReached = maxTradesReached;
+            this.nothingToPurchase = nothingToPurchase;
+            this.newShip = newShip;
+            this.newShipRetryCount = newShipRetryCount;
+            this.offersGeneration = offersGeneration;
+            this.lastAttemptTimeMillis = lastAttemptTimeMillis;
+        }
+        
+        public int getShipId() {
+            return shipId;
+        }
+        
+        public int getTotalTradesCreated() {
+            return totalTradesCreated;
+        }
+        
+        public boolean isInCooldown() {
+            return inCooldown;
+        }
+        
+        public boolean isMaxTradesReached() {
+            return maxTradesReached;
+        }
+        
+        public boolean isNothingToPurchase() {
+            return nothingToPurchase;
+        }
+        
+        public boolean isNewShip() {
+            return newShip;
+        }
+        
+        public int getNewShipRetryCount() {
+            return newShipRetryCount;
+        }
+        
+        public int getOffersGeneration() {
+            return offersGeneration;
+        }
+        
+        public long getLastAttemptTimeMillis() {
+            return lastAttemptTimeMillis;
         }
     }
     
     /**
-     * Helper class to hold ship priority information for sorting.
+     * Immutable pairing of the player station with the world it was found in.
      */
-    private static class ShipPriority {
-        Ship ship;
-        int score;
-        int discountedItems;
-        int totalNeedValue;
-        int activeTrades;
+    private static class StationHandle {
+        final World world;
+        final Ship station;
+        final int stationId;
         
-        public ShipPriority(Ship ship, int score, int discountedItems, int totalNeedValue, int activeTrades) {
-            this.ship = ship;
-            this.score = score;
-            this.discountedItems = discountedItems;
-            this.totalNeedValue = totalNeedValue;
-            this.activeTrades = activeTrades;
+        StationHandle(World world, Ship station) {
+            this.world = world;
+            this.station = station;
+            this.stationId = station.getShipId();
         }
     }
 }
-
@@ -0,0 +1,100 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+/**
+ * JMX management interface: live statistics and runtime tuning, registered as
+ * com.rinswiftwings.autobuyermod:type=AutoBuyer (see AutoBuyerManagement).
+ *
+ * Read-only attributes are the session statistics; read-write attributes change the running
+ * config. Changes are not written back to info.xml, so they last until the game restarts or the
+ * config is reloaded.
+ *
+ * DESIGN DECISIONS:
+ * - An MXBean rather than a standard MBean: ShipStates is mapped to CompositeData, so jconsole
+ *   and JDK Mission Control show it as a table without any mod classes on their classpath
+ * - Each tunable setter changes one value through AutoBuyerConfig.updateTunables; applyTunables
+ *   changes all of them at once, so an evaluation never plans with half of a new set
+ * - Out-of-range values are rejected with IllegalArgumentException (shown by the JMX client)
+ *   and leave the config unchanged
+ */
+public interface AutoBuyerMXBean {
+
+    // ===== Statistics =====
+
+    long getTradesCreated();
+
+    long getEvaluations();
+
+    /** Average game-thread time of an evaluation this session, in microseconds */
+    long getAverageEvaluationMicros();
+
+    long getMaxEvaluationMicros();
+
+    int getTrackedShips();
+
+    /** Free items waiting for logistics at the last check */
+    int getLogisticsItemCount();
+
+    /** Offer cache hit ratio (0.0-1.0) */
+    double getOfferCacheHitRatio();
+
+    long getSlowTradeAttempts();
+
+    /** Copy of every tracked ship's state */
+    java.util.List<AutoBuyerCore.ShipStateView> getShipStates();
+
+    /** The last 20 trade attempts with per-phase timing, newest first */
+    java.util.List<String> getRecentTradeAttempts();
+
+    // ===== Tunables =====
+
+    int getCooldownTicks();
+
+    void setCooldownTicks(int cooldownTicks);
+
+    int getDiscountBuyThreshold();
+
+    void setDiscountBuyThreshold(int threshold);
+
+    int getNormalBuyThreshold();
+
+    void setNormalBuyThreshold(int threshold);
+
+    int getMarkupBuyThreshold();
+
+    void setMarkupBuyThreshold(int threshold);
+
+    int getPremiumBuyThreshold();
+
+    void setPremiumBuyThreshold(int threshold);
+
+    int getMaxCreditsPerTrade();
+
+    void setMaxCreditsPerTrade(int maxCreditsPerTrade);
+
+    int getMinCreditBalance();
+
+    void setMinCreditBalance(int minCreditBalance);
+
+    int getSlowTradeThresholdMicros();
+
+    void setSlowTradeThresholdMicros(int slowTradeThresholdMicros);
+
+    int getMetricsIntervalSeconds();
+
+    void setMetricsIntervalSeconds(int metricsIntervalSeconds);
+
+    /**
+     * Replace every trade tunable in one step.
+     */
+    void applyTunables(int discountBuyThreshold, int normalBuyThreshold, int markupBuyThreshold,
+                       int premiumBuyThreshold, int maxCreditsPerTrade, int cooldownTicks,
+                       int minCreditBalance);
+}
@@ -0,0 +1,214 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+/**
+ * AutoBuyerMXBean implementation, registered with the platform MBeanServer.
+ *
+ * DESIGN DECISIONS:
+ * - Every getter reads values the core, scheduler or metrics already keep (atomics, volatiles,
+ *   the ShipState word). A JMX client polls from its own thread and never blocks the game thread
+ * - Setters go through AutoBuyerConfig, which validates and publishes the change; nothing here
+ *   holds state of its own
+ * - register() never throws: without JMX (or if the name is already taken, e.g. the mod was
+ *   loaded twice) the mod runs as before and the reason is logged
+ *
+ * WHY: The log, journal and metrics file are read after the fact. Watching the mod while playing
+ * and trying a different threshold or cooldown meant editing info.xml and restarting the game.
+ */
+public class AutoBuyerManagement implements AutoBuyerMXBean {
+
+    public static final String OBJECT_NAME = "com.rinswiftwings.autobuyermod:type=AutoBuyer";
+    private static final int RECENT_TRADE_ATTEMPTS = 20;
+
+    private final AutoBuyerCore core;
+    private final AutoBuyerConfig config;
+
+    public AutoBuyerManagement(AutoBuyerCore core, AutoBuyerConfig config) {
+        this.core = core;
+        this.config = config;
+    }
+
+    /**
+     * Register the MXBean with the platform MBeanServer.
+     * @return true if it was registered
+     */
+    public static boolean register(AutoBuyerCore core, AutoBuyerConfig config) {
+        try {
+            javax.management.MBeanServer server = java.lang.management.ManagementFactory.getPlatformMBeanServer();
+            javax.management.ObjectName name = new javax.management.ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name); // Left over from an earlier load of the mod
+            }
+            server.registerMBean(new AutoBuyerManagement(core, config), name);
+            ModLog.log(ModLog.Category.GENERAL, ModLog.Level.INFO, "AutoBuyerManagement: Registered JMX bean {}", OBJECT_NAME);
+            return true;
+        } catch (Throwable t) {
+            // JMX is optional (e.g. java.management missing from a trimmed runtime)
+            ModLog.log(ModLog.Category.GENERAL, ModLog.Level.WARN, "AutoBuyerManagement: JMX bean not registered", t);
+            return false;
+        }
+    }
+
+    // ===== Statistics =====
+
+    @Override
+    public long getTradesCreated() {
+        return core.getTradesCreatedCount();
+    }
+
+    @Override
+    public long getEvaluations() {
+        return core.getEvaluationScheduler().getEvaluationCount();
+    }
+
+    @Override
+    public long getAverageEvaluationMicros() {
+        return core.getEvaluationLatency().getAverageMicros();
+    }
+
+    @Override
+    public long getMaxEvaluationMicros() {
+        return core.getEvaluationLatency().getMaxMicros();
+    }
+
+    @Override
+    public int getTrackedShips() {
+        return core.getTrackedShipCount();
+    }
+
+    @Override
+    public int getLogisticsItemCount() {
+        return core.getLogisticsItemCount();
+    }
+
+    @Override
+    public double getOfferCacheHitRatio() {
+        return core.getOfferCacheMetrics().getHitRatio();
+    }
+
+    @Override
+    public long getSlowTradeAttempts() {
+        return core.getTradeTrace().getSlowCount();
+    }
+
+    @Override
+    public java.util.List<AutoBuyerCore.ShipStateView> getShipStates() {
+        return core.snapshotShipStates();
+    }
+
+    @Override
+    public java.util.List<String> getRecentTradeAttempts() {
+        return core.getTradeTrace().describeRecent(RECENT_TRADE_ATTEMPTS);
+    }
+
+    // ===== Tunables =====
+
+    @Override
+    public int getCooldownTicks() {
+        return config.getCooldownTicks();
+    }
+
+    @Override
+    public void setCooldownTicks(int cooldownTicks) {
+        config.updateTunables(t -> t.withCooldownTicks(cooldownTicks));
+    }
+
+    @Override
+    public int getDiscountBuyThreshold() {
+        return config.getDiscountBuyThreshold();
+    }
+
+    @Override
+    public void setDiscountBuyThreshold(int threshold) {
+        config.updateTunables(t -> t.withDiscountBuyThreshold(threshold));
+    }
+
+    @Override
+    public int getNormalBuyThreshold() {
+        return config.getNormalBuyThreshold();
+    }
+
+    @Override
+    public void setNormalBuyThreshold(int threshold) {
+        config.updateTunables(t -> t.withNormalBuyThreshold(threshold));
+    }
+
+    @Override
+    public int getMarkupBuyThreshold() {
+        return config.getMarkupBuyThreshold();
+    }
+
+    @Override
+    public void setMarkupBuyThreshold(int threshold) {
+        config.updateTunables(t -> t.withMarkupBuyThreshold(threshold));
+    }
+
+    @Override
+    public int getPremiumBuyThreshold() {
+        return config.getPremiumBuyThreshold();
+    }
+
+    @Override
+    public void setPremiumBuyThreshold(int threshold) {
+        config.updateTunables(t -> t.withPremiumBuyThreshold(threshold));
+    }
+
+    @Override
+    public int getMaxCreditsPerTrade() {
+        return config.getMaxCreditsPerTrade();
+    }
+
+    @Override
+    public void setMaxCreditsPerTrade(int maxCreditsPerTrade) {
+        // 0 means unlimited, as in info.xml
+        int value = maxCreditsPerTrade == 0 ? Integer.MAX_VALUE : maxCreditsPerTrade;
+        config.updateTunables(t -> t.withMaxCreditsPerTrade(value));
+    }
+
+    @Override
+    public int getMinCreditBalance() {
+        return config.getMinCreditBalance();
+    }
+
+    @Override
+    public void setMinCreditBalance(int minCreditBalance) {
+        config.updateTunables(t -> t.withMinCreditBalance(minCreditBalance));
+    }
+
+    @Override
+    public int getSlowTradeThresholdMicros() {
+        return config.getSlowTradeThresholdMicros();
+    }
+
+    @Override
+    public void setSlowTradeThresholdMicros(int slowTradeThresholdMicros) {
+        config.setSlowTradeThresholdMicros(slowTradeThresholdMicros);
+    }
+
+    @Override
+    public int getMetricsIntervalSeconds() {
+        return config.getMetricsIntervalSeconds();
+    }
+
+    @Override
+    public void setMetricsIntervalSeconds(int metricsIntervalSeconds) {
+        config.setMetricsIntervalSeconds(metricsIntervalSeconds);
+    }
+
+    @Override
+    public void applyTunables(int discountBuyThreshold, int normalBuyThreshold, int markupBuyThreshold,
+                              int premiumBuyThreshold, int maxCreditsPerTrade, int cooldownTicks,
+                              int minCreditBalance) {
+        config.applyTunables(new TradeTunables(discountBuyThreshold, normalBuyThreshold, markupBuyThreshold,
+                                               premiumBuyThreshold,
+                                               maxCreditsPerTrade == 0 ? Integer.MAX_VALUE : maxCreditsPerTrade,
+                                               cooldownTicks, minCreditBalance));
+    }
+}
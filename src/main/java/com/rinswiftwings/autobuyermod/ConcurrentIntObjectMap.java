@@ -0,0 +1,126 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+/**
+ * Thread-safe int-keyed map for data that is read constantly and changed rarely.
+ *
+ * DESIGN DECISIONS:
+ * - Copy-on-write over IntObjectMap: readers get the current table through one volatile read
+ *   and never lock; writers copy the table, change the copy and publish it
+ * - Writers serialize on the map itself. Writes are ship arrivals and departures, a handful per
+ *   minute, and the table holds a few dozen entries, so copying is cheap
+ * - forEach() and keys() walk one published table, so releasing entries while walking can never
+ *   throw ConcurrentModificationException or see a half-moved slot
+ * - remove(key, expected) only removes the entry if it is still the same value, so a release
+ *   loop can't drop an entry another thread just recreated
+ *
+ * WHY: The per-ship state map is read from every hook and both planning steps, while hooks on
+ * other threads add and remove ships. A plain IntObjectMap isn't safe for that.
+ */
+public class ConcurrentIntObjectMap<V> {
+
+    /**
+     * Callback for forEach().
+     */
+    public interface Visitor<V> {
+        void visit(int key, V value);
+    }
+
+    /**
+     * Published table. Never modified after publication.
+     */
+    private volatile IntObjectMap<V> table = new IntObjectMap<>();
+
+    public V get(int key) {
+        return table.get(key);
+    }
+
+    public boolean containsKey(int key) {
+        return table.containsKey(key);
+    }
+
+    /**
+     * Get the value for a key, creating and adding it if absent. The factory runs at most once
+     * per added entry (under the write lock).
+     */
+    public V computeIfAbsent(int key, java.util.function.IntFunction<V> factory) {
+        V value = table.get(key);
+        if (value != null) {
+            return value;
+        }
+        synchronized (this) {
+            value = table.get(key);
+            if (value == null) {
+                value = factory.apply(key);
+                IntObjectMap<V> next = table.copy();
+                next.put(key, value);
+                table = next;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Remove a key. Returns the removed value, or null if absent.
+     */
+    public V remove(int key) {
+        synchronized (this) {
+            if (!table.containsKey(key)) {
+                return null;
+            }
+            IntObjectMap<V> next = table.copy();
+            V removed = next.remove(key);
+            table = next;
+            return removed;
+        }
+    }
+
+    /**
+     * Remove a key only if it still maps to the expected value. Returns false if the key is
+     * absent, even for a null expected value (as ConcurrentMap.remove does).
+     */
+    public boolean remove(int key, V expected) {
+        synchronized (this) {
+            V current = table.get(key);
+            if (current == null || current != expected) {
+                return false;
+            }
+            IntObjectMap<V> next = table.copy();
+            next.remove(key);
+            table = next;
+            return true;
+        }
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    public boolean isEmpty() {
+        return table.isEmpty();
+    }
+
+    /**
+     * Keys at the moment of the call.
+     */
+    public int[] keys() {
+        return table.keys();
+    }
+
+    /**
+     * Visit every entry of the table as it was when the call started.
+     */
+    public void forEach(Visitor<V> visitor) {
+        IntObjectMap<V> current = table;
+        for (int key : current.keys()) {
+            visitor.visit(key, current.get(key));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Credits claimed by trades that are being created right now but not yet reserved in the bank.
+ *
+ * DESIGN DECISIONS:
+ * - A trade claims its cost here (compare-and-set, no lock) before it calls bank.reserve(), and
+ *   releases the claim once the bank holds the credits or the trade is abandoned
+ * - A claim only succeeds if the bank's available credits minus all pending claims still cover
+ *   it, so two trades for different ships can't both spend the same credits
+ * - A claim released a moment after the bank already reserved the credits is briefly counted
+ *   twice. That can only refuse a trade
+ * - The bank balance passed in may already be stale when the claim is made, so the ledger is a
+ *   cheap early refusal, not the last word: TradeCommitter checks the bank again under its game
+ *   mutation lock right before bank.reserve()
+ *
+ * WHY: Trade creation is locked per NPC ship (see TradeCommitter), so trades with
+ * different ships run side by side. The player's credits are the one thing they all share.
+ */
+public class CreditLedger {
+
+    private final AtomicLong pending = new AtomicLong();
+
+    /**
+     * Claim credits for a trade.
+     *
+     * @param bankAvailable Credits the bank reports as available right now
+     * @param amount        Cost of the trade
+     * @return true if the claim fits; the caller must release() it exactly once
+     */
+    public boolean tryClaim(int bankAvailable, int amount) {
+        while (true) {
+            long current = pending.get();
+            if ((long) bankAvailable - current < amount) {
+                return false;
+            }
+            if (pending.compareAndSet(current, current + amount)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Release a claim made with tryClaim().
+     */
+    public void release(int amount) {
+        pending.addAndGet(-amount);
+    }
+
+    /**
+     * Credits currently claimed but not yet reserved in the bank.
+     */
+    public long getPending() {
+        return pending.get();
+    }
+}
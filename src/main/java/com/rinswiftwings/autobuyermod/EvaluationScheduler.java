@@ -0,0 +1,276 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import fi.bugbyte.spacehaven.world.World;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces evaluation requests from the game hooks into at most one attemptBestTrade per tick.
+ *
+ * DESIGN DECISIONS:
+ * - Hooks call request(world, reason) instead of running the evaluation themselves. The request
+ *   only ORs its reason bit into a pending mask; nothing else happens inside the hook
+ * - The first request posts a flush to the game thread with Gdx.app.postRunnable(), which
+ *   libGDX runs at the start of the next frame. Every request until then is merged into it
+ * - A flush only evaluates if the configured interval (evaluation_interval_ticks) has passed
+ *   since the last evaluation. Otherwise it starts one TimingWheel timer for the moment it
+ *   will have passed and stays "posted" until then, so the wait costs no per-frame runnables
+ *   and later requests just merge their reason bits
+ * - The evaluation is started on the game thread, exactly like the direct hook calls did
+ * - If Gdx.app isn't available (no libGDX application yet), requests fall back to evaluating
+ *   immediately, without the interval, so the mod never silently stops trading and no reasons
+ *   are left waiting for a frame that never comes
+ *
+ * WHY: When a shuttle unloads several crew, or a burst of trades completes in the same frame,
+ * each hook used to run the full evaluation. Only the last one of those evaluations could find
+ * anything new - the others just repeated the same work against the same world state.
+ *
+ * Thread-safe: hooks may fire from different threads.
+ */
+public class EvaluationScheduler {
+
+    // Reason bits (why an evaluation was requested). Combined with | when requests merge.
+    public static final int REASON_TRADE_DONE = 1;
+    public static final int REASON_TRADE_CANCELLED = 1 << 1;
+    public static final int REASON_SHIP_ADDED = 1 << 2;
+    public static final int REASON_ENTITY_BOARDED = 1 << 3;
+    // Requested by the core itself after a cycle that created trades or was asked to re-run
+    public static final int REASON_FOLLOW_UP = 1 << 4;
+    // A ship's cooldown or new-ship delay ran out (TimingWheel)
+    public static final int REASON_TIMER_EXPIRED = 1 << 5;
+
+    private static final String[] REASON_NAMES = {
+        "TRADE_DONE", "TRADE_CANCELLED", "SHIP_ADDED", "ENTITY_BOARDED", "FOLLOW_UP", "TIMER_EXPIRED"
+    };
+
+    private final AutoBuyerCore core;
+    private final AutoBuyerConfig config;
+    private final TimingWheel timers;
+
+    private final AtomicInteger pendingReasons = new AtomicInteger();
+    private final AtomicBoolean flushPosted = new AtomicBoolean();
+    private volatile World pendingWorld = null;
+    private volatile long lastEvaluationNanos = 0;
+
+    // Counters
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong evaluations = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+
+    /**
+     * Evaluation count at the start of the current and the previous rate window (immutable).
+     * WHY: The rate is computed when it is read, against now. A rate stored when an evaluation
+     * runs keeps reporting the last busy second for as long as nothing else runs.
+     */
+    private static final class RateWindows {
+        final long startNanos;
+        final long startCount;
+        final long previousStartNanos;
+        final long previousStartCount;
+
+        RateWindows(long startNanos, long startCount, long previousStartNanos, long previousStartCount) {
+            this.startNanos = startNanos;
+            this.startCount = startCount;
+            this.previousStartNanos = previousStartNanos;
+            this.previousStartCount = previousStartCount;
+        }
+    }
+
+    // Replaced on the game thread only, read from any thread
+    private volatile RateWindows rateWindows = null;
+
+    private final Runnable flushTask = this::flush;
+
+    public EvaluationScheduler(AutoBuyerCore core, AutoBuyerConfig config, TimingWheel timers) {
+        this.core = core;
+        this.config = config;
+        this.timers = timers;
+    }
+
+    /**
+     * Ask for an evaluation. Cheap; safe to call from any hook.
+     *
+     * @param reason One of the REASON_* bits
+     */
+    public void request(World world, int reason) {
+        if (world == null) {
+            return;
+        }
+        requests.incrementAndGet();
+        pendingWorld = world;
+        int previous = pendingReasons.getAndAccumulate(reason, (a, b) -> a | b);
+        if (previous != 0) {
+            // Merged into an evaluation that is already pending - this request won't run its own
+            coalesced.incrementAndGet();
+        }
+        post();
+    }
+
+    /**
+     * Ask for an evaluation against the world of the most recent request. For triggers that
+     * don't come with a world (timers); does nothing before the first request.
+     */
+    public void wake(int reason) {
+        World world = pendingWorld;
+        if (world != null) {
+            request(world, reason);
+        }
+    }
+
+    /**
+     * The interval timer started by flush() expired (game thread, from TimingWheel.advance).
+     */
+    void onIntervalElapsed() {
+        flush();
+    }
+
+    /**
+     * Total evaluations actually run.
+     */
+    public long getEvaluationCount() {
+        return evaluations.get();
+    }
+
+    /**
+     * Requests that were merged into an already pending evaluation instead of running their own.
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Total evaluation requests received from hooks.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Evaluations per second, averaged from the start of the newest rate window that is at least
+     * a second old until now. Falls toward 0 while no evaluations run.
+     */
+    public double getEvaluationsPerSecond() {
+        RateWindows windows = rateWindows;
+        if (windows == null) {
+            return 0.0;
+        }
+        long now = System.nanoTime();
+        long startNanos = windows.startNanos;
+        long startCount = windows.startCount;
+        if (now - startNanos < RATE_WINDOW_NANOS && windows.previousStartNanos != 0) {
+            // Current window too short to say much - measure from the previous one
+            startNanos = windows.previousStartNanos;
+            startCount = windows.previousStartCount;
+        }
+        long elapsed = now - startNanos;
+        if (elapsed <= 0) {
+            return 0.0;
+        }
+        return (evaluations.get() - startCount) * 1_000_000_000.0 / elapsed;
+    }
+
+    /**
+     * Make sure a flush is queued on the game thread (only one at a time).
+     */
+    private void post() {
+        if (!flushPosted.compareAndSet(false, true)) {
+            return;
+        }
+        Application app = Gdx.app;
+        if (app == null) {
+            flushPosted.set(false);
+            flush();
+            return;
+        }
+        app.postRunnable(flushTask);
+    }
+
+    /**
+     * Run the pending evaluation if the interval allows it (game thread).
+     */
+    private void flush() {
+        flushPosted.set(false);
+        if (pendingReasons.get() == 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long intervalNanos = Math.max(1, config.getEvaluationIntervalTicks()) * TimingWheel.NANOS_PER_TICK;
+        long waitNanos = lastEvaluationNanos + intervalNanos - now;
+        if (lastEvaluationNanos != 0 && waitNanos > 0 && Gdx.app != null) {
+            // Too soon - keep the reasons and come back once when the interval has passed.
+            // flushPosted stays set meanwhile, so requests until then don't post anything.
+            // (If a request posted a new flush in the meantime, that flush starts the timer.)
+            if (flushPosted.compareAndSet(false, true)) {
+                long waitTicks = (waitNanos + TimingWheel.NANOS_PER_TICK - 1) / TimingWheel.NANOS_PER_TICK;
+                timers.schedule(AutoBuyerCore.TIMER_EVALUATION_INTERVAL, -1, waitTicks);
+            }
+            return;
+        }
+
+        int reasons = pendingReasons.getAndSet(0);
+        World world = pendingWorld;
+        if (reasons == 0 || world == null) {
+            return;
+        }
+        lastEvaluationNanos = now;
+
+        try {
+            if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+                ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                           "EvaluationScheduler: Running evaluation (reasons: {})", describeReasons(reasons));
+            }
+            // Not counted if a plan was still in flight: the core only noted the request and
+            // re-evaluates when that plan is committed
+            if (core.attemptBestTrade(world)) {
+                countEvaluation(now);
+            }
+        } catch (Exception e) {
+            ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.ERROR, "EvaluationScheduler: Exception during evaluation", e);
+        }
+    }
+
+    /**
+     * Count an evaluation that ran, starting a new rate window once the current one is a second
+     * old (game thread).
+     */
+    private void countEvaluation(long now) {
+        long before = evaluations.getAndIncrement();
+        RateWindows windows = rateWindows;
+        if (windows == null) {
+            rateWindows = new RateWindows(now, before, 0, 0);
+        } else if (now - windows.startNanos >= RATE_WINDOW_NANOS) {
+            rateWindows = new RateWindows(now, before, windows.startNanos, windows.startCount);
+        }
+    }
+
+    /**
+     * Render a reason mask for logging, e.g. "TRADE_DONE|SHIP_ADDED".
+     */
+    static String describeReasons(int reasons) {
+        StringBuilder sb = new StringBuilder();
+        for (int bit = 0; bit < REASON_NAMES.length; bit++) {
+            if ((reasons & (1 << bit)) != 0) {
+                if (sb.length() > 0) {
+                    sb.append('|');
+                }
+                sb.append(REASON_NAMES[bit]);
+            }
+        }
+        return sb.length() > 0 ? sb.toString() : "none";
+    }
+}
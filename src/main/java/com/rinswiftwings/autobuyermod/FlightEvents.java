@@ -0,0 +1,239 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Java Flight Recorder events for the mod's work, so a JFR recording of the game shows mod time
+ * next to GC and game-thread samples.
+ *
+ * Events (category "AutoBuyerMod"):
+ * - AutoBuyerEvaluation:         game-thread part of an evaluation (attemptBestTrade) -
+ *                                candidates, credits available, planned off-thread or inline
+ * - AutoBuyerTradeCommit:        one trade attempt (attemptAutoBuy) - ship ID, items, credits,
+ *                                whether a trade was created
+ * - AutoBuyerOfferRefresh:       an offer cache miss (bank.createOffersList) - ship ID, items
+ * - AutoBuyerLogisticsThreshold: the logistics item count crossed a threshold (instant event)
+ * Durations are JFR's own (begin/end), so they show as spans in JDK Mission Control.
+ *
+ * DESIGN DECISIONS:
+ * - The mod is compiled for Java 8, which has no jdk.jfr API, so the events cannot be written
+ *   as jdk.jfr.Event subclasses. They are defined at runtime with jdk.jfr.EventFactory (JDK 9+)
+ *   and driven through method handles. Nothing refers to jdk.jfr in the bytecode: on a JRE
+ *   without JFR, the lookup in the static initializer fails once and every method here returns
+ *   immediately
+ * - begin*() returns null unless a recording has the event enabled, and commit*() does nothing
+ *   with null. With no recording running, an event costs one isEnabled() check and no allocation
+ * - No stack traces are recorded (@StackTrace(false)): they are the expensive part of an event
+ *   and the call sites are fixed
+ *
+ * WHY: ModLog, the journal, metrics and traces each show part of the picture in the mod's own
+ * files. JFR puts mod time on the same timeline as what the rest of the game is doing.
+ */
+public final class FlightEvents {
+
+    private static final String CATEGORY = "AutoBuyerMod";
+
+    /**
+     * One event type: its factory's newEvent() and its EventType's isEnabled().
+     */
+    private static final class Kind {
+        final MethodHandle newEvent;  // () -> Object
+        final MethodHandle isEnabled; // () -> boolean
+
+        Kind(MethodHandle newEvent, MethodHandle isEnabled) {
+            this.newEvent = newEvent;
+            this.isEnabled = isEnabled;
+        }
+    }
+
+    // All null when JFR is not available
+    private static final Kind EVALUATION;
+    private static final Kind TRADE_COMMIT;
+    private static final Kind OFFER_REFRESH;
+    private static final Kind LOGISTICS_THRESHOLD;
+    private static final MethodHandle BEGIN;  // (Object event) -> void
+    private static final MethodHandle END;    // (Object event) -> void
+    private static final MethodHandle SET;    // (Object event, int index, Object value) -> void
+    private static final MethodHandle COMMIT; // (Object event) -> void
+
+    static {
+        Kind evaluation = null;
+        Kind tradeCommit = null;
+        Kind offerRefresh = null;
+        Kind logistics = null;
+        MethodHandle begin = null;
+        MethodHandle end = null;
+        MethodHandle set = null;
+        MethodHandle commit = null;
+        try {
+            Class<?> eventClass = Class.forName("jdk.jfr.Event");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            MethodType eventOnly = MethodType.methodType(void.class, Object.class);
+            begin = lookup.findVirtual(eventClass, "begin", MethodType.methodType(void.class)).asType(eventOnly);
+            end = lookup.findVirtual(eventClass, "end", MethodType.methodType(void.class)).asType(eventOnly);
+            commit = lookup.findVirtual(eventClass, "commit", MethodType.methodType(void.class)).asType(eventOnly);
+            set = lookup.findVirtual(eventClass, "set", MethodType.methodType(void.class, int.class, Object.class))
+                        .asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+
+            // Field order below is the index passed to SET
+            evaluation = define("AutoBuyerEvaluation", "AutoBuyer Evaluation",
+                                int.class, "candidates", "Candidate Ships",
+                                long.class, "credits", "Credits Available",
+                                boolean.class, "offThread", "Planned Off Game Thread");
+            tradeCommit = define("AutoBuyerTradeCommit", "AutoBuyer Trade Attempt",
+                                 int.class, "shipId", "Ship ID",
+                                 int.class, "items", "Items",
+                                 int.class, "credits", "Credits",
+                                 boolean.class, "created", "Trade Created");
+            offerRefresh = define("AutoBuyerOfferRefresh", "AutoBuyer Offer Refresh",
+                                  int.class, "shipId", "Ship ID",
+                                  int.class, "items", "Items Offered");
+            logistics = define("AutoBuyerLogisticsThreshold", "AutoBuyer Logistics Threshold",
+                               String.class, "threshold", "Threshold",
+                               int.class, "items", "Items Waiting",
+                               int.class, "limit", "Threshold Items",
+                               boolean.class, "rising", "Rising");
+            ModLog.log(ModLog.Category.GENERAL, ModLog.Level.INFO, "FlightEvents: JFR events registered");
+        } catch (Throwable t) {
+            // Java 8 without JFR, or a JRE without the jdk.jfr module: events stay off
+            evaluation = tradeCommit = offerRefresh = logistics = null;
+            ModLog.log(ModLog.Category.GENERAL, ModLog.Level.INFO, "FlightEvents: JFR not available - events disabled ({})", t.toString());
+        }
+        EVALUATION = evaluation;
+        TRADE_COMMIT = tradeCommit;
+        OFFER_REFRESH = offerRefresh;
+        LOGISTICS_THRESHOLD = logistics;
+        BEGIN = begin;
+        END = end;
+        SET = set;
+        COMMIT = commit;
+    }
+
+    private FlightEvents() {
+    }
+
+    /**
+     * Define one event type with EventFactory.create().
+     *
+     * @param fields Triples of (Class type, String name, String label)
+     */
+    private static Kind define(String name, String label, Object... fields) throws Throwable {
+        Class<?> annotationClass = Class.forName("jdk.jfr.AnnotationElement");
+        Class<?> descriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+        Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+        Class<?> typeClass = Class.forName("jdk.jfr.EventType");
+        java.lang.reflect.Constructor<?> annotation = annotationClass.getConstructor(Class.class, Object.class);
+        java.lang.reflect.Constructor<?> descriptor = descriptorClass.getConstructor(Class.class, String.class, java.util.List.class);
+
+        java.util.List<Object> annotations = new java.util.ArrayList<>();
+        annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Name"), "com.rinswiftwings.autobuyermod." + name));
+        annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Label"), label));
+        annotations.add(annotation.newInstance(Class.forName("jdk.jfr.Category"), new String[] { CATEGORY }));
+        annotations.add(annotation.newInstance(Class.forName("jdk.jfr.StackTrace"), Boolean.FALSE));
+
+        java.util.List<Object> descriptors = new java.util.ArrayList<>();
+        for (int i = 0; i < fields.length; i += 3) {
+            java.util.List<Object> fieldAnnotations = java.util.Collections.singletonList(
+                annotation.newInstance(Class.forName("jdk.jfr.Label"), fields[i + 2]));
+            descriptors.add(descriptor.newInstance(fields[i], fields[i + 1], fieldAnnotations));
+        }
+
+        Object factory = factoryClass.getMethod("create", java.util.List.class, java.util.List.class)
+                                     .invoke(null, annotations, descriptors);
+        Object type = factoryClass.getMethod("getEventType").invoke(factory);
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodHandle newEvent = lookup.findVirtual(factoryClass, "newEvent", MethodType.methodType(Class.forName("jdk.jfr.Event")))
+                                      .bindTo(factory).asType(MethodType.methodType(Object.class));
+        MethodHandle isEnabled = lookup.findVirtual(typeClass, "isEnabled", MethodType.methodType(boolean.class))
+                                       .bindTo(type);
+        return new Kind(newEvent, isEnabled);
+    }
+
+    /**
+     * Whether JFR events could be registered on this JRE.
+     */
+    public static boolean isAvailable() {
+        return EVALUATION != null;
+    }
+
+    public static Object beginEvaluation() {
+        return begin(EVALUATION);
+    }
+
+    public static void commitEvaluation(Object event, int candidates, long credits, boolean offThread) {
+        if (event != null) {
+            commit(event, candidates, credits, offThread);
+        }
+    }
+
+    public static Object beginTradeCommit() {
+        return begin(TRADE_COMMIT);
+    }
+
+    public static void commitTradeCommit(Object event, int shipId, int items, int credits, boolean created) {
+        if (event != null) {
+            commit(event, shipId, items, credits, created);
+        }
+    }
+
+    public static Object beginOfferRefresh() {
+        return begin(OFFER_REFRESH);
+    }
+
+    public static void commitOfferRefresh(Object event, int shipId, int items) {
+        if (event != null) {
+            commit(event, shipId, items);
+        }
+    }
+
+    /**
+     * Instant event: the logistics count crossed a threshold.
+     */
+    public static void logisticsThreshold(String threshold, int itemCount, int limit, boolean rising) {
+        Object event = begin(LOGISTICS_THRESHOLD);
+        if (event != null) {
+            commit(event, threshold, itemCount, limit, rising);
+        }
+    }
+
+    /**
+     * A new, begun event if a recording wants this kind, else null.
+     */
+    private static Object begin(Kind kind) {
+        if (kind == null) {
+            return null;
+        }
+        try {
+            if (!(boolean) kind.isEnabled.invokeExact()) {
+                return null;
+            }
+            Object event = (Object) kind.newEvent.invokeExact();
+            BEGIN.invokeExact(event);
+            return event;
+        } catch (Throwable t) {
+            return null; // Never let profiling break a trade
+        }
+    }
+
+    private static void commit(Object event, Object... values) {
+        try {
+            END.invokeExact(event);
+            for (int i = 0; i < values.length; i++) {
+                SET.invokeExact(event, i, values[i]);
+            }
+            COMMIT.invokeExact(event);
+        } catch (Throwable t) {
+            // Never let profiling break a trade
+        }
+    }
+}
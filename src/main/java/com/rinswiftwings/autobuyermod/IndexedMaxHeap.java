@@ -0,0 +1,224 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+/**
+ * Binary max-heap of values with int scores, addressable by an int id.
+ *
+ * DESIGN DECISIONS:
+ * - Each entry is keyed by an id (ship ID), and the heap keeps an id -> heap slot index,
+ *   so an entry's score can be changed or the entry removed in O(log n) without a search
+ * - Ties are broken by insertion order (first inserted wins), which matches the stable sort
+ *   the ship ranking used before: equal scores keep world ship order
+ * - peek() is O(1); update()/remove()/poll() are O(log n)
+ *
+ * WHY: attemptBestTrade only ever needs the best ship (and occasionally the runner-up), but
+ * used to rescore and re-sort every ship on each of up to 20 iterations. With the heap, only
+ * the ships whose score actually changed after a trade are re-positioned.
+ *
+ * Not thread-safe: one heap belongs to one evaluation cycle.
+ */
+public class IndexedMaxHeap<T> {
+
+    private int[] ids;
+    private int[] scores;
+    private long[] order;
+    private Object[] values;
+    private int size;
+    private long nextOrder = 0;
+
+    /**
+     * id -> slot in the heap arrays.
+     */
+    private final IntIntMap slots;
+
+    public IndexedMaxHeap(int expectedSize) {
+        int capacity = Math.max(4, expectedSize);
+        ids = new int[capacity];
+        scores = new int[capacity];
+        order = new long[capacity];
+        values = new Object[capacity];
+        slots = new IntIntMap(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int id) {
+        return slots.containsKey(id);
+    }
+
+    /**
+     * Insert an entry, or replace the value and score of an existing one (keeps its tie order).
+     */
+    public void update(int id, int score, T value) {
+        int slot = slots.get(id, -1);
+        if (slot < 0) {
+            if (size == ids.length) {
+                grow();
+            }
+            slot = size++;
+            ids[slot] = id;
+            scores[slot] = score;
+            order[slot] = nextOrder++;
+            values[slot] = value;
+            slots.put(id, slot);
+            siftUp(slot);
+            return;
+        }
+        int oldScore = scores[slot];
+        scores[slot] = score;
+        values[slot] = value;
+        if (score > oldScore) {
+            siftUp(slot);
+        } else if (score < oldScore) {
+            siftDown(slot);
+        }
+    }
+
+    /**
+     * Get the value stored for an id, or null if absent.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int id) {
+        int slot = slots.get(id, -1);
+        return slot >= 0 ? (T) values[slot] : null;
+    }
+
+    /**
+     * Best entry (highest score), or null if empty.
+     */
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        return size > 0 ? (T) values[0] : null;
+    }
+
+    /**
+     * Remove and return the best entry, or null if empty.
+     */
+    public T poll() {
+        if (size == 0) {
+            return null;
+        }
+        T best = peek();
+        removeAt(0);
+        return best;
+    }
+
+    /**
+     * Remove an entry by id. Returns its value, or null if absent.
+     */
+    @SuppressWarnings("unchecked")
+    public T remove(int id) {
+        int slot = slots.get(id, -1);
+        if (slot < 0) {
+            return null;
+        }
+        T value = (T) values[slot];
+        removeAt(slot);
+        return value;
+    }
+
+    /**
+     * Copy of all ids currently in the heap (in heap order, not sorted).
+     */
+    public int[] ids() {
+        return java.util.Arrays.copyOf(ids, size);
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(values, 0, size, null);
+        slots.clear();
+        size = 0;
+    }
+
+    private void removeAt(int slot) {
+        slots.remove(ids[slot]);
+        int last = --size;
+        if (slot != last) {
+            moveTo(last, slot);
+            values[last] = null;
+            siftDown(slot);
+            siftUp(slot);
+        } else {
+            values[last] = null;
+        }
+    }
+
+    /**
+     * True if the entry in slot a should be above the entry in slot b.
+     */
+    private boolean before(int a, int b) {
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b];
+        }
+        return order[a] < order[b];
+    }
+
+    private void siftUp(int slot) {
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            if (!before(slot, parent)) {
+                break;
+            }
+            swap(slot, parent);
+            slot = parent;
+        }
+    }
+
+    private void siftDown(int slot) {
+        while (true) {
+            int left = 2 * slot + 1;
+            if (left >= size) {
+                break;
+            }
+            int right = left + 1;
+            int best = (right < size && before(right, left)) ? right : left;
+            if (!before(best, slot)) {
+                break;
+            }
+            swap(slot, best);
+            slot = best;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int id = ids[a];
+        int score = scores[a];
+        long ord = order[a];
+        Object value = values[a];
+        moveTo(b, a);
+        ids[b] = id;
+        scores[b] = score;
+        order[b] = ord;
+        values[b] = value;
+        slots.put(id, b);
+    }
+
+    private void moveTo(int from, int to) {
+        ids[to] = ids[from];
+        scores[to] = scores[from];
+        order[to] = order[from];
+        values[to] = values[from];
+        slots.put(ids[to], to);
+    }
+
+    private void grow() {
+        int capacity = ids.length << 1;
+        ids = java.util.Arrays.copyOf(ids, capacity);
+        scores = java.util.Arrays.copyOf(scores, capacity);
+        order = java.util.Arrays.copyOf(order, capacity);
+        values = java.util.Arrays.copyOf(values, capacity);
+    }
+}
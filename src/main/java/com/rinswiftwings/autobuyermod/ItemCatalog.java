@@ -0,0 +1,250 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import com.badlogic.gdx.utils.Array;
+import fi.bugbyte.spacehaven.ai.Trading;
+import fi.bugbyte.spacehaven.ai.TradingHelper;
+
+import java.io.File;
+
+/**
+ * On-disk catalog of every item seen in NPC offers: elementary ID, price modes, quantities.
+ *
+ * DESIGN DECISIONS:
+ * - Fed by sampled full-inventory discovery (see AutoBuyerCore.sampleDiscovery), which is off
+ *   unless discovery_sample_rate is set. Nothing here runs on the offer-refresh path
+ * - record() (game thread) only copies the offers into int arrays and hands them to a single
+ *   daemon thread. Merging and writing the file happen there, so the game thread never waits
+ *   on disk I/O
+ * - The file is loaded once, the first time the catalog is used. Saves are batched: the first
+ *   change schedules a save SAVE_DELAY_SECONDS later, and a shutdown hook saves anything left
+ * - Plain CSV (item_catalog.csv in the mod folder), one row per item, so it can be opened in a
+ *   spreadsheet or diffed between sessions
+ *
+ * WHY: Discovery used to dump each sampled ship's full inventory into the session log, where
+ * it was lost when the log rotated. The catalog keeps what was learned across sessions.
+ */
+public class ItemCatalog {
+
+    private static final String HEADER = "elementary_id,sightings,min_qty,max_qty,last_qty,modes";
+    private static final int SAVE_DELAY_SECONDS = 30;
+    private static final TradingHelper.TradeItemMode[] MODES = TradingHelper.TradeItemMode.values();
+
+    /**
+     * What the catalog knows about one item. Only touched on the catalog thread.
+     */
+    private static final class Entry {
+        int sightings = 0;
+        int minQuantity = Integer.MAX_VALUE;
+        int maxQuantity = 0;
+        int lastQuantity = 0;
+        int modeMask = 0; // bit per TradeItemMode ordinal
+    }
+
+    private final File file;
+    private final IntObjectMap<Entry> entries = new IntObjectMap<>();
+    private final java.util.concurrent.ScheduledExecutorService worker =
+        java.util.concurrent.Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AutoBuyer-Catalog");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    // Catalog thread only
+    private boolean loaded = false;
+    private boolean dirty = false;
+    private boolean saveScheduled = false;
+
+    private volatile int size = 0;
+
+    /**
+     * @param file Catalog file, or null if the mod folder is unknown (nothing is persisted)
+     */
+    public ItemCatalog(File file) {
+        this.file = file;
+        Runtime.getRuntime().addShutdownHook(new Thread(this::saveOnShutdown, "AutoBuyer-CatalogSave"));
+    }
+
+    /**
+     * Number of distinct items in the catalog (after the last merge).
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Start loading the file in the background (no-op after the first call).
+     */
+    public void load() {
+        worker.execute(this::ensureLoaded);
+    }
+
+    /**
+     * Add a full offers list from one ship (game thread). Copies the values and returns.
+     */
+    public void record(Array<Trading.TradeItem> offers, String source) {
+        if (offers == null || offers.size == 0) {
+            return;
+        }
+        int count = offers.size;
+        int[] ids = new int[count];
+        int[] quantities = new int[count];
+        int[] modes = new int[count];
+        for (int i = 0; i < count; i++) {
+            Trading.TradeItem offer = offers.get(i);
+            ids[i] = offer.elementaryId;
+            quantities[i] = offer.howMuch;
+            TradingHelper.TradeItemMode mode = offer.getTradeItemMode();
+            modes[i] = mode != null ? mode.ordinal() : -1;
+        }
+        worker.execute(() -> merge(ids, quantities, modes, count, source));
+    }
+
+    private void merge(int[] ids, int[] quantities, int[] modes, int count, String source) {
+        ensureLoaded();
+        int added = 0;
+        for (int i = 0; i < count; i++) {
+            Entry entry = entries.get(ids[i]);
+            if (entry == null) {
+                entry = new Entry();
+                entries.put(ids[i], entry);
+                added++;
+            }
+            entry.sightings++;
+            entry.minQuantity = Math.min(entry.minQuantity, quantities[i]);
+            entry.maxQuantity = Math.max(entry.maxQuantity, quantities[i]);
+            entry.lastQuantity = quantities[i];
+            if (modes[i] >= 0) {
+                entry.modeMask |= 1 << modes[i];
+            }
+        }
+        size = entries.size();
+        if (ModLog.isEnabled(ModLog.Category.OFFERS, ModLog.Level.DEBUG)) {
+            ModLog.log(ModLog.Category.OFFERS, ModLog.Level.DEBUG, "ItemCatalog: Sampled " + count + " items from " +
+                       source + " - " + added + " new (catalog now has " + size + " items)");
+        }
+        dirty = true;
+        if (!saveScheduled && file != null) {
+            saveScheduled = true;
+            worker.schedule(this::save, SAVE_DELAY_SECONDS, java.util.concurrent.TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Read the catalog file once (catalog thread).
+     */
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (file == null || !file.exists()) {
+            return;
+        }
+        int lineNumber = 0;
+        try (java.io.BufferedReader reader = new java.io.BufferedReader(
+                new java.io.InputStreamReader(new java.io.FileInputStream(file), java.nio.charset.StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 || line.trim().isEmpty()) {
+                    continue; // Header
+                }
+                String[] fields = line.split(",", -1);
+                if (fields.length < 6) {
+                    ModLog.log(ModLog.Category.OFFERS, ModLog.Level.WARN, "ItemCatalog: Skipping malformed line {}: {}", lineNumber, line);
+                    continue;
+                }
+                try {
+                    Entry entry = new Entry();
+                    entry.sightings = Integer.parseInt(fields[1].trim());
+                    entry.minQuantity = Integer.parseInt(fields[2].trim());
+                    entry.maxQuantity = Integer.parseInt(fields[3].trim());
+                    entry.lastQuantity = Integer.parseInt(fields[4].trim());
+                    entry.modeMask = parseModes(fields[5]);
+                    entries.put(Integer.parseInt(fields[0].trim()), entry);
+                } catch (NumberFormatException e) {
+                    ModLog.log(ModLog.Category.OFFERS, ModLog.Level.WARN, "ItemCatalog: Skipping malformed line {}: {}", lineNumber, line);
+                }
+            }
+            size = entries.size();
+            ModLog.log(ModLog.Category.OFFERS, ModLog.Level.INFO, "ItemCatalog: Loaded {} items from {}", size, file);
+        } catch (Exception e) {
+            ModLog.log(ModLog.Category.OFFERS, ModLog.Level.ERROR, "ItemCatalog: Exception loading " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Write the catalog if it changed (catalog thread). Writes a temp file and renames it, so
+     * a crash mid-write never leaves a truncated catalog.
+     */
+    private void save() {
+        saveScheduled = false;
+        if (!dirty || file == null) {
+            return;
+        }
+        File temp = new File(file.getParentFile(), file.getName() + ".tmp");
+        try (java.io.PrintWriter out = new java.io.PrintWriter(new java.io.OutputStreamWriter(
+                new java.io.FileOutputStream(temp), java.nio.charset.StandardCharsets.UTF_8))) {
+            out.println(HEADER);
+            int[] ids = entries.keys();
+            java.util.Arrays.sort(ids);
+            for (int id : ids) {
+                Entry entry = entries.get(id);
+                out.println(id + "," + entry.sightings + "," + entry.minQuantity + "," + entry.maxQuantity + "," +
+                            entry.lastQuantity + "," + formatModes(entry.modeMask));
+            }
+        } catch (Exception e) {
+            ModLog.log(ModLog.Category.OFFERS, ModLog.Level.ERROR, "ItemCatalog: Exception writing " + temp.getAbsolutePath(), e);
+            return;
+        }
+        try {
+            java.nio.file.Files.move(temp.toPath(), file.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING);
+            dirty = false;
+            ModLog.log(ModLog.Category.OFFERS, ModLog.Level.DEBUG, "ItemCatalog: Saved {} items to {}", entries.size(), file);
+        } catch (Exception e) {
+            ModLog.log(ModLog.Category.OFFERS, ModLog.Level.ERROR, "ItemCatalog: Exception replacing " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * Shutdown hook: run a final save on the catalog thread and wait briefly for it.
+     */
+    private void saveOnShutdown() {
+        try {
+            worker.submit(this::save).get(5, java.util.concurrent.TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // JVM is exiting - nothing more to do
+        }
+    }
+
+    private static String formatModes(int mask) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < MODES.length; i++) {
+            if ((mask & (1 << i)) != 0) {
+                if (sb.length() > 0) sb.append('|');
+                sb.append(MODES[i].name());
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int parseModes(String text) {
+        int mask = 0;
+        for (String name : text.split("\\|")) {
+            for (int i = 0; i < MODES.length; i++) {
+                if (MODES[i].name().equals(name.trim())) {
+                    mask |= 1 << i;
+                }
+            }
+        }
+        return mask;
+    }
+}
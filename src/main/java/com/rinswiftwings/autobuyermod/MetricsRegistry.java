@@ -0,0 +1,354 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-process counters, gauges and latency histograms, with a periodic CSV snapshot.
+ *
+ * Metric kinds:
+ * - Counter:   a running total the mod increments (e.g. trades created)
+ * - Gauge:     a value read when the snapshot is taken (e.g. logistics items, or a total that
+ *              another class already counts, such as the scheduler's evaluations)
+ * - Histogram: durations recorded with System.nanoTime(), counted into fixed buckets
+ *
+ * DESIGN DECISIONS:
+ * - Recording is lock-free and allocation-free: an atomic add for a counter; a bucket search
+ *   over BUCKET_BOUNDS_MICROS plus three atomic updates for a histogram
+ * - Metrics are registered once (AutoBuyerCore's constructor) before reporting starts; the set
+ *   of columns never changes during a session
+ * - A daemon thread writes one row to logs/metrics.csv every metrics_interval_seconds (0 = off,
+ *   checked every second so the setting can change at runtime). Counters and gauges are
+ *   written as they are; histograms are written for the interval since the previous row
+ *   (count, average, p50, p99 and max in microseconds), so a slow stretch stands out instead of
+ *   being averaged into the whole session
+ * - Percentiles are the upper bound of the bucket they fall in (the interval max for the
+ *   overflow bucket) - coarse, but enough to tell 50us from 5ms
+ * - If metrics.csv exists with different columns (the mod was updated), it is renamed to
+ *   metrics.csv.old and a new file is started
+ *
+ * WHY: Nothing reported how long evaluations, planning, offer refreshes or trade building
+ * took, or how often they ran - so there was no way to tell whether the mod was eating into
+ * the frame budget.
+ */
+public class MetricsRegistry {
+
+    private static final String FILE_NAME = "metrics.csv";
+
+    /**
+     * Histogram bucket upper bounds in microseconds. One more bucket counts everything above.
+     */
+    private static final long[] BUCKET_BOUNDS_MICROS = {
+        10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 25000, 50000
+    };
+
+    /**
+     * A running total.
+     */
+    public static final class Counter {
+        private final String name;
+        private final AtomicLong value = new AtomicLong();
+
+        private Counter(String name) {
+            this.name = name;
+        }
+
+        public void increment() {
+            value.incrementAndGet();
+        }
+
+        public void add(long delta) {
+            value.addAndGet(delta);
+        }
+
+        public long get() {
+            return value.get();
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * A value read at snapshot time.
+     */
+    private static final class Gauge {
+        final String name;
+        final java.util.function.LongSupplier supplier;
+
+        Gauge(String name, java.util.function.LongSupplier supplier) {
+            this.name = name;
+            this.supplier = supplier;
+        }
+    }
+
+    /**
+     * Fixed-bucket latency histogram.
+     */
+    public static final class Histogram {
+        private final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MICROS.length + 1);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong intervalMaxNanos = new AtomicLong(); // reset by each snapshot
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        // Reporter thread only: totals at the previous snapshot
+        private final long[] reportedBuckets = new long[BUCKET_BOUNDS_MICROS.length + 1];
+        private long reportedNanos = 0;
+
+        private Histogram(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Record one duration (a System.nanoTime() difference). Any thread.
+         */
+        public void record(long nanos) {
+            long micros = nanos / 1000;
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MICROS.length && micros > BUCKET_BOUNDS_MICROS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            if (nanos > intervalMaxNanos.get()) {
+                intervalMaxNanos.accumulateAndGet(nanos, Math::max);
+                maxNanos.accumulateAndGet(nanos, Math::max);
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getAverageMicros() {
+            long n = count.get();
+            return n == 0 ? 0 : totalNanos.get() / n / 1000;
+        }
+
+        public long getMaxMicros() {
+            return maxNanos.get() / 1000;
+        }
+
+        /**
+         * Append count, avg, p50, p99 and max (us) for the interval since the last call.
+         * Reporter thread only.
+         */
+        private void appendInterval(StringBuilder row) {
+            long maxMicros = intervalMaxNanos.getAndSet(0) / 1000;
+            long[] delta = new long[reportedBuckets.length];
+            long n = 0;
+            for (int i = 0; i < delta.length; i++) {
+                long total = buckets.get(i);
+                delta[i] = total - reportedBuckets[i];
+                reportedBuckets[i] = total;
+                n += delta[i];
+            }
+            long nanos = totalNanos.get();
+            long intervalNanos = nanos - reportedNanos;
+            reportedNanos = nanos;
+            row.append(',').append(n)
+               .append(',').append(n == 0 ? 0 : intervalNanos / n / 1000)
+               .append(',').append(percentile(delta, n, 0.50, maxMicros))
+               .append(',').append(percentile(delta, n, 0.99, maxMicros))
+               .append(',').append(maxMicros);
+        }
+
+        private static long percentile(long[] delta, long n, double fraction, long maxMicros) {
+            if (n == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(n * fraction);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_BOUNDS_MICROS.length; i++) {
+                seen += delta[i];
+                if (seen >= rank) {
+                    return Math.min(BUCKET_BOUNDS_MICROS[i], maxMicros);
+                }
+            }
+            return maxMicros; // Overflow bucket
+        }
+    }
+
+    private final java.util.List<Counter> counters = new java.util.ArrayList<>();
+    private final java.util.List<Gauge> gauges = new java.util.ArrayList<>();
+    private final java.util.List<Histogram> histograms = new java.util.ArrayList<>();
+
+    private final AtomicLong snapshotsWritten = new AtomicLong();
+    private java.util.concurrent.ScheduledExecutorService reporter = null;
+
+    // Reporter thread only
+    private long lastReportMillis = 0;
+    private boolean headerChecked = false;
+
+    public synchronized Counter counter(String name) {
+        Counter counter = new Counter(name);
+        counters.add(counter);
+        return counter;
+    }
+
+    public synchronized void gauge(String name, java.util.function.LongSupplier supplier) {
+        gauges.add(new Gauge(name, supplier));
+    }
+
+    public synchronized Histogram histogram(String name) {
+        Histogram histogram = new Histogram(name);
+        histograms.add(histogram);
+        return histogram;
+    }
+
+    /**
+     * Rows written to metrics.csv this session.
+     */
+    public long getSnapshotsWritten() {
+        return snapshotsWritten.get();
+    }
+
+    /**
+     * Start the reporter thread. Call once, after every metric has been registered.
+     *
+     * @param directory       Folder for metrics.csv, or null if the mod folder is unknown (no-op)
+     * @param intervalSeconds Read every second; 0 or less writes nothing
+     */
+    public synchronized void startReporting(File directory, java.util.function.IntSupplier intervalSeconds) {
+        if (reporter != null || directory == null) {
+            return;
+        }
+        File file = new File(directory, FILE_NAME);
+        reporter = java.util.concurrent.Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "AutoBuyer-Metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleWithFixedDelay(() -> reportIfDue(file, intervalSeconds.getAsInt()),
+                                        1, 1, java.util.concurrent.TimeUnit.SECONDS);
+    }
+
+    private void reportIfDue(File file, int intervalSeconds) {
+        long now = System.currentTimeMillis();
+        if (intervalSeconds <= 0) {
+            lastReportMillis = 0; // Start a fresh interval when re-enabled
+            return;
+        }
+        if (lastReportMillis == 0) {
+            // First tick since enabled: open the interval without writing a row
+            lastReportMillis = now;
+            snapshot(null);
+            return;
+        }
+        if (now - lastReportMillis < intervalSeconds * 1000L) {
+            return;
+        }
+        lastReportMillis = now;
+        try {
+            writeRow(file, now);
+        } catch (Exception e) {
+            // Metrics must never crash the game; try again next interval
+            ModLog.log(ModLog.Category.GENERAL, ModLog.Level.ERROR, "MetricsRegistry: Exception writing " + file.getAbsolutePath(), e);
+        }
+    }
+
+    private void writeRow(File file, long now) throws java.io.IOException {
+        String header = header();
+        if (!headerChecked) {
+            headerChecked = true;
+            rollOverIfHeaderChanged(file, header);
+        }
+        File parentDir = file.getParentFile();
+        if (parentDir != null && !parentDir.exists()) {
+            parentDir.mkdirs();
+        }
+        boolean newFile = !file.exists() || file.length() == 0;
+        StringBuilder row = new StringBuilder(512);
+        row.append(java.time.LocalDateTime.ofInstant(java.time.Instant.ofEpochMilli(now), java.time.ZoneId.systemDefault()));
+        snapshot(row);
+        try (java.io.Writer out = java.nio.file.Files.newBufferedWriter(file.toPath(), java.nio.charset.StandardCharsets.UTF_8,
+                java.nio.file.StandardOpenOption.CREATE, java.nio.file.StandardOpenOption.APPEND)) {
+            if (newFile) {
+                out.write(header);
+                out.write(System.lineSeparator());
+            }
+            out.write(row.toString());
+            out.write(System.lineSeparator());
+        }
+        snapshotsWritten.incrementAndGet();
+    }
+
+    /**
+     * Append every metric's value to the row (null: only advance the histogram intervals).
+     */
+    private void snapshot(StringBuilder row) {
+        StringBuilder target = row != null ? row : new StringBuilder();
+        for (Counter counter : counters) {
+            target.append(',').append(counter.get());
+        }
+        for (Gauge gauge : gauges) {
+            long value;
+            try {
+                value = gauge.supplier.getAsLong();
+            } catch (Exception e) {
+                value = -1; // Source not ready (e.g. no world yet)
+            }
+            target.append(',').append(value);
+        }
+        for (Histogram histogram : histograms) {
+            histogram.appendInterval(target);
+        }
+    }
+
+    private String header() {
+        StringBuilder sb = new StringBuilder("time");
+        for (Counter counter : counters) {
+            sb.append(',').append(counter.name);
+        }
+        for (Gauge gauge : gauges) {
+            sb.append(',').append(gauge.name);
+        }
+        for (Histogram histogram : histograms) {
+            sb.append(',').append(histogram.name).append("_count")
+              .append(',').append(histogram.name).append("_avg_us")
+              .append(',').append(histogram.name).append("_p50_us")
+              .append(',').append(histogram.name).append("_p99_us")
+              .append(',').append(histogram.name).append("_max_us");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Keep rows with different columns out of the same file.
+     */
+    private void rollOverIfHeaderChanged(File file, String header) {
+        if (!file.exists() || file.length() == 0) {
+            return;
+        }
+        String existing;
+        try (java.io.BufferedReader reader = java.nio.file.Files.newBufferedReader(file.toPath(), java.nio.charset.StandardCharsets.UTF_8)) {
+            existing = reader.readLine();
+        } catch (java.io.IOException e) {
+            existing = null;
+        }
+        if (!header.equals(existing)) {
+            File old = new File(file.getParentFile(), FILE_NAME + ".old");
+            old.delete();
+            if (file.renameTo(old)) {
+                ModLog.log(ModLog.Category.GENERAL, ModLog.Level.INFO, "MetricsRegistry: Columns changed - previous metrics moved to {}", old.getName());
+            }
+        }
+    }
+}
@@ -23,6 +23,10 @@ import java.time.format.DateTimeFormatter;
  * - Static methods: Can be called from anywhere without instance
  * - Timestamped log files: One log file per game session (easier to track)
  * - Conditional logging: Respects user's enable_logging setting (performance)
+ * - Levels and categories: Each message has a Category (which part of the mod) and a Level;
+ *   log_level decides which are written. isEnabled() is a single volatile read
+ * - Lazy formatting: Parameterized ("{}") and Supplier messages are only built when enabled
+ * - Asynchronous writes: Messages go into a ring buffer; a background thread writes them
  * - Diagnostic file: Optional, disabled in production (can be enabled for debugging)
  * 
  * WHY THIS DESIGN:
@@ -33,6 +37,64 @@ import java.time.format.DateTimeFormatter;
  */
 public final class ModLog {
 
+    /**
+     * Severity of a message. A category logs its configured level and everything above it.
+     */
+    public enum Level {
+        ERROR, WARN, INFO, DEBUG;
+
+        /**
+         * Parse a level name such as "debug" (case-insensitive). Null if unknown.
+         */
+        public static Level parse(String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(java.util.Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Which part of the mod a message comes from (used to turn detail on for one area only).
+     */
+    public enum Category {
+        /** Messages logged through the plain log(String) method */
+        GENERAL,
+        /** Config and preset loading */
+        CONFIG,
+        /** Game hooks (trade done/cancelled, ships added/jumped, boarding) */
+        HOOKS,
+        /** Evaluation cycles: eligibility, planning, commit, skip reasons */
+        EVALUATION,
+        /** Offer cache refreshes and item discovery */
+        OFFERS,
+        /** Building, reserving and creating trades */
+        TRADES,
+        /** Logistics throttling, releasing ships, cancelling trades */
+        LOGISTICS;
+
+        /**
+         * Parse a category name such as "offers" (case-insensitive). Null if unknown.
+         */
+        public static Category parse(String value) {
+            if (value == null) {
+                return null;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(java.util.Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private static final int LEVEL_COUNT = Level.values().length;
+    private static final Category[] CATEGORIES = Category.values();
+
     /**
      * Create timestamped log file name when class is first loaded.
      * WHY STATIC FINAL: Log file is created once when class loads, not on every log call.
@@ -45,6 +107,12 @@ public final class ModLog {
      */
     private static final File LOG_FILE = createTimestampedLogFile();
     
+    /**
+     * Background writer for LOG_FILE, created on the first message that is actually written.
+     * WHY: Keeps file I/O and timestamp formatting off the game thread (see AsyncLogWriter).
+     */
+    private static volatile AsyncLogWriter writer = null;
+    
     /**
      * Diagnostic file that's always created (regardless of logging settings).
      * DISABLED FOR PRODUCTION: Commented out for production builds.
@@ -72,6 +140,14 @@ public final class ModLog {
      * as a parameter to every log() call.
      */
     private static AutoBuyerConfig configInstance = null;
+    
+    /**
+     * One bit per (category, level) that is currently written; 0 while logging is disabled.
+     * WHY: isEnabled() is called before building every message. Folding enable_logging and
+     * log_level into one volatile int makes a disabled message cost a single read.
+     * Bit index: category.ordinal() * LEVEL_COUNT + level.ordinal()
+     */
+    private static volatile int enabledMask = 0;
 
     /**
      * Private constructor prevents instantiation.
@@ -178,9 +254,88 @@ public final class ModLog {
      */
     public static void setConfig(AutoBuyerConfig config) {
         configInstance = config;
+        refreshLevels();
+        refreshDropPolicy();
         updateDiagnostic("Config instance set. Logging enabled: " + config.isLoggingEnabled());
     }
     
+    /**
+     * Recompute which categories and levels are written from the config.
+     * Call after enable_logging or log_level change.
+     */
+    public static void refreshLevels() {
+        AutoBuyerConfig config = configInstance;
+        if (config == null || !config.isLoggingEnabled()) {
+            enabledMask = 0;
+            return;
+        }
+        Level[] levels = config.getLogLevels();
+        int mask = 0;
+        for (Category category : CATEGORIES) {
+            Level threshold = levels[category.ordinal()];
+            for (int level = 0; level <= threshold.ordinal(); level++) {
+                mask |= 1 << (category.ordinal() * LEVEL_COUNT + level);
+            }
+        }
+        enabledMask = mask;
+    }
+    
+    /**
+     * Apply the config's log_drop_policy to the writer. Call after log_drop_policy changes.
+     * WHY: Set once per config change instead of on every message (see getWriter).
+     */
+    public static void refreshDropPolicy() {
+        AsyncLogWriter current = writer;
+        AutoBuyerConfig config = configInstance;
+        if (current != null && config != null) {
+            current.setDropPolicy(config.getLogDropPolicy());
+        }
+    }
+    
+    /**
+     * Parse a log_level value into one level per category (indexed by Category ordinal).
+     * Format: a default level, optionally followed by per-category overrides, e.g.
+     * "info" or "info,offers=debug,trades=debug".
+     * 
+     * @return The levels, or null if any part is not a known level or category
+     */
+    public static Level[] parseLevels(String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            return null;
+        }
+        String[] parts = spec.split(",");
+        Level defaultLevel = Level.parse(parts[0]);
+        if (defaultLevel == null) {
+            return null;
+        }
+        Level[] levels = new Level[CATEGORIES.length];
+        java.util.Arrays.fill(levels, defaultLevel);
+        for (int i = 1; i < parts.length; i++) {
+            int equals = parts[i].indexOf('=');
+            if (equals < 0) {
+                return null;
+            }
+            Category category = Category.parse(parts[i].substring(0, equals));
+            Level level = Level.parse(parts[i].substring(equals + 1));
+            if (category == null || level == null) {
+                return null;
+            }
+            levels[category.ordinal()] = level;
+        }
+        return levels;
+    }
+    
+    /**
+     * Fast check before building a message. A single volatile read.
+     * 
+     * Use it to guard messages whose arguments cost something to compute (ship names,
+     * StringBuilders, boxing):
+     *   if (ModLog.isEnabled(ModLog.Category.OFFERS, ModLog.Level.DEBUG)) { ... }
+     */
+    public static boolean isEnabled(Category category, Level level) {
+        return (enabledMask & (1 << (category.ordinal() * LEVEL_COUNT + level.ordinal()))) != 0;
+    }
+    
     /**
      * Get the log file path for debugging purposes.
      * @return The absolute path to the log file, or null if not determined
@@ -274,28 +429,106 @@ public final class ModLog {
         return logFile;
     }
 
+    /**
+     * Write a message in a category and level (if enabled).
+     */
+    public static void log(Category category, Level level, String msg) {
+        if (isEnabled(category, level)) {
+            getWriter().write(msg);
+        }
+    }
+    
+    /**
+     * Write a parameterized message: each "{}" in the pattern is replaced by the next argument.
+     * Nothing is formatted unless the category and level are enabled.
+     */
+    public static void log(Category category, Level level, String pattern, Object arg) {
+        if (isEnabled(category, level)) {
+            getWriter().write(format(pattern, arg, null, null, 1));
+        }
+    }
+    
+    public static void log(Category category, Level level, String pattern, Object arg1, Object arg2) {
+        if (isEnabled(category, level)) {
+            getWriter().write(format(pattern, arg1, arg2, null, 2));
+        }
+    }
+    
+    public static void log(Category category, Level level, String pattern, Object arg1, Object arg2, Object arg3) {
+        if (isEnabled(category, level)) {
+            getWriter().write(format(pattern, arg1, arg2, arg3, 3));
+        }
+    }
+    
+    /**
+     * Write a message built by a supplier, which is only called if the category and level are
+     * enabled. For messages that need a loop or several lookups to build.
+     */
+    public static void log(Category category, Level level, java.util.function.Supplier<String> message) {
+        if (isEnabled(category, level)) {
+            getWriter().write(message.get());
+        }
+    }
+    
+    /**
+     * Write "message: exception message" followed by the stack trace (if enabled).
+     */
+    public static void log(Category category, Level level, String msg, Throwable t) {
+        if (isEnabled(category, level)) {
+            AsyncLogWriter current = getWriter();
+            current.write(msg + ": " + t.getMessage());
+            current.write(t);
+        }
+    }
+    
+    /**
+     * Replace up to three "{}" placeholders in order. Extra placeholders are left as they are.
+     */
+    private static String format(String pattern, Object arg1, Object arg2, Object arg3, int argCount) {
+        StringBuilder sb = new StringBuilder(pattern.length() + 32);
+        int start = 0;
+        for (int i = 0; i < argCount; i++) {
+            int placeholder = pattern.indexOf("{}", start);
+            if (placeholder < 0) {
+                break;
+            }
+            sb.append(pattern, start, placeholder);
+            sb.append(i == 0 ? arg1 : i == 1 ? arg2 : arg3);
+            start = placeholder + 2;
+        }
+        sb.append(pattern, start, pattern.length());
+        return sb.toString();
+    }
+    
     /**
      * Write a log message to the log file (if logging is enabled).
-     * This is the main logging method used throughout the mod.
+     * Equivalent to log(Category.GENERAL, Level.INFO, msg); used by code that has no category.
      * 
      * DESIGN:
      * - Checks if logging is enabled before writing (performance optimization)
-     * - Appends to file (preserves previous log entries in same session)
-     * - Includes timestamp (helps track when events occurred)
-     * - Wraps in try-catch (logging failures shouldn't crash the game)
+     * - Queues the message with its timestamp; AsyncLogWriter appends it to the file from a
+     *   background thread (one open file, batched writes, flushed on shutdown)
+     * - Write failures are reported on stderr by the writer (logging must never crash the game)
      * 
-     * WHY CHECK ENABLED FIRST: File I/O is expensive. If logging is disabled,
-     * we skip the file operations entirely, improving performance.
+     * WHY CHECK ENABLED FIRST: If logging is disabled, nothing is queued at all. Callers still
+     * build msg before the call - hot paths use the category/level overloads instead.
      * 
-     * WHY APPEND MODE: We want all log entries in the same file for a session.
-     * Append mode ensures we don't overwrite previous entries.
+     * WHY QUEUE: The caller is usually the game thread. Opening and closing the file for every
+     * message made each evaluation pay for dozens of file operations.
      */
     public static void log(String msg) {
-        // Always update diagnostic file
-        updateDiagnostic("Log call: " + msg + " (enabled: " + 
-            (configInstance != null ? configInstance.isLoggingEnabled() : "config not set") + ")");
+        if (isEnabled(Category.GENERAL, Level.INFO)) {
+            getWriter().write(msg);
+            return;
+        }
+        
+        // Diagnostic file is disabled for production; don't build its message for nothing
+        if (DIAGNOSTIC_FILE != null) {
+            updateDiagnostic("Log call: " + msg + " (enabled: " + 
+                (configInstance != null ? configInstance.isLoggingEnabled() : "config not set") + ")");
+        }
         
-        // Check if logging is enabled (default to false if config not set yet)
+        // Not written: explain why once (default to false if config not set yet)
         if (configInstance == null) {
             System.err.println("[AutoBuyerMod] Log call ignored: config not set yet. Message: " + msg);
             return;
@@ -309,30 +542,6 @@ public final class ModLog {
                 updateDiagnostic("WARNING: Logging is DISABLED. Enable it in info.xml with {enable_logging}=true");
                 loggedDisabledWarning = true;
             }
-            return;
-        }
-        
-        try {
-            // Ensure parent directory exists (should already exist, but create if needed)
-            File parentDir = LOG_FILE.getParentFile();
-            if (parentDir != null && !parentDir.exists()) {
-                boolean created = parentDir.mkdirs();
-                if (!created) {
-                    System.err.println("[AutoBuyerMod] WARNING: Could not create logs directory: " + parentDir.getAbsolutePath());
-                }
-            }
-            
-            // Append to log file (creates file if it doesn't exist)
-            try (PrintWriter out = new PrintWriter(new FileWriter(LOG_FILE, true))) {
-                out.println(LocalDateTime.now() + "  " + msg);
-                out.flush();
-            }
-        } catch (IOException e) {
-            // Log to stderr as fallback (only if logging was enabled, to avoid spam)
-            System.err.println("[AutoBuyerMod] Failed to write to log file: " + LOG_FILE.getAbsolutePath());
-            System.err.println("[AutoBuyerMod] Error: " + e.getMessage());
-            e.printStackTrace(System.err);
-            // logging must never crash the game
         }
     }
     
@@ -340,15 +549,33 @@ public final class ModLog {
     private static boolean loggedDisabledWarning = false;
 
     public static void log(Throwable t) {
-        // Check if logging is enabled (default to false if config not set yet)
-        if (configInstance == null || !configInstance.isLoggingEnabled()) {
-            return;
+        if (isEnabled(Category.GENERAL, Level.ERROR)) {
+            getWriter().write(t);
         }
-        
-        try (PrintWriter out = new PrintWriter(new FileWriter(LOG_FILE, true))) {
-            out.println(LocalDateTime.now() + "  EXCEPTION:");
-            t.printStackTrace(out);
-            out.flush();
-        } catch (IOException ignored) { }
+    }
+    
+    /**
+     * Messages dropped because the log buffer was full (0 before the first message).
+     */
+    public static long getDroppedCount() {
+        AsyncLogWriter current = writer;
+        return current != null ? current.getDroppedCount() : 0;
+    }
+    
+    private static AsyncLogWriter getWriter() {
+        AsyncLogWriter current = writer;
+        if (current == null) {
+            synchronized (ModLog.class) {
+                current = writer;
+                if (current == null) {
+                    current = new AsyncLogWriter(LOG_FILE);
+                    if (configInstance != null) {
+                        current.setDropPolicy(configInstance.getLogDropPolicy());
+                    }
+                    writer = current;
+                }
+            }
+        }
+        return current;
     }
 }
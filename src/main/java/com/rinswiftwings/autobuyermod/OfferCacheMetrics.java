@@ -0,0 +1,106 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit/miss and refresh-latency counters for the per-ship offer cache.
+ *
+ * DESIGN DECISIONS:
+ * - A lookup either hits (cached offers reused) or misses for one reason: no offers cached,
+ *   invalidated by a trade with that ship, or older than refresh_cooldown_ticks
+ * - Each miss is followed by a refresh (bank.createOffersList); its duration is recorded in
+ *   nanoseconds so the average and worst case can be reported
+ * - Plain atomic counters: lookups happen on the game thread, readers (logging, later
+ *   monitoring) may be anywhere
+ *
+ * WHY: createOffersList is the most expensive game call the mod makes. These numbers show
+ * whether the cache and its TTL actually keep it off the hot path.
+ */
+public class OfferCacheMetrics {
+
+    // Lookup outcomes (see AutoBuyerCore.ShipState.checkOffers)
+    public static final int HIT = 0;
+    public static final int MISS_EMPTY = 1;
+    public static final int MISS_INVALIDATED = 2;
+    public static final int MISS_EXPIRED = 3;
+
+    private static final String[] OUTCOME_NAMES = { "hit", "empty", "invalidated", "expired" };
+
+    private final AtomicLong[] outcomes = {
+        new AtomicLong(), new AtomicLong(), new AtomicLong(), new AtomicLong()
+    };
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshNanosTotal = new AtomicLong();
+    private final AtomicLong refreshNanosMax = new AtomicLong();
+
+    public void recordLookup(int outcome) {
+        outcomes[outcome].incrementAndGet();
+    }
+
+    public void recordRefresh(long nanos) {
+        refreshes.incrementAndGet();
+        refreshNanosTotal.addAndGet(nanos);
+        refreshNanosMax.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long getHits() {
+        return outcomes[HIT].get();
+    }
+
+    /**
+     * Misses of all reasons.
+     */
+    public long getMisses() {
+        return outcomes[MISS_EMPTY].get() + outcomes[MISS_INVALIDATED].get() + outcomes[MISS_EXPIRED].get();
+    }
+
+    public long getMisses(int reason) {
+        return outcomes[reason].get();
+    }
+
+    /**
+     * Hits as a fraction of all lookups (0 when nothing was looked up yet).
+     */
+    public double getHitRatio() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public long getRefreshCount() {
+        return refreshes.get();
+    }
+
+    public long getAverageRefreshMicros() {
+        long count = refreshes.get();
+        return count == 0 ? 0 : refreshNanosTotal.get() / count / 1000;
+    }
+
+    public long getMaxRefreshMicros() {
+        return refreshNanosMax.get() / 1000;
+    }
+
+    /**
+     * One-line summary for the log, e.g. "hit 40, empty 2, invalidated 5, expired 1 (83% hits),
+     * 8 refreshes avg 310us max 900us".
+     */
+    public String describe() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < outcomes.length; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(OUTCOME_NAMES[i]).append(' ').append(outcomes[i].get());
+        }
+        sb.append(" (").append(Math.round(getHitRatio() * 100)).append("% hits), ");
+        sb.append(getRefreshCount()).append(" refreshes avg ").append(getAverageRefreshMicros())
+          .append("us max ").append(getMaxRefreshMicros()).append("us");
+        return sb.toString();
+    }
+}
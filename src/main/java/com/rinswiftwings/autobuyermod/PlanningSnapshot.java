@@ -0,0 +1,269 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import com.badlogic.gdx.utils.Array;
+import fi.bugbyte.spacehaven.ai.Trading;
+import fi.bugbyte.spacehaven.ai.TradingHelper;
+import fi.bugbyte.spacehaven.world.World;
+
+/**
+ * Everything the trade planner needs for one evaluation cycle, captured on the game thread.
+ *
+ * DESIGN DECISIONS:
+ * - Plain values and arrays only: the planner never calls into game objects (Ship, Bank, World).
+ *   The world reference is carried for the commit step, which runs back on the game thread
+ * - Offers are copied into per-target-item arrays (OfferView) and priced up front, so the
+ *   planner doesn't depend on the game's TradeItem objects staying untouched
+ * - Buy thresholds and credit limits are copied too, so a config reload mid-plan can't mix
+ *   old and new settings
+ * - The station stock snapshot is handed over as-is. The planner works on its own copy; the
+ *   commit step (game thread, after planning is done) applies the trades it creates to it
+ *
+ * WHY: Scoring ships and sizing trades is the bulk of an evaluation, and it runs inside game
+ * hooks. Capturing this snapshot is cheap; the heavy part can then run on a worker thread.
+ */
+public final class PlanningSnapshot {
+
+    private final World world;
+    private final int stationId;
+    private final int creditsAvailable;
+    private final int minCreditBalance;
+    private final int maxCreditsPerTrade;
+    private final int[] buyThresholds;
+    private final int needGeneration;
+    private final StationStockSnapshot stock;
+    private final java.util.List<Candidate> candidates;
+
+    public PlanningSnapshot(World world, int stationId, int creditsAvailable, int minCreditBalance,
+                            int maxCreditsPerTrade, int[] buyThresholds, int needGeneration,
+                            StationStockSnapshot stock, java.util.List<Candidate> candidates) {
+        this.world = world;
+        this.stationId = stationId;
+        this.creditsAvailable = creditsAvailable;
+        this.minCreditBalance = minCreditBalance;
+        this.maxCreditsPerTrade = maxCreditsPerTrade;
+        this.buyThresholds = buyThresholds;
+        this.needGeneration = needGeneration;
+        this.stock = stock;
+        this.candidates = java.util.Collections.unmodifiableList(candidates);
+    }
+
+    /**
+     * The world the snapshot was taken from. Only for the commit step (game thread).
+     */
+    public World getWorld() {
+        return world;
+    }
+
+    public int getStationId() {
+        return stationId;
+    }
+
+    public int getCreditsAvailable() {
+        return creditsAvailable;
+    }
+
+    public int getMinCreditBalance() {
+        return minCreditBalance;
+    }
+
+    public int getMaxCreditsPerTrade() {
+        return maxCreditsPerTrade;
+    }
+
+    public int[] getBuyThresholds() {
+        return buyThresholds;
+    }
+
+    public int getNeedGeneration() {
+        return needGeneration;
+    }
+
+    /**
+     * Station stock at capture time. The planner must copy it before changing anything.
+     */
+    public StationStockSnapshot getStock() {
+        return stock;
+    }
+
+    public java.util.List<Candidate> getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Copy the buy thresholds, indexed by TradeItemMode ordinal.
+     */
+    public static int[] captureBuyThresholds(TradeTunables tunables) {
+        TradingHelper.TradeItemMode[] modes = TradingHelper.TradeItemMode.values();
+        int[] thresholds = new int[modes.length];
+        for (int i = 0; i < modes.length; i++) {
+            thresholds[i] = tunables.getBuyThreshold(modes[i]);
+        }
+        return thresholds;
+    }
+
+    /**
+     * Look up a captured threshold. A null mode is treated as Neutral, like the config does.
+     */
+    public static int buyThreshold(int[] thresholds, TradingHelper.TradeItemMode mode) {
+        if (mode == null) {
+            mode = TradingHelper.TradeItemMode.Neutral;
+        }
+        return thresholds[mode.ordinal()];
+    }
+
+    /**
+     * One NPC ship that passed the eligibility checks at capture time.
+     */
+    public static final class Candidate {
+        final int shipId;
+        final String shipName;
+        final int activeTrades;
+        final int newShipRetryCount;
+        final int offersGeneration;
+        /**
+         * Null for a new ship that has no offers yet (it is only probed, never planned for).
+         */
+        final OfferView offers;
+
+        public Candidate(int shipId, String shipName, int activeTrades, int newShipRetryCount,
+                         int offersGeneration, OfferView offers) {
+            this.shipId = shipId;
+            this.shipName = shipName;
+            this.activeTrades = activeTrades;
+            this.newShipRetryCount = newShipRetryCount;
+            this.offersGeneration = offersGeneration;
+            this.offers = offers;
+        }
+
+        public int getShipId() {
+            return shipId;
+        }
+
+        public String getShipName() {
+            return shipName;
+        }
+    }
+
+    /**
+     * A ship's offers for the target items, aligned to the TargetStockTable index.
+     *
+     * Flat parallel arrays (quantity and price-mode ordinal per target item; the elementary ID
+     * is the table's), owned by the ship's ShipState and overwritten in place by each offer
+     * refresh (refill), so steady-state refreshes allocate nothing. Price curves are filled in
+     * on the game thread during capture, only for items the station currently needs. While the
+     * planner is reading a view, a refresh swaps in a new one instead (see AutoBuyerCore).
+     */
+    public static final class OfferView {
+        private static final TradingHelper.TradeItemMode[] MODES = TradingHelper.TradeItemMode.values();
+        private static final int NO_MODE = -1;
+
+        final TargetStockTable table;
+        final int[] quantities;
+        final int[] modeOrdinals;
+        final PriceCurve[] curves;
+        private int offeredCount = 0;
+
+        public OfferView(TargetStockTable table) {
+            this.table = table;
+            this.quantities = new int[table.size()];
+            this.modeOrdinals = new int[table.size()];
+            this.curves = new PriceCurve[table.size()];
+            java.util.Arrays.fill(modeOrdinals, NO_MODE);
+        }
+
+        /**
+         * Overwrite this view with a fresh offers list (game thread). Offers for items that
+         * aren't targets are ignored; a repeated item keeps its last entry. Drops all curves.
+         */
+        void refill(Array<Trading.TradeItem> offers) {
+            java.util.Arrays.fill(quantities, 0);
+            java.util.Arrays.fill(modeOrdinals, NO_MODE);
+            java.util.Arrays.fill(curves, null);
+            offeredCount = 0;
+            if (offers == null) {
+                return;
+            }
+            for (int i = 0; i < offers.size; i++) {
+                Trading.TradeItem offer = offers.get(i);
+                int ti = table.indexOf(offer.elementaryId);
+                if (ti < 0) {
+                    continue;
+                }
+                TradingHelper.TradeItemMode mode = offer.getTradeItemMode();
+                quantities[ti] = offer.howMuch;
+                modeOrdinals[ti] = mode != null ? mode.ordinal() : NO_MODE;
+            }
+            for (int ti = 0; ti < quantities.length; ti++) {
+                if (quantities[ti] > 0) {
+                    offeredCount++;
+                }
+            }
+        }
+
+        /**
+         * Number of target items the ship offers (quantity > 0).
+         */
+        public int getOfferedCount() {
+            return offeredCount;
+        }
+
+        public boolean isEmpty() {
+            return offeredCount == 0;
+        }
+
+        public TargetStockTable getTable() {
+            return table;
+        }
+
+        public boolean isOffered(int index) {
+            return quantities[index] > 0;
+        }
+
+        public int getQuantity(int index) {
+            return quantities[index];
+        }
+
+        public TradingHelper.TradeItemMode getMode(int index) {
+            int ordinal = modeOrdinals[index];
+            return ordinal == NO_MODE ? null : MODES[ordinal];
+        }
+
+        /**
+         * Price curve for an item, or null if it hasn't been priced.
+         */
+        public PriceCurve getCurve(int index) {
+            return curves[index];
+        }
+
+        /**
+         * Price every offered item the station still needs (game thread only).
+         */
+        void priceNeededItems(TradingHelper.Bank bank, StationStockSnapshot stock, int maxUnits) {
+            for (int ti = 0; ti < quantities.length; ti++) {
+                if (quantities[ti] > 0 && stock.getNeed(ti) > 0) {
+                    ensureCurve(bank, ti, maxUnits);
+                }
+            }
+        }
+        
+        /**
+         * Price curve for an offered item, pricing it on first use (game thread only).
+         * Returns null if the item isn't offered.
+         */
+        PriceCurve ensureCurve(TradingHelper.Bank bank, int index, int maxUnits) {
+            if (curves[index] == null && quantities[index] > 0) {
+                curves[index] = PriceCurve.build(bank, table.elementaryIdAt(index), quantities[index],
+                                                 getMode(index), maxUnits);
+            }
+            return curves[index];
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import fi.bugbyte.spacehaven.ai.TradingHelper;
+
+/**
+ * Cumulative cost of buying the first N units of one item from one NPC ship.
+ *
+ * DESIGN DECISIONS:
+ * - prefix[k] = total cost of the first k units (prefix[0] = 0), priced exactly the way the game
+ *   does it: unit k costs getSellPriceToPlayer(eid, available - k, mode), because the NPC's
+ *   price rises as its stock drops
+ * - Only built up to the per-trade unit cap, not for the NPC's whole stock
+ * - Built once per offer snapshot (cached in ShipState, dropped when the offers are refreshed),
+ *   and remembers the stock/mode it was priced for so a changed offer is never priced stale
+ * - Unit prices are never negative, so prefix[] is non-decreasing and the largest affordable
+ *   quantity can be found by binary search
+ *
+ * WHY: buildTradeAgreement priced each unit in a loop, and when credits ran short it
+ * re-priced the whole line after every one-unit decrement (O(q^2) game calls).
+ */
+public final class PriceCurve {
+
+    private final int availableStock;
+    private final TradingHelper.TradeItemMode mode;
+    private final int[] prefix;
+
+    private PriceCurve(int availableStock, TradingHelper.TradeItemMode mode, int[] prefix) {
+        this.availableStock = availableStock;
+        this.mode = mode;
+        this.prefix = prefix;
+    }
+
+    /**
+     * Price up to maxUnits units of an item (fewer if the NPC has less in stock).
+     */
+    public static PriceCurve build(TradingHelper.Bank bank, int elementaryId, int availableStock,
+                                   TradingHelper.TradeItemMode mode, int maxUnits) {
+        int units = Math.max(0, Math.min(availableStock, maxUnits));
+        int[] prefix = new int[units + 1];
+        for (int k = 0; k < units; k++) {
+            prefix[k + 1] = prefix[k] + bank.getSellPriceToPlayer(elementaryId, availableStock - k, mode);
+        }
+        return new PriceCurve(availableStock, mode, prefix);
+    }
+
+    /**
+     * True if this curve was priced for the given offer state.
+     */
+    public boolean matches(int availableStock, TradingHelper.TradeItemMode mode) {
+        return this.availableStock == availableStock && this.mode == mode;
+    }
+
+    /**
+     * Number of units this curve can price.
+     */
+    public int getUnits() {
+        return prefix.length - 1;
+    }
+
+    /**
+     * Total cost of the first qty units.
+     */
+    public int costOf(int qty) {
+        return prefix[Math.max(0, Math.min(qty, prefix.length - 1))];
+    }
+
+    /**
+     * Largest quantity (at most maxQty) whose total cost fits in budget. 0 if not even one unit fits.
+     */
+    public int maxAffordable(long budget, int maxQty) {
+        int hi = Math.min(maxQty, prefix.length - 1);
+        if (hi <= 0 || budget < prefix[1]) {
+            return 0;
+        }
+        if (prefix[hi] <= budget) {
+            return hi;
+        }
+        // Invariant: prefix[lo] <= budget < prefix[hi]
+        int lo = 1;
+        while (hi - lo > 1) {
+            int mid = (lo + hi) >>> 1;
+            if (prefix[mid] <= budget) {
+                lo = mid;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import fi.bugbyte.spacehaven.ai.JobManager;
+
+/**
+ * Item reservations held on an NPC ship for one trade that is being built.
+ *
+ * DESIGN DECISIONS:
+ * - Records exactly how many units of each item it reserved, so a single line (one item)
+ *   can be trimmed or rolled back without touching the other lines of the same trade
+ * - rollback() releases the whole trade in one cancelAllReservationsForTrade() call
+ * - commit() hands the reservations over to the trade; after that, nothing is released here
+ * - Both commit() and rollback() are idempotent, so failure paths can call rollback() freely
+ *
+ * WHY: buildTradeAgreement used to reserve and free units inline, and any failure on a later
+ * item (can't afford it, would exceed maxCreditsPerTrade) cancelled every reservation for the
+ * trade - including the items already accepted into it. The trade then went out with lines
+ * whose items were no longer reserved.
+ *
+ * NOTE: The game's JobManager only reserves one unit per call, so reserve(eid, n) still makes
+ * up to n game calls. What we avoid is reserving units we then have to give back: callers work
+ * out the quantity they can actually pay for before reserving.
+ */
+public class ReservationBatch {
+
+    private final JobManager jobManager;
+    private final int tradeId;
+
+    /**
+     * elementaryId -> units currently reserved by this batch.
+     */
+    private final IntIntMap reserved = new IntIntMap();
+
+    private int totalReserved = 0;
+    private boolean closed = false;
+
+    // For tracing: reserve() calls, and JobManager calls made (each unit is one call)
+    private int linesAttempted = 0;
+    private int gameCalls = 0;
+
+    public ReservationBatch(JobManager jobManager, int tradeId) {
+        this.jobManager = jobManager;
+        this.tradeId = tradeId;
+    }
+
+    public int getTradeId() {
+        return tradeId;
+    }
+
+    /**
+     * Reserve up to maxUnits of an item for this trade.
+     * Stops at the first unit the game refuses (already reserved elsewhere or not in stock).
+     *
+     * @return Number of units actually reserved (0..maxUnits)
+     */
+    public int reserve(int elementaryId, int maxUnits) {
+        if (closed || maxUnits <= 0) {
+            return 0;
+        }
+        linesAttempted++;
+        int got = 0;
+        while (got < maxUnits && jobManager.reserveItemForTrade(elementaryId, tradeId)) {
+            got++;
+        }
+        gameCalls += got < maxUnits ? got + 1 : got; // Counting the refused call
+        if (got > 0) {
+            reserved.addTo(elementaryId, got);
+            totalReserved += got;
+        }
+        return got;
+    }
+
+    /**
+     * Release some units of one line, keeping the rest reserved.
+     */
+    public void release(int elementaryId, int units) {
+        if (closed) {
+            return;
+        }
+        int held = reserved.get(elementaryId, 0);
+        int toFree = Math.min(units, held);
+        for (int i = 0; i < toFree; i++) {
+            jobManager.freeItemReservationForTrade(elementaryId, tradeId);
+        }
+        gameCalls += toFree;
+        if (toFree >= held) {
+            reserved.remove(elementaryId);
+        } else {
+            reserved.addTo(elementaryId, -toFree);
+        }
+        totalReserved -= toFree;
+    }
+
+    /**
+     * Release every unit reserved for one line. Other lines are untouched.
+     */
+    public void rollbackLine(int elementaryId) {
+        release(elementaryId, reserved.get(elementaryId, 0));
+    }
+
+    /**
+     * Units currently held for one item.
+     */
+    public int getReserved(int elementaryId) {
+        return reserved.get(elementaryId, 0);
+    }
+
+    /**
+     * Units currently held across all lines.
+     */
+    public int getTotalReserved() {
+        return totalReserved;
+    }
+
+    /**
+     * Lines reserve() was asked for (the items considered for the trade).
+     */
+    public int getLinesAttempted() {
+        return linesAttempted;
+    }
+
+    /**
+     * JobManager calls made so far: reserve, free and cancel.
+     */
+    public int getGameCalls() {
+        return gameCalls;
+    }
+
+    /**
+     * The trade was created: the reservations now belong to it.
+     */
+    public void commit() {
+        closed = true;
+        reserved.clear();
+    }
+
+    /**
+     * The trade will not be created: release everything this batch reserved.
+     */
+    public void rollback() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        jobManager.cancelAllReservationsForTrade(tradeId);
+        gameCalls++;
+        reserved.clear();
+        totalReserved = 0;
+    }
+}
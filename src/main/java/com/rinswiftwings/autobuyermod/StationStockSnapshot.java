@@ -0,0 +1,170 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import fi.bugbyte.spacehaven.ai.Trading;
+import fi.bugbyte.spacehaven.world.Ship;
+
+/**
+ * Per-cycle snapshot of the player station's stock for every target item.
+ *
+ * DESIGN DECISIONS:
+ * - One int per target item, aligned to the TargetStockTable index (no map lookups)
+ * - Holds current stock + units already queued inbound, i.e. what the station will have once
+ *   open trades deliver. That is the only figure the need/threshold math ever uses
+ * - Taken once at the start of an evaluation cycle, then updated in place as the mod creates
+ *   trades during that cycle (applyTrade), so later iterations see the new inbound units
+ * - Holds on to the table it was built from, so a config reload mid-cycle can't misalign it
+ *
+ * WHY: playerStation.getItemsOf() walks the station's storage and was called for every target
+ * item, for every candidate ship, on each of up to 20 re-evaluations in attemptBestTrade, plus
+ * again when building the trade. Station stock doesn't change meaningfully within one cycle
+ * except through the trades we create ourselves, which applyTrade accounts for.
+ *
+ * Not thread-safe: a snapshot belongs to the single evaluation cycle that created it. When the
+ * cycle is planned on a worker thread, the planner only works on a copy().
+ */
+public final class StationStockSnapshot {
+
+    private final TargetStockTable table;
+
+    /**
+     * Projected stock (on hand + queued inbound) per table index.
+     */
+    private final int[] projected;
+
+    /**
+     * Table indices changed by applyTrade() since the last drainChanged() call.
+     * WHY: Lets the ship ranking rescore only the items a new trade actually touched.
+     */
+    private final boolean[] changed;
+    private int[] changedList = new int[8];
+    private int changedCount = 0;
+
+    private StationStockSnapshot(TargetStockTable table, int[] projected) {
+        this.table = table;
+        this.projected = projected;
+        this.changed = new boolean[projected.length];
+    }
+
+    /**
+     * Read current stock and queued inbound for every target item.
+     * The trade index must already be reconciled for this station.
+     */
+    public static StationStockSnapshot capture(Ship station, TargetStockTable table, TradeIndex tradeIndex) {
+        int[] projected = new int[table.size()];
+        for (int i = 0; i < projected.length; i++) {
+            int eid = table.elementaryIdAt(i);
+            projected[i] = station.getItemsOf(eid, true) + tradeIndex.getQueuedInbound(eid);
+        }
+        return new StationStockSnapshot(table, projected);
+    }
+
+    /**
+     * The target table this snapshot is aligned to. Use it (not the config's current table)
+     * for the rest of the cycle.
+     */
+    public TargetStockTable getTable() {
+        return table;
+    }
+
+    /**
+     * Projected stock (on hand + queued inbound) at a table index.
+     */
+    public int getProjected(int index) {
+        return projected[index];
+    }
+
+    /**
+     * Units still needed to reach target at a table index (never negative).
+     */
+    public int getNeed(int index) {
+        return Math.max(0, table.targetAt(index) - projected[index]);
+    }
+
+    /**
+     * Units still needed for an item by elementaryId (0 if it has no target).
+     */
+    public int getNeedFor(int elementaryId) {
+        int index = table.indexOf(elementaryId);
+        return index >= 0 ? getNeed(index) : 0;
+    }
+
+    /**
+     * Projected stock as a percentage of target at a table index.
+     */
+    public double getStockPercent(int index) {
+        int target = table.targetAt(index);
+        return target > 0 ? ((double) projected[index] / target) * 100.0 : 0.0;
+    }
+
+    /**
+     * True if both snapshots use the same target table and hold the same stock for every item.
+     */
+    public boolean sameStockAs(StationStockSnapshot other) {
+        return other != null && other.table == table && java.util.Arrays.equals(other.projected, projected);
+    }
+
+    /**
+     * Count the items of a trade the mod just created as inbound.
+     * WHY: Keeps later iterations of the same cycle from buying the same need twice.
+     */
+    public void applyTrade(Trading.TradeAgreement trade) {
+        if (trade == null || trade.toShip1 == null) {
+            return;
+        }
+        for (int j = 0; j < trade.toShip1.size; j++) {
+            Trading.TradeItem item = trade.toShip1.get(j);
+            applyPurchase(item.elementaryId, item.howMuch);
+        }
+    }
+    
+    /**
+     * Count units of one item as inbound (no-op for items without a target).
+     */
+    public void applyPurchase(int elementaryId, int quantity) {
+        int index = table.indexOf(elementaryId);
+        if (index >= 0) {
+            projected[index] += quantity;
+            markChanged(index);
+        }
+    }
+    
+    /**
+     * Independent copy with the same stock and no pending changes.
+     * WHY: The trade planner applies the trades it proposes to its own copy, so the captured
+     * snapshot still reflects real stock when the commit step applies the trades actually created.
+     */
+    public StationStockSnapshot copy() {
+        return new StationStockSnapshot(table, projected.clone());
+    }
+
+    /**
+     * Return the table indices changed since the last call, and reset the list.
+     */
+    public int[] drainChanged() {
+        int[] result = java.util.Arrays.copyOf(changedList, changedCount);
+        for (int i = 0; i < changedCount; i++) {
+            changed[changedList[i]] = false;
+        }
+        changedCount = 0;
+        return result;
+    }
+
+    private void markChanged(int index) {
+        if (changed[index]) {
+            return;
+        }
+        changed[index] = true;
+        if (changedCount == changedList.length) {
+            changedList = java.util.Arrays.copyOf(changedList, changedCount << 1);
+        }
+        changedList[changedCount++] = index;
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+/**
+ * Immutable, compiled view of the configured target stock levels.
+ *
+ * DESIGN DECISIONS:
+ * - Parallel int[] arrays (elementaryIds sorted ascending, targets at the same index), so
+ *   callers iterate with a plain index loop: for (int i = 0; i < table.size(); i++)
+ * - A dense lookup array indexed by elementaryId (item IDs top out around 4100), so
+ *   getTarget()/indexOf() are a single array read
+ * - Never mutated after construction. AutoBuyerConfig builds a new table when targets change
+ *   and publishes it through a volatile field; readers just grab the current reference
+ *
+ * WHY: getAllTargetStocks() used to copy the whole target HashMap, and it was called several
+ * times per ship per evaluation (building mustOffer, building trades, scoring ships). Target
+ * levels only change when the config is (re)loaded or edited, so we compile them once.
+ *
+ * The table index of an item (0..size()-1) is stable for the lifetime of a table, which lets
+ * other per-cycle structures use plain arrays aligned to it.
+ */
+public final class TargetStockTable {
+
+    /**
+     * Largest elementaryId served from the dense lookup array.
+     * WHY: Known item IDs are below ~4100. Anything above this (modded items) falls back to
+     * a binary search over the sorted elementaryIds, so it still works, just slightly slower.
+     */
+    private static final int DENSE_LIMIT = 8192;
+
+    public static final TargetStockTable EMPTY = new TargetStockTable(new int[0], new int[0]);
+
+    private final int[] elementaryIds;
+    private final int[] targets;
+
+    /**
+     * elementaryId -> table index + 1 (0 means "not configured").
+     * WHY +1: A fresh int[] is all zeros, so no fill pass is needed.
+     */
+    private final int[] denseIndex;
+
+    private TargetStockTable(int[] elementaryIds, int[] targets) {
+        this.elementaryIds = elementaryIds;
+        this.targets = targets;
+        int maxDenseId = -1;
+        for (int eid : elementaryIds) {
+            if (eid >= 0 && eid < DENSE_LIMIT && eid > maxDenseId) {
+                maxDenseId = eid;
+            }
+        }
+        this.denseIndex = new int[maxDenseId + 1];
+        for (int i = 0; i < elementaryIds.length; i++) {
+            int eid = elementaryIds[i];
+            if (eid >= 0 && eid < denseIndex.length) {
+                denseIndex[eid] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Compile a table from the mutable target map held by AutoBuyerConfig.
+     */
+    static TargetStockTable from(IntIntMap targetStocks) {
+        if (targetStocks.isEmpty()) {
+            return EMPTY;
+        }
+        int[] ids = targetStocks.keys();
+        java.util.Arrays.sort(ids);
+        int[] values = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            values[i] = targetStocks.get(ids[i], 0);
+        }
+        return new TargetStockTable(ids, values);
+    }
+
+    /**
+     * Number of configured items.
+     */
+    public int size() {
+        return elementaryIds.length;
+    }
+
+    public boolean isEmpty() {
+        return elementaryIds.length == 0;
+    }
+
+    /**
+     * elementaryId of the item at a table index (ascending by elementaryId).
+     */
+    public int elementaryIdAt(int index) {
+        return elementaryIds[index];
+    }
+
+    /**
+     * Target stock level of the item at a table index.
+     */
+    public int targetAt(int index) {
+        return targets[index];
+    }
+
+    /**
+     * Table index of an item, or -1 if it has no target configured.
+     */
+    public int indexOf(int elementaryId) {
+        if (elementaryId >= 0 && elementaryId < DENSE_LIMIT) {
+            return elementaryId < denseIndex.length ? denseIndex[elementaryId] - 1 : -1;
+        }
+        int found = java.util.Arrays.binarySearch(elementaryIds, elementaryId);
+        return found >= 0 ? found : -1;
+    }
+
+    /**
+     * Target stock level for an item, or 0 if not configured.
+     */
+    public int getTarget(int elementaryId) {
+        int index = indexOf(elementaryId);
+        return index >= 0 ? targets[index] : 0;
+    }
+
+    public boolean contains(int elementaryId) {
+        return indexOf(elementaryId) >= 0;
+    }
+}
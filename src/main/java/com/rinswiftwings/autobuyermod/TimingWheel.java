@@ -0,0 +1,365 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+
+/**
+ * Hashed timing wheel for per-ship timers (trade cooldowns, the new-ship initialization delay)
+ * and the evaluation scheduler's interval wait.
+ *
+ * DESIGN DECISIONS:
+ * - Time is counted in wall-clock ticks of 1/60 second (NANOS_PER_TICK, the same convention as
+ *   cooldown_ticks: "120 ticks ≈ 2 seconds"), measured from System.nanoTime(). These are NOT
+ *   game simulation ticks: the clock keeps running while the game is paused and ignores the
+ *   game speed, exactly like the System.currentTimeMillis() cooldowns the wheel replaced. The
+ *   game exposes no tick counter the mod can read. Each wheel slot covers one tick
+ * - A timer is keyed by (kind, ship ID). Scheduling the same key again replaces the old timer,
+ *   so each ship has at most one cooldown and one delay timer
+ * - Timers keep their absolute deadline tick. A slot holds every timer whose deadline maps to
+ *   it; timers more than one turn away simply stay in their slot until the wheel comes round
+ *   again. Advancing by more than a full turn visits each slot once, so a stalled frame never
+ *   costs more than WHEEL_SIZE slot visits
+ * - The wheel doesn't tick every frame. A daemon thread ("AutoBuyer-Timers") sleeps until the
+ *   earliest deadline and then posts one advance() to the game thread with
+ *   Gdx.app.postRunnable(). With no timers nothing is scheduled. Callers may also call
+ *   advance() directly; the evaluation does so before reading ship state
+ * - The earliest deadline is a lower bound: cancelling or pushing back a timer doesn't update
+ *   it, so the wakeup may come early, find nothing due and re-arm for the real earliest timer
+ * - Expired timers are handed to the ExpiryHandler in one batch, outside the lock
+ *
+ * WHY: Cooldowns and the 10-second delay used to be polled with System.currentTimeMillis()
+ * on every evaluation, and nothing woke the mod when a delay ran out - a lone new ship sat idle
+ * until some unrelated hook fired. With the wheel, a waiting ship costs nothing until it is due,
+ * and its expiry requests exactly one evaluation.
+ *
+ * Thread-safe: schedule/cancel may be called from any hook.
+ */
+public class TimingWheel {
+
+    /**
+     * Receives the timers that expired during one advance() (game thread).
+     */
+    public interface ExpiryHandler {
+        /**
+         * @param kinds   Kind of each expired timer
+         * @param shipIds Ship ID of each expired timer
+         * @param count   Number of valid entries in the arrays
+         */
+        void expired(int[] kinds, int[] shipIds, int count);
+    }
+
+    /**
+     * Nanoseconds per tick (~60 ticks per second of real time, same convention as the cooldown
+     * and interval settings). Shared by every *_ticks setting measured with System.nanoTime().
+     */
+    public static final long NANOS_PER_TICK = 16_670_000L;
+
+    private static final int WHEEL_SIZE = 512; // power of two
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    /**
+     * Pending timer. Linked into its slot's list.
+     */
+    private static final class Timer {
+        final int kind;
+        final int shipId;
+        long deadlineTick;
+        Timer prev;
+        Timer next;
+
+        Timer(int kind, int shipId) {
+            this.kind = kind;
+            this.shipId = shipId;
+        }
+    }
+
+    private final ExpiryHandler handler;
+    private final Timer[] slots = new Timer[WHEEL_SIZE];
+    // Pending timers by kind, then ship ID (kinds are small ints, see the callers' constants)
+    private final IntObjectMap<IntObjectMap<Timer>> timersByKind = new IntObjectMap<>();
+    private final long epochNanos = System.nanoTime();
+    private long processedTick = 0;
+    private int pendingCount = 0;
+    // No pending timer is due before this tick (lower bound, see class comment)
+    private long earliestDeadlineTick = Long.MAX_VALUE;
+    // Wakeup that will post advance() to the game thread, and the tick it is armed for
+    private java.util.concurrent.ScheduledExecutorService waker = null;
+    private java.util.concurrent.ScheduledFuture<?> wakeup = null;
+    private long wakeupTick = Long.MAX_VALUE;
+    private boolean tickPosted = false;
+
+    // Scratch arrays for the expired batch (only used inside advance())
+    private int[] expiredKinds = new int[8];
+    private int[] expiredShipIds = new int[8];
+
+    private final Runnable tickTask = this::onFrame;
+    private final Runnable wakeupTask = this::onWakeup;
+
+    public TimingWheel(ExpiryHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Current tick on the wheel's wall clock (1/60 second since the wheel was created; keeps
+     * counting while the game is paused).
+     */
+    public long currentWallClockTick() {
+        return (System.nanoTime() - epochNanos) / NANOS_PER_TICK;
+    }
+
+    /**
+     * Start (or restart) a timer. A delay of 0 or less cancels it instead.
+     */
+    public void schedule(int kind, int shipId, long delayTicks) {
+        if (delayTicks <= 0) {
+            cancel(kind, shipId);
+            return;
+        }
+        synchronized (this) {
+            IntObjectMap<Timer> timers = timersByKind.get(kind);
+            if (timers == null) {
+                timers = new IntObjectMap<>();
+                timersByKind.put(kind, timers);
+            }
+            Timer timer = timers.get(shipId);
+            if (timer != null) {
+                unlink(timer);
+            } else {
+                timer = new Timer(kind, shipId);
+                timers.put(shipId, timer);
+                pendingCount++;
+            }
+            // Never schedule into a slot the wheel has already passed
+            timer.deadlineTick = Math.max(currentWallClockTick(), processedTick) + delayTicks;
+            link(timer);
+            earliestDeadlineTick = Math.min(earliestDeadlineTick, timer.deadlineTick);
+            armWakeup();
+        }
+    }
+
+    /**
+     * Stop a timer without firing it.
+     */
+    public synchronized void cancel(int kind, int shipId) {
+        IntObjectMap<Timer> timers = timersByKind.get(kind);
+        Timer timer = timers != null ? timers.remove(shipId) : null;
+        if (timer != null) {
+            unlink(timer);
+            pendingCount--;
+        }
+    }
+
+    /**
+     * Stop every timer of a ship (it left or its state was released).
+     */
+    public synchronized void cancelAll(int shipId) {
+        for (int kind : timersByKind.keys()) {
+            cancel(kind, shipId);
+        }
+    }
+
+    public synchronized boolean isPending(int kind, int shipId) {
+        IntObjectMap<Timer> timers = timersByKind.get(kind);
+        return timers != null && timers.containsKey(shipId);
+    }
+
+    /**
+     * Number of pending timers of a kind.
+     */
+    public synchronized int pendingCount(int kind) {
+        IntObjectMap<Timer> timers = timersByKind.get(kind);
+        return timers != null ? timers.size() : 0;
+    }
+
+    /**
+     * Ticks until the earliest timer of a kind fires, or -1 if none is pending.
+     */
+    public synchronized long ticksUntilNext(int kind) {
+        IntObjectMap<Timer> timers = timersByKind.get(kind);
+        if (timers == null || timers.isEmpty()) {
+            return -1;
+        }
+        long earliest = Long.MAX_VALUE;
+        for (int shipId : timers.keys()) {
+            earliest = Math.min(earliest, timers.get(shipId).deadlineTick);
+        }
+        return Math.max(0, earliest - currentWallClockTick());
+    }
+
+    /**
+     * Fire every timer that is due. Game thread.
+     *
+     * @return Number of timers that fired
+     */
+    public int advance() {
+        int count = 0;
+        int[] kinds;
+        int[] shipIds;
+        synchronized (this) {
+            long now = currentWallClockTick();
+            if (now <= processedTick) {
+                armWakeup(); // A wakeup that came early must not leave the wheel unarmed
+                return 0;
+            }
+            // Visit each slot at most once, even after a long stall
+            long from = Math.max(processedTick + 1, now - WHEEL_MASK);
+            for (long tick = from; tick <= now; tick++) {
+                Timer timer = slots[(int) (tick & WHEEL_MASK)];
+                while (timer != null) {
+                    Timer next = timer.next;
+                    if (timer.deadlineTick <= now) {
+                        unlink(timer);
+                        timersByKind.get(timer.kind).remove(timer.shipId);
+                        pendingCount--;
+                        count = addExpired(count, timer);
+                    }
+                    timer = next;
+                }
+            }
+            processedTick = now;
+            if (now >= earliestDeadlineTick) {
+                earliestDeadlineTick = findEarliestDeadline();
+            }
+            armWakeup();
+            kinds = expiredKinds;
+            shipIds = expiredShipIds;
+        }
+        if (count > 0) {
+            try {
+                handler.expired(kinds, shipIds, count);
+            } catch (Exception e) {
+                ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.ERROR, "TimingWheel: Exception handling expired timers", e);
+            }
+        }
+        return count;
+    }
+
+    private int addExpired(int count, Timer timer) {
+        if (count == expiredKinds.length) {
+            expiredKinds = java.util.Arrays.copyOf(expiredKinds, count << 1);
+            expiredShipIds = java.util.Arrays.copyOf(expiredShipIds, count << 1);
+        }
+        expiredKinds[count] = timer.kind;
+        expiredShipIds[count] = timer.shipId;
+        return count + 1;
+    }
+
+    /**
+     * Earliest deadline of all pending timers (caller holds the lock). Only called when the
+     * previous lower bound has passed, i.e. about once per expiry.
+     */
+    private long findEarliestDeadline() {
+        long earliest = Long.MAX_VALUE;
+        if (pendingCount == 0) {
+            return earliest;
+        }
+        for (int kind : timersByKind.keys()) {
+            IntObjectMap<Timer> timers = timersByKind.get(kind);
+            for (int shipId : timers.keys()) {
+                earliest = Math.min(earliest, timers.get(shipId).deadlineTick);
+            }
+        }
+        return earliest;
+    }
+
+    /**
+     * Make sure a wakeup is scheduled for the earliest deadline (caller holds the lock).
+     */
+    private void armWakeup() {
+        if (pendingCount == 0 || earliestDeadlineTick == Long.MAX_VALUE) {
+            if (wakeup != null) {
+                wakeup.cancel(false);
+                wakeup = null;
+                wakeupTick = Long.MAX_VALUE;
+            }
+            return;
+        }
+        if (wakeup != null && wakeupTick <= earliestDeadlineTick) {
+            return; // Already waking up in time
+        }
+        if (Gdx.app == null) {
+            // No frames to post into - timers fire when advance() is called by the evaluation
+            return;
+        }
+        if (waker == null) {
+            waker = java.util.concurrent.Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "AutoBuyer-Timers");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        if (wakeup != null) {
+            wakeup.cancel(false);
+        }
+        long delayNanos = Math.max(0, epochNanos + earliestDeadlineTick * NANOS_PER_TICK - System.nanoTime());
+        wakeupTick = earliestDeadlineTick;
+        wakeup = waker.schedule(wakeupTask, delayNanos, java.util.concurrent.TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Wakeup thread: the earliest timer is due, hand advance() to the game thread.
+     */
+    private void onWakeup() {
+        synchronized (this) {
+            wakeup = null;
+            wakeupTick = Long.MAX_VALUE;
+            if (tickPosted) {
+                return;
+            }
+            tickPosted = true;
+        }
+        Application app = Gdx.app;
+        if (app != null) {
+            app.postRunnable(tickTask);
+        } else {
+            synchronized (this) {
+                tickPosted = false;
+            }
+        }
+    }
+
+    /**
+     * Game thread: fire what is due; advance() re-arms the wakeup for the next deadline.
+     */
+    private void onFrame() {
+        synchronized (this) {
+            tickPosted = false;
+        }
+        advance();
+    }
+
+    private void link(Timer timer) {
+        int slot = (int) (timer.deadlineTick & WHEEL_MASK);
+        Timer head = slots[slot];
+        timer.prev = null;
+        timer.next = head;
+        if (head != null) {
+            head.prev = timer;
+        }
+        slots[slot] = timer;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            int slot = (int) (timer.deadlineTick & WHEEL_MASK);
+            if (slots[slot] == timer) {
+                slots[slot] = timer.next;
+            }
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+    }
+}
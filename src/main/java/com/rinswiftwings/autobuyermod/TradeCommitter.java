@@ -0,0 +1,171 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+/**
+ * Commit step of trade creation: credit claim, per-ship limits, trade ID check and the game-side
+ * mutations, with the locking that keeps them consistent when hooks run on several threads.
+ *
+ * Order of a commit:
+ * 1. Claim the trade's credits in the CreditLedger (lock-free, shared by all ships)
+ * 2. Under the ship's lock stripe: claim the trade ID, re-check the 4 concurrent / 8 per visit limits
+ * 3. Under the game mutation lock: re-check the bank, reserve the credits and add the trade to the world
+ * 4. Still under the ship's stripe: count the trade for the ship
+ * 5. Release the credit claim (the bank holds the credits now, or the trade was abandoned)
+ *
+ * DESIGN DECISIONS:
+ * - The game is only reached through Attempt, so the locking can be exercised with stand-ins
+ *   instead of a running game (see TradeCommitterStressTest)
+ * - Results are int constants, like OfferCacheMetrics' hit/miss reasons; the caller logs and
+ *   rolls back item reservations
+ * - The ledger claim alone can't rule out overspending: a bank balance read just before another
+ *   trade reserved (and released its claim) is stale. Reserves only happen under the game
+ *   mutation lock, so the bank is checked again there, exactly, before each reserve
+ * - If apply() or created() throws, the trade ID is released and the exception is passed on
+ *
+ * WHY: Every limit is per NPC ship, so ship stripes let trades with different ships run side by
+ * side. The bank and the world's trade list are shared and not thread-safe, so the few calls
+ * that change them take one global lock.
+ */
+public class TradeCommitter {
+
+    public static final int MAX_CONCURRENT_TRADES = 4; // Game limit per NPC ship
+    public static final int MAX_TRADES_PER_VISIT = 8;
+
+    // commit() results
+    public static final int CREATED = 0;
+    public static final int INSUFFICIENT_CREDITS = 1;
+    public static final int DUPLICATE_TRADE_ID = 2;
+    public static final int LIMIT_REACHED = 3;
+
+    /**
+     * The game side of one trade commit.
+     */
+    public interface Attempt {
+        /** Credits the player bank reports as available (no lock, or the game mutation lock, held) */
+        int getCreditsAvailable();
+
+        /** Open trades with the NPC ship (ship stripe held) */
+        int getActiveTradeCount();
+
+        /** Trades created with the NPC ship this visit (ship stripe held) */
+        int getTradesCreatedThisVisit();
+
+        /** Reserve the credits and add the trade to the world (ship stripe and game mutation lock held) */
+        void apply();
+
+        /** Count the trade for the ship (ship stripe held, after apply) */
+        void created();
+    }
+
+    /**
+     * Striped locks for trade creation, picked by NPC ship ID (see shipLockFor).
+     * WHY: Without them, two hooks could both see "3 active trades" and both create one,
+     * exceeding the 4-trade limit. Only trades with the same ship (or one sharing its stripe)
+     * wait for each other.
+     */
+    private static final int SHIP_LOCK_STRIPES = 16;
+    private final Object[] shipLocks = new Object[SHIP_LOCK_STRIPES];
+
+    /**
+     * Guards bank.reserve(), world.addNewTradeAgreement() and the index/stock updates that go
+     * with them (Attempt.apply). Held only for those calls, not for the limit checks.
+     */
+    private final Object gameMutationLock = new Object();
+
+    /**
+     * Trade IDs created by the mod and not yet completed or cancelled.
+     * WHY: Trade IDs are global, not per ship, so the set has its own lock (held only for the
+     * add/remove itself).
+     */
+    private final IntSet createdTradeIds = new IntSet();
+
+    private final CreditLedger creditLedger = new CreditLedger();
+
+    public TradeCommitter() {
+        for (int i = 0; i < SHIP_LOCK_STRIPES; i++) {
+            shipLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Commit one trade.
+     *
+     * @param npcShipId NPC ship the trade is with
+     * @param tradeId   ID of the trade agreement
+     * @param cost      Credits the trade costs the player
+     * @return CREATED, INSUFFICIENT_CREDITS, DUPLICATE_TRADE_ID or LIMIT_REACHED
+     */
+    public int commit(int npcShipId, int tradeId, int cost, Attempt attempt) {
+        if (!creditLedger.tryClaim(attempt.getCreditsAvailable(), cost)) {
+            return INSUFFICIENT_CREDITS;
+        }
+        try {
+            synchronized (shipLockFor(npcShipId)) {
+                if (!claimTradeId(tradeId)) {
+                    return DUPLICATE_TRADE_ID;
+                }
+                // Re-check the limits: another thread may have created a trade with this ship
+                // since the caller's own checks
+                if (attempt.getActiveTradeCount() >= MAX_CONCURRENT_TRADES ||
+                    attempt.getTradesCreatedThisVisit() >= MAX_TRADES_PER_VISIT) {
+                    removeTradeId(tradeId);
+                    return LIMIT_REACHED;
+                }
+                boolean done = false;
+                try {
+                    synchronized (gameMutationLock) {
+                        if (attempt.getCreditsAvailable() < cost) {
+                            return INSUFFICIENT_CREDITS; // Spent by a trade with another ship meanwhile
+                        }
+                        attempt.apply();
+                    }
+                    attempt.created();
+                    done = true;
+                } finally {
+                    if (!done) {
+                        removeTradeId(tradeId);
+                    }
+                }
+                return CREATED;
+            }
+        } finally {
+            creditLedger.release(cost);
+        }
+    }
+
+    /**
+     * Forget a trade ID (the trade completed or was cancelled).
+     */
+    public void removeTradeId(int tradeId) {
+        synchronized (createdTradeIds) {
+            createdTradeIds.remove(tradeId);
+        }
+    }
+
+    /**
+     * Add a trade ID to tracking. Returns false if it was already there (duplicate trade).
+     */
+    private boolean claimTradeId(int tradeId) {
+        synchronized (createdTradeIds) {
+            return createdTradeIds.add(tradeId);
+        }
+    }
+
+    /**
+     * Credits claimed by commits in progress.
+     */
+    public long getPendingCredits() {
+        return creditLedger.getPending();
+    }
+
+    private Object shipLockFor(int npcShipId) {
+        return shipLocks[IntIntMap.mix(npcShipId) & (SHIP_LOCK_STRIPES - 1)];
+    }
+}
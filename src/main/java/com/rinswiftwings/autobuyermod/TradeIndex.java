@@ -0,0 +1,206 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import com.badlogic.gdx.utils.Array;
+import fi.bugbyte.spacehaven.ai.Trading;
+import fi.bugbyte.spacehaven.world.World;
+
+/**
+ * Incrementally maintained index of open player trades with the player station.
+ *
+ * DESIGN DECISIONS:
+ * - Answers "how many units of item X are already on their way to the station" in O(1)
+ * - Answers "how many open trades does the station have with NPC ship Y" in O(1)
+ * - Updated by the mod when it creates a trade, and by the setTradeDone/cancelTrade hooks
+ * - Each tracked trade remembers exactly what it added, so removal subtracts the same amounts
+ *   even if the game mutates the TradeAgreement while the trade is in progress
+ * - A full rescan of world.getTrades() catches drift (e.g. trades the player creates by hand)
+ *
+ * WHY: getAlreadyQueuedInbound() used to walk every trade and every item for each target item,
+ * for each ship, on every iteration of attemptBestTrade. With dozens of open trades that is
+ * hundreds of thousands of comparisons per cycle. countActiveTradesWithNpc() had the same
+ * problem for the 4-concurrent-trade check, which runs several times per ship per evaluation.
+ * The index turns each lookup into a map read.
+ *
+ * All methods are synchronized because hooks may fire from different threads.
+ */
+public class TradeIndex {
+
+    /**
+     * How often a full rescan runs even if no drift was detected.
+     * WHY: The cheap drift check (trade count) cannot see a trade that was replaced by another
+     * one in between checks. A periodic rescan bounds how long such drift can survive.
+     */
+    private static final long FULL_RESCAN_INTERVAL_MILLIS = 5000;
+
+    /**
+     * Per-trade contribution: tradeId -> what the trade added to the index.
+     * WHY: We store a copy of what each trade added so removal is exact.
+     */
+    private final IntObjectMap<TrackedTrade> trackedTrades = new IntObjectMap<>();
+
+    /**
+     * elementaryId -> units queued inbound to the station across all tracked trades.
+     */
+    private final IntIntMap queuedInbound = new IntIntMap();
+
+    /**
+     * NPC shipId -> number of open player trades between the station and that ship.
+     * WHY: Counts trades in either direction, matching the game's 4-concurrent-trade limit.
+     */
+    private final IntIntMap activeTradesByNpc = new IntIntMap();
+
+    /**
+     * Station the index was built for. A different station means the index is invalid.
+     */
+    private int stationId = -1;
+
+    /**
+     * Number of trades world.getTrades() should contain if the index has seen every change.
+     * WHY: If the real count differs, something happened that our hooks did not report
+     * (manual trade, NPC-NPC trade, missed hook), so we rebuild from scratch.
+     */
+    private int expectedWorldTradeCount = -1;
+
+    private long lastFullRescanMillis = 0;
+
+    /**
+     * Get units of an item already queued inbound to the station.
+     */
+    public synchronized int getQueuedInbound(int elementaryId) {
+        return queuedInbound.get(elementaryId, 0);
+    }
+
+    /**
+     * Get number of open player trades between the station and an NPC ship.
+     */
+    public synchronized int getActiveTradeCount(int npcShipId) {
+        return activeTradesByNpc.get(npcShipId, 0);
+    }
+
+    /**
+     * Make sure the index matches the world. Cheap when nothing has drifted.
+     * Called once at the start of each trade evaluation.
+     */
+    public synchronized void reconcile(World world, int playerStationId) {
+        if (world == null) {
+            return;
+        }
+        Array<Trading.TradeAgreement> trades = world.getTrades();
+        long now = System.currentTimeMillis();
+        if (playerStationId != stationId ||
+            trades.size != expectedWorldTradeCount ||
+            now - lastFullRescanMillis >= FULL_RESCAN_INTERVAL_MILLIS) {
+            rebuild(trades, playerStationId);
+            lastFullRescanMillis = now;
+        }
+    }
+
+    /**
+     * Record a trade the mod just created.
+     */
+    public synchronized void onTradeCreated(Trading.TradeAgreement trade) {
+        if (trade == null) {
+            return;
+        }
+        if (expectedWorldTradeCount >= 0) {
+            expectedWorldTradeCount++;
+        }
+        track(trade);
+    }
+
+    /**
+     * Record that a trade completed or was cancelled.
+     */
+    public synchronized void onTradeClosed(Trading.TradeAgreement trade) {
+        if (trade == null) {
+            return;
+        }
+        untrack(trade.id);
+        // The trade leaves world.getTrades() whether or not it was inbound to the station
+        if (expectedWorldTradeCount > 0) {
+            expectedWorldTradeCount--;
+        }
+    }
+
+    /**
+     * Throw away the index and rebuild it from world.getTrades().
+     */
+    private void rebuild(Array<Trading.TradeAgreement> trades, int playerStationId) {
+        trackedTrades.clear();
+        queuedInbound.clear();
+        activeTradesByNpc.clear();
+        stationId = playerStationId;
+        for (int i = 0; i < trades.size; i++) {
+            track(trades.get(i));
+        }
+        expectedWorldTradeCount = trades.size;
+    }
+
+    private void track(Trading.TradeAgreement trade) {
+        // Only player trades involving our station are tracked
+        if (trade == null || !trade.isPlayerTrade() || trackedTrades.containsKey(trade.id)) {
+            return;
+        }
+        int npcShipId;
+        if (trade.shipId1 == stationId) {
+            npcShipId = trade.shipId2;
+        } else if (trade.shipId2 == stationId) {
+            npcShipId = trade.shipId1;
+        } else {
+            return;
+        }
+
+        // Only trades inbound to the station (station is shipId1) count as queued stock
+        int itemCount = trade.shipId1 == stationId && trade.toShip1 != null ? trade.toShip1.size : 0;
+        int[] eids = new int[itemCount];
+        int[] qtys = new int[itemCount];
+        for (int j = 0; j < itemCount; j++) {
+            Trading.TradeItem item = trade.toShip1.get(j);
+            eids[j] = item.elementaryId;
+            qtys[j] = item.howMuch;
+            queuedInbound.addTo(item.elementaryId, item.howMuch);
+        }
+        activeTradesByNpc.addTo(npcShipId, 1);
+        trackedTrades.put(trade.id, new TrackedTrade(npcShipId, eids, qtys));
+    }
+
+    private void untrack(int tradeId) {
+        TrackedTrade tracked = trackedTrades.remove(tradeId);
+        if (tracked == null) {
+            return;
+        }
+        for (int j = 0; j < tracked.elementaryIds.length; j++) {
+            decrement(queuedInbound, tracked.elementaryIds[j], tracked.quantities[j]);
+        }
+        decrement(activeTradesByNpc, tracked.npcShipId, 1);
+    }
+
+    private static void decrement(IntIntMap counts, int key, int amount) {
+        if (counts.addTo(key, -amount) <= 0) {
+            counts.remove(key);
+        }
+    }
+
+    /**
+     * What a single trade contributed to the index.
+     */
+    private static class TrackedTrade {
+        final int npcShipId;
+        final int[] elementaryIds;
+        final int[] quantities;
+
+        TrackedTrade(int npcShipId, int[] elementaryIds, int[] quantities) {
+            this.npcShipId = npcShipId;
+            this.elementaryIds = elementaryIds;
+            this.quantities = quantities;
+        }
+    }
+}
@@ -0,0 +1,524 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import fi.bugbyte.spacehaven.ai.Trading;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Machine-readable journal of trade events: one JSON object per line (JSONL).
+ *
+ * Events ("event" field):
+ * - trade_built:     a trade was assembled and its items reserved (may still fail to commit)
+ * - trade_committed: the trade was added to the world
+ * - trade_done:      a player trade completed
+ * - trade_cancelled: a player trade was cancelled
+ * - ship_skipped:    an evaluation passed over a tracked ship (reason code; only when the
+ *                    ship's reason changes or it was eligible in between)
+ * - logistics:       the logistics item count crossed a threshold
+ * Every line has "ts" (epoch milliseconds) and "event".
+ *
+ * DESIGN DECISIONS:
+ * - Off unless trade_journal is enabled. Disabled, each call is one volatile read
+ * - The calling thread (usually the game thread) only fills a small Event object and puts it
+ *   in a bounded queue. JSON formatting and file writes happen on a daemon thread. If the
+ *   queue is full the event is dropped and counted (the journal must never stall the game)
+ * - The writer thread encodes lines into one ByteBuffer and writes it to a FileChannel opened
+ *   for append - one write per batch, not per line
+ * - Size-based rotation: once trade_journal.jsonl exceeds journal_max_file_mb it is renamed
+ *   with a timestamp and gzipped (trade_journal_YYYY-MM-DD_HH-MM-SS.jsonl.gz). Only the newest
+ *   journal_max_files rotated segments are kept
+ * - A rotation that fails (gzip, rename or delete) backs off: the next attempt waits until the
+ *   file has grown by another full journal_max_file_mb, or ROTATION_RETRY_MILLIS have passed.
+ *   Without that, every later write would gzip the whole, still-growing file again
+ * - The journal continues across sessions (same file), so a long save is one series of segments
+ *
+ * WHY: The session log is free text for people. Analysing trades over a long save needs
+ * records a script can read, in files that don't grow without bound.
+ */
+public class TradeJournal {
+
+    private static final String FILE_NAME = "trade_journal.jsonl";
+    private static final String SEGMENT_PREFIX = "trade_journal_";
+    private static final String SEGMENT_SUFFIX = ".jsonl.gz";
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final long IDLE_POLL_MILLIS = 250;
+    private static final long ROTATION_RETRY_MILLIS = 60_000;
+
+    /**
+     * One journal record. Filled on the calling thread, formatted on the writer thread.
+     */
+    private static final class Event {
+        final String type;
+        final long timeMillis = System.currentTimeMillis();
+        int tradeId = -1;
+        int shipId = -1;
+        String shipName;
+        int credits = -1;
+        int[] itemIds;
+        int[] quantities;
+        String reason;
+        int count = -1;
+        int limit = -1;
+        int tradesWithShip = -1;
+        Boolean flag; // playerJumped / rising, depending on the type
+
+        Event(String type) {
+            this.type = type;
+        }
+    }
+
+    private final AutoBuyerConfig config;
+    private final File directory;
+    private final java.util.concurrent.ArrayBlockingQueue<Event> queue =
+        new java.util.concurrent.ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final java.util.concurrent.atomic.AtomicLong dropped = new java.util.concurrent.atomic.AtomicLong();
+    private final java.util.concurrent.atomic.AtomicLong written = new java.util.concurrent.atomic.AtomicLong();
+    private final Object startLock = new Object();
+    private volatile Thread writer = null;
+    private volatile boolean running = true;
+
+    // Writer thread only
+    private FileChannel channel = null;
+    private long fileSize = 0;
+    // After a failed rotation: don't try again before the file reaches this size or this time
+    private long rotationRetryBytes = 0;
+    private long rotationRetryMillis = 0;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final StringBuilder line = new StringBuilder(256);
+
+    /**
+     * @param directory Folder for the journal and its segments, or null if the mod folder is
+     *                  unknown (nothing is written)
+     */
+    public TradeJournal(AutoBuyerConfig config, File directory) {
+        this.config = config;
+        this.directory = directory;
+    }
+
+    /**
+     * Whether events are being recorded (trade_journal enabled and a folder to write to).
+     */
+    public boolean isEnabled() {
+        return config.isTradeJournalEnabled() && directory != null;
+    }
+
+    /**
+     * Events dropped because the queue was full.
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Events written to the journal.
+     */
+    public long getWrittenCount() {
+        return written.get();
+    }
+
+    /**
+     * A trade was assembled and its items reserved (before credits are reserved and it is added).
+     */
+    public void tradeBuilt(Trading.TradeAgreement trade, int shipId) {
+        if (!isEnabled()) {
+            return;
+        }
+        Event event = new Event("trade_built");
+        event.tradeId = trade.id;
+        event.shipId = shipId;
+        event.credits = trade.creditsToShip2;
+        copyItems(event, trade);
+        submit(event);
+    }
+
+    /**
+     * A trade was added to the world.
+     */
+    public void tradeCommitted(Trading.TradeAgreement trade, int shipId, String shipName, int tradesWithShip) {
+        if (!isEnabled()) {
+            return;
+        }
+        Event event = new Event("trade_committed");
+        event.tradeId = trade.id;
+        event.shipId = shipId;
+        event.shipName = shipName;
+        event.credits = trade.creditsToShip2;
+        event.tradesWithShip = tradesWithShip;
+        copyItems(event, trade);
+        submit(event);
+    }
+
+    /**
+     * A player trade completed.
+     * @param npcShipId The NPC side of the trade, or -1 if it is no longer known
+     */
+    public void tradeDone(Trading.TradeAgreement trade, int npcShipId) {
+        if (!isEnabled()) {
+            return;
+        }
+        Event event = new Event("trade_done");
+        event.tradeId = trade.id;
+        event.shipId = npcShipId;
+        event.credits = trade.creditsToShip2;
+        submit(event);
+    }
+
+    /**
+     * A player trade was cancelled.
+     * @param npcShipId The NPC side of the trade, or -1 if it is no longer known
+     */
+    public void tradeCancelled(Trading.TradeAgreement trade, int npcShipId, boolean playerJumped) {
+        if (!isEnabled()) {
+            return;
+        }
+        Event event = new Event("trade_cancelled");
+        event.tradeId = trade.id;
+        event.shipId = npcShipId;
+        event.credits = trade.creditsToShip2;
+        event.flag = playerJumped;
+        copyItems(event, trade);
+        submit(event);
+    }
+
+    /**
+     * An evaluation passed over a tracked ship.
+     * @param reason Short reason code, e.g. "cooldown" or "max_concurrent_trades"
+     */
+    public void shipSkipped(int shipId, String reason) {
+        if (!isEnabled()) {
+            return;
+        }
+        Event event = new Event("ship_skipped");
+        event.shipId = shipId;
+        event.reason = reason;
+        submit(event);
+    }
+
+    /**
+     * The logistics item count crossed a threshold.
+     * @param threshold Which threshold, e.g. "pause" or "cancel_all"
+     * @param rising    True when the count rose to/above the limit, false when it fell below
+     */
+    public void logisticsThreshold(String threshold, int itemCount, int limit, boolean rising) {
+        if (!isEnabled()) {
+            return;
+        }
+        Event event = new Event("logistics");
+        event.reason = threshold;
+        event.count = itemCount;
+        event.limit = limit;
+        event.flag = rising;
+        submit(event);
+    }
+
+    private static void copyItems(Event event, Trading.TradeAgreement trade) {
+        if (trade.toShip1 == null) {
+            return;
+        }
+        int count = trade.toShip1.size;
+        event.itemIds = new int[count];
+        event.quantities = new int[count];
+        for (int i = 0; i < count; i++) {
+            Trading.TradeItem item = trade.toShip1.get(i);
+            event.itemIds[i] = item.elementaryId;
+            event.quantities[i] = item.howMuch;
+        }
+    }
+
+    private void submit(Event event) {
+        if (!running) {
+            return;
+        }
+        ensureWriter();
+        if (!queue.offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Start the writer thread on the first event (no thread at all while the journal is off).
+     */
+    private void ensureWriter() {
+        if (writer != null) {
+            return;
+        }
+        synchronized (startLock) {
+            if (writer == null) {
+                Thread thread = new Thread(this::runWriter, "AutoBuyer-Journal");
+                thread.setDaemon(true);
+                thread.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(this::close, "AutoBuyer-JournalShutdown"));
+                writer = thread;
+            }
+        }
+    }
+
+    /**
+     * Stop accepting events, write out what is queued and close the file.
+     */
+    public void close() {
+        running = false;
+        Thread thread = writer;
+        if (thread != null) {
+            // No interrupt: it would close the FileChannel mid-write. The writer's poll times out
+            try {
+                thread.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void runWriter() {
+        long reportedDrops = 0;
+        while (running || !queue.isEmpty()) {
+            try {
+                Event event = running ? queue.poll(IDLE_POLL_MILLIS, java.util.concurrent.TimeUnit.MILLISECONDS)
+                                      : queue.poll();
+                if (event == null) {
+                    flushBuffer();
+                    continue;
+                }
+                append(event);
+                // Drain whatever else is queued into the same buffer before writing
+                while ((event = queue.poll()) != null) {
+                    append(event);
+                }
+                flushBuffer();
+                long drops = dropped.get();
+                if (drops != reportedDrops) {
+                    ModLog.log(ModLog.Category.GENERAL, ModLog.Level.WARN,
+                               "TradeJournal: Dropped {} event(s) - journal queue full", drops - reportedDrops);
+                    reportedDrops = drops;
+                }
+            } catch (InterruptedException e) {
+                // Not used to stop the writer (see close) - just check running again
+            } catch (Exception e) {
+                ModLog.log(ModLog.Category.GENERAL, ModLog.Level.ERROR, "TradeJournal: Exception writing journal", e);
+                closeChannel();
+                buffer.clear();
+            }
+        }
+        try {
+            flushBuffer();
+        } catch (IOException e) {
+            // JVM is exiting - nothing more to do
+        }
+        closeChannel();
+    }
+
+    /**
+     * Format one event into the buffer, writing the buffer out first if the line doesn't fit.
+     */
+    private void append(Event event) throws IOException {
+        line.setLength(0);
+        line.append("{\"ts\":").append(event.timeMillis);
+        line.append(",\"event\":\"").append(event.type).append('"');
+        if (event.tradeId >= 0) line.append(",\"trade_id\":").append(event.tradeId);
+        if (event.shipId >= 0) line.append(",\"ship_id\":").append(event.shipId);
+        if (event.shipName != null) {
+            line.append(",\"ship_name\":");
+            appendString(event.shipName);
+        }
+        if (event.credits >= 0) line.append(",\"credits\":").append(event.credits);
+        if (event.tradesWithShip >= 0) line.append(",\"trades_with_ship\":").append(event.tradesWithShip);
+        if (event.reason != null) {
+            line.append(event.type.equals("logistics") ? ",\"threshold\":" : ",\"reason\":");
+            appendString(event.reason);
+        }
+        if (event.count >= 0) line.append(",\"items_waiting\":").append(event.count);
+        if (event.limit >= 0) line.append(",\"limit\":").append(event.limit);
+        if (event.flag != null) {
+            line.append(event.type.equals("logistics") ? ",\"rising\":" : ",\"player_jumped\":").append(event.flag);
+        }
+        if (event.itemIds != null) {
+            line.append(",\"items\":[");
+            for (int i = 0; i < event.itemIds.length; i++) {
+                if (i > 0) line.append(',');
+                line.append("{\"id\":").append(event.itemIds[i]).append(",\"qty\":").append(event.quantities[i]).append('}');
+            }
+            line.append(']');
+        }
+        line.append("}\n");
+
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > buffer.remaining()) {
+            flushBuffer();
+        }
+        if (bytes.length > buffer.capacity()) {
+            writeFully(ByteBuffer.wrap(bytes)); // Oversized line: write it directly
+        } else {
+            buffer.put(bytes);
+        }
+        written.incrementAndGet();
+    }
+
+    private void appendString(String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': line.append("\\\""); break;
+                case '\\': line.append("\\\\"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case '\t': line.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+
+    private void flushBuffer() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer bytes) throws IOException {
+        if (channel == null) {
+            openChannel();
+        }
+        while (bytes.hasRemaining()) {
+            fileSize += channel.write(bytes);
+        }
+        if (fileSize >= maxFileBytes() && (fileSize >= rotationRetryBytes || System.currentTimeMillis() >= rotationRetryMillis)) {
+            rotate();
+        }
+    }
+
+    private long maxFileBytes() {
+        return (long) config.getJournalMaxFileMb() * 1024 * 1024;
+    }
+
+    private void openChannel() throws IOException {
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        File file = new File(directory, FILE_NAME);
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                   StandardOpenOption.APPEND);
+        fileSize = channel.size();
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) { }
+            channel = null;
+        }
+    }
+
+    /**
+     * Close the current file, gzip it into a timestamped segment and enforce the retention cap.
+     * Writer thread; events keep queueing meanwhile.
+     */
+    private void rotate() {
+        closeChannel();
+        File current = new File(directory, FILE_NAME);
+        String stamp = java.time.LocalDateTime.now().format(
+            java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
+        File segment = new File(directory, SEGMENT_PREFIX + stamp + SEGMENT_SUFFIX);
+        for (int n = 1; segment.exists(); n++) {
+            segment = new File(directory, SEGMENT_PREFIX + stamp + "_" + n + SEGMENT_SUFFIX);
+        }
+        File temp = new File(directory, segment.getName() + ".tmp");
+        try (java.io.InputStream in = new java.io.FileInputStream(current);
+             java.io.OutputStream out = new java.util.zip.GZIPOutputStream(new java.io.FileOutputStream(temp), 64 * 1024)) {
+            byte[] chunk = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(chunk)) > 0) {
+                out.write(chunk, 0, read);
+            }
+        } catch (IOException e) {
+            // Keep writing to the uncompressed file rather than lose events
+            ModLog.log(ModLog.Category.GENERAL, ModLog.Level.ERROR, "TradeJournal: Exception compressing journal segment", e);
+            temp.delete();
+            backOffRotation();
+            return;
+        }
+        if (!temp.renameTo(segment)) {
+            temp.delete();
+            ModLog.log(ModLog.Category.GENERAL, ModLog.Level.WARN, "TradeJournal: Could not rename {} to {}", temp.getName(), segment.getName());
+            backOffRotation();
+            return;
+        }
+        if (!current.delete() && !truncate(current)) {
+            // The segment holds these events now, but the file can't be cleared: drop the segment
+            // again, or each retry would leave another copy of the same events
+            segment.delete();
+            ModLog.log(ModLog.Category.GENERAL, ModLog.Level.WARN, "TradeJournal: Could not delete or truncate {}", current.getAbsolutePath());
+            backOffRotation();
+            return;
+        }
+        fileSize = 0;
+        rotationRetryBytes = 0;
+        rotationRetryMillis = 0;
+        ModLog.log(ModLog.Category.GENERAL, ModLog.Level.INFO, "TradeJournal: Rotated journal to {}", segment.getName());
+        enforceRetention();
+    }
+
+    /**
+     * Empty a file that couldn't be deleted (e.g. another program has it open without delete sharing).
+     */
+    private static boolean truncate(File file) {
+        try (FileChannel truncated = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            truncated.truncate(0);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Keep appending to the current file and try rotating again after another full segment or
+     * ROTATION_RETRY_MILLIS, whichever comes first.
+     */
+    private void backOffRotation() {
+        rotationRetryBytes = fileSize + maxFileBytes();
+        rotationRetryMillis = System.currentTimeMillis() + ROTATION_RETRY_MILLIS;
+        ModLog.log(ModLog.Category.GENERAL, ModLog.Level.WARN,
+                   "TradeJournal: Rotation failed - retrying at {} MB or in {} s", rotationRetryBytes / (1024 * 1024),
+                   ROTATION_RETRY_MILLIS / 1000);
+    }
+
+    /**
+     * Delete the oldest segments beyond journal_max_files (names sort by timestamp).
+     */
+    private void enforceRetention() {
+        File[] segments = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        int keep = config.getJournalMaxFiles();
+        if (segments == null || segments.length <= keep) {
+            return;
+        }
+        java.util.Arrays.sort(segments, java.util.Comparator.comparing(File::getName));
+        for (int i = 0; i < segments.length - keep; i++) {
+            if (segments[i].delete()) {
+                ModLog.log(ModLog.Category.GENERAL, ModLog.Level.INFO, "TradeJournal: Deleted old segment {}", segments[i].getName());
+            }
+        }
+    }
+}
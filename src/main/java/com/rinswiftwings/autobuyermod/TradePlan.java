@@ -0,0 +1,105 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+/**
+ * A proposed trade with one NPC ship: which items, how many, and what they should cost.
+ *
+ * DESIGN DECISIONS:
+ * - Produced by TradePlanner without touching the game; nothing is reserved yet
+ * - Records the offers generation it was planned against. The commit step only uses the lines
+ *   if the ship's offers are still the same snapshot; otherwise it rebuilds the trade from the
+ *   current offers
+ * - A plan with no lines is a probe: "try this ship the usual way". Used for new ships that
+ *   have no offers yet and for the best ship when nothing could be planned for it, so the
+ *   retry / nothing-to-purchase bookkeeping still happens on the game thread
+ */
+public final class TradePlan {
+
+    private final int shipId;
+    private final String shipName;
+    private final int offersGeneration;
+    private final int score;
+    private int[] elementaryIds = new int[4];
+    private int[] quantities = new int[4];
+    private int lineCount = 0;
+    private int totalUnits = 0;
+    private int expectedCost = 0;
+
+    public TradePlan(int shipId, String shipName, int offersGeneration, int score) {
+        this.shipId = shipId;
+        this.shipName = shipName;
+        this.offersGeneration = offersGeneration;
+        this.score = score;
+    }
+
+    void addLine(int elementaryId, int quantity, int cost) {
+        if (lineCount == elementaryIds.length) {
+            elementaryIds = java.util.Arrays.copyOf(elementaryIds, lineCount << 1);
+            quantities = java.util.Arrays.copyOf(quantities, lineCount << 1);
+        }
+        elementaryIds[lineCount] = elementaryId;
+        quantities[lineCount] = quantity;
+        lineCount++;
+        totalUnits += quantity;
+        expectedCost += cost;
+    }
+
+    public int getShipId() {
+        return shipId;
+    }
+
+    public String getShipName() {
+        return shipName;
+    }
+
+    public int getOffersGeneration() {
+        return offersGeneration;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public boolean isProbe() {
+        return lineCount == 0;
+    }
+
+    public int getLineCount() {
+        return lineCount;
+    }
+
+    public int getElementaryId(int line) {
+        return elementaryIds[line];
+    }
+
+    public int getQuantity(int line) {
+        return quantities[line];
+    }
+
+    public int getTotalUnits() {
+        return totalUnits;
+    }
+
+    public int getExpectedCost() {
+        return expectedCost;
+    }
+
+    /**
+     * Item list for logging, e.g. "ID: 16 x5, ID: 71 x3".
+     */
+    public String describeLines() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lineCount; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("ID: ").append(elementaryIds[i]).append(" x").append(quantities[i]);
+        }
+        return sb.toString();
+    }
+}
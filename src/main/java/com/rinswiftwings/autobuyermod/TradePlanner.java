@@ -0,0 +1,383 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import fi.bugbyte.spacehaven.ai.TradingHelper;
+
+/**
+ * Decides which trades to propose for one evaluation cycle, working only from a PlanningSnapshot.
+ *
+ * DESIGN DECISIONS:
+ * - Never touches game objects, so it can run on a worker thread while the game keeps going.
+ *   Reservations and world.addNewTradeAgreement() happen later, in AutoBuyerCore's commit step
+ * - Ships are scored and ranked the same way attemptBestTrade always did (indexed max-heap,
+ *   only changed items rescored after each planned trade)
+ * - At most one trade per ship per cycle. A second trade with the same ship would need fresh
+ *   offers (its stock changed), which only the game thread can fetch, so the core asks for a
+ *   follow-up cycle instead
+ * - Planning stops at the first ship nothing can be planned for and hands it back as a probe,
+ *   matching the old loop, which stopped at the first failed attempt
+ * - Scores are cached per ship between cycles, keyed by offers generation, need generation and
+ *   active trade count. Cycles that planned a trade drop the cache: rescoring changed the cached
+ *   entries against stock that only exists in this plan
+ *
+ * Not thread-safe: the core runs at most one plan at a time.
+ */
+public class TradePlanner {
+
+    /**
+     * Safety limit on trades planned per cycle (same limit the evaluation loop always had).
+     */
+    private static final int MAX_PLANS_PER_CYCLE = 20;
+
+    private final int maxUnitsPerTrade;
+
+    /**
+     * Time spent scoring each candidate ship (cache hits included).
+     */
+    private final MetricsRegistry.Histogram priorityLatency;
+
+    /**
+     * Score cache by ship ID (only read and written by the planning thread).
+     */
+    private final IntObjectMap<ShipPriority> scoreCache = new IntObjectMap<>();
+
+    public TradePlanner(int maxUnitsPerTrade, MetricsRegistry.Histogram priorityLatency) {
+        this.maxUnitsPerTrade = maxUnitsPerTrade;
+        this.priorityLatency = priorityLatency;
+    }
+
+    /**
+     * Rank the snapshot's ships and propose trades, best ship first.
+     */
+    public java.util.List<TradePlan> plan(PlanningSnapshot snapshot) {
+        java.util.List<TradePlan> plans = new java.util.ArrayList<>();
+        java.util.List<PlanningSnapshot.Candidate> candidates = snapshot.getCandidates();
+        // Work on a copy: planned trades are applied to it, the captured stock stays as it was
+        StationStockSnapshot stock = snapshot.getStock().copy();
+        int[] thresholds = snapshot.getBuyThresholds();
+
+        pruneScoreCache(candidates);
+
+        IndexedMaxHeap<ShipPriority> ranking = new IndexedMaxHeap<>(candidates.size());
+        for (PlanningSnapshot.Candidate candidate : candidates) {
+            long scoreStart = System.nanoTime();
+            ShipPriority priority = priorityFor(candidate, stock, thresholds, snapshot.getNeedGeneration());
+            priorityLatency.record(System.nanoTime() - scoreStart);
+            if (priority != null) {
+                ranking.update(candidate.shipId, priority.score, priority);
+            }
+        }
+        if (ranking.isEmpty()) {
+            return plans;
+        }
+
+        // Log which ships are being considered (helpful for debugging)
+        if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.DEBUG)) {
+            ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                       "AutoBuyerCore: [QUERY] Checking {} eligible ships for trade opportunity", ranking.size());
+            for (PlanningSnapshot.Candidate candidate : candidates) {
+                ShipPriority sp = ranking.get(candidate.shipId);
+                if (sp != null) {
+                    ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                               "AutoBuyerCore: [QUERY] Evaluating ship " + candidate.shipName + " (ID: " + candidate.shipId +
+                               ") - score: " + sp.score + ", discounted: " + sp.discountedItems +
+                               ", need value: " + sp.totalNeedValue + ", active trades: " + sp.activeTrades);
+                }
+            }
+        }
+
+        long spent = 0;
+        boolean plannedAnyTrade = false;
+        while (plans.size() < MAX_PLANS_PER_CYCLE && !ranking.isEmpty()) {
+            long creditsLeft = snapshot.getCreditsAvailable() - spent;
+            if (creditsLeft <= snapshot.getMinCreditBalance()) {
+                ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                           "AutoBuyerCore: [PLAN] Credits left ({}) at or below minimum ({}) - stopping",
+                           creditsLeft, snapshot.getMinCreditBalance());
+                break;
+            }
+
+            ShipPriority best = ranking.poll();
+            PlanningSnapshot.Candidate candidate = best.candidate;
+            TradePlan plan = new TradePlan(candidate.shipId, candidate.shipName, candidate.offersGeneration, best.score);
+
+            if (candidate.offers == null) {
+                // New ship without offers: the commit step refreshes and retries it
+                ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                           "AutoBuyerCore: [PLAN] Best ship {} (ID: {}) is a new ship without offers - probing (retry {})",
+                           candidate.shipName, candidate.shipId, candidate.newShipRetryCount + 1);
+                plans.add(plan);
+                break;
+            }
+
+            selectLines(plan, candidate.offers, stock, creditsLeft, snapshot.getMaxCreditsPerTrade(),
+                        thresholds, maxUnitsPerTrade);
+            plans.add(plan);
+            if (plan.isProbe()) {
+                // Nothing fits for the best ship - the commit step records why, as before
+                ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.DEBUG,
+                           "AutoBuyerCore: [PLAN] Nothing to plan for best ship {} (ID: {}) - stopping",
+                           candidate.shipName, candidate.shipId);
+                break;
+            }
+
+            plannedAnyTrade = true;
+            spent += plan.getExpectedCost();
+            if (ModLog.isEnabled(ModLog.Category.TRADES, ModLog.Level.DEBUG)) {
+                ModLog.log(ModLog.Category.TRADES, ModLog.Level.DEBUG,
+                           "AutoBuyerCore: [PLAN] Ship " + candidate.shipName + " (ID: " + candidate.shipId +
+                           ") - score: " + best.score + ", " + plan.getTotalUnits() + " units, ~" +
+                           plan.getExpectedCost() + " credits: " + plan.describeLines());
+            }
+
+            // Count the planned units as inbound, then rescore only the items that changed
+            for (int line = 0; line < plan.getLineCount(); line++) {
+                stock.applyPurchase(plan.getElementaryId(line), plan.getQuantity(line));
+            }
+            int[] changedIndices = stock.drainChanged();
+            for (int shipId : ranking.ids()) {
+                ShipPriority priority = ranking.get(shipId);
+                if (rescoreItems(priority, changedIndices, stock, thresholds)) {
+                    ranking.update(shipId, priority.score, priority);
+                }
+            }
+        }
+
+        if (plannedAnyTrade) {
+            scoreCache.clear();
+        }
+        return plans;
+    }
+
+    /**
+     * Fill a plan with the items to buy from one ship, best price mode first.
+     *
+     * Each line is sized with the item's price curve to the largest quantity that fits both the
+     * remaining credits and what's left of maxCreditsPerTrade. Items that don't fit at all are
+     * skipped (a cheaper one further down may still fit). Items without a price curve are skipped.
+     *
+     * Shared by the planner and by the core's direct (unplanned) trade building.
+     */
+    static void selectLines(TradePlan plan, PlanningSnapshot.OfferView offers, StationStockSnapshot stock,
+                            long creditsAvailable, int maxCreditsPerTrade, int[] thresholds, int maxUnits) {
+        TargetStockTable targets = offers.getTable();
+
+        // Eligible items in table order, bucketed by price mode priority
+        // (Discounted (0) > Neutral (1) > Markup (2) > Premium (3))
+        int[] eligible = new int[targets.size()];
+        int[] priorities = new int[targets.size()];
+        int eligibleCount = 0;
+        for (int ti = 0; ti < targets.size(); ti++) {
+            if (itemNeedValue(offers, stock, ti, thresholds) > 0) {
+                eligible[eligibleCount] = ti;
+                priorities[eligibleCount] = getTradeModePriority(offers.getMode(ti));
+                eligibleCount++;
+            }
+        }
+
+        int remainingCapacity = maxUnits;
+        long totalCost = 0;
+        for (int pass = 0; pass <= 3 && remainingCapacity > 0; pass++) {
+            for (int k = 0; k < eligibleCount && remainingCapacity > 0; k++) {
+                if (priorities[k] != pass) {
+                    continue;
+                }
+                int ti = eligible[k];
+                PriceCurve curve = offers.getCurve(ti);
+                if (curve == null) {
+                    continue;
+                }
+                int desiredQty = Math.min(Math.min(stock.getNeed(ti), offers.getQuantity(ti)), remainingCapacity);
+
+                long budget = creditsAvailable - totalCost;
+                if (maxCreditsPerTrade < Integer.MAX_VALUE) {
+                    budget = Math.min(budget, (long) maxCreditsPerTrade - totalCost);
+                }
+                int qty = curve.maxAffordable(budget, desiredQty);
+                if (qty <= 0) {
+                    continue;
+                }
+                int cost = curve.costOf(qty);
+                plan.addLine(targets.elementaryIdAt(ti), qty, cost);
+                totalCost += cost;
+                remainingCapacity -= qty;
+            }
+        }
+    }
+
+    /**
+     * Get priority value for trade mode (lower = higher priority).
+     * Discounted (0) > Neutral (1) > Markup (2) > Premium (3)
+     */
+    static int getTradeModePriority(TradingHelper.TradeItemMode mode) {
+        if (mode == null) {
+            return 1; // Neutral as default
+        }
+        switch (mode) {
+            case Discounted:
+                return 0; // Highest priority
+            case Neutral:
+                return 1;
+            case Markup:
+                return 2;
+            case Premium:
+                return 3; // Lowest priority
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Score contribution of one offered item: units we'd buy (need vs. availability) weighted
+     * by price mode (Discounted=4, Neutral=3, Markup=2, Premium=1). 0 if the item isn't eligible.
+     */
+    static int itemNeedValue(PlanningSnapshot.OfferView offers, StationStockSnapshot stock, int ti, int[] thresholds) {
+        int avail = offers.getQuantity(ti);
+        if (avail <= 0) {
+            return 0;
+        }
+
+        // Calculate need (target - current - queued) from the snapshot
+        int need = stock.getNeed(ti);
+        if (need <= 0) {
+            return 0;
+        }
+
+        // Only count if current stock percentage is below the threshold for this trade mode
+        // Example: Discounted threshold = 100% means always buy if under target
+        //          Markup threshold = 40% means only buy if stock < 40% of target
+        TradingHelper.TradeItemMode mode = offers.getMode(ti);
+        if (stock.getStockPercent(ti) >= PlanningSnapshot.buyThreshold(thresholds, mode)) {
+            return 0; // Stock too high for this markup level
+        }
+
+        // Items we need × quantity available, weighted by priority
+        return Math.min(need, avail) * (4 - getTradeModePriority(mode));
+    }
+
+    /**
+     * Score a candidate, reusing the cached score if none of its inputs changed.
+     * Returns null if the ship can't be ranked.
+     */
+    private ShipPriority priorityFor(PlanningSnapshot.Candidate candidate, StationStockSnapshot stock,
+                                     int[] thresholds, int needGeneration) {
+        if (candidate.offers == null) {
+            // New ship without offers: very low score so it's retried, but after ships with offers
+            return new ShipPriority(candidate, -1000);
+        }
+        if (candidate.offers.getTable() != stock.getTable()) {
+            return null; // Targets were reloaded between caching the offers and capturing stock
+        }
+
+        ShipPriority cached = scoreCache.get(candidate.shipId);
+        if (cached != null && cached.candidate.offersGeneration == candidate.offersGeneration &&
+            cached.needGeneration == needGeneration && cached.activeTrades == candidate.activeTrades) {
+            cached.candidate = candidate;
+            return cached;
+        }
+
+        // Analyze offers, remembering each item's contribution so it can be rescored alone later
+        TargetStockTable targets = stock.getTable();
+        ShipPriority result = new ShipPriority(candidate, 0);
+        result.needGeneration = needGeneration;
+        result.itemNeedValues = new int[targets.size()];
+        result.itemDiscounted = new boolean[targets.size()];
+        for (int ti = 0; ti < targets.size(); ti++) {
+            result.setItemContribution(ti, itemNeedValue(candidate.offers, stock, ti, thresholds),
+                                       candidate.offers.getMode(ti) == TradingHelper.TradeItemMode.Discounted);
+        }
+
+        // Higher score = better ship to trade with
+        result.recomputeScore();
+        scoreCache.put(candidate.shipId, result);
+        return result;
+    }
+
+    /**
+     * Rescore only the given items of an already-scored ship.
+     *
+     * @return true if the ship's score changed
+     */
+    private boolean rescoreItems(ShipPriority priority, int[] changedIndices, StationStockSnapshot stock,
+                                 int[] thresholds) {
+        if (priority.itemNeedValues == null) {
+            return false; // New ship without offers - its placeholder score doesn't depend on need
+        }
+        int oldScore = priority.score;
+        PlanningSnapshot.OfferView offers = priority.candidate.offers;
+        for (int ti : changedIndices) {
+            if (offers.isOffered(ti)) {
+                priority.setItemContribution(ti, itemNeedValue(offers, stock, ti, thresholds),
+                                             offers.getMode(ti) == TradingHelper.TradeItemMode.Discounted);
+            }
+        }
+        priority.recomputeScore();
+        return priority.score != oldScore;
+    }
+
+    /**
+     * Drop cached scores of ships that are no longer candidates (left, in cooldown, ...).
+     */
+    private void pruneScoreCache(java.util.List<PlanningSnapshot.Candidate> candidates) {
+        if (scoreCache.isEmpty()) {
+            return;
+        }
+        IntSet current = new IntSet();
+        for (PlanningSnapshot.Candidate candidate : candidates) {
+            current.add(candidate.shipId);
+        }
+        for (int shipId : scoreCache.keys()) {
+            if (!current.contains(shipId)) {
+                scoreCache.remove(shipId);
+            }
+        }
+    }
+
+    /**
+     * A ship's priority score and the per-item contributions it was summed from.
+     */
+    private static class ShipPriority {
+        PlanningSnapshot.Candidate candidate;
+        int score;
+        int discountedItems;
+        int totalNeedValue;
+        final int activeTrades;
+        int needGeneration = -1;
+
+        // Per-item contributions by target table index, so single items can be rescored.
+        // Null for new ships that have no offers yet (fixed placeholder score).
+        int[] itemNeedValues;
+        boolean[] itemDiscounted;
+
+        ShipPriority(PlanningSnapshot.Candidate candidate, int score) {
+            this.candidate = candidate;
+            this.score = score;
+            this.activeTrades = candidate.activeTrades;
+        }
+
+        /**
+         * Replace one item's contribution, keeping the totals in step.
+         */
+        void setItemContribution(int index, int needValue, boolean discounted) {
+            totalNeedValue += needValue - itemNeedValues[index];
+            itemNeedValues[index] = needValue;
+            // Only eligible items (needValue > 0) count towards the discounted total
+            boolean countsDiscounted = discounted && needValue > 0;
+            if (countsDiscounted != itemDiscounted[index]) {
+                discountedItems += countsDiscounted ? 1 : -1;
+                itemDiscounted[index] = countsDiscounted;
+            }
+        }
+
+        void recomputeScore() {
+            score = (discountedItems * 100) + (totalNeedValue / 10) - (activeTrades * 20);
+        }
+    }
+}
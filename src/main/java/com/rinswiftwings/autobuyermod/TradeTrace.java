@@ -0,0 +1,215 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-phase timing of each trade attempt (AutoBuyerCore.attemptAutoBuy), with a full dump of
+ * any attempt slower than slow_trade_threshold_us.
+ *
+ * Phases, in the order attemptAutoBuy runs them:
+ * - eligibility: station lookup, index reconcile, stock snapshot, credit guardrail, shouldAttempt
+ * - limits:      per-visit trade limit, concurrent trade count, nothing-to-purchase flag
+ * - cooldown:    cooldown check
+ * - offers:      offer cache lookup / refresh (bank.createOffersList on a miss)
+ * - build:       picking lines and reserving items on the NPC ship
+ * - commit:      credit claim, duplicate checks and world.addNewTradeAgreement
+ *
+ * DESIGN DECISIONS:
+ * - Spans are preallocated in a ring of RING_SIZE and reused, so tracing allocates nothing.
+ *   Each attempt costs one System.nanoTime() per phase change
+ * - A span switches phases with enter(); the time since the previous switch goes to the phase
+ *   being left. end() closes the last phase, so every early return is covered without a mark
+ *   before each one
+ * - Each span also carries the JFR AutoBuyerTradeCommit event while a recording wants it
+ *   (see FlightEvents)
+ * - Slow attempts are written to the log as one WARN line (EVALUATION category) with the ship
+ *   ID, every phase, the offer count, the lines considered and the game reservation calls
+ * - The ring keeps the last RING_SIZE attempts for on-demand inspection (describeRecent).
+ *   Attempts run on the game thread, so a slot is only reused RING_SIZE attempts later; a
+ *   reader on another thread may still see a span mid-update, which is fine for diagnostics
+ *
+ * WHY: The metrics show that trade attempts are sometimes slow, not which phase or which ship.
+ * Frame hitches need to be pinned on one of them.
+ */
+public class TradeTrace {
+
+    public static final int PHASE_ELIGIBILITY = 0;
+    public static final int PHASE_LIMITS = 1;
+    public static final int PHASE_COOLDOWN = 2;
+    public static final int PHASE_OFFERS = 3;
+    public static final int PHASE_BUILD = 4;
+    public static final int PHASE_COMMIT = 5;
+
+    private static final String[] PHASE_NAMES = { "eligibility", "limits", "cooldown", "offers", "build", "commit" };
+    private static final int RING_SIZE = 256; // power of two
+
+    /**
+     * One trade attempt.
+     */
+    public static final class Span {
+        private final long[] phaseNanos = new long[PHASE_NAMES.length];
+        private int shipId;
+        private long startMillis;
+        private long startNanos;
+        private long lastNanos;
+        private int phase;
+        private long totalNanos;
+        private boolean created;
+        private int offerCount;
+        private int itemsConsidered;
+        private int reservationCalls;
+        private int tradeItems;
+        private int tradeCredits;
+        private Object flightEvent; // JFR AutoBuyerTradeCommit, or null (see FlightEvents)
+
+        private void reset(int shipId) {
+            java.util.Arrays.fill(phaseNanos, 0);
+            this.shipId = shipId;
+            startMillis = System.currentTimeMillis();
+            startNanos = System.nanoTime();
+            lastNanos = startNanos;
+            phase = PHASE_ELIGIBILITY;
+            totalNanos = -1; // In progress
+            created = false;
+            offerCount = -1;
+            itemsConsidered = 0;
+            reservationCalls = 0;
+            tradeItems = 0;
+            tradeCredits = 0;
+            flightEvent = FlightEvents.beginTradeCommit();
+        }
+
+        /**
+         * Close the current phase and start the given one.
+         */
+        public void enter(int nextPhase) {
+            long now = System.nanoTime();
+            phaseNanos[phase] += now - lastNanos;
+            lastNanos = now;
+            phase = nextPhase;
+        }
+
+        /**
+         * Number of items the ship offers (after the offer lookup).
+         */
+        public void setOfferCount(int offerCount) {
+            this.offerCount = offerCount;
+        }
+
+        /**
+         * Trade lines tried and game reservation calls made while building.
+         */
+        public void setReservations(int itemsConsidered, int reservationCalls) {
+            this.itemsConsidered = itemsConsidered;
+            this.reservationCalls = reservationCalls;
+        }
+
+        /**
+         * The trade that was built (item types and credits), before it is committed.
+         */
+        public void setTrade(int tradeItems, int tradeCredits) {
+            this.tradeItems = tradeItems;
+            this.tradeCredits = tradeCredits;
+        }
+
+        private void describe(StringBuilder sb) {
+            sb.append("ship ").append(shipId).append(", ");
+            if (totalNanos < 0) {
+                sb.append("in progress");
+                return;
+            }
+            sb.append(totalNanos / 1000).append("us, created: ").append(created)
+              .append(", stopped in: ").append(PHASE_NAMES[phase]).append(" (");
+            for (int i = 0; i < PHASE_NAMES.length; i++) {
+                if (i > 0) sb.append(", ");
+                sb.append(PHASE_NAMES[i]).append(' ').append(phaseNanos[i] / 1000).append("us");
+            }
+            sb.append("), offers: ").append(offerCount)
+              .append(", items considered: ").append(itemsConsidered)
+              .append(", reservation calls: ").append(reservationCalls);
+            if (tradeItems > 0) {
+                sb.append(", trade: ").append(tradeItems).append(" item types for ").append(tradeCredits).append(" credits");
+            }
+        }
+    }
+
+    private final AutoBuyerConfig config;
+    private final Span[] ring = new Span[RING_SIZE];
+    private final AtomicLong next = new AtomicLong();
+    private final AtomicLong slowCount = new AtomicLong();
+
+    public TradeTrace(AutoBuyerConfig config) {
+        this.config = config;
+        for (int i = 0; i < RING_SIZE; i++) {
+            ring[i] = new Span();
+        }
+    }
+
+    /**
+     * Start tracing an attempt (in the eligibility phase).
+     */
+    public Span begin(int shipId) {
+        Span span = ring[(int) (next.getAndIncrement() & (RING_SIZE - 1))];
+        span.reset(shipId);
+        return span;
+    }
+
+    /**
+     * Finish an attempt and dump it if it was slow.
+     */
+    public void end(Span span, boolean created) {
+        long now = System.nanoTime();
+        span.phaseNanos[span.phase] += now - span.lastNanos;
+        span.lastNanos = now;
+        span.created = created;
+        span.totalNanos = now - span.startNanos;
+        FlightEvents.commitTradeCommit(span.flightEvent, span.shipId, span.tradeItems, span.tradeCredits, created);
+        span.flightEvent = null;
+
+        int thresholdMicros = config.getSlowTradeThresholdMicros();
+        if (thresholdMicros > 0 && span.totalNanos >= thresholdMicros * 1000L) {
+            slowCount.incrementAndGet();
+            if (ModLog.isEnabled(ModLog.Category.EVALUATION, ModLog.Level.WARN)) {
+                StringBuilder sb = new StringBuilder(256);
+                sb.append("AutoBuyerCore: [SLOW] Trade attempt over ").append(thresholdMicros).append("us - ");
+                span.describe(sb);
+                ModLog.log(ModLog.Category.EVALUATION, ModLog.Level.WARN, sb.toString());
+            }
+        }
+    }
+
+    /**
+     * Attempts that went over the threshold this session.
+     */
+    public long getSlowCount() {
+        return slowCount.get();
+    }
+
+    /**
+     * The most recent attempts, newest first, one line each.
+     */
+    public java.util.List<String> describeRecent(int max) {
+        long newest = next.get() - 1;
+        int count = (int) Math.min(Math.min(max, RING_SIZE), newest + 1);
+        java.util.List<String> lines = new java.util.ArrayList<>(count);
+        StringBuilder sb = new StringBuilder(256);
+        for (int i = 0; i < count; i++) {
+            Span span = ring[(int) ((newest - i) & (RING_SIZE - 1))];
+            sb.setLength(0);
+            sb.append(java.time.LocalDateTime.ofInstant(java.time.Instant.ofEpochMilli(span.startMillis),
+                                                        java.time.ZoneId.systemDefault()));
+            sb.append("  ");
+            span.describe(sb);
+            lines.add(sb.toString());
+        }
+        return lines;
+    }
+}
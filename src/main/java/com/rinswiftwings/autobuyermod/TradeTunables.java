@@ -0,0 +1,213 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import fi.bugbyte.spacehaven.ai.TradingHelper;
+
+/**
+ * Immutable set of the trade tunables: buy thresholds, credit limits and cooldown.
+ *
+ * DESIGN DECISIONS:
+ * - Never mutated after construction. AutoBuyerConfig publishes a new instance through a
+ *   volatile field (same pattern as TargetStockTable); readers grab the current reference once
+ *   and read every value from it
+ * - Changing one value means building a copy (the with* methods), so a change of several values
+ *   - from info.xml, a preset or JMX - becomes visible all at once
+ * - validate() holds the range rules, so every path that builds tunables checks them the same way
+ *
+ * WHY: These values used to be separate plain fields. An evaluation copying the thresholds
+ * while a config load was halfway through could plan with a mix of old and new values, and
+ * nothing guaranteed other threads saw the new values at all.
+ */
+public final class TradeTunables {
+
+    /**
+     * Maximum markup thresholds for buying (percentage of target stock).
+     * Only buy items at each markup level if stock is below this percentage of target stock.
+     *
+     * WHY THRESHOLD SYSTEM: Provides fine-grained control over buying behavior:
+     * - Discounted (100%): Always buy if under target (good price, no reason to wait)
+     * - Normal (70%): Buy if stock < 70% of target (normal price, buy when getting low)
+     * - Markup (40%): Only buy if stock < 40% of target (expensive, only when desperate)
+     * - Premium (20%): Only buy if stock < 20% of target (very expensive, last resort)
+     *
+     * This allows users to be more selective about expensive items while still buying
+     * discounted items aggressively.
+     *
+     * Example: discountBuyThreshold = 100 means always buy Discounted items if under target
+     *          markupBuyThreshold = 40 means only buy Markup items if stock < 40% of target
+     */
+    private final int discountBuyThreshold;
+    private final int normalBuyThreshold;
+    private final int markupBuyThreshold;
+    private final int premiumBuyThreshold;
+
+    /**
+     * Maximum credits per trade.
+     * WHY: Prevents single trades from consuming too many credits. Useful for:
+     * - Early game: Keep trades small to preserve credits
+     * - Budget control: Limit spending per trade
+     * - Risk management: Don't put all credits in one trade
+     *
+     * Integer.MAX_VALUE (0 in config) for unlimited.
+     */
+    private final int maxCreditsPerTrade;
+
+    /**
+     * Cooldown between attempts per ship (in ticks of 1/60 second, 0 = disabled).
+     * WHY: Prevents too-frequent trade attempts with the same ship. This:
+     * - Reduces API calls (better performance)
+     * - Prevents spam if ship has no items we need
+     * - Gives game time to process previous trades
+     *
+     * 120 ticks ≈ 2 seconds of real time (see TimingWheel) - the cooldown keeps running while the game is paused
+     */
+    private final int cooldownTicks;
+
+    /**
+     * Minimum credit balance required to initiate trades.
+     * WHY: Maintains a credit reserve for emergencies. This prevents the mod from
+     * spending all credits, leaving the player with no buffer for:
+     * - Manual trades
+     * - Emergency purchases
+     * - Other mods or game features
+     *
+     * Trades are skipped if credits are at or below this amount.
+     */
+    private final int minCreditBalance;
+
+    public static final TradeTunables DEFAULTS = new TradeTunables(100, 70, 40, 20, 2000, 0, 10000);
+
+    public TradeTunables(int discountBuyThreshold, int normalBuyThreshold, int markupBuyThreshold,
+                         int premiumBuyThreshold, int maxCreditsPerTrade, int cooldownTicks,
+                         int minCreditBalance) {
+        this.discountBuyThreshold = discountBuyThreshold;
+        this.normalBuyThreshold = normalBuyThreshold;
+        this.markupBuyThreshold = markupBuyThreshold;
+        this.premiumBuyThreshold = premiumBuyThreshold;
+        this.maxCreditsPerTrade = maxCreditsPerTrade;
+        this.cooldownTicks = cooldownTicks;
+        this.minCreditBalance = minCreditBalance;
+    }
+
+    /**
+     * @return null if every value is in range, else what is wrong
+     */
+    public String validate() {
+        if (!isPercent(discountBuyThreshold) || !isPercent(normalBuyThreshold) ||
+            !isPercent(markupBuyThreshold) || !isPercent(premiumBuyThreshold)) {
+            return "buy thresholds must be 0-100";
+        }
+        if (maxCreditsPerTrade <= 0) {
+            return "max credits per trade must be > 0";
+        }
+        if (cooldownTicks < 0) {
+            return "cooldown ticks must be >= 0";
+        }
+        if (minCreditBalance < 0) {
+            return "min credit balance must be >= 0";
+        }
+        return null;
+    }
+
+    private static boolean isPercent(int value) {
+        return value >= 0 && value <= 100;
+    }
+
+    /**
+     * The buy threshold for a trade mode (a null mode is treated as Neutral).
+     */
+    public int getBuyThreshold(TradingHelper.TradeItemMode mode) {
+        if (mode == null) {
+            return normalBuyThreshold;
+        }
+        switch (mode) {
+            case Discounted:
+                return discountBuyThreshold;
+            case Neutral:
+                return normalBuyThreshold;
+            case Markup:
+                return markupBuyThreshold;
+            case Premium:
+                return premiumBuyThreshold;
+            default:
+                return normalBuyThreshold;
+        }
+    }
+
+    public int getDiscountBuyThreshold() {
+        return discountBuyThreshold;
+    }
+
+    public int getNormalBuyThreshold() {
+        return normalBuyThreshold;
+    }
+
+    public int getMarkupBuyThreshold() {
+        return markupBuyThreshold;
+    }
+
+    public int getPremiumBuyThreshold() {
+        return premiumBuyThreshold;
+    }
+
+    public int getMaxCreditsPerTrade() {
+        return maxCreditsPerTrade;
+    }
+
+    public int getCooldownTicks() {
+        return cooldownTicks;
+    }
+
+    public int getMinCreditBalance() {
+        return minCreditBalance;
+    }
+
+    public TradeTunables withDiscountBuyThreshold(int value) {
+        return new TradeTunables(value, normalBuyThreshold, markupBuyThreshold, premiumBuyThreshold,
+                                 maxCreditsPerTrade, cooldownTicks, minCreditBalance);
+    }
+
+    public TradeTunables withNormalBuyThreshold(int value) {
+        return new TradeTunables(discountBuyThreshold, value, markupBuyThreshold, premiumBuyThreshold,
+                                 maxCreditsPerTrade, cooldownTicks, minCreditBalance);
+    }
+
+    public TradeTunables withMarkupBuyThreshold(int value) {
+        return new TradeTunables(discountBuyThreshold, normalBuyThreshold, value, premiumBuyThreshold,
+                                 maxCreditsPerTrade, cooldownTicks, minCreditBalance);
+    }
+
+    public TradeTunables withPremiumBuyThreshold(int value) {
+        return new TradeTunables(discountBuyThreshold, normalBuyThreshold, markupBuyThreshold, value,
+                                 maxCreditsPerTrade, cooldownTicks, minCreditBalance);
+    }
+
+    public TradeTunables withMaxCreditsPerTrade(int value) {
+        return new TradeTunables(discountBuyThreshold, normalBuyThreshold, markupBuyThreshold, premiumBuyThreshold,
+                                 value, cooldownTicks, minCreditBalance);
+    }
+
+    public TradeTunables withCooldownTicks(int value) {
+        return new TradeTunables(discountBuyThreshold, normalBuyThreshold, markupBuyThreshold, premiumBuyThreshold,
+                                 maxCreditsPerTrade, value, minCreditBalance);
+    }
+
+    public TradeTunables withMinCreditBalance(int value) {
+        return new TradeTunables(discountBuyThreshold, normalBuyThreshold, markupBuyThreshold, premiumBuyThreshold,
+                                 maxCreditsPerTrade, cooldownTicks, value);
+    }
+
+    @Override
+    public String toString() {
+        return "Discount=" + discountBuyThreshold + "%, Normal=" + normalBuyThreshold + "%, Markup=" +
+               markupBuyThreshold + "%, Premium=" + premiumBuyThreshold + "%, max credits per trade " +
+               maxCreditsPerTrade + ", cooldown " + cooldownTicks + " ticks, min credit balance " + minCreditBalance;
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/**
+ * ConcurrentIntObjectMap against java.util.HashMap as the oracle, plus its copy-on-write
+ * guarantees: forEach sees one table, and concurrent writers never lose an entry.
+ */
+public class ConcurrentIntObjectMapTest {
+
+    @Test
+    public void randomOperationsMatchHashMap() {
+        java.util.Random random = new java.util.Random(4);
+        ConcurrentIntObjectMap<String> map = new ConcurrentIntObjectMap<>();
+        java.util.Map<Integer, String> oracle = new java.util.HashMap<>();
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(100) - 30;
+            int op = random.nextInt(10);
+            if (op < 4) {
+                String value = "v" + i;
+                assertEquals(oracle.computeIfAbsent(key, k -> value), map.computeIfAbsent(key, k -> value));
+            } else if (op < 6) {
+                assertEquals(oracle.remove(key), map.remove(key));
+            } else if (op < 8) {
+                String expected = random.nextBoolean() ? oracle.get(key) : "other";
+                assertEquals(oracle.remove(key, expected), map.remove(key, expected));
+            } else {
+                assertEquals(oracle.containsKey(key), map.containsKey(key));
+                assertEquals(oracle.get(key), map.get(key));
+            }
+            if (i % 500 == 0) {
+                assertSameContents(oracle, map);
+            }
+        }
+        assertSameContents(oracle, map);
+    }
+
+    @Test
+    public void factoryRunsOnlyForNewEntries() {
+        ConcurrentIntObjectMap<Object> map = new ConcurrentIntObjectMap<>();
+        AtomicInteger calls = new AtomicInteger();
+        Object first = map.computeIfAbsent(7, k -> { calls.incrementAndGet(); return new Object(); });
+        assertSame(first, map.computeIfAbsent(7, k -> { calls.incrementAndGet(); return new Object(); }));
+        assertEquals(1, calls.get());
+        assertFalse("a different value must not be removed", map.remove(7, new Object()));
+        assertTrue(map.remove(7, first));
+        assertNull(map.get(7));
+    }
+
+    @Test
+    public void forEachSeesTheTableFromItsStart() {
+        ConcurrentIntObjectMap<Integer> map = new ConcurrentIntObjectMap<>();
+        for (int key = 0; key < 50; key++) {
+            final int value = key;
+            map.computeIfAbsent(key, k -> value);
+        }
+        java.util.Map<Integer, Integer> visited = new java.util.HashMap<>();
+        map.forEach((key, value) -> {
+            visited.put(key, value);
+            map.remove(key);              // Releasing while walking must not disturb the walk
+            map.computeIfAbsent(key + 1000, k -> -1);
+        });
+        assertEquals(50, visited.size());
+        for (int key = 0; key < 50; key++) {
+            assertEquals(Integer.valueOf(key), visited.get(key));
+            assertFalse(map.containsKey(key));
+        }
+        assertEquals(50, map.size());
+    }
+
+    @Test
+    public void concurrentWritersLoseNothing() throws Exception {
+        final int threads = 8;
+        final int keysPerThread = 2000;
+        ConcurrentIntObjectMap<Integer> map = new ConcurrentIntObjectMap<>();
+        java.util.concurrent.CountDownLatch start = new java.util.concurrent.CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int base = t * keysPerThread;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < keysPerThread; i++) {
+                    final int key = base + i;
+                    map.computeIfAbsent(key, k -> key);
+                    if (i % 2 == 1) {
+                        map.remove(key - 1); // Remove the previous (even) key again
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(threads * keysPerThread / 2, map.size());
+        for (int key = 0; key < threads * keysPerThread; key++) {
+            assertEquals(key % 2 == 1, map.containsKey(key));
+        }
+    }
+
+    private static <V> void assertSameContents(java.util.Map<Integer, V> oracle, ConcurrentIntObjectMap<V> map) {
+        assertEquals(oracle.size(), map.size());
+        assertEquals(oracle.isEmpty(), map.isEmpty());
+        int[] keys = map.keys();
+        java.util.Arrays.sort(keys);
+        assertArrayEquals(oracle.keySet().stream().mapToInt(Integer::intValue).sorted().toArray(), keys);
+        java.util.Map<Integer, V> visited = new java.util.HashMap<>();
+        map.forEach(visited::put);
+        assertEquals(oracle, visited);
+    }
+}
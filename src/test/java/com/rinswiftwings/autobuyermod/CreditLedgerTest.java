@@ -0,0 +1,80 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class CreditLedgerTest {
+
+    @Test
+    public void claimsCountAgainstTheBank() {
+        CreditLedger ledger = new CreditLedger();
+        assertTrue(ledger.tryClaim(1000, 600));
+        assertFalse("only 400 left after the first claim", ledger.tryClaim(1000, 500));
+        assertTrue(ledger.tryClaim(1000, 400));
+        assertEquals(1000, ledger.getPending());
+        ledger.release(600);
+        assertTrue(ledger.tryClaim(1000, 600));
+        ledger.release(600);
+        ledger.release(400);
+        assertEquals(0, ledger.getPending());
+    }
+
+    @Test
+    public void contendedClaimsNeverExceedTheBank() throws Exception {
+        final int bank = 4000;
+        final int threads = 8;
+        final int rounds = 50000;
+        CreditLedger ledger = new CreditLedger();
+        // Credits held by successful claims right now. Added after a claim succeeds and removed
+        // before its release, so it never exceeds what the ledger itself has pending
+        AtomicLong held = new AtomicLong();
+        AtomicLong maxHeld = new AtomicLong();
+        AtomicInteger granted = new AtomicInteger();
+        java.util.concurrent.CountDownLatch start = new java.util.concurrent.CountDownLatch(1);
+
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            workers[t] = new Thread(() -> {
+                java.util.Random random = new java.util.Random(seed);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < rounds; i++) {
+                    int amount = 1000 + random.nextInt(2000);
+                    if (ledger.tryClaim(bank, amount)) {
+                        granted.incrementAndGet();
+                        maxHeld.accumulateAndGet(held.addAndGet(amount), Math::max);
+                        held.addAndGet(-amount);
+                        ledger.release(amount);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertTrue(granted.get() > 0);
+        assertTrue("held " + maxHeld.get() + " of " + bank, maxHeld.get() <= bank);
+        assertEquals(0, ledger.getPending());
+    }
+}
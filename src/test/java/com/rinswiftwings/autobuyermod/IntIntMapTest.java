@@ -0,0 +1,86 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * IntIntMap against java.util.HashMap as the oracle. A small key range keeps probe chains long,
+ * so removals exercise the backward shift; MIN_VALUE, 0 and -1 check that no key is reserved.
+ */
+public class IntIntMapTest {
+
+    private static final int[] EDGE_KEYS = { 0, -1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE };
+
+    @Test
+    public void randomOperationsMatchHashMap() {
+        java.util.Random random = new java.util.Random(4);
+        IntIntMap map = new IntIntMap();
+        java.util.Map<Integer, Integer> oracle = new java.util.HashMap<>();
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(10) == 0 ? EDGE_KEYS[random.nextInt(EDGE_KEYS.length)] : random.nextInt(300) - 100;
+            int op = random.nextInt(10);
+            if (op < 4) {
+                int value = random.nextInt();
+                map.put(key, value);
+                oracle.put(key, value);
+            } else if (op < 6) {
+                int delta = random.nextInt(100) - 50;
+                assertEquals(oracle.merge(key, delta, Integer::sum).intValue(), map.addTo(key, delta));
+            } else if (op < 9) {
+                assertEquals(oracle.remove(key) != null, map.remove(key));
+            } else {
+                assertEquals(oracle.containsKey(key), map.containsKey(key));
+                assertEquals(oracle.getOrDefault(key, -7).intValue(), map.get(key, -7));
+            }
+            if (i % 1000 == 0) {
+                assertSameContents(oracle, map);
+            }
+        }
+        assertSameContents(oracle, map);
+    }
+
+    @Test
+    public void growsAndShrinksThroughResizes() {
+        IntIntMap map = new IntIntMap();
+        java.util.Map<Integer, Integer> oracle = new java.util.HashMap<>();
+        for (int key = -5000; key < 5000; key++) {
+            map.put(key * 31, key);
+            oracle.put(key * 31, key);
+        }
+        assertSameContents(oracle, map);
+        for (int key = -5000; key < 5000; key += 2) {
+            assertTrue(map.remove(key * 31));
+            oracle.remove(key * 31);
+        }
+        assertSameContents(oracle, map);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(31));
+        assertEquals(0, map.keys().length);
+        map.put(31, 1);
+        assertEquals(1, map.get(31, 0));
+    }
+
+    private static void assertSameContents(java.util.Map<Integer, Integer> oracle, IntIntMap map) {
+        assertEquals(oracle.size(), map.size());
+        assertEquals(oracle.isEmpty(), map.isEmpty());
+        int[] keys = map.keys();
+        java.util.Arrays.sort(keys);
+        assertArrayEquals(oracle.keySet().stream().mapToInt(Integer::intValue).sorted().toArray(), keys);
+        for (java.util.Map.Entry<Integer, Integer> entry : oracle.entrySet()) {
+            assertEquals(entry.getValue().intValue(), map.get(entry.getKey(), ~entry.getValue()));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * IntObjectMap against java.util.HashMap as the oracle, including copy() independence.
+ */
+public class IntObjectMapTest {
+
+    private static final int[] EDGE_KEYS = { 0, -1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE };
+
+    @Test
+    public void randomOperationsMatchHashMap() {
+        java.util.Random random = new java.util.Random(4);
+        IntObjectMap<String> map = new IntObjectMap<>();
+        java.util.Map<Integer, String> oracle = new java.util.HashMap<>();
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(10) == 0 ? EDGE_KEYS[random.nextInt(EDGE_KEYS.length)] : random.nextInt(300) - 100;
+            int op = random.nextInt(10);
+            if (op < 5) {
+                String value = "v" + random.nextInt(1000);
+                assertEquals(oracle.put(key, value), map.put(key, value));
+            } else if (op < 8) {
+                assertEquals(oracle.remove(key), map.remove(key));
+            } else {
+                assertEquals(oracle.containsKey(key), map.containsKey(key));
+                assertEquals(oracle.get(key), map.get(key));
+            }
+            if (i % 1000 == 0) {
+                assertSameContents(oracle, map);
+            }
+        }
+        assertSameContents(oracle, map);
+    }
+
+    @Test
+    public void growsAndShrinksThroughResizes() {
+        IntObjectMap<Integer> map = new IntObjectMap<>(2);
+        java.util.Map<Integer, Integer> oracle = new java.util.HashMap<>();
+        for (int key = -5000; key < 5000; key++) {
+            assertNull(map.put(key * 31, key));
+            oracle.put(key * 31, key);
+        }
+        assertSameContents(oracle, map);
+        for (int key = -5000; key < 5000; key += 2) {
+            assertEquals(Integer.valueOf(key), map.remove(key * 31));
+            oracle.remove(key * 31);
+        }
+        assertSameContents(oracle, map);
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(31));
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        java.util.Map<Integer, String> oracle = new java.util.HashMap<>();
+        for (int key = 0; key < 100; key++) {
+            map.put(key, "a" + key);
+            oracle.put(key, "a" + key);
+        }
+        IntObjectMap<String> copy = map.copy();
+        for (int key = 0; key < 100; key += 3) {
+            map.remove(key);
+            map.put(key + 1000, "b");
+        }
+        assertSameContents(oracle, copy);
+        String value = copy.get(5);
+        assertSame(value, map.get(5)); // Values are shared, not cloned
+    }
+
+    private static <V> void assertSameContents(java.util.Map<Integer, V> oracle, IntObjectMap<V> map) {
+        assertEquals(oracle.size(), map.size());
+        assertEquals(oracle.isEmpty(), map.isEmpty());
+        int[] keys = map.keys();
+        java.util.Arrays.sort(keys);
+        assertArrayEquals(oracle.keySet().stream().mapToInt(Integer::intValue).sorted().toArray(), keys);
+        for (java.util.Map.Entry<Integer, V> entry : oracle.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * IntSet against java.util.HashSet as the oracle.
+ */
+public class IntSetTest {
+
+    private static final int[] EDGE_KEYS = { 0, -1, 1, Integer.MIN_VALUE, Integer.MAX_VALUE };
+
+    @Test
+    public void randomOperationsMatchHashSet() {
+        java.util.Random random = new java.util.Random(4);
+        IntSet set = new IntSet();
+        java.util.Set<Integer> oracle = new java.util.HashSet<>();
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(10) == 0 ? EDGE_KEYS[random.nextInt(EDGE_KEYS.length)] : random.nextInt(300) - 100;
+            int op = random.nextInt(10);
+            if (op < 5) {
+                assertEquals(oracle.add(key), set.add(key));
+            } else if (op < 8) {
+                assertEquals(oracle.remove(key), set.remove(key));
+            } else {
+                assertEquals(oracle.contains(key), set.contains(key));
+            }
+            if (i % 1000 == 0) {
+                assertSameContents(oracle, set);
+            }
+        }
+        assertSameContents(oracle, set);
+    }
+
+    @Test
+    public void growsAndShrinksThroughResizes() {
+        IntSet set = new IntSet();
+        java.util.Set<Integer> oracle = new java.util.HashSet<>();
+        for (int key = -5000; key < 5000; key++) {
+            assertTrue(set.add(key * 31));
+            oracle.add(key * 31);
+        }
+        assertSameContents(oracle, set);
+        for (int key = -5000; key < 5000; key += 2) {
+            assertTrue(set.remove(key * 31));
+            oracle.remove(key * 31);
+        }
+        assertSameContents(oracle, set);
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(31));
+        assertTrue(set.add(31));
+    }
+
+    private static void assertSameContents(java.util.Set<Integer> oracle, IntSet set) {
+        assertEquals(oracle.size(), set.size());
+        assertEquals(oracle.isEmpty(), set.isEmpty());
+        for (int key : oracle) {
+            assertTrue(set.contains(key));
+        }
+        // IntSet has no iteration; probe the whole range the random test draws from
+        for (int key = -100; key < 200; key++) {
+            assertEquals(oracle.contains(key), set.contains(key));
+        }
+    }
+}
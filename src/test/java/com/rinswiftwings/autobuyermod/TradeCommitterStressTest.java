@@ -0,0 +1,208 @@
+/**
+ * ⚠️ IMPORTANT: PACKAGE NAMING CONVENTION
+ *
+ * This package name (com.rinswiftwings.autobuyermod) is an EXAMPLE for this practice mod.
+ *
+ * WHEN CREATING YOUR OWN MOD, YOU MUST change this to your own unique package name.
+ * See the package declaration in AutoBuyerCore.java for detailed instructions.
+ */
+package com.rinswiftwings.autobuyermod;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+/**
+ * Drives TradeCommitter from many threads against a stand-in bank and world, and checks the
+ * invariants trade creation relies on: at most 4 open trades and 8 trades per visit per ship,
+ * no trade ID created twice, and never more credits reserved than the bank had.
+ *
+ * The stand-ins are deliberately not thread-safe (like the game's bank and trade list): a
+ * reserve is a read, a pause and a write. Without the committer's game mutation lock, updates
+ * get lost and the credit totals below stop adding up.
+ */
+public class TradeCommitterStressTest {
+
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 20000;
+    private static final int SHIPS = 24;
+    private static final int STARTING_CREDITS = 100000; // Runs out before every ship reaches 8 trades
+
+    /**
+     * Bank, trade list and per-ship counters of the stand-in world.
+     */
+    private static final class FakeWorld {
+        int credits = STARTING_CREDITS; // Changed under the game mutation lock only (reads are racy, as in the game)
+        final java.util.Queue<int[]> openTrades = new java.util.concurrent.ConcurrentLinkedQueue<>(); // {tradeId, shipId}
+        final AtomicIntegerArray active = new AtomicIntegerArray(SHIPS);
+        final AtomicIntegerArray createdThisVisit = new AtomicIntegerArray(SHIPS);
+        final AtomicInteger maxActiveSeen = new AtomicInteger();
+        final AtomicInteger duplicatesSeen = new AtomicInteger();
+        final AtomicInteger overspends = new AtomicInteger();
+        final AtomicLong spent = new AtomicLong();
+        final java.util.Set<Integer> liveTradeIds = java.util.concurrent.ConcurrentHashMap.newKeySet();
+
+        void reserve(int amount) {
+            int before = credits;
+            Thread.yield(); // Widen the window a missing lock would leave open
+            if (before < amount) {
+                overspends.incrementAndGet();
+            }
+            credits = before - amount;
+        }
+    }
+
+    private static class FakeAttempt implements TradeCommitter.Attempt {
+        final FakeWorld world;
+        final int shipId;
+        final int tradeId;
+        final int cost;
+
+        FakeAttempt(FakeWorld world, int shipId, int tradeId, int cost) {
+            this.world = world;
+            this.shipId = shipId;
+            this.tradeId = tradeId;
+            this.cost = cost;
+        }
+
+        @Override
+        public int getCreditsAvailable() {
+            return world.credits;
+        }
+
+        @Override
+        public int getActiveTradeCount() {
+            return world.active.get(shipId);
+        }
+
+        @Override
+        public int getTradesCreatedThisVisit() {
+            return world.createdThisVisit.get(shipId);
+        }
+
+        @Override
+        public void apply() {
+            world.reserve(cost);
+            if (!world.liveTradeIds.add(tradeId)) {
+                world.duplicatesSeen.incrementAndGet();
+            }
+            int active = world.active.incrementAndGet(shipId);
+            world.maxActiveSeen.accumulateAndGet(active, Math::max);
+            world.spent.addAndGet(cost);
+            world.openTrades.add(new int[] { tradeId, shipId });
+        }
+
+        @Override
+        public void created() {
+            world.createdThisVisit.incrementAndGet(shipId);
+        }
+    }
+
+    @Test
+    public void duplicateAndFailedTradesReleaseNothingTwice() {
+        TradeCommitter committer = new TradeCommitter();
+        FakeWorld world = new FakeWorld();
+        assertEquals(TradeCommitter.CREATED, committer.commit(1, 42, 100, new FakeAttempt(world, 1, 42, 100)));
+        assertEquals(TradeCommitter.DUPLICATE_TRADE_ID, committer.commit(2, 42, 100, new FakeAttempt(world, 2, 42, 100)));
+        committer.removeTradeId(42);
+        assertEquals(TradeCommitter.INSUFFICIENT_CREDITS,
+                     committer.commit(2, 43, STARTING_CREDITS, new FakeAttempt(world, 2, 43, STARTING_CREDITS)));
+
+        // A trade whose game call fails must not keep its ID or its credit claim
+        FakeAttempt failing = new FakeAttempt(world, 3, 44, 100) {
+            @Override
+            public void apply() {
+                throw new IllegalStateException("game refused the trade");
+            }
+        };
+        try {
+            committer.commit(3, 44, 100, failing);
+        } catch (IllegalStateException expected) {
+            // Passed on to the caller
+        }
+        assertEquals(TradeCommitter.CREATED, committer.commit(3, 44, 100, new FakeAttempt(world, 3, 44, 100)));
+        assertEquals(0, committer.getPendingCredits());
+        assertEquals(STARTING_CREDITS - 200, world.credits);
+    }
+
+    @Test
+    public void concurrentCommitsKeepLimitsAndCredits() throws Exception {
+        TradeCommitter committer = new TradeCommitter();
+        FakeWorld world = new FakeWorld();
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger[] results = new AtomicInteger[4];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = new AtomicInteger();
+        }
+        java.util.concurrent.CountDownLatch start = new java.util.concurrent.CountDownLatch(1);
+        java.util.concurrent.atomic.AtomicBoolean running = new java.util.concurrent.atomic.AtomicBoolean(true);
+
+        // Trades complete in the background, freeing slots (like the trade-done hook)
+        Thread completer = new Thread(() -> {
+            while (running.get()) {
+                int[] trade = world.openTrades.poll();
+                if (trade == null) {
+                    Thread.yield();
+                    continue;
+                }
+                world.liveTradeIds.remove(trade[0]);
+                world.active.decrementAndGet(trade[1]);
+                committer.removeTradeId(trade[0]);
+            }
+        });
+
+        Thread[] workers = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int seed = t;
+            workers[t] = new Thread(() -> {
+                java.util.Random random = new java.util.Random(seed);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    int shipId = random.nextInt(SHIPS);
+                    // Small ID range so threads collide on the same trade ID now and then
+                    int tradeId = random.nextInt(512);
+                    int cost = 1 + random.nextInt(2000);
+                    int result = committer.commit(shipId, tradeId, cost, new FakeAttempt(world, shipId, tradeId, cost));
+                    results[result].incrementAndGet();
+                    if (result == TradeCommitter.CREATED) {
+                        created.incrementAndGet();
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        completer.start();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        running.set(false);
+        completer.join();
+
+        assertTrue("max " + TradeCommitter.MAX_CONCURRENT_TRADES + " open trades per ship, saw " + world.maxActiveSeen.get(),
+                   world.maxActiveSeen.get() <= TradeCommitter.MAX_CONCURRENT_TRADES);
+        for (int ship = 0; ship < SHIPS; ship++) {
+            assertTrue("ship " + ship + " created " + world.createdThisVisit.get(ship) + " trades this visit",
+                       world.createdThisVisit.get(ship) <= TradeCommitter.MAX_TRADES_PER_VISIT);
+        }
+        assertEquals("no trade ID may be live twice", 0, world.duplicatesSeen.get());
+        assertEquals("no reserve may exceed the credits", 0, world.overspends.get());
+        assertEquals("every reserve must be accounted for", STARTING_CREDITS - world.spent.get(), world.credits);
+        assertTrue(world.credits >= 0);
+        assertEquals("all claims released", 0, committer.getPendingCredits());
+
+        // The run must actually have exercised every path
+        assertTrue("some trades should have been created", created.get() > 0);
+        assertTrue("the limits should have been hit", results[TradeCommitter.LIMIT_REACHED].get() > 0);
+        assertTrue("credits should have run out", results[TradeCommitter.INSUFFICIENT_CREDITS].get() > 0);
+    }
+}